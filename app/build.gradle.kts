@@ -31,6 +31,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Robolectric tests inflate the real layouts
+        unitTests.isIncludeAndroidResources = true
+    }
 }
 
 dependencies {
@@ -43,6 +47,9 @@ dependencies {
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
 
+    // OkHttp for the shared HTTP client (connection pool, response cache, gzip)
+    implementation("com.squareup.okhttp3:okhttp:3.14.9")
+
     // RecyclerView for displaying lists
     implementation("androidx.recyclerview:recyclerview:1.3.2")
 
@@ -52,7 +59,12 @@ dependencies {
     // SwipeRefreshLayout for pull-to-refresh
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
 
+    // Installs src/main/baseline-prof.txt, so the startup path is compiled ahead of time
+    // on devices that did not get the app from the Play Store
+    implementation(libs.profileinstaller)
+
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package com.miun.restaurantbooking;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.os.Trace;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -9,28 +15,61 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.miun.restaurantbooking.metrics.Metrics;
+import com.miun.restaurantbooking.metrics.MetricsExporter;
 import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
 import com.miun.restaurantbooking.repository.BookingRepository;
+import com.miun.restaurantbooking.repository.BookingSearch;
+import com.miun.restaurantbooking.repository.PrefetchScheduler;
 import com.miun.restaurantbooking.ui.BookingAdapter;
-
+import com.miun.restaurantbooking.ui.BookingListSetup;
+import com.miun.restaurantbooking.ui.BookingRowPipeline;
+import com.miun.restaurantbooking.util.AppExecutors;
+import com.miun.restaurantbooking.util.ConnectivityNetworkState;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main activity that displays today's bookings.
+ * <p>
+ * On a cold start the bookings last shown today are read from a snapshot on disk while the
+ * HTTP client is built in the background, and the server is only asked once they are shown.
+ * The startup is traced in sections and reported fully drawn when the first bookings are in
+ * the list, so it can be measured with a startup benchmark; the app's baseline profile
+ * covers the same path.
  */
 public class  MainActivity extends AppCompatActivity {
 
+    private static final String METRICS_TAG = "BookingMetrics";
+    private static final long METRICS_EXPORT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long METRICS_FILE_MAX_BYTES = 256 * 1024;
+    private static final long URGENCY_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
 
     private RecyclerView recyclerView;
     private BookingAdapter adapter;
     private TextView emptyStateText;
     private BookingRepository repository;
+    private BookingSearch search;
+    private BookingRowPipeline rowPipeline;
+    private ScheduledFuture<?> urgencyRefresh;
+    private PrefetchScheduler prefetchScheduler;
+    private ScheduledFuture<?> metricsExport;
+    private long startupTimer;
+    private boolean firstDataShown;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Startup sections show up in system traces and startup benchmarks
+        Trace.beginSection("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
@@ -40,6 +79,12 @@ public class  MainActivity extends AppCompatActivity {
             return insets;
         });
 
+        // Record where refreshes spend their time in debug builds, and log it every minute
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            startMetricsExport();
+        }
+        startupTimer = Metrics.getInstance().startTimer();
+
         // TODO: Initialize views
 
         // Initialize RecyclerView
@@ -51,50 +96,130 @@ public class  MainActivity extends AppCompatActivity {
 
         // TODO: Initialize repository
         // Initialize repository
-        repository = new BookingRepository();
+        Trace.beginSection("BookingRepository.init");
+        repository = new BookingRepository(this);
+        Trace.endSection();
+
+        // Warm the cache with the days around the shown one in the background
+        prefetchScheduler = new PrefetchScheduler(repository::prefetchBookingsForDate,
+                new ConnectivityNetworkState(this), Clock.systemDefaultZone());
+        prefetchScheduler.start(AppExecutors.getInstance(), PrefetchScheduler.DEFAULT_POLL_MILLIS);
 
         // TODO: Setup RecyclerView
         // Create the adapter
         adapter = new BookingAdapter();
 
-        // Set a layout manager for vertical scrolling
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        // Attach the adapter with a layout manager, view cache and recycled row pool tuned for flings
+        BookingListSetup.configure(recyclerView, adapter, BookingListSetup.createSharedPool());
+
+        // Format the rows in the background, reusing those of unchanged bookings
+        rowPipeline = new BookingRowPipeline(AppExecutors.getInstance(), Clock.systemDefaultZone(),
+                adapter::setRows);
+        // Mark guests about to arrive as time passes
+        urgencyRefresh = AppExecutors.getInstance().scheduler().scheduleWithFixedDelay(rowPipeline::refresh,
+                URGENCY_REFRESH_MILLIS, URGENCY_REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+
+        // Search the loaded bookings as the host types
+        search = new BookingSearch(AppExecutors.getInstance(), BookingSearch.DEFAULT_DEBOUNCE_MILLIS,
+                (results, filter) -> {
+                    showEmptyState(results.isEmpty());
+                    rowPipeline.submit(results);
+                });
+        EditText searchField = findViewById(R.id.editSearch);
+        searchField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
 
-        // Attach the adapter to the RecyclerView
-        recyclerView.setAdapter(adapter);
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                prefetchScheduler.onUserActivity();
+                search.setFilter(new BookingFilter().setText(s.toString()));
+            }
+        });
         // TODO: Load today's bookings
         // Load today's bookings
         loadTodaysBookings();
+        Trace.endSection();
+    }
 
+    @Override
+    protected void onDestroy() {
+        // Cancel outstanding requests so no callbacks reach a destroyed activity
+        prefetchScheduler.stop();
+        if (metricsExport != null) {
+            metricsExport.cancel(false);
+        }
+        repository.close();
+        search.close();
+        urgencyRefresh.cancel(false);
+        rowPipeline.close();
+        super.onDestroy();
     }
 
 
 
 
+    private void startMetricsExport() {
+        Metrics metrics = Metrics.getInstance();
+        metrics.setEnabled(true);
+        MetricsExporter log = MetricsExporter.toLog(line -> Log.i(METRICS_TAG, line));
+        MetricsExporter file = MetricsExporter.toFile(new File(getFilesDir(), "metrics.txt"), METRICS_FILE_MAX_BYTES);
+        AppExecutors executors = AppExecutors.getInstance();
+        metricsExport = metrics.scheduleExport(executors.scheduler(), executors.io(), METRICS_EXPORT_MILLIS,
+                snapshot -> {
+                    log.export(snapshot);
+                    file.export(snapshot);
+                });
+    }
+
     /**
      * Load and display today's bookings.
      */
     private void loadTodaysBookings() {
+        prefetchScheduler.onDateShown(LocalDate.now().toString());
         // TODO: Call repository.getTodaysBookings() with a callback
         // In onSuccess: Update adapter with bookings, show/hide empty state
         // In onError: Show error message with Toast
-        repository.getTodaysBookings(new BookingRepository.BookingCallback() {
+        BookingRepository.BookingCallback callback = new BookingRepository.BookingCallback() {
             @Override
             public void onSuccess(List<Booking> bookings) {
+                if (!firstDataShown) {
+                    onFirstData();
+                }
                 if (bookings.isEmpty()) {
                     showEmptyState(true);
-                } else {
-                    showEmptyState(false);
-                    adapter.setBookings(bookings);
                 }
+                // The list is filled with the search results for the current query
+                search.setBookings(bookings);
             }
 
             @Override
             public void onError(String errorMessage) {
+                if (!firstDataShown) {
+                    onFirstData();
+                }
                 Toast.makeText(MainActivity.this, "Error: " + errorMessage, Toast.LENGTH_SHORT).show();
                 showEmptyState(true);
             }
-        });
+        };
+        repository.getTodaysBookings(callback);
+        // New walk-ins and phone bookings are pushed by the server from here on
+        repository.subscribeToBookings(LocalDate.now().toString(), callback);
+    }
+
+    /**
+     * Record the time to the first bookings, or the error shown instead, and tell the system
+     * the screen is fully drawn so startup benchmarks stop measuring here.
+     */
+    private void onFirstData() {
+        firstDataShown = true;
+        Metrics.getInstance().timer(Metrics.STARTUP_FIRST_DATA).recordSince(startupTimer);
+        reportFullyDrawn();
     }
 
     /**
@@ -1,10 +1,22 @@
 package com.miun.restaurantbooking.api;
 
+import android.content.Context;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
  * Singleton class for creating and managing Retrofit API client.
+ * Retrofit is built on one shared, configurable HTTP client with a response cache
+ * and a connection pool, see {@link HttpClientConfig}. Calls are retried, hedged and given
+ * deadlines, and fail fast while the server is down, see {@link ResiliencePolicy}.
+ * Safe to call from any thread; the client is built once. During startup, hand out the
+ * {@link #getLazyBookingApiService() lazy service} and {@link #warmUp(Executor) warm up} the
+ * client in the background, so the main thread never waits for it.
  * TODO: Update BASE_URL when backend server is deployed
  */
 public class ApiClient {
@@ -12,32 +24,125 @@ public class ApiClient {
     // TODO: Replace this placeholder URL with the actual backend server URL
     private static final String BASE_URL = "http://10.0.2.2:8080/demo-1.0-SNAPSHOT/"; // Android emulator localhost
 
+    private static final String HTTP_CACHE_DIRECTORY = "http";
 
+    // Volatile so that a client built on one thread is fully visible on every other
+    private static volatile HttpClientConfig httpClientConfig = new HttpClientConfig(null);
+    private static volatile ResiliencePolicy resiliencePolicy = new ResiliencePolicy();
+    private static volatile OkHttpClient httpClient = null;
+    private static volatile Retrofit retrofit = null;
 
-    private static Retrofit retrofit = null;
+    /**
+     * Configure the HTTP client with a response cache in the app's cache directory.
+     * Call before the first request; later calls have no effect on a client already built.
+     *
+     * @param context Context used to locate the cache directory
+     */
+    public static void init(Context context) {
+        setHttpClientConfig(new HttpClientConfig(new File(context.getCacheDir(), HTTP_CACHE_DIRECTORY)));
+    }
+
+    /**
+     * Set the configuration used when the shared HTTP client is built.
+     *
+     * @param config HTTP client settings
+     */
+    public static void setHttpClientConfig(HttpClientConfig config) {
+        httpClientConfig = config;
+    }
+
+    /**
+     * Set the retries, deadlines, hedging and circuit breaker applied to the shared service.
+     * Call before the first request; later calls have no effect on a client already built.
+     *
+     * @param policy Resilience settings
+     */
+    public static void setResiliencePolicy(ResiliencePolicy policy) {
+        resiliencePolicy = policy;
+    }
+
+    /**
+     * Get the resilience policy of the shared service, e.g. to watch its circuit breaker.
+     *
+     * @return The policy set last
+     */
+    public static ResiliencePolicy getResiliencePolicy() {
+        return resiliencePolicy;
+    }
+
+    /**
+     * Get the shared HTTP client.
+     *
+     * @return OkHttpClient instance
+     */
+    public static OkHttpClient getHttpClient() {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (ApiClient.class) {
+                client = httpClient;
+                if (client == null) {
+                    client = httpClientConfig.build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
 
     /**
      * Get Retrofit instance (singleton pattern).
      * Creates a new instance if it doesn't exist.
-     * TODO: Implement the singleton pattern to return a Retrofit instance
      *
      * @return Retrofit instance
      */
     public static Retrofit getClient() {
-        // TODO: Implement singleton pattern
-        // If retrofit is null, create new Retrofit.Builder()
-        // Set base URL, add GsonConverterFactory, and build
-        // Return the retrofit instance
-
-        if(retrofit == null){
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+        Retrofit client = retrofit;
+        if(client == null){
+            synchronized (ApiClient.class) {
+                client = retrofit;
+                if (client == null) {
+                    client = createRetrofit(BASE_URL, getHttpClient(), resiliencePolicy);
+                    retrofit = client;
+                }
+            }
         }
 
         // returnera samma instans varje gång
-        return retrofit;
+        return client;
+    }
+
+    /**
+     * Build a Retrofit instance with the app's converters.
+     *
+     * @param baseUrl    Base URL of the backend, ending with a slash
+     * @param httpClient HTTP client to send requests with
+     * @return A new Retrofit instance
+     */
+    public static Retrofit createRetrofit(String baseUrl, OkHttpClient httpClient) {
+        return newBuilder(baseUrl, httpClient).build();
+    }
+
+    /**
+     * Build a Retrofit instance with the app's converters whose calls follow a resilience policy.
+     *
+     * @param baseUrl    Base URL of the backend, ending with a slash
+     * @param httpClient HTTP client to send requests with
+     * @param policy     Retries, deadlines, hedging and circuit breaker applied to the calls
+     * @return A new Retrofit instance
+     */
+    public static Retrofit createRetrofit(String baseUrl, OkHttpClient httpClient, ResiliencePolicy policy) {
+        return newBuilder(baseUrl, httpClient)
+                .addCallAdapterFactory(ResilientCallAdapterFactory.create(policy))
+                .build();
+    }
+
+    private static Retrofit.Builder newBuilder(String baseUrl, OkHttpClient httpClient) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(httpClient)
+                // Booking lists are read with a token reader, everything else with Gson
+                .addConverterFactory(BookingStreamConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(BookingTypeAdapter.createGson()));
     }
 
     /**
@@ -46,8 +151,27 @@ public class ApiClient {
      * @return BookingApiService for making API calls
      */
     public static BookingApiService getBookingApiService() {
-        // TODO: Use getClient().create(BookingApiService.class) to return the service
         //Done : skapar en implementation av interface BookingApiSerice
         return getClient().create(BookingApiService.class);
     }
+
+    /**
+     * Get a BookingApiService that builds the HTTP client and Retrofit on its first call instead
+     * of straight away, so it can be created on the main thread without delaying startup.
+     *
+     * @return BookingApiService that is created when first used
+     */
+    public static BookingApiService getLazyBookingApiService() {
+        return LazyService.create(BookingApiService.class, ApiClient::getBookingApiService);
+    }
+
+    /**
+     * Build the shared HTTP client and Retrofit in the background, so the first request
+     * does not have to wait for them.
+     *
+     * @param executor Executor to build them on, not the main thread
+     */
+    public static void warmUp(Executor executor) {
+        executor.execute(ApiClient::getClient);
+    }
 }
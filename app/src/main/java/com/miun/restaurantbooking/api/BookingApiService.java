@@ -1,12 +1,21 @@
 package com.miun.restaurantbooking.api;
 
 import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.model.BookingMutation;
+import com.miun.restaurantbooking.model.BookingPage;
+import com.miun.restaurantbooking.model.MutationResult;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.http.Body;
 import retrofit2.http.GET;
-import retrofit2.http.Path;
+import retrofit2.http.Header;
+import retrofit2.http.POST;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Retrofit API interface for booking-related endpoints.
@@ -15,6 +24,11 @@ import retrofit2.http.Path;
  */
 public interface BookingApiService {
 
+    /**
+     * Response header carrying the change cursor of a full fetch.
+     */
+    String SYNC_CURSOR_HEADER = "X-Sync-Cursor";
+
     /**
      * Get all bookings for today.
      *
@@ -25,11 +39,84 @@ public interface BookingApiService {
 
     /**
      * Get bookings for a specific date.
-     * TODO: Update endpoint path when backend is ready
      *
      * @param date Date string in format YYYY-MM-DD
      * @return Call containing list of bookings for the specified date
      */
-    @GET("api/getTodaysBookings?date=/{date}")
-    Call<List<Booking>> getBookingsForDate(@Path("date") String date);
+    @GET("api/getTodaysBookings")
+    Call<List<Booking>> getBookingsForDate(@Query("date") String date);
+
+    /**
+     * Get bookings for a specific date at another venue of the same restaurant group.
+     *
+     * @param venue Venue ID, as listed for the manager's account
+     * @param date  Date string in format YYYY-MM-DD
+     * @return Call containing list of the venue's bookings for the specified date
+     */
+    @GET("api/getTodaysBookings")
+    Call<List<Booking>> getBookingsForVenue(@Query("venue") String venue, @Query("date") String date);
+
+    /**
+     * Get the bookings for a date that were inserted, updated or deleted since a cursor.
+     * The server answers 410 Gone if the cursor is too old, and a full fetch is needed.
+     * The answer is small, so a slow one is given up early and the next sync tries again.
+     *
+     * @param date   Date string in format YYYY-MM-DD
+     * @param cursor Cursor from the previous full fetch or sync
+     * @return Call containing the changes and the new cursor
+     */
+    @Deadline(5000)
+    @GET("api/getBookingChanges")
+    Call<BookingChanges> getBookingChanges(@Query("date") String date, @Query("since") long cursor);
+
+    /**
+     * Get bookings for a specific date as a raw body that is read while it downloads.
+     * Used for large exports that are parsed and displayed in chunks.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return Call containing the unparsed JSON array of bookings
+     */
+    @Streaming
+    @GET("api/getTodaysBookings")
+    Call<ResponseBody> streamBookingsForDate(@Query("date") String date);
+
+    /**
+     * Subscribe to the changes to the bookings for a date as a Server-Sent Events stream.
+     * The connection stays open and every change is pushed as it happens, see
+     * {@link BookingEventReader}. The server sends a comment line at least every
+     * 15 seconds, so an idle connection does not hit the read timeout.
+     *
+     * @param date        Date string in format YYYY-MM-DD
+     * @param lastEventId Cursor of the last change the client has; changes after it are sent first
+     * @return Call containing the open event stream
+     */
+    @Streaming
+    @GET("api/bookingEvents")
+    Call<ResponseBody> streamBookingEvents(@Query("date") String date,
+                                           @Header("Last-Event-ID") String lastEventId);
+
+    /**
+     * Get one page of the bookings in a date range, ordered by time.
+     *
+     * @param fromDate First date of the range, format YYYY-MM-DD
+     * @param toDate   Last date of the range (inclusive), format YYYY-MM-DD
+     * @param offset   Position of the first booking to return
+     * @param limit    Maximum number of bookings to return
+     * @return Call containing the page
+     */
+    @GET("api/getBookings")
+    Call<BookingPage> getBookingsPage(@Query("from") String fromDate, @Query("to") String toDate,
+                                      @Query("offset") int offset, @Query("limit") int limit);
+
+    /**
+     * Create, update and cancel bookings in one request.
+     * The mutations are applied in order, each one independently: a conflict or rejection
+     * of one does not stop the others. A mutation whose idempotency key the server has
+     * already seen is not applied again; its earlier result is returned instead.
+     *
+     * @param mutations Mutations to apply, in the order they were made
+     * @return Call containing one result per mutation, matched by idempotency key
+     */
+    @POST("api/bookingMutations")
+    Call<List<MutationResult>> applyMutations(@Body List<BookingMutation> mutations);
 }
@@ -0,0 +1,282 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a booking list, offered to the server as an alternative to JSON.
+ * <p>
+ * Field names are not repeated per booking, and the fields themselves are encoded as
+ * variable-length integers (varints), so small numbers take a single byte:
+ * <ul>
+ *     <li>Header: "BKG", format version, number of bookings.</li>
+ *     <li>Per booking: a flags byte telling which fields are present, then the ID as the
+ *     difference to the previous ID, the name and phone number as dictionary references,
+ *     the table, the start time as the difference in minutes to the previous booking,
+ *     the number of guests, and the server version unless it is 0.</li>
+ *     <li>A dictionary reference is 0 followed by the UTF-8 string the first time a value
+ *     occurs, and its position in the dictionary plus one afterwards, so regulars and
+ *     shared phone numbers are sent once.</li>
+ * </ul>
+ * Signed differences are zigzag-encoded so small negative values stay small. Start times
+ * that are not of the form yyyy-MM-ddTHH:mm:00 are sent as strings, so every booking
+ * decodes to exactly the value that was encoded.
+ */
+public class BookingBinaryCodec {
+
+    /**
+     * Content type of an encoded booking list.
+     */
+    public static final String MEDIA_TYPE = "application/x-booking-list";
+
+    private static final byte[] MAGIC = {'B', 'K', 'G'};
+    private static final int VERSION = 1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_PHONE = 1 << 2;
+    private static final int TIME_AS_MINUTE = 1 << 3;
+    private static final int TIME_AS_STRING = 1 << 4;
+    private static final int HAS_VERSION = 1 << 5;
+
+    private BookingBinaryCodec() {
+    }
+
+    /**
+     * Encode a booking list.
+     *
+     * @param bookings Bookings to encode
+     * @return The encoded bytes
+     */
+    public static byte[] encode(List<Booking> bookings) {
+        Output out = new Output(16 + bookings.size() * 12);
+        out.writeBytes(MAGIC);
+        out.writeVarint(VERSION);
+        out.writeVarint(bookings.size());
+
+        Map<String, Integer> names = new HashMap<>();
+        Map<String, Integer> phones = new HashMap<>();
+        Map<String, Integer> times = new HashMap<>();
+        long previousId = 0;
+        long previousMinute = 0;
+        for (Booking booking : bookings) {
+            Long id = booking.getBookingId();
+            String dateTime = booking.getDateTime();
+            long minute = DateFormatter.isIsoMinute(dateTime) ? booking.getStartEpochMinute() : DateFormatter.NO_TIME;
+            int flags = (id != null ? HAS_ID : 0)
+                    | (booking.getCustomerName() != null ? HAS_NAME : 0)
+                    | (booking.getPhoneNumber() != null ? HAS_PHONE : 0)
+                    | (minute != DateFormatter.NO_TIME ? TIME_AS_MINUTE : dateTime != null ? TIME_AS_STRING : 0)
+                    | (booking.getVersion() != 0 ? HAS_VERSION : 0);
+            out.writeByte(flags);
+            if (id != null) {
+                out.writeSignedVarint(id - previousId);
+                previousId = id;
+            }
+            if (booking.getCustomerName() != null) {
+                out.writeString(booking.getCustomerName(), names);
+            }
+            if (booking.getPhoneNumber() != null) {
+                out.writeString(booking.getPhoneNumber(), phones);
+            }
+            out.writeSignedVarint(booking.getTableNumber());
+            if (minute != DateFormatter.NO_TIME) {
+                out.writeSignedVarint(minute - previousMinute);
+                previousMinute = minute;
+            } else if (dateTime != null) {
+                out.writeString(dateTime, times);
+            }
+            out.writeSignedVarint(booking.getNumberOfGuests());
+            if (booking.getVersion() != 0) {
+                out.writeVarint(booking.getVersion());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a booking list.
+     *
+     * @param bytes Bytes produced by {@link #encode(List)}
+     * @return The bookings, in the order they were encoded
+     * @throws IOException if the bytes are not a booking list in a known version
+     */
+    public static List<Booking> decode(byte[] bytes) throws IOException {
+        Input in = new Input(bytes);
+        for (byte magic : MAGIC) {
+            if (in.readByte() != magic) {
+                throw new IOException("Not a binary booking list");
+            }
+        }
+        int version = (int) in.readVarint();
+        if (version != VERSION) {
+            throw new IOException("Unsupported booking list version: " + version);
+        }
+        int count = (int) in.readVarint();
+        if (count < 0 || count > bytes.length) {
+            throw new IOException("Malformed booking count: " + count);
+        }
+
+        List<Booking> bookings = new ArrayList<>(count);
+        List<String> names = new ArrayList<>();
+        List<String> phones = new ArrayList<>();
+        List<String> times = new ArrayList<>();
+        // Many bookings share a start time, so each one is formatted once
+        Map<Long, String> formattedTimes = new HashMap<>();
+        long previousId = 0;
+        long previousMinute = 0;
+        for (int i = 0; i < count; i++) {
+            int flags = in.readByte();
+            Booking booking = new Booking();
+            if ((flags & HAS_ID) != 0) {
+                previousId += in.readSignedVarint();
+                booking.setBookingId(previousId);
+            }
+            if ((flags & HAS_NAME) != 0) {
+                booking.setCustomerName(in.readString(names));
+            }
+            if ((flags & HAS_PHONE) != 0) {
+                booking.setPhoneNumber(in.readString(phones));
+            }
+            booking.setTableNumber((int) in.readSignedVarint());
+            if ((flags & TIME_AS_MINUTE) != 0) {
+                previousMinute += in.readSignedVarint();
+                String dateTime = formattedTimes.get(previousMinute);
+                if (dateTime == null) {
+                    dateTime = DateFormatter.toIsoString(previousMinute);
+                    formattedTimes.put(previousMinute, dateTime);
+                }
+                booking.setDateTime(dateTime);
+            } else if ((flags & TIME_AS_STRING) != 0) {
+                booking.setDateTime(in.readString(times));
+            }
+            booking.setNumberOfGuests((int) in.readSignedVarint());
+            if ((flags & HAS_VERSION) != 0) {
+                booking.setVersion(in.readVarint());
+            }
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    /**
+     * Growable byte buffer with varint and dictionary string writes.
+     */
+    private static class Output {
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value, Map<String, Integer> dictionary) {
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarint(index + 1);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(0);
+            writeVarint(bytes.length);
+            writeBytes(bytes);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+
+    /**
+     * Reader over an encoded byte array.
+     */
+    private static class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() throws IOException {
+            if (position >= bytes.length) {
+                throw new IOException("Truncated booking list");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long readSignedVarint() throws IOException {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString(List<String> dictionary) throws IOException {
+            long reference = readVarint();
+            if (reference > 0) {
+                if (reference > dictionary.size()) {
+                    throw new IOException("Malformed string reference: " + reference);
+                }
+                return dictionary.get((int) reference - 1);
+            }
+            long length = readVarint();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IOException("Truncated booking list");
+            }
+            String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            dictionary.add(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.stream.JsonReader;
+import com.miun.restaurantbooking.model.BookingEvent;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Locale;
+
+/**
+ * Reads booking events from a Server-Sent Events stream.
+ * Each event has an {@code id} holding its change cursor, an {@code event} naming the
+ * change (created, updated, cancelled or resync) and a {@code data} line holding the
+ * booking as JSON. Comment lines, which the server sends as heartbeats, are skipped,
+ * as are events of unknown types.
+ */
+public class BookingEventReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    /**
+     * Constructor
+     *
+     * @param reader Character stream of the response body
+     */
+    public BookingEventReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Block until the next event has been received.
+     *
+     * @return The event, or null if the stream ended
+     * @throws IOException if the stream cannot be read or an event is malformed
+     */
+    public BookingEvent next() throws IOException {
+        String id = null;
+        String type = null;
+        StringBuilder data = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                // A blank line ends the event
+                BookingEvent event = toEvent(id, type, data);
+                if (event != null) {
+                    return event;
+                }
+                id = null;
+                type = null;
+                data = null;
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "id":
+                    id = value;
+                    break;
+                case "event":
+                    type = value;
+                    break;
+                case "data":
+                    if (data == null) {
+                        data = new StringBuilder(value);
+                    } else {
+                        data.append('\n').append(value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static BookingEvent toEvent(String id, String type, StringBuilder data) throws IOException {
+        if (type == null) {
+            return null;
+        }
+        BookingEvent.Type eventType;
+        try {
+            eventType = BookingEvent.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (eventType == BookingEvent.Type.RESYNC) {
+            return new BookingEvent(eventType, 0, null);
+        }
+        if (id == null || data == null) {
+            throw new IOException("Malformed " + type + " event");
+        }
+        long cursor;
+        try {
+            cursor = Long.parseLong(id.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed event id: " + id);
+        }
+        try (JsonReader json = new JsonReader(new StringReader(data.toString()))) {
+            return new BookingEvent(eventType, cursor, BookingJsonReader.readBooking(json));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads bookings from JSON with a token reader instead of Gson reflection.
+ * The field names match the {@code @SerializedName} annotations in {@link Booking}.
+ */
+public class BookingJsonReader {
+
+    /**
+     * Receives bookings in chunks while a JSON array is being read.
+     */
+    public interface ChunkListener {
+        void onChunk(List<Booking> chunk) throws IOException;
+    }
+
+    /**
+     * Read a JSON array of bookings into a list.
+     *
+     * @param reader Reader positioned at the start of the array
+     * @return All bookings in the array
+     * @throws IOException if the JSON is malformed or cannot be read
+     */
+    public static List<Booking> readBookings(JsonReader reader) throws IOException {
+        List<Booking> bookings = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            bookings.add(readBooking(reader));
+        }
+        reader.endArray();
+        return bookings;
+    }
+
+    /**
+     * Read a JSON array of bookings and hand them over in chunks as they are parsed.
+     * Each chunk is a new list, so the listener may keep it.
+     *
+     * @param reader    Reader positioned at the start of the array
+     * @param chunkSize Maximum number of bookings per chunk
+     * @param listener  Listener receiving each chunk
+     * @return Total number of bookings read
+     * @throws IOException if the JSON is malformed or cannot be read
+     */
+    public static int readBookings(JsonReader reader, int chunkSize, ChunkListener listener) throws IOException {
+        int total = 0;
+        List<Booking> chunk = new ArrayList<>(chunkSize);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            chunk.add(readBooking(reader));
+            total++;
+            if (chunk.size() == chunkSize) {
+                listener.onChunk(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        reader.endArray();
+        if (!chunk.isEmpty()) {
+            listener.onChunk(chunk);
+        }
+        return total;
+    }
+
+    /**
+     * Read a single booking object.
+     * Unknown fields are skipped and null values leave the field at its default.
+     *
+     * @param reader Reader positioned at the start of the object
+     * @return The booking
+     * @throws IOException if the JSON is malformed or cannot be read
+     */
+    public static Booking readBooking(JsonReader reader) throws IOException {
+        Booking booking = new Booking();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    booking.setBookingId(reader.nextLong());
+                    break;
+                case "name":
+                    booking.setCustomerName(reader.nextString());
+                    break;
+                case "phoneNumber":
+                    booking.setPhoneNumber(reader.nextString());
+                    break;
+                case "tableNum":
+                    booking.setTableNumber(reader.nextInt());
+                    break;
+                case "dateTime":
+                    booking.setDateTime(reader.nextString());
+                    break;
+                case "numberOfPeople":
+                    booking.setNumberOfGuests(reader.nextInt());
+                    break;
+                case "version":
+                    booking.setVersion(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return booking;
+    }
+}
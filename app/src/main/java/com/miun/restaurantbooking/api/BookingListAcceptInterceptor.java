@@ -0,0 +1,40 @@
+package com.miun.restaurantbooking.api;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Adds an Accept header preferring {@link BookingBinaryCodec#MEDIA_TYPE} to the requests
+ * of API methods that return a booking list. Other requests are left as they are, since
+ * their responses are only ever read as JSON.
+ */
+public class BookingListAcceptInterceptor implements Interceptor {
+
+    static final String ACCEPT = BookingBinaryCodec.MEDIA_TYPE + ", application/json;q=0.5";
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null && request.header("Accept") == null
+                && returnsBookingList(invocation.method().getGenericReturnType())) {
+            request = request.newBuilder().header("Accept", ACCEPT).build();
+        }
+        return chain.proceed(request);
+    }
+
+    /**
+     * @return true for Call&lt;List&lt;Booking&gt;&gt;
+     */
+    private static boolean returnsBookingList(Type returnType) {
+        return returnType instanceof ParameterizedType
+                && BookingStreamConverterFactory.isBookingList(
+                ((ParameterizedType) returnType).getActualTypeArguments()[0]);
+    }
+}
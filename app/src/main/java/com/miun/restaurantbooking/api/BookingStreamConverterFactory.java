@@ -0,0 +1,84 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.stream.JsonReader;
+import com.miun.restaurantbooking.metrics.Histogram;
+import com.miun.restaurantbooking.metrics.Metrics;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter that reads {@code List<Booking>} responses with {@link BookingJsonReader},
+ * or with {@link BookingBinaryCodec} when the server answered in the binary format.
+ * The format is chosen per response from its Content-Type, so the server decides
+ * whether to honour the Accept header.
+ * Other types are left to the next converter factory, normally Gson.
+ * Parse time and bookings per response are recorded in the app's {@link Metrics}.
+ */
+public class BookingStreamConverterFactory extends Converter.Factory {
+
+    /**
+     * Create an instance of the factory.
+     *
+     * @return A new BookingStreamConverterFactory
+     */
+    public static BookingStreamConverterFactory create() {
+        return new BookingStreamConverterFactory();
+    }
+
+    private final Metrics metrics = Metrics.getInstance();
+    private final Histogram parseTime = metrics.timer(Metrics.PARSE);
+    private final Histogram bookingsPerResponse = metrics.histogram(Metrics.BOOKINGS_PER_RESPONSE, Histogram.Unit.COUNT);
+
+    private BookingStreamConverterFactory() {
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (!isBookingList(type)) {
+            return null;
+        }
+        return (Converter<ResponseBody, List<Booking>>) body -> {
+            // The body is read while it is parsed, so this includes the download after the first byte
+            long start = metrics.startTimer();
+            List<Booking> bookings = read(body);
+            parseTime.recordSince(start);
+            bookingsPerResponse.record(bookings.size());
+            return bookings;
+        };
+    }
+
+    private static List<Booking> read(ResponseBody body) throws IOException {
+        if (isBinary(body.contentType())) {
+            return BookingBinaryCodec.decode(body.bytes());
+        }
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            return BookingJsonReader.readBookings(reader);
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed booking list", e);
+        }
+    }
+
+    private static boolean isBinary(MediaType contentType) {
+        return contentType != null
+                && BookingBinaryCodec.MEDIA_TYPE.equals(contentType.type() + "/" + contentType.subtype());
+    }
+
+    static boolean isBookingList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        return parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == Booking.class;
+    }
+}
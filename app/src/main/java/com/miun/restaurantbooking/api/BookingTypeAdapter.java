@@ -0,0 +1,62 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.IOException;
+
+/**
+ * Gson type adapter for {@link Booking} written out field by field, so Gson neither inspects
+ * the class with reflection nor sets its fields reflectively. This saves the adapter lookup
+ * on the first booking read after a cold start, and the per-field reflection on every read.
+ * <p>
+ * Bookings are read with {@link BookingJsonReader} and written with the same field names,
+ * in the same order and leaving out the same null values as Gson's reflective adapter, so
+ * the JSON is unchanged. Types that contain bookings, such as pages, changes and cached
+ * entries, use this adapter for them when read with {@link #createGson()}.
+ */
+public class BookingTypeAdapter extends TypeAdapter<Booking> {
+
+    /**
+     * Create a Gson instance that reads and writes bookings with this adapter.
+     *
+     * @return A new Gson instance
+     */
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Booking.class, new BookingTypeAdapter())
+                .create();
+    }
+
+    @Override
+    public void write(JsonWriter out, Booking booking) throws IOException {
+        if (booking == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        // A null value drops its name too, unless the writer serializes nulls
+        out.name("id").value(booking.getBookingId());
+        out.name("name").value(booking.getCustomerName());
+        out.name("phoneNumber").value(booking.getPhoneNumber());
+        out.name("tableNum").value(booking.getTableNumber());
+        out.name("dateTime").value(booking.getDateTime());
+        out.name("numberOfPeople").value(booking.getNumberOfGuests());
+        out.name("version").value(booking.getVersion());
+        out.endObject();
+    }
+
+    @Override
+    public Booking read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return BookingJsonReader.readBooking(in);
+    }
+}
@@ -0,0 +1,147 @@
+package com.miun.restaurantbooking.api;
+
+import java.time.Clock;
+
+/**
+ * Stops sending requests to a server that keeps failing.
+ * After a number of failures in a row the breaker opens and every request fails fast
+ * with a {@link CircuitOpenException}. Once the open time has passed, a single request
+ * is let through as a probe: if it succeeds the breaker closes again, if it fails the
+ * breaker stays open for another open time.
+ * Safe to use from any thread.
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        /** Requests are sent as usual. */
+        CLOSED,
+        /** Requests fail fast without being sent. */
+        OPEN,
+        /** One probe request has been let through; the others fail fast until it completes. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+    private final Listener listener;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int failures;
+    private long changedAt;
+
+    /**
+     * Constructor
+     *
+     * @param failureThreshold Failures in a row that open the breaker
+     * @param openMillis       Time in milliseconds the breaker stays open before a probe is let through
+     * @param clock            Clock timing how long the breaker has been open
+     * @param listener         Told about every change of state, or null
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock, Listener listener) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.listener = listener;
+    }
+
+    /**
+     * Check whether a request may be sent. A request that is allowed must report its
+     * result with {@link #onSuccess()} or {@link #onFailure()}.
+     * A probe that never reports is given up after the open time, and another one is let through.
+     *
+     * @return true if the request may be sent
+     */
+    public boolean allowRequest() {
+        State changed;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (clock.millis() - changedAt < openMillis) {
+                return false;
+            }
+            changed = setState(State.HALF_OPEN);
+        }
+        notifyListener(changed);
+        return true;
+    }
+
+    /**
+     * Report a request that the server answered.
+     */
+    public void onSuccess() {
+        State changed;
+        synchronized (this) {
+            failures = 0;
+            changed = setState(State.CLOSED);
+        }
+        notifyListener(changed);
+    }
+
+    /**
+     * Report a request that failed because of the server or the network.
+     */
+    public void onFailure() {
+        State changed = null;
+        synchronized (this) {
+            failures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+                changed = setState(State.OPEN);
+            }
+        }
+        notifyListener(changed);
+    }
+
+    /**
+     * Get the state of the breaker
+     *
+     * @return Current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Get the time until a request is let through again
+     *
+     * @return Time in milliseconds, 0 if requests are let through now
+     */
+    public synchronized long getRetryAfterMillis() {
+        return state == State.CLOSED ? 0 : Math.max(0, changedAt + openMillis - clock.millis());
+    }
+
+    /**
+     * Change the state. Called with the lock held.
+     *
+     * @return The new state, or null if it did not change
+     */
+    private State setState(State newState) {
+        if (newState != State.CLOSED) {
+            // Open and half open both time out after the open time
+            changedAt = clock.millis();
+        }
+        if (newState == state) {
+            return null;
+        }
+        state = newState;
+        return newState;
+    }
+
+    private void notifyListener(State changed) {
+        if (changed != null && listener != null) {
+            listener.onStateChanged(changed);
+        }
+    }
+
+    /**
+     * Told about changes of state, on the thread of the request that caused them.
+     */
+    public interface Listener {
+        void onStateChanged(State state);
+    }
+}
@@ -0,0 +1,31 @@
+package com.miun.restaurantbooking.api;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the {@link CircuitBreaker} is open,
+ * because the server has failed too often in a row.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    /**
+     * Constructor
+     *
+     * @param retryAfterMillis Time in milliseconds until the breaker lets a request through again
+     */
+    public CircuitOpenException(long retryAfterMillis) {
+        super("Server unavailable, retrying in " + Math.max(1, (retryAfterMillis + 999) / 1000) + " s");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return Time in milliseconds until the breaker lets a request through again
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,22 @@
+package com.miun.restaurantbooking.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the deadline of {@link ResiliencePolicy} for one endpoint of {@link BookingApiService}.
+ * The deadline covers every attempt of a call, including retries, backoff and hedged requests.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Deadline {
+
+    /**
+     * @return Time in milliseconds a call may take in total, or 0 for no deadline
+     */
+    long value();
+}
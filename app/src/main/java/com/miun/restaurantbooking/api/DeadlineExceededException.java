@@ -0,0 +1,23 @@
+package com.miun.restaurantbooking.api;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a call has not succeeded within its deadline, see {@link Deadline}.
+ * The attempts still running are cancelled.
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor
+     *
+     * @param deadlineMillis The deadline that was exceeded
+     * @param attempts       Number of requests sent, including hedged ones
+     */
+    public DeadlineExceededException(long deadlineMillis, int attempts) {
+        super("No response within " + deadlineMillis + " ms after " + attempts
+                + (attempts == 1 ? " request" : " requests"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.metrics.Metrics;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+/**
+ * Settings for the shared HTTP client used by {@link ApiClient}.
+ * Responses are cached on disk, so an unchanged booking list is revalidated with
+ * its ETag (If-None-Match) and answered with an empty 304 instead of a new body.
+ * OkHttp requests gzip and decompresses responses transparently.
+ * Booking lists can optionally be requested in the compact {@link BookingBinaryCodec} format.
+ * Every call is timed into the app's {@link Metrics} while they are enabled.
+ */
+public class HttpClientConfig {
+
+    private final File cacheDirectory;
+    private long cacheSizeBytes = 10 * 1024 * 1024;
+    private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private int maxIdleConnections = 5;
+    private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+    private boolean binaryBookingLists;
+    private Metrics metrics = Metrics.getInstance();
+
+    /**
+     * Constructor with default settings.
+     *
+     * @param cacheDirectory Directory for the HTTP response cache, or null to disable caching
+     */
+    public HttpClientConfig(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @param cacheSizeBytes Maximum size of the on-disk response cache
+     * @return this config
+     */
+    public HttpClientConfig setCacheSizeBytes(long cacheSizeBytes) {
+        this.cacheSizeBytes = cacheSizeBytes;
+        return this;
+    }
+
+    /**
+     * @param connectTimeoutMillis Timeout for establishing a connection
+     * @return this config
+     */
+    public HttpClientConfig setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @param readTimeoutMillis Timeout between bytes while reading a response
+     * @return this config
+     */
+    public HttpClientConfig setReadTimeoutMillis(long readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @param maxIdleConnections Number of idle connections kept alive for reuse
+     * @param keepAliveMillis    How long an idle connection is kept alive
+     * @return this config
+     */
+    public HttpClientConfig setConnectionPool(int maxIdleConnections, long keepAliveMillis) {
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveMillis = keepAliveMillis;
+        return this;
+    }
+
+    /**
+     * Ask the server for booking lists in the binary format instead of JSON.
+     * Servers that do not support it keep answering with JSON, which is still read.
+     * Off by default; the server must send {@code Vary: Accept} so the response cache
+     * keeps the two formats apart.
+     *
+     * @param binaryBookingLists true to send an Accept header preferring the binary format
+     * @return this config
+     */
+    public HttpClientConfig setBinaryBookingLists(boolean binaryBookingLists) {
+        this.binaryBookingLists = binaryBookingLists;
+        return this;
+    }
+
+    /**
+     * @param metrics Registry that request timings and payload sizes are recorded into
+     * @return this config
+     */
+    public HttpClientConfig setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Build an HTTP client with these settings.
+     *
+     * @return A new OkHttpClient
+     */
+    public OkHttpClient build() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .eventListenerFactory(MetricsEventListener.factory(metrics));
+        if (cacheDirectory != null) {
+            Cache cache = new Cache(cacheDirectory, cacheSizeBytes);
+            builder.cache(cache);
+            metrics.gauge(Metrics.HTTP_CACHE_HITS, cache::hitCount);
+            metrics.gauge(Metrics.HTTP_CACHE_REQUESTS, cache::requestCount);
+        }
+        if (binaryBookingLists) {
+            builder.addInterceptor(new BookingListAcceptInterceptor());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.miun.restaurantbooking.api;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * An API service that is only created when one of its methods is first called.
+ * Lets a screen hand the service to its repository during startup, on the main thread,
+ * while the HTTP client, Retrofit and Gson are built by the first request on a background thread.
+ *
+ * @param <T> Service interface
+ */
+final class LazyService<T> implements InvocationHandler {
+
+    private final Supplier<T> factory;
+    // Volatile so that a service created on one thread is fully visible on every other
+    private volatile T service;
+
+    private LazyService(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a service that calls the factory on the first method call, and uses its result from then on.
+     *
+     * @param type    Service interface
+     * @param factory Creates the real service; called once
+     * @return A service delegating to the real one
+     */
+    static <T> T create(Class<T> type, Supplier<T> factory) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new LazyService<>(factory)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        // Comparing or printing the service does not create it
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "LazyService@" + Integer.toHexString(System.identityHashCode(proxy));
+            }
+        }
+        try {
+            return method.invoke(get(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private T get() {
+        T current = service;
+        if (current == null) {
+            synchronized (this) {
+                current = service;
+                if (current == null) {
+                    current = factory.get();
+                    service = current;
+                }
+            }
+        }
+        return current;
+    }
+}
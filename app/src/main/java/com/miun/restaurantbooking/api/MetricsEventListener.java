@@ -0,0 +1,79 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.metrics.Counter;
+import com.miun.restaurantbooking.metrics.Histogram;
+import com.miun.restaurantbooking.metrics.Metrics;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Response;
+
+/**
+ * Records the network stages of every HTTP call: total time, time to the first response
+ * byte, and the size of the response body as it came over the wire.
+ * A call made while metrics are disabled gets no listener at all.
+ */
+public class MetricsEventListener extends EventListener {
+
+    private final Histogram requestTime;
+    private final Histogram firstByteTime;
+    private final Histogram payloadBytes;
+    private final Counter failures;
+    private long startNanos;
+    private boolean firstByteSeen;
+
+    private MetricsEventListener(Histogram requestTime, Histogram firstByteTime,
+                                 Histogram payloadBytes, Counter failures) {
+        this.requestTime = requestTime;
+        this.firstByteTime = firstByteTime;
+        this.payloadBytes = payloadBytes;
+        this.failures = failures;
+    }
+
+    /**
+     * @param metrics Registry to record into
+     * @return A factory creating one listener per call
+     */
+    public static EventListener.Factory factory(Metrics metrics) {
+        Histogram requestTime = metrics.timer(Metrics.HTTP_REQUEST);
+        Histogram firstByteTime = metrics.timer(Metrics.HTTP_FIRST_BYTE);
+        Histogram payloadBytes = metrics.histogram(Metrics.HTTP_PAYLOAD_BYTES, Histogram.Unit.BYTES);
+        Counter failures = metrics.counter(Metrics.HTTP_FAILURES);
+        return call -> metrics.isEnabled()
+                ? new MetricsEventListener(requestTime, firstByteTime, payloadBytes, failures)
+                : EventListener.NONE;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        // responseHeadersStart fires before the read blocks, so the headers having arrived
+        // is the first point the server's response time is known.
+        // A redirect or retry reads headers again; the first response is what the user waited for
+        if (!firstByteSeen) {
+            firstByteSeen = true;
+            firstByteTime.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        payloadBytes.record(byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        requestTime.record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        failures.increment();
+    }
+}
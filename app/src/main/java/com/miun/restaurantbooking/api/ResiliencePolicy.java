@@ -0,0 +1,169 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.metrics.Metrics;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the retries, deadlines, hedged requests and circuit breaker applied to
+ * {@link BookingApiService} calls, see {@link ResilientCallAdapterFactory}.
+ * <p>
+ * Idempotent requests that fail with a network error, a 5xx or a 429 are retried with
+ * exponential backoff and jitter. If a request has not answered within the hedge delay, the
+ * same request is sent once more and the first answer wins. Every call has a deadline
+ * covering all of its attempts. The circuit breaker is shared by all calls made with the
+ * policy; while it is open calls fail fast, and the repository serves cached bookings.
+ * <p>
+ * Retries, hedged requests, hedges that won, missed deadlines and requests rejected by the
+ * breaker are counted into the app's {@link Metrics}, and the state of the breaker is a gauge.
+ * Settings must be made before the policy is first used.
+ */
+public class ResiliencePolicy {
+
+    private int maxAttempts = 3;
+    private long initialBackoffMillis = 250;
+    private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(4);
+    private long deadlineMillis = TimeUnit.SECONDS.toMillis(20);
+    private long hedgeDelayMillis = TimeUnit.SECONDS.toMillis(2);
+    private int maxHedges = 1;
+    private int failureThreshold = 5;
+    private long openMillis = TimeUnit.SECONDS.toMillis(30);
+    private Clock clock = Clock.systemUTC();
+    private Metrics metrics = Metrics.getInstance();
+    private CircuitBreaker.Listener circuitListener;
+    private CircuitBreaker circuitBreaker;
+
+    /**
+     * @param maxAttempts Requests sent for an idempotent call before giving up, not counting hedged ones;
+     *                    1 disables retries
+     * @return this policy
+     */
+    public ResiliencePolicy setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        return this;
+    }
+
+    /**
+     * @param initialBackoffMillis Backoff before the first retry; it doubles for every retry after that
+     * @param maxBackoffMillis     Longest backoff between two retries
+     * @return this policy
+     */
+    public ResiliencePolicy setBackoff(long initialBackoffMillis, long maxBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        return this;
+    }
+
+    /**
+     * @param deadlineMillis Time a call may take in total unless its endpoint has a {@link Deadline},
+     *                       or 0 for no deadline
+     * @return this policy
+     */
+    public ResiliencePolicy setDeadlineMillis(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+        return this;
+    }
+
+    /**
+     * Send the same idempotent request again if it has not answered in time, to cut the slowest
+     * responses short. Each hedge costs the server a request, so keep the delay around the
+     * slowest few percent of response times.
+     *
+     * @param hedgeDelayMillis Time to wait for an answer before sending the request again,
+     *                         or 0 to never hedge
+     * @param maxHedges        Extra requests sent at most per call
+     * @return this policy
+     */
+    public ResiliencePolicy setHedging(long hedgeDelayMillis, int maxHedges) {
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.maxHedges = maxHedges;
+        return this;
+    }
+
+    /**
+     * @param failureThreshold Failed requests in a row that open the circuit breaker
+     * @param openMillis       Time the breaker stays open before a probe request is let through
+     * @return this policy
+     */
+    public ResiliencePolicy setCircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        return this;
+    }
+
+    /**
+     * @param listener Told when the circuit breaker opens and closes, e.g. to show that the app is offline
+     * @return this policy
+     */
+    public ResiliencePolicy setCircuitListener(CircuitBreaker.Listener listener) {
+        this.circuitListener = listener;
+        return this;
+    }
+
+    /**
+     * @param clock Clock timing how long the circuit breaker stays open
+     * @return this policy
+     */
+    public ResiliencePolicy setClock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * @param metrics Registry that retries, hedges and breaker rejections are counted into
+     * @return this policy
+     */
+    public ResiliencePolicy setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get the circuit breaker shared by all calls made with this policy.
+     * It is created on first use, with the settings made so far.
+     *
+     * @return The circuit breaker
+     */
+    public synchronized CircuitBreaker getCircuitBreaker() {
+        if (circuitBreaker == null) {
+            circuitBreaker = new CircuitBreaker(failureThreshold, openMillis, clock, circuitListener);
+            CircuitBreaker breaker = circuitBreaker;
+            metrics.gauge(Metrics.CIRCUIT_STATE, () -> breaker.getState().ordinal());
+        }
+        return circuitBreaker;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    int getMaxHedges() {
+        return hedgeDelayMillis > 0 ? maxHedges : 0;
+    }
+
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between half and all of
+     * initial * 2^(retry - 1), capped at the maximum.
+     *
+     * @param retry Number of the retry, starting at 1
+     * @param random Random number between 0 and 1
+     */
+    long backoffMillis(int retry, double random) {
+        long delay = initialBackoffMillis << Math.min(retry - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + (long) (random * (delay / 2));
+    }
+}
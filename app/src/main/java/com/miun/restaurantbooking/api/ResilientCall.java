@@ -0,0 +1,325 @@
+package com.miun.restaurantbooking.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A call that applies a {@link ResiliencePolicy}, created by {@link ResilientCallAdapterFactory}.
+ * <p>
+ * Executing an idempotent call sends clones of the wrapped call asynchronously and waits for
+ * their answers. A network error, 5xx or 429 is retried after a backoff until the policy's
+ * attempts are used up, and then the last error response is returned or the last exception
+ * thrown, as if the call had been executed once. While a request is running, a hedged copy is
+ * sent after the hedge delay; the first usable answer wins and the others are cancelled.
+ * <p>
+ * Calls that are not idempotent, and every call that is enqueued instead of executed, are sent
+ * once; only the circuit breaker applies to them.
+ *
+ * @param <T> Response body type
+ */
+final class ResilientCall<T> implements Call<T> {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final Call<T> delegate;
+    private final ResilientCallAdapterFactory factory;
+    private final ResiliencePolicy policy;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean idempotent;
+    private final long deadlineMillis;
+    private final List<Call<T>> attempts = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Answer<T>> answers = new LinkedBlockingQueue<>();
+    /**
+     * Put in the queue by {@link #cancel()} to wake up a waiting {@link #execute()}.
+     */
+    private final Answer<T> canceledMarker = new Answer<>(false, null, null);
+
+    private volatile boolean canceled;
+    // Guarded by this
+    private boolean executed;
+
+    ResilientCall(Call<T> delegate, ResilientCallAdapterFactory factory, boolean idempotent, long deadlineMillis) {
+        this.delegate = delegate;
+        this.factory = factory;
+        this.policy = factory.getPolicy();
+        this.circuitBreaker = factory.getCircuitBreaker();
+        this.idempotent = idempotent;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        markExecuted();
+        if (!idempotent) {
+            return executeOnce();
+        }
+        try {
+            return executeWithRetries();
+        } catch (InterruptedException e) {
+            cancelAttempts();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted");
+        }
+    }
+
+    private Response<T> executeOnce() throws IOException {
+        checkCircuit();
+        Response<T> response;
+        try {
+            response = delegate.execute();
+        } catch (IOException e) {
+            if (!canceled) {
+                circuitBreaker.onFailure();
+            }
+            throw e;
+        }
+        report(response.code());
+        return response;
+    }
+
+    private Response<T> executeWithRetries() throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadline = deadlineMillis > 0 ? startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis) : Long.MAX_VALUE;
+        long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(policy.getHedgeDelayMillis());
+        int maxHedges = policy.getMaxHedges();
+        int sent = 0;
+        int hedged = 0;
+        int running = 0;
+        long lastSentAt = startNanos;
+        long retryAt = startNanos;
+        Answer<T> lastFailed = null;
+
+        while (true) {
+            if (canceled) {
+                throw new IOException("Canceled");
+            }
+            long now = System.nanoTime();
+            if (running == 0 && now >= retryAt) {
+                checkCircuit();
+                if (sent > 0) {
+                    factory.retries.increment();
+                }
+                send(false);
+                sent++;
+                running++;
+                lastSentAt = now;
+            }
+
+            long waitUntil = deadline;
+            if (running == 0) {
+                waitUntil = Math.min(waitUntil, retryAt);
+            } else if (hedged < maxHedges) {
+                waitUntil = Math.min(waitUntil, lastSentAt + hedgeDelayNanos);
+            }
+            Answer<T> answer = answers.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+
+            if (answer == null) {
+                now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    cancelAttempts();
+                    factory.deadlinesExceeded.increment();
+                    circuitBreaker.onFailure();
+                    throw new DeadlineExceededException(deadlineMillis, sent + hedged);
+                }
+                if (running > 0 && hedged < maxHedges && now - lastSentAt >= hedgeDelayNanos) {
+                    if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                        // Only the probe goes out while the breaker is deciding
+                        hedged = maxHedges;
+                        continue;
+                    }
+                    factory.hedges.increment();
+                    send(true);
+                    hedged++;
+                    running++;
+                    lastSentAt = now;
+                }
+                continue;
+            }
+            if (answer == canceledMarker) {
+                continue;
+            }
+            running--;
+
+            if (answer.failure instanceof IOException || isRetryable(answer.response)) {
+                if (answer.failure != null || answer.response.code() >= 500) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                lastFailed = answer;
+                if (running == 0) {
+                    retryAt = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(policy.backoffMillis(sent, ThreadLocalRandom.current().nextDouble()));
+                    // Give up early rather than wait for a retry that cannot finish in time
+                    if (sent >= policy.getMaxAttempts() || retryAt - deadline >= 0) {
+                        return lastFailed.get();
+                    }
+                }
+                continue;
+            }
+
+            // The server answered, even if the body could not be read
+            circuitBreaker.onSuccess();
+            cancelAttempts();
+            if (answer.hedge) {
+                factory.hedgeWins.increment();
+            }
+            return answer.get();
+        }
+    }
+
+    /**
+     * Send a clone of the wrapped call; its answer is put in the queue.
+     */
+    private void send(boolean hedge) {
+        Call<T> attempt = delegate.clone();
+        attempts.add(attempt);
+        if (canceled) {
+            attempt.cancel();
+        }
+        attempt.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                answers.add(new Answer<>(hedge, response, null));
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                answers.add(new Answer<>(hedge, null, t));
+            }
+        });
+    }
+
+    private void checkCircuit() throws CircuitOpenException {
+        if (!circuitBreaker.allowRequest()) {
+            factory.circuitRejections.increment();
+            throw new CircuitOpenException(circuitBreaker.getRetryAfterMillis());
+        }
+    }
+
+    private void report(int code) {
+        if (code >= 500) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void cancelAttempts() {
+        for (Call<T> attempt : attempts) {
+            attempt.cancel();
+        }
+    }
+
+    private static boolean isRetryable(Response<?> response) {
+        return response != null && (response.code() >= 500 || response.code() == HTTP_TOO_MANY_REQUESTS);
+    }
+
+    private synchronized void markExecuted() {
+        if (executed) {
+            throw new IllegalStateException("Already executed.");
+        }
+        executed = true;
+    }
+
+    @Override
+    public void enqueue(Callback<T> callback) {
+        markExecuted();
+        if (!circuitBreaker.allowRequest()) {
+            factory.circuitRejections.increment();
+            callback.onFailure(this, new CircuitOpenException(circuitBreaker.getRetryAfterMillis()));
+            return;
+        }
+        delegate.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                report(response.code());
+                callback.onResponse(ResilientCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (t instanceof IOException && !canceled) {
+                    circuitBreaker.onFailure();
+                }
+                callback.onFailure(ResilientCall.this, t);
+            }
+        });
+    }
+
+    @Override
+    public synchronized boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public void cancel() {
+        canceled = true;
+        delegate.cancel();
+        cancelAttempts();
+        answers.add(canceledMarker);
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new ResilientCall<>(delegate.clone(), factory, idempotent, deadlineMillis);
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+
+    @Override
+    public Timeout timeout() {
+        return delegate.timeout();
+    }
+
+    /**
+     * The outcome of one request: a response or a failure.
+     */
+    private static final class Answer<T> {
+        final boolean hedge;
+        final Response<T> response;
+        final Throwable failure;
+
+        Answer(boolean hedge, Response<T> response, Throwable failure) {
+            this.hedge = hedge;
+            this.response = response;
+            this.failure = failure;
+        }
+
+        Response<T> get() throws IOException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.metrics.Counter;
+import com.miun.restaurantbooking.metrics.Metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Retrofit;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.OPTIONS;
+import retrofit2.http.PUT;
+import retrofit2.http.Streaming;
+
+/**
+ * Applies a {@link ResiliencePolicy} to the calls of a Retrofit service.
+ * Idempotent requests (GET, HEAD, PUT, DELETE, OPTIONS) are retried, hedged and given a
+ * deadline when executed; all other requests only go through the circuit breaker, since
+ * sending them twice could apply them twice. Streaming endpoints are left alone: they
+ * stay open for long and reconnect on their own.
+ * The calls are wrapped before Retrofit's own adapter, so asynchronous callbacks are still
+ * delivered on the callback executor.
+ */
+public class ResilientCallAdapterFactory extends CallAdapter.Factory {
+
+    private final ResiliencePolicy policy;
+    private final CircuitBreaker circuitBreaker;
+    final Counter retries;
+    final Counter hedges;
+    final Counter hedgeWins;
+    final Counter deadlinesExceeded;
+    final Counter circuitRejections;
+
+    private ResilientCallAdapterFactory(ResiliencePolicy policy) {
+        this.policy = policy;
+        this.circuitBreaker = policy.getCircuitBreaker();
+        Metrics metrics = policy.getMetrics();
+        retries = metrics.counter(Metrics.HTTP_RETRIES);
+        hedges = metrics.counter(Metrics.HTTP_HEDGES);
+        hedgeWins = metrics.counter(Metrics.HTTP_HEDGE_WINS);
+        deadlinesExceeded = metrics.counter(Metrics.HTTP_DEADLINES_EXCEEDED);
+        circuitRejections = metrics.counter(Metrics.CIRCUIT_REJECTIONS);
+    }
+
+    /**
+     * @param policy Retries, deadlines, hedging and circuit breaker to apply
+     * @return A factory to add to a Retrofit builder
+     */
+    public static ResilientCallAdapterFactory create(ResiliencePolicy policy) {
+        return new ResilientCallAdapterFactory(policy);
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        boolean idempotent = false;
+        long deadlineMillis = policy.getDeadlineMillis();
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Streaming) {
+                return null;
+            }
+            if (annotation instanceof GET || annotation instanceof HEAD || annotation instanceof PUT
+                    || annotation instanceof DELETE || annotation instanceof OPTIONS) {
+                idempotent = true;
+            } else if (annotation instanceof Deadline) {
+                deadlineMillis = ((Deadline) annotation).value();
+            }
+        }
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Object> next =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new Adapter(next, idempotent, deadlineMillis);
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    ResiliencePolicy getPolicy() {
+        return policy;
+    }
+
+    private final class Adapter implements CallAdapter<Object, Object> {
+        private final CallAdapter<Object, Object> next;
+        private final boolean idempotent;
+        private final long deadlineMillis;
+
+        Adapter(CallAdapter<Object, Object> next, boolean idempotent, long deadlineMillis) {
+            this.next = next;
+            this.idempotent = idempotent;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        @Override
+        public Type responseType() {
+            return next.responseType();
+        }
+
+        @Override
+        public Object adapt(Call<Object> call) {
+            return next.adapt(new ResilientCall<>(call, ResilientCallAdapterFactory.this, idempotent, deadlineMillis));
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generates realistic booking data at production scale, for load tests, benchmarks and
+ * fake backends. The bookings of a venue and date depend only on the seed, the venue and
+ * the date, so they are the same on every run, in any order and on any thread: each day
+ * is generated from its own random generator and the generator itself holds no mutable
+ * state. A day is generated in time proportional to its number of bookings:
+ * <ul>
+ *     <li>The number of bookings follows the weekday, with some day-to-day variation.</li>
+ *     <li>Start times follow the slot weights (lunch and dinner peaks by default) and
+ *     party sizes the party size weights, each drawn in constant time from an alias table.
+ *     A slot with every table taken passes its bookings on to the next slot with room.</li>
+ *     <li>Tables within a slot are drawn with a partial Fisher-Yates shuffle, so no table
+ *     is booked twice at the same start time and no draw is ever retried.</li>
+ *     <li>IDs are derived from the day, venue, slot and table, so they are unique across
+ *     everything the generator produces without a shared counter.</li>
+ *     <li>Guests are drawn from a fixed set of regulars, some of whom book far more often
+ *     than others.</li>
+ *     <li>A share of the bookings is cancelled; their IDs are reported as deleted.</li>
+ * </ul>
+ * Ranges are streamed day by day, so memory use does not grow with the length of the range.
+ */
+public class SyntheticBookingGenerator {
+
+    private static final String[] FIRST_NAMES = {"Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Emma",
+            "Mikael", "Sofia", "Anders", "Lisa", "Peter", "Sara", "Magnus", "Helena", "Oskar", "Elin", "Åsa",
+            "Björn", "Ingrid", "Nils", "Astrid", "Gustav", "Maja", "Olof", "Linnea", "Axel", "Ebba"};
+    private static final String[] LAST_NAMES = {"Andersson", "Eriksson", "Johansson", "Larsson", "Nilsson",
+            "Karlsson", "Svensson", "Gustafsson", "Pettersson", "Jonsson", "Persson", "Olsson", "Lindberg",
+            "Berg", "Lundgren", "Öberg", "Holm", "Sandberg", "Forsberg", "Sjöberg", "Wallin", "Engström"};
+
+    private final Config config;
+    private final WeightedChoice slots;
+    private final WeightedChoice partySizes;
+    private final String[] names;
+    private final String[] phones;
+    private final Gson gson = new Gson();
+
+    private SyntheticBookingGenerator(Config config) {
+        this.config = config;
+        this.slots = new WeightedChoice(config.slotWeights);
+        this.partySizes = new WeightedChoice(config.partySizeWeights);
+        this.names = new String[config.guests];
+        this.phones = new String[config.guests];
+        SplittableRandom random = new SplittableRandom(config.seed);
+        for (int i = 0; i < config.guests; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            phones[i] = String.format("07%d-%03d %02d %02d", random.nextInt(10), random.nextInt(1000),
+                    random.nextInt(100), random.nextInt(100));
+        }
+    }
+
+    /**
+     * Get the bookings of a venue on a date that were not cancelled.
+     *
+     * @param venue Venue index, from 0
+     * @param date  Date string in format YYYY-MM-DD
+     * @return Bookings sorted by time, then table
+     */
+    public List<Booking> getBookings(int venue, String date) {
+        return generateDay(venue, date).getUpdated();
+    }
+
+    /**
+     * Generate the bookings of a venue on a date, including the cancelled ones.
+     *
+     * @param venue Venue index, from 0
+     * @param date  Date string in format YYYY-MM-DD
+     * @return The bookings sorted by time, then table, as updated, and the IDs of the
+     * cancelled bookings as deleted; the cursor is 0
+     */
+    public BookingChanges generateDay(int venue, String date) {
+        if (venue < 0 || venue >= config.venues) {
+            throw new IllegalArgumentException("No venue " + venue + ", there are " + config.venues);
+        }
+        LocalDate day = LocalDate.parse(date);
+        long epochDay = day.toEpochDay();
+        SplittableRandom random = new SplittableRandom(mix(config.seed, venue, epochDay));
+        int tables = config.tablesPerVenue;
+        int slotCount = config.slotWeights.length;
+        int capacity = tables * slotCount;
+
+        double factor = config.weekdayFactors[day.getDayOfWeek().getValue() - 1];
+        double variation = 1 + config.dailyVariation * (2 * random.nextDouble() - 1);
+        int count = (int) Math.min(capacity, Math.round(config.bookingsPerDay * factor * variation));
+
+        // Bookings per slot; full slots point on to the next slot with room, wrapping around
+        int[] perSlot = new int[slotCount];
+        int[] nextOpen = new int[slotCount];
+        for (int s = 0; s < slotCount; s++) {
+            nextOpen[s] = s;
+        }
+        for (int i = 0; i < count; i++) {
+            int slot = findOpen(nextOpen, slots.next(random));
+            if (++perSlot[slot] == tables) {
+                nextOpen[slot] = (slot + 1) % slotCount;
+            }
+        }
+
+        List<Booking> bookings = new ArrayList<>(count);
+        List<Long> cancelled = new ArrayList<>();
+        int[] tableOrder = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            tableOrder[t] = t + 1;
+        }
+        int[] swaps = new int[tables];
+        int[] picked = new int[tables];
+        long firstIdOfDay = (epochDay * config.venues + venue) * capacity + 1;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int taken = perSlot[slot];
+            if (taken == 0) {
+                continue;
+            }
+            // Partial Fisher-Yates: the first taken entries become a uniform sample of the tables
+            for (int k = 0; k < taken; k++) {
+                int j = k + random.nextInt(tables - k);
+                swaps[k] = j;
+                int table = tableOrder[j];
+                tableOrder[j] = tableOrder[k];
+                tableOrder[k] = table;
+            }
+            System.arraycopy(tableOrder, 0, picked, 0, taken);
+            // Undo the swaps, so resetting the table order costs as much as the draw
+            for (int k = taken - 1; k >= 0; k--) {
+                int table = tableOrder[swaps[k]];
+                tableOrder[swaps[k]] = tableOrder[k];
+                tableOrder[k] = table;
+            }
+            Arrays.sort(picked, 0, taken);
+
+            int minuteOfDay = config.firstSlotMinute + slot * config.slotMinutes;
+            String dateTime = date + "T" + DateFormatter.formatTime(minuteOfDay) + ":00";
+            for (int k = 0; k < taken; k++) {
+                int table = picked[k];
+                long id = firstIdOfDay + (long) slot * tables + table - 1;
+                if (random.nextDouble() < config.cancellationRate) {
+                    cancelled.add(id);
+                    continue;
+                }
+                // Squaring skews the draw towards the first guests, the regulars
+                double u = random.nextDouble();
+                int guest = (int) (u * u * config.guests);
+                Booking booking = new Booking(id, names[guest], phones[guest], table, dateTime,
+                        partySizes.next(random));
+                booking.setVersion(1);
+                bookings.add(booking);
+            }
+        }
+        return new BookingChanges(0, bookings, cancelled);
+    }
+
+    /**
+     * Generate the bookings of every venue over a date range, one day at a time.
+     *
+     * @param fromDate First date, format YYYY-MM-DD
+     * @param toDate   Last date (inclusive), format YYYY-MM-DD
+     * @param consumer Receives the bookings by date, then venue, then time
+     */
+    public void forEach(String fromDate, String toDate, Consumer<Booking> consumer) {
+        LocalDate last = LocalDate.parse(toDate);
+        for (LocalDate date = LocalDate.parse(fromDate); !date.isAfter(last); date = date.plusDays(1)) {
+            for (int venue = 0; venue < config.venues; venue++) {
+                for (Booking booking : getBookings(venue, date.toString())) {
+                    consumer.accept(booking);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the bookings of a venue over a date range as a JSON array, in the format of the
+     * booking endpoints, one day at a time.
+     *
+     * @param venue    Venue index, from 0
+     * @param fromDate First date, format YYYY-MM-DD
+     * @param toDate   Last date (inclusive), format YYYY-MM-DD
+     * @param out      Writer receiving the JSON; not closed
+     * @return Number of bookings written
+     * @throws IOException if writing fails
+     */
+    public int writeJson(int venue, String fromDate, String toDate, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        int count = 0;
+        LocalDate last = LocalDate.parse(toDate);
+        for (LocalDate date = LocalDate.parse(fromDate); !date.isAfter(last); date = date.plusDays(1)) {
+            for (Booking booking : getBookings(venue, date.toString())) {
+                gson.toJson(booking, Booking.class, writer);
+                count++;
+            }
+        }
+        writer.endArray();
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * @return Number of venues bookings are generated for
+     */
+    public int getVenueCount() {
+        return config.venues;
+    }
+
+    /**
+     * Follow the pointers from a slot to the first slot with a free table, shortening
+     * the path on the way so later lookups take a single step.
+     */
+    private static int findOpen(int[] nextOpen, int slot) {
+        int open = slot;
+        while (nextOpen[open] != open) {
+            open = nextOpen[open];
+        }
+        while (nextOpen[slot] != open) {
+            int next = nextOpen[slot];
+            nextOpen[slot] = open;
+            slot = next;
+        }
+        return open;
+    }
+
+    /**
+     * Seed of a venue and day: the three values mixed so that neighbouring days and
+     * venues get unrelated random sequences.
+     */
+    private static long mix(long seed, int venue, long epochDay) {
+        long h = seed * 0x9E3779B97F4A7C15L + venue;
+        h = h * 0xBF58476D1CE4E5B9L + epochDay;
+        h ^= h >>> 31;
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight in constant time,
+     * using Vose's alias method.
+     */
+    private static class WeightedChoice {
+        private final double[] probability;
+        private final int[] alias;
+
+        WeightedChoice(double[] weights) {
+            int n = weights.length;
+            double total = 0;
+            for (double weight : weights) {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Weights must not be negative");
+                }
+                total += weight;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("At least one weight must be positive");
+            }
+            probability = new double[n];
+            alias = new int[n];
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / total;
+                if (scaled[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // What is left is 1 up to rounding errors
+            while (largeCount > 0) {
+                probability[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                probability[small[--smallCount]] = 1;
+            }
+        }
+
+        int next(SplittableRandom random) {
+            int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+    }
+
+    /**
+     * Settings of a generator. The defaults describe one busy city restaurant.
+     */
+    public static class Config {
+
+        private long seed = 1;
+        private int venues = 1;
+        private int tablesPerVenue = 40;
+        private int bookingsPerDay = 300;
+        private double dailyVariation = 0.1;
+        /**
+         * Monday to Sunday.
+         */
+        private double[] weekdayFactors = {0.6, 0.7, 0.8, 0.9, 1.2, 1.4, 1.0};
+        private int firstSlotMinute = 11 * 60;
+        private int slotMinutes = 15;
+        /**
+         * 11:00 to 22:45 in quarter hours: a lunch peak around 12:00 and a larger dinner peak around 19:00.
+         */
+        private double[] slotWeights = {
+                1, 2, 4, 5, 6, 6, 5, 4, 3, 2, 1, 1,
+                0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5,
+                2, 3, 4, 5, 7, 8, 9, 9, 10, 10, 9, 8,
+                7, 6, 5, 4, 3, 2, 2, 1, 1, 1, 0.5, 0.5};
+        /**
+         * Weight of each party size, by number of guests.
+         */
+        private double[] partySizeWeights = {0, 8, 40, 12, 22, 6, 6, 2, 2, 1, 1};
+        private double cancellationRate = 0.05;
+        private int guests = 20_000;
+
+        /**
+         * @param seed Seed every generated booking derives from
+         * @return this config
+         */
+        public Config setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param venues         Number of venues, indexed from 0
+         * @param tablesPerVenue Number of tables at each venue, numbered from 1
+         * @return this config
+         */
+        public Config setVenues(int venues, int tablesPerVenue) {
+            this.venues = venues;
+            this.tablesPerVenue = tablesPerVenue;
+            return this;
+        }
+
+        /**
+         * The number of bookings of a day is bookingsPerDay times the weekday's factor, varied at
+         * random by up to dailyVariation either way, and at most one per table and slot.
+         *
+         * @param bookingsPerDay Bookings per venue on an average day, before cancellations
+         * @param weekdayFactors Seven factors, Monday to Sunday
+         * @param dailyVariation Largest random deviation, as a fraction of the day's number
+         * @return this config
+         */
+        public Config setBookingsPerDay(int bookingsPerDay, double[] weekdayFactors, double dailyVariation) {
+            if (weekdayFactors.length != 7) {
+                throw new IllegalArgumentException("Seven weekday factors are needed, Monday to Sunday");
+            }
+            this.bookingsPerDay = bookingsPerDay;
+            this.weekdayFactors = weekdayFactors.clone();
+            this.dailyVariation = dailyVariation;
+            return this;
+        }
+
+        /**
+         * @param firstSlotMinute Start of the first slot, as minute of the day
+         * @param slotMinutes     Minutes between the starts of two slots
+         * @param slotWeights     Relative popularity of each slot, which also sets the number of slots
+         * @return this config
+         */
+        public Config setSlots(int firstSlotMinute, int slotMinutes, double[] slotWeights) {
+            if (firstSlotMinute + (slotWeights.length - 1) * slotMinutes >= 24 * 60) {
+                throw new IllegalArgumentException("The last slot must start before midnight");
+            }
+            this.firstSlotMinute = firstSlotMinute;
+            this.slotMinutes = slotMinutes;
+            this.slotWeights = slotWeights.clone();
+            return this;
+        }
+
+        /**
+         * @param partySizeWeights Relative frequency of each party size, indexed by number of guests
+         * @return this config
+         */
+        public Config setPartySizeWeights(double[] partySizeWeights) {
+            this.partySizeWeights = partySizeWeights.clone();
+            return this;
+        }
+
+        /**
+         * @param cancellationRate Share of the bookings that are cancelled, from 0 to 1
+         * @return this config
+         */
+        public Config setCancellationRate(double cancellationRate) {
+            this.cancellationRate = cancellationRate;
+            return this;
+        }
+
+        /**
+         * @param guests Number of distinct guests the bookings are made by
+         * @return this config
+         */
+        public Config setGuests(int guests) {
+            this.guests = guests;
+            return this;
+        }
+
+        /**
+         * Create a generator with these settings. Later changes to this config do not affect it.
+         *
+         * @return A new generator
+         */
+        public SyntheticBookingGenerator build() {
+            Config copy = new Config();
+            copy.seed = seed;
+            copy.venues = venues;
+            copy.tablesPerVenue = tablesPerVenue;
+            copy.bookingsPerDay = bookingsPerDay;
+            copy.dailyVariation = dailyVariation;
+            copy.weekdayFactors = weekdayFactors.clone();
+            copy.firstSlotMinute = firstSlotMinute;
+            copy.slotMinutes = slotMinutes;
+            copy.slotWeights = slotWeights.clone();
+            copy.partySizeWeights = partySizeWeights.clone();
+            copy.cancellationRate = cancellationRate;
+            copy.guests = guests;
+            return new SyntheticBookingGenerator(copy);
+        }
+    }
+}
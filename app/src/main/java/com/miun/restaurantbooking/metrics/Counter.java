@@ -0,0 +1,40 @@
+package com.miun.restaurantbooking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as cache hits or failed requests.
+ * Safe to increment from any thread; does nothing while metrics are disabled.
+ */
+public class Counter {
+
+    private final Metrics metrics;
+    private final LongAdder count = new LongAdder();
+
+    Counter(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void increment() {
+        if (metrics.isEnabled()) {
+            count.increment();
+        }
+    }
+
+    /**
+     * @param amount Amount to add
+     */
+    public void add(long amount) {
+        if (metrics.isEnabled()) {
+            count.add(amount);
+        }
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
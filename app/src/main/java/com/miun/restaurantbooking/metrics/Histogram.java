@@ -0,0 +1,178 @@
+package com.miun.restaurantbooking.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of recorded values, such as request latencies or bookings per response.
+ * Values are counted in buckets that grow exponentially, with eight buckets per power of
+ * two, so any percentile is within 12.5 % of the true value while recording stays a few
+ * atomic increments without allocation. Safe to record from any thread; does nothing
+ * while metrics are disabled.
+ */
+public class Histogram {
+
+    /**
+     * What the recorded values measure, used when formatting them.
+     */
+    public enum Unit {
+        NANOSECONDS,
+        COUNT,
+        BYTES
+    }
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values below SUB_BUCKETS get one bucket each, then every power of two up to 2^62 gets SUB_BUCKETS.
+     */
+    static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final Metrics metrics;
+    private final Unit unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(Metrics metrics, Unit unit) {
+        this.metrics = metrics;
+        this.unit = unit;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * @param value Value to record; negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a start time from {@link Metrics#startTimer()}.
+     *
+     * @param startNanos Start time, or {@link Metrics#NOT_TIMING} if metrics were disabled
+     */
+    public void recordSince(long startNanos) {
+        if (startNanos != Metrics.NOT_TIMING) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @return The values recorded so far
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(unit, count.sum(), sum.sum(), max.get(), counts);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The smallest value counted in a bucket
+     */
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Recorded values at one point in time.
+     */
+    public static class Snapshot {
+        private final Unit unit;
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long[] counts;
+
+        Snapshot(Unit unit, long count, long sum, long max, long[] counts) {
+            this.unit = unit;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        public Unit getUnit() {
+            return unit;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile Percentile from 0 to 100, e.g. 99
+         * @return The middle of the bucket holding the percentile, at most the maximum, or 0 if empty
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long lower = bucketLowerBound(i);
+                    long upper = i + 1 < BUCKETS ? bucketLowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                    return Math.min(lower + (upper - lower) / 2, max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.miun.restaurantbooking.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the app's counters, histograms and gauges, so a slow screen can be traced
+ * to the network, parsing, diffing or binding.
+ * <p>
+ * Instrumented code looks its metrics up once and keeps them in fields. While metrics are
+ * disabled, which is the default, recording costs a single volatile read and timers do not
+ * read the clock. Snapshots can be exported periodically, see {@link MetricsExporter}.
+ */
+public class Metrics {
+
+    /**
+     * Returned by {@link #startTimer()} while metrics are disabled.
+     */
+    public static final long NOT_TIMING = Long.MIN_VALUE;
+
+    // Stages of a refresh, in order
+    public static final String HTTP_REQUEST = "http.request";
+    public static final String HTTP_FIRST_BYTE = "http.first_byte";
+    public static final String PARSE = "parse";
+    public static final String DIFF = "ui.diff";
+    public static final String BIND = "ui.bind";
+
+    public static final String HTTP_PAYLOAD_BYTES = "http.payload_bytes";
+    public static final String HTTP_FAILURES = "http.failures";
+    public static final String HTTP_CACHE_HITS = "cache.http.hits";
+    public static final String HTTP_CACHE_REQUESTS = "cache.http.requests";
+    public static final String MEMORY_CACHE_HITS = "cache.memory.hits";
+    public static final String MEMORY_CACHE_MISSES = "cache.memory.misses";
+    public static final String DISK_CACHE_HITS = "cache.disk.hits";
+    public static final String DISK_CACHE_MISSES = "cache.disk.misses";
+    public static final String BOOKINGS_PER_RESPONSE = "parse.bookings";
+    public static final String BOOKINGS_PER_REFRESH = "refresh.bookings";
+    public static final String HTTP_RETRIES = "http.retries";
+    public static final String HTTP_HEDGES = "http.hedges";
+    public static final String HTTP_HEDGE_WINS = "http.hedge_wins";
+    public static final String HTTP_DEADLINES_EXCEEDED = "http.deadlines_exceeded";
+    public static final String CIRCUIT_REJECTIONS = "circuit.rejections";
+    public static final String CIRCUIT_STATE = "circuit.state";
+
+    /**
+     * From MainActivity.onCreate until the first bookings, or an error, are shown.
+     */
+    public static final String STARTUP_FIRST_DATA = "startup.first_data";
+
+    private volatile boolean enabled;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Get the app-wide registry.
+     *
+     * @return The shared instance, disabled until {@link #setEnabled(boolean)} is called
+     */
+    public static Metrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        static final Metrics INSTANCE = new Metrics();
+    }
+
+    /**
+     * Turn recording on or off. Values recorded so far are kept.
+     *
+     * @param enabled true to record
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param name Name of the counter
+     * @return The counter with that name, created on first use
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter(this));
+    }
+
+    /**
+     * @param name Name of the timer
+     * @return A histogram of durations in nanoseconds, created on first use
+     */
+    public Histogram timer(String name) {
+        return histogram(name, Histogram.Unit.NANOSECONDS);
+    }
+
+    /**
+     * @param name Name of the histogram
+     * @param unit What the values measure; ignored if the histogram already exists
+     * @return The histogram with that name, created on first use
+     */
+    public Histogram histogram(String name, Histogram.Unit unit) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(this, unit));
+    }
+
+    /**
+     * Register a value that is read when a snapshot is taken, replacing any gauge
+     * with the same name.
+     *
+     * @param name  Name of the gauge
+     * @param value Supplies the current value; called on the exporting thread
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Start timing a stage, for {@link Histogram#recordSince(long)}.
+     *
+     * @return The current time in nanoseconds, or {@link #NOT_TIMING} while disabled
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : NOT_TIMING;
+    }
+
+    /**
+     * @return The current values of all metrics
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(System.currentTimeMillis(), counters, histograms, gauges);
+    }
+
+    /**
+     * Set all counters and histograms back to zero.
+     */
+    public void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Export a snapshot periodically. The timer only triggers the export; taking the
+     * snapshot and writing it runs on the I/O executor.
+     *
+     * @param scheduler    Timer triggering the exports
+     * @param io           Executor taking and writing the snapshots
+     * @param periodMillis Time between exports
+     * @param exporter     Where the snapshots go
+     * @return Handle to cancel the exports with
+     */
+    public ScheduledFuture<?> scheduleExport(ScheduledExecutorService scheduler, Executor io, long periodMillis,
+                                             MetricsExporter exporter) {
+        return scheduler.scheduleWithFixedDelay(() -> io.execute(() -> {
+            if (enabled) {
+                try {
+                    exporter.export(snapshot());
+                } catch (Exception e) {
+                    // An export that failed is skipped; the next one carries the same totals
+                }
+            }
+        }), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+}
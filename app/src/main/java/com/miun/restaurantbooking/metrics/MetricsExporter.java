@@ -0,0 +1,61 @@
+package com.miun.restaurantbooking.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Destination for metrics snapshots.
+ */
+public interface MetricsExporter {
+
+    /**
+     * @param snapshot Snapshot to export
+     * @throws IOException if the snapshot could not be written
+     */
+    void export(MetricsSnapshot snapshot) throws IOException;
+
+    /**
+     * Export to a log, such as logcat, one line per metric.
+     *
+     * @param log Writes one line to the log
+     * @return The exporter
+     */
+    static MetricsExporter toLog(Consumer<String> log) {
+        return snapshot -> {
+            for (String line : snapshot.format().split("\n")) {
+                log.accept(line);
+            }
+        };
+    }
+
+    /**
+     * Append to a local file, each snapshot headed by its time. When the file grows past
+     * a size it is moved to a ".old" file next to it, so at most twice that size is kept.
+     *
+     * @param file     File to append to
+     * @param maxBytes Size at which the file is rotated
+     * @return The exporter
+     */
+    static MetricsExporter toFile(File file, long maxBytes) {
+        return snapshot -> {
+            synchronized (MetricsExporter.class) {
+                if (file.length() > maxBytes) {
+                    File old = new File(file.getPath() + ".old");
+                    if (old.exists() && !old.delete() || !file.renameTo(old)) {
+                        throw new IOException("Could not rotate " + file);
+                    }
+                }
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+                    writer.write("# " + Instant.ofEpochMilli(snapshot.getTimestampMillis()) + "\n");
+                    writer.write(snapshot.format());
+                }
+            }
+        };
+    }
+}
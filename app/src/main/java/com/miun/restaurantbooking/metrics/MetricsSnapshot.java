@@ -0,0 +1,109 @@
+package com.miun.restaurantbooking.metrics;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Values of all metrics at one point in time, sorted by name.
+ */
+public class MetricsSnapshot {
+
+    private final long timestampMillis;
+    private final Map<String, Long> counters = new TreeMap<>();
+    private final Map<String, Long> gauges = new TreeMap<>();
+    private final Map<String, Histogram.Snapshot> histograms = new TreeMap<>();
+
+    MetricsSnapshot(long timestampMillis, Map<String, Counter> counters,
+                    Map<String, Histogram> histograms, Map<String, LongSupplier> gauges) {
+        this.timestampMillis = timestampMillis;
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            this.counters.put(counter.getKey(), counter.getValue().get());
+        }
+        for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+            this.histograms.put(histogram.getKey(), histogram.getValue().snapshot());
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            this.gauges.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return The value of a counter, or 0 if it has not been created
+     */
+    public long getCounter(String name) {
+        Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * @return The value of a gauge, or null if none is registered
+     */
+    public Long getGauge(String name) {
+        return gauges.get(name);
+    }
+
+    /**
+     * @return The values of a histogram, or null if it has not been created
+     */
+    public Histogram.Snapshot getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, Long> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Format the snapshot with one metric per line, e.g.
+     * {@code http.request count=12 mean=84.2ms p50=71.7ms p90=143ms p99=201ms max=215ms}.
+     *
+     * @return The formatted metrics
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            text.append(counter.getKey()).append(' ').append(counter.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Long> gauge : gauges.entrySet()) {
+            text.append(gauge.getKey()).append(' ').append(gauge.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Histogram.Snapshot> entry : histograms.entrySet()) {
+            Histogram.Snapshot histogram = entry.getValue();
+            text.append(entry.getKey())
+                    .append(" count=").append(histogram.getCount())
+                    .append(" mean=").append(format(histogram.getMean(), histogram.getUnit()))
+                    .append(" p50=").append(format(histogram.getPercentile(50), histogram.getUnit()))
+                    .append(" p90=").append(format(histogram.getPercentile(90), histogram.getUnit()))
+                    .append(" p99=").append(format(histogram.getPercentile(99), histogram.getUnit()))
+                    .append(" max=").append(format(histogram.getMax(), histogram.getUnit()))
+                    .append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String format(double value, Histogram.Unit unit) {
+        switch (unit) {
+            case NANOSECONDS:
+                return String.format(Locale.ROOT, "%.3gms", value / 1e6);
+            case BYTES:
+                return String.format(Locale.ROOT, "%.0fB", value);
+            default:
+                return String.format(Locale.ROOT, "%.0f", value);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.miun.restaurantbooking.model;
 
 import com.google.gson.annotations.SerializedName;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.util.Objects;
 
 /**
  * Represents a table booking at the restaurant.
@@ -24,6 +27,21 @@ public class Booking {
     @SerializedName("numberOfPeople")
     private int numberOfGuests;
 
+    /**
+     * Server version of the booking, increased on every change. Sent back with an
+     * update or cancellation so the server can detect conflicting edits.
+     */
+    @SerializedName("version")
+    private long version;
+
+    /**
+     * dateTime parsed to minutes since 1970-01-01T00:00, so sorting and display
+     * never have to parse the string again. Not part of the JSON.
+     */
+    private transient volatile long startEpochMinute = NOT_PARSED;
+
+    private static final long NOT_PARSED = Long.MAX_VALUE;
+
     /**
      * Default constructor
      */
@@ -47,6 +65,22 @@ public class Booking {
         this.tableNumber = tableNumber;
         this.dateTime = dateTime;
         this.numberOfGuests = numberOfGuests;
+        this.startEpochMinute = DateFormatter.parseEpochMinute(dateTime);
+    }
+
+    /**
+     * Constructor for a booking whose start time is already parsed, see {@link CompactBookingList}
+     */
+    Booking(Long bookingId, String customerName, String phoneNumber, int tableNumber, String dateTime,
+            long startEpochMinute, int numberOfGuests, long version) {
+        this.bookingId = bookingId;
+        this.customerName = customerName;
+        this.phoneNumber = phoneNumber;
+        this.tableNumber = tableNumber;
+        this.dateTime = dateTime;
+        this.startEpochMinute = startEpochMinute;
+        this.numberOfGuests = numberOfGuests;
+        this.version = version;
     }
 
     // Getters and Setters
@@ -139,6 +173,33 @@ public class Booking {
      */
     public void setDateTime(String dateTime) {
         this.dateTime = dateTime;
+        this.startEpochMinute = DateFormatter.parseEpochMinute(dateTime);
+    }
+
+    /**
+     * Get the start of the booking as minutes since 1970-01-01T00:00.
+     * Parsed once from the date and time string.
+     *
+     * @return epoch minute, or DateFormatter.NO_TIME if the date and time is invalid
+     */
+    public long getStartEpochMinute() {
+        long minute = startEpochMinute;
+        if (minute == NOT_PARSED) {
+            // Set by Gson through reflection without calling setDateTime
+            minute = DateFormatter.parseEpochMinute(dateTime);
+            startEpochMinute = minute;
+        }
+        return minute;
+    }
+
+    /**
+     * Get the start time as minute of the day
+     *
+     * @return minute of the day from 0 to 1439, or -1 if the date and time is invalid
+     */
+    public int getMinuteOfDay() {
+        long minute = getStartEpochMinute();
+        return minute == DateFormatter.NO_TIME ? -1 : DateFormatter.minuteOfDay(minute);
     }
 
     /**
@@ -159,6 +220,61 @@ public class Booking {
         this.numberOfGuests = numberOfGuests;
     }
 
+    /**
+     * Get the server version of the booking
+     *
+     * @return version increased by the server on every change, 0 if never stored
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the server version of the booking
+     *
+     * @param version version the booking has on the server
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Copy the booking, e.g. to edit it without changing the one that is displayed
+     *
+     * @return a new booking with the same fields
+     */
+    public Booking copy() {
+        Booking copy = new Booking(bookingId, customerName, phoneNumber, tableNumber, dateTime, numberOfGuests);
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Compares all booking fields, so an unchanged booking from a refresh
+     * is equal to the one already displayed.
+     *
+     * @param o the object to compare with
+     * @return true if all fields are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Booking booking = (Booking) o;
+        return tableNumber == booking.tableNumber &&
+                numberOfGuests == booking.numberOfGuests &&
+                version == booking.version &&
+                Objects.equals(bookingId, booking.bookingId) &&
+                Objects.equals(customerName, booking.customerName) &&
+                Objects.equals(phoneNumber, booking.phoneNumber) &&
+                Objects.equals(dateTime, booking.dateTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bookingId, customerName, phoneNumber, tableNumber, dateTime, numberOfGuests, version);
+    }
+
     /**
      * Returns a string representation of the booking
      *
@@ -173,6 +289,7 @@ public class Booking {
                 ", tableNumber=" + tableNumber +
                 ", dateTime='" + dateTime + '\'' +
                 ", numberOfGuests=" + numberOfGuests +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,76 @@
+package com.miun.restaurantbooking.model;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bookings that changed for a date since a sync cursor.
+ * Returned by the delta sync endpoint.
+ */
+public class BookingChanges {
+    @SerializedName("cursor")
+    private long cursor;
+
+    @SerializedName("updated")
+    private List<Booking> updated;
+
+    @SerializedName("deleted")
+    private List<Long> deletedIds;
+
+    /**
+     * Default constructor
+     */
+    public BookingChanges() {
+    }
+
+    /**
+     * Full constructor
+     *
+     * @param cursor     Cursor to send with the next sync request
+     * @param updated    Bookings that were inserted or updated since the previous cursor
+     * @param deletedIds IDs of bookings that were deleted since the previous cursor
+     */
+    public BookingChanges(long cursor, List<Booking> updated, List<Long> deletedIds) {
+        this.cursor = cursor;
+        this.updated = updated;
+        this.deletedIds = deletedIds;
+    }
+
+    /**
+     * Get the cursor to send with the next sync request
+     *
+     * @return the new change cursor
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Get the inserted or updated bookings
+     *
+     * @return list of changed bookings, never null
+     */
+    public List<Booking> getUpdated() {
+        return updated == null ? new ArrayList<>() : updated;
+    }
+
+    /**
+     * Get the IDs of deleted bookings
+     *
+     * @return list of deleted booking IDs, never null
+     */
+    public List<Long> getDeletedIds() {
+        return deletedIds == null ? new ArrayList<>() : deletedIds;
+    }
+
+    /**
+     * Check whether anything changed since the previous cursor
+     *
+     * @return true if there are no updated or deleted bookings
+     */
+    public boolean isEmpty() {
+        return getUpdated().isEmpty() && getDeletedIds().isEmpty();
+    }
+}
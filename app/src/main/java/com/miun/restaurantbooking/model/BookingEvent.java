@@ -0,0 +1,68 @@
+package com.miun.restaurantbooking.model;
+
+import java.util.Collections;
+
+/**
+ * A change to one booking, pushed by the server while the app is subscribed to a date.
+ * Each event carries the change cursor it advances the date to; the cursor grows by one
+ * per change, so a skipped cursor means an event was lost.
+ */
+public class BookingEvent {
+
+    /**
+     * What happened to the booking.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        CANCELLED,
+        /**
+         * The server cannot continue the stream from the client's cursor and the date
+         * must be fetched again.
+         */
+        RESYNC
+    }
+
+    private final Type type;
+    private final long cursor;
+    private final Booking booking;
+
+    /**
+     * Constructor
+     *
+     * @param type    What happened to the booking
+     * @param cursor  Change cursor after this event
+     * @param booking The booking as it is now; for a cancellation only its ID is needed.
+     *                Null for {@link Type#RESYNC}
+     */
+    public BookingEvent(Type type, long cursor, Booking booking) {
+        this.type = type;
+        this.cursor = cursor;
+        this.booking = booking;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Express the event as a delta, so it can be merged like a delta sync result.
+     *
+     * @return Changes holding this one booking
+     */
+    public BookingChanges toChanges() {
+        if (type == Type.CANCELLED) {
+            return new BookingChanges(cursor, Collections.emptyList(),
+                    Collections.singletonList(booking.getBookingId()));
+        }
+        return new BookingChanges(cursor, Collections.singletonList(booking), Collections.emptyList());
+    }
+}
@@ -0,0 +1,83 @@
+package com.miun.restaurantbooking.model;
+
+/**
+ * What the host searched for: free text matched against guest names and phone numbers,
+ * optionally narrowed down to a table and a party size.
+ */
+public class BookingFilter {
+
+    /**
+     * Table number meaning "any table".
+     */
+    public static final int ANY_TABLE = -1;
+
+    private String text = "";
+    private int tableNumber = ANY_TABLE;
+    private int minGuests = 0;
+    private int maxGuests = Integer.MAX_VALUE;
+
+    /**
+     * @param text Part of a guest name or phone number, e.g. "anna" or "070-45"
+     * @return this filter
+     */
+    public BookingFilter setText(String text) {
+        this.text = text == null ? "" : text;
+        return this;
+    }
+
+    /**
+     * @param tableNumber Only match bookings at this table, or {@link #ANY_TABLE}
+     * @return this filter
+     */
+    public BookingFilter setTableNumber(int tableNumber) {
+        this.tableNumber = tableNumber;
+        return this;
+    }
+
+    /**
+     * @param minGuests Smallest party size to match
+     * @param maxGuests Largest party size to match
+     * @return this filter
+     */
+    public BookingFilter setGuests(int minGuests, int maxGuests) {
+        this.minGuests = minGuests;
+        this.maxGuests = maxGuests;
+        return this;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public int getMinGuests() {
+        return minGuests;
+    }
+
+    public int getMaxGuests() {
+        return maxGuests;
+    }
+
+    /**
+     * Check the table and party size constraints. The text is matched by the search index.
+     *
+     * @param booking Booking to check
+     * @return true if the booking is at the right table and has the right party size
+     */
+    public boolean matchesTableAndGuests(Booking booking) {
+        return (tableNumber == ANY_TABLE || booking.getTableNumber() == tableNumber)
+                && booking.getNumberOfGuests() >= minGuests
+                && booking.getNumberOfGuests() <= maxGuests;
+    }
+
+    /**
+     * @return true if the filter matches every booking
+     */
+    public boolean isEmpty() {
+        return text.trim().isEmpty() && tableNumber == ANY_TABLE
+                && minGuests <= 0 && maxGuests == Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,92 @@
+package com.miun.restaurantbooking.model;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A change to one booking made on the device, sent to the server in a batch.
+ * The server applies a mutation at most once per idempotency key, so a batch whose
+ * response was lost can be sent again without creating or cancelling anything twice.
+ */
+public class BookingMutation {
+
+    /**
+     * What the mutation does to the booking.
+     */
+    public enum Type {
+        @SerializedName("create")
+        CREATE,
+        @SerializedName("update")
+        UPDATE,
+        @SerializedName("cancel")
+        CANCEL
+    }
+
+    @SerializedName("idempotencyKey")
+    private String idempotencyKey;
+
+    @SerializedName("type")
+    private Type type;
+
+    @SerializedName("id")
+    private Long bookingId;
+
+    @SerializedName("baseVersion")
+    private long baseVersion;
+
+    @SerializedName("booking")
+    private Booking booking;
+
+    /**
+     * Default constructor
+     */
+    public BookingMutation() {
+    }
+
+    /**
+     * Full constructor
+     *
+     * @param idempotencyKey Unique key identifying this mutation across retries
+     * @param type           What the mutation does
+     * @param bookingId      ID of the booking; a negative, temporary ID for a booking created offline
+     * @param baseVersion    Server version of the booking the change was made to, 0 for a create
+     * @param booking        The booking after the change, null for a cancellation
+     */
+    public BookingMutation(String idempotencyKey, Type type, Long bookingId, long baseVersion, Booking booking) {
+        this.idempotencyKey = idempotencyKey;
+        this.type = type;
+        this.bookingId = bookingId;
+        this.baseVersion = baseVersion;
+        this.booking = booking;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    /**
+     * Get the version the change was made to. The server rejects the change as a
+     * conflict if the booking has been changed since.
+     *
+     * @return the server version, 0 for a create
+     */
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Get the booking after the change
+     *
+     * @return the changed booking, null for a cancellation
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+}
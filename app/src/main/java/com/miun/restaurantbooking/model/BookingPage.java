@@ -0,0 +1,66 @@
+package com.miun.restaurantbooking.model;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of bookings from a date range, ordered by time.
+ */
+public class BookingPage {
+    @SerializedName("bookings")
+    private List<Booking> bookings;
+
+    @SerializedName("offset")
+    private int offset;
+
+    @SerializedName("totalCount")
+    private int totalCount;
+
+    /**
+     * Default constructor
+     */
+    public BookingPage() {
+    }
+
+    /**
+     * Full constructor
+     *
+     * @param bookings   Bookings on this page
+     * @param offset     Position of the first booking on this page within the whole range
+     * @param totalCount Number of bookings in the whole range
+     */
+    public BookingPage(List<Booking> bookings, int offset, int totalCount) {
+        this.bookings = bookings;
+        this.offset = offset;
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * Get the bookings on this page
+     *
+     * @return list of bookings, never null
+     */
+    public List<Booking> getBookings() {
+        return bookings == null ? new ArrayList<>() : bookings;
+    }
+
+    /**
+     * Get the position of the first booking on this page
+     *
+     * @return offset within the whole range
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the number of bookings in the whole range
+     *
+     * @return total booking count
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+}
@@ -0,0 +1,121 @@
+package com.miun.restaurantbooking.model;
+
+import com.miun.restaurantbooking.util.DateFormatter;
+import com.miun.restaurantbooking.util.StringPool;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable booking list that stores its bookings column by column in primitive arrays
+ * instead of as one object per booking, for holding long booking histories in memory.
+ * <ul>
+ *     <li>Names and phone numbers go through a {@link StringPool}, so a regular guest's
+ *     strings are held once however many bookings they have.</li>
+ *     <li>The start time is held as an epoch minute in an int; the ISO string is formatted
+ *     again when a booking is read.</li>
+ *     <li>Table number and number of guests are packed into one int, 16 bits each.</li>
+ * </ul>
+ * A booking that does not fit this form (no ID, a start time not of the form
+ * yyyy-MM-ddTHH:mm:00, or a table or guest count outside 16 bits) is kept as it is,
+ * so every booking reads back equal to the one that was stored.
+ * <p>
+ * {@link #get(int)} creates a new {@link Booking} on every call; changing it does not
+ * change the list.
+ */
+public class CompactBookingList extends AbstractList<Booking> implements RandomAccess {
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] phones;
+    private final int[] startMinutes;
+    private final int[] tablesAndGuests;
+    private final long[] versions;
+    /**
+     * Bookings that do not fit the packed form, by position. Null if there are none.
+     */
+    private final Map<Integer, Booking> unpacked;
+
+    private CompactBookingList(long[] ids, String[] names, String[] phones, int[] startMinutes,
+                               int[] tablesAndGuests, long[] versions, Map<Integer, Booking> unpacked) {
+        this.ids = ids;
+        this.names = names;
+        this.phones = phones;
+        this.startMinutes = startMinutes;
+        this.tablesAndGuests = tablesAndGuests;
+        this.versions = versions;
+        this.unpacked = unpacked;
+    }
+
+    /**
+     * Store a list of bookings in compact form.
+     *
+     * @param bookings Bookings to store
+     * @param pool     Pool shared by the lists whose names and phone numbers should be shared
+     * @return The compact list, in the same order
+     */
+    public static CompactBookingList of(List<Booking> bookings, StringPool pool) {
+        if (bookings instanceof CompactBookingList) {
+            return (CompactBookingList) bookings;
+        }
+        int size = bookings.size();
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        String[] phones = new String[size];
+        int[] startMinutes = new int[size];
+        int[] tablesAndGuests = new int[size];
+        long[] versions = new long[size];
+        Map<Integer, Booking> unpacked = null;
+        for (int i = 0; i < size; i++) {
+            Booking booking = bookings.get(i);
+            if (!fits(booking)) {
+                if (unpacked == null) {
+                    unpacked = new HashMap<>();
+                }
+                unpacked.put(i, booking.copy());
+                continue;
+            }
+            ids[i] = booking.getBookingId();
+            names[i] = pool.intern(booking.getCustomerName());
+            phones[i] = pool.intern(booking.getPhoneNumber());
+            startMinutes[i] = (int) booking.getStartEpochMinute();
+            tablesAndGuests[i] = booking.getTableNumber() << 16 | (booking.getNumberOfGuests() & 0xFFFF);
+            versions[i] = booking.getVersion();
+        }
+        return new CompactBookingList(ids, names, phones, startMinutes, tablesAndGuests, versions, unpacked);
+    }
+
+    @Override
+    public Booking get(int index) {
+        if (index < 0 || index >= ids.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + ids.length);
+        }
+        if (unpacked != null) {
+            Booking booking = unpacked.get(index);
+            if (booking != null) {
+                return booking.copy();
+            }
+        }
+        int packed = tablesAndGuests[index];
+        long minute = startMinutes[index];
+        return new Booking(ids[index], names[index], phones[index], packed >> 16,
+                DateFormatter.toIsoString(minute), minute, (short) packed, versions[index]);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    private static boolean fits(Booking booking) {
+        long minute = booking.getStartEpochMinute();
+        return booking.getBookingId() != null
+                && DateFormatter.isIsoMinute(booking.getDateTime())
+                && minute >= Integer.MIN_VALUE && minute <= Integer.MAX_VALUE
+                && booking.getTableNumber() == (short) booking.getTableNumber()
+                && booking.getNumberOfGuests() == (short) booking.getNumberOfGuests();
+    }
+}
@@ -0,0 +1,87 @@
+package com.miun.restaurantbooking.model;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The server's answer to one {@link BookingMutation} in a batch.
+ */
+public class MutationResult {
+
+    /**
+     * Outcome of the mutation.
+     */
+    public enum Status {
+        /**
+         * The change was stored, or had already been stored under the same idempotency key.
+         */
+        @SerializedName("applied")
+        APPLIED,
+        /**
+         * The booking was changed or cancelled on the server since the base version.
+         */
+        @SerializedName("conflict")
+        CONFLICT,
+        /**
+         * The change is invalid, e.g. the table is already taken, and will never be applied.
+         */
+        @SerializedName("rejected")
+        REJECTED
+    }
+
+    @SerializedName("idempotencyKey")
+    private String idempotencyKey;
+
+    @SerializedName("status")
+    private Status status;
+
+    @SerializedName("booking")
+    private Booking booking;
+
+    @SerializedName("message")
+    private String message;
+
+    /**
+     * Default constructor
+     */
+    public MutationResult() {
+    }
+
+    /**
+     * Full constructor
+     *
+     * @param idempotencyKey Key of the mutation this answers
+     * @param status         Outcome of the mutation
+     * @param booking        The booking as stored on the server now, null if it does not exist
+     *                       or, for a rejection, if the server did not say
+     * @param message        Reason for a conflict or rejection, may be null
+     */
+    public MutationResult(String idempotencyKey, Status status, Booking booking, String message) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = status;
+        this.booking = booking;
+        this.message = message;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the booking as the server has it after the mutation.
+     * For a create this carries the ID the server assigned.
+     *
+     * @return the stored booking, null if it was cancelled or never existed, or for a
+     * rejection, if the server did not say
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,195 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the bookings of several dates at several venues, e.g. a week for a manager's dashboard.
+ * One request is sent per venue and date, but at most a given number at a time, so a long
+ * range neither waits for N round trips in a row nor floods the network. Each result is
+ * merged into one time-sorted list as soon as it arrives, and the listener receives the
+ * merged list after every request, so the first dates show while later ones still load.
+ * <p>
+ * Requests are sent in date order, every venue of a date before the next date.
+ */
+public class BatchBookingLoader {
+
+    /**
+     * Loads the bookings of one venue and date. Called on a worker thread and may block.
+     */
+    public interface RequestSource {
+        List<Booking> load(String venue, String date) throws IOException;
+    }
+
+    /**
+     * Receives the merged bookings after every finished request, in the order the requests finished.
+     */
+    public interface Listener {
+        void onBatchChanged(BookingBatch batch);
+    }
+
+    private final RequestSource source;
+    private final List<Request> requests = new ArrayList<>();
+    private final int maxConcurrentRequests;
+    private final Executor workers;
+    private final Executor delivery;
+    private final Listener listener;
+    private final AtomicInteger nextRequest = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+
+    private List<Booking> bookings = Collections.emptyList();
+    private List<String> venues = Collections.emptyList();
+    private int loadedRequests;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor
+     *
+     * @param source                Loads one venue and date
+     * @param dates                 Dates to load, format YYYY-MM-DD
+     * @param venues                Venues to load each date for
+     * @param maxConcurrentRequests Maximum number of requests in flight at once, at least 1
+     * @param workers               Executor the requests run on; its pool size also bounds the concurrency
+     * @param delivery              Executor the listener is called on, e.g. the main thread
+     * @param listener              Listener receiving the merged bookings
+     */
+    public BatchBookingLoader(RequestSource source, List<String> dates, List<String> venues,
+                              int maxConcurrentRequests, Executor workers, Executor delivery, Listener listener) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be at least 1");
+        }
+        this.source = source;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.workers = workers;
+        this.delivery = delivery;
+        this.listener = listener;
+        for (String date : dates) {
+            for (String venue : venues) {
+                requests.add(new Request(venue, date));
+            }
+        }
+    }
+
+    /**
+     * Start sending the requests. An empty batch is delivered as complete straight away.
+     */
+    public void start() {
+        if (requests.isEmpty()) {
+            BookingBatch batch;
+            synchronized (this) {
+                batch = snapshot();
+            }
+            deliver(batch);
+            return;
+        }
+        int workerCount = Math.min(maxConcurrentRequests, requests.size());
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Stop sending requests and delivering results. Requests already in flight finish,
+     * but their results are dropped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true once {@link #cancel()} has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Send requests one after another until none are left. Each worker keeps one request
+     * in flight, so the number of workers is the concurrency limit.
+     */
+    private void work() {
+        int index;
+        while (!cancelled && (index = nextRequest.getAndIncrement()) < requests.size()) {
+            Request request = requests.get(index);
+            List<Booking> loaded = null;
+            String error = null;
+            try {
+                loaded = new ArrayList<>(source.load(request.venue, request.date));
+                // Usually already in order, in which case sorting is a single pass
+                loaded.sort(DeltaSyncState.BY_TIME);
+            } catch (IOException | RuntimeException e) {
+                error = (request.venue == null ? "" : request.venue + " ") + request.date + ": " + e.getMessage();
+            }
+
+            BookingBatch batch;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (loaded != null) {
+                    merge(loaded, request.venue);
+                } else {
+                    errors.add(error);
+                }
+                loadedRequests++;
+                batch = snapshot();
+                // Handing over inside the lock keeps the deliveries in the order of loadedRequests
+                deliver(batch);
+            }
+        }
+    }
+
+    /**
+     * Merge a sorted list of one venue's bookings into the sorted bookings so far.
+     * The merged lists are new, so earlier snapshots stay unchanged.
+     */
+    private void merge(List<Booking> loaded, String venue) {
+        List<Booking> mergedBookings = new ArrayList<>(bookings.size() + loaded.size());
+        List<String> mergedVenues = new ArrayList<>(bookings.size() + loaded.size());
+        int i = 0;
+        int j = 0;
+        while (i < bookings.size() || j < loaded.size()) {
+            if (j == loaded.size()
+                    || (i < bookings.size() && DeltaSyncState.BY_TIME.compare(bookings.get(i), loaded.get(j)) <= 0)) {
+                mergedBookings.add(bookings.get(i));
+                mergedVenues.add(venues.get(i));
+                i++;
+            } else {
+                mergedBookings.add(loaded.get(j));
+                mergedVenues.add(venue);
+                j++;
+            }
+        }
+        bookings = Collections.unmodifiableList(mergedBookings);
+        venues = Collections.unmodifiableList(mergedVenues);
+    }
+
+    private BookingBatch snapshot() {
+        return new BookingBatch(bookings, venues, Collections.unmodifiableList(new ArrayList<>(errors)),
+                loadedRequests, requests.size());
+    }
+
+    private void deliver(BookingBatch batch) {
+        delivery.execute(() -> {
+            if (!cancelled) {
+                listener.onBatchChanged(batch);
+            }
+        });
+    }
+
+    private static class Request {
+        final String venue;
+        final String date;
+
+        Request(String venue, String date) {
+            this.venue = venue;
+            this.date = date;
+        }
+    }
+}
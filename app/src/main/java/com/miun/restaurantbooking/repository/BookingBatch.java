@@ -0,0 +1,70 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import java.util.List;
+
+/**
+ * The bookings a {@link BatchBookingLoader} has loaded so far, merged into one list
+ * sorted by time. Each delivery is a new, unchanging snapshot.
+ */
+public class BookingBatch {
+
+    private final List<Booking> bookings;
+    private final List<String> venues;
+    private final List<String> errors;
+    private final int loadedRequests;
+    private final int totalRequests;
+
+    BookingBatch(List<Booking> bookings, List<String> venues, List<String> errors,
+                 int loadedRequests, int totalRequests) {
+        this.bookings = bookings;
+        this.venues = venues;
+        this.errors = errors;
+        this.loadedRequests = loadedRequests;
+        this.totalRequests = totalRequests;
+    }
+
+    /**
+     * @return Bookings of every venue and date loaded so far, sorted by time
+     */
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    /**
+     * @param position Position of a booking in {@link #getBookings()}
+     * @return Venue the booking belongs to, null for this app's own venue
+     */
+    public String getVenue(int position) {
+        return venues.get(position);
+    }
+
+    /**
+     * @return One message per venue and date that could not be loaded
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return Number of venue and date requests that have finished, successfully or not
+     */
+    public int getLoadedRequests() {
+        return loadedRequests;
+    }
+
+    /**
+     * @return Number of venue and date requests in the batch
+     */
+    public int getTotalRequests() {
+        return totalRequests;
+    }
+
+    /**
+     * @return true once every request has finished
+     */
+    public boolean isComplete() {
+        return loadedRequests == totalRequests;
+    }
+}
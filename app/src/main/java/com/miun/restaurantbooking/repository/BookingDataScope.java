@@ -0,0 +1,151 @@
+package com.miun.restaurantbooking.repository;
+
+import android.content.Context;
+
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import java.io.File;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The booking state that outlives a screen: requests in flight, the disk and memory caches,
+ * the delta sync state, the occupancy index and the outbox of unconfirmed changes. Every
+ * {@link BookingRepository} built on the same scope shares it.
+ * <p>
+ * An activity is recreated on rotation, and its repository with it. With the process-wide
+ * scope from {@link #getInstance(Context)}, the new repository joins the request the old one
+ * started instead of sending it again, and finds the bookings it loaded in memory. It also
+ * keeps a single {@link BookingOutbox} on the outbox file, so the outbox of a destroyed screen
+ * cannot write an older queue over the changes made on the new one, and a single
+ * {@link OutboxFlusher} sending it. Two flushers on one outbox would release each other's
+ * batches, letting a later change to a booking overtake an earlier one.
+ */
+public class BookingDataScope {
+
+    private static final String CACHE_DIRECTORY = "bookings";
+    private static final String OUTBOX_FILE = "booking-outbox.json";
+
+    private static volatile BookingDataScope instance;
+
+    private final BookingDiskCache diskCache;
+    private final BookingMemoryCache memoryCache;
+    private final BookingOutbox outbox;
+    private final SingleFlightCalls<List<Booking>> inFlightCalls = new SingleFlightCalls<>();
+    private final DeltaSyncState syncState = new DeltaSyncState();
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+    /**
+     * Screen to show the outcome of each queued change to, keyed by booking ID.
+     */
+    private final Map<Long, BookingRepository.MutationListener> mutationListeners = new ConcurrentHashMap<>();
+    private OutboxFlusher outboxFlusher;
+    private volatile OutboxFlusher.Handler mutationResults;
+
+    /**
+     * Constructor
+     *
+     * @param diskCache   Persistent cache that bookings are served from
+     * @param memoryCache Cache checked before the disk cache
+     * @param outbox      Queue of booking changes not yet confirmed by the server
+     */
+    public BookingDataScope(BookingDiskCache diskCache, BookingMemoryCache memoryCache, BookingOutbox outbox) {
+        this.diskCache = diskCache;
+        this.memoryCache = memoryCache;
+        this.outbox = outbox;
+    }
+
+    /**
+     * Get the scope shared by every repository of the app, created on first use.
+     *
+     * @param context Context used to locate the on-device booking cache
+     * @return The shared instance
+     */
+    public static BookingDataScope getInstance(Context context) {
+        BookingDataScope scope = instance;
+        if (scope == null) {
+            synchronized (BookingDataScope.class) {
+                scope = instance;
+                if (scope == null) {
+                    File filesDir = context.getFilesDir();
+                    scope = new BookingDataScope(
+                            new BookingDiskCache(new File(filesDir, CACHE_DIRECTORY)),
+                            new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_COMPACT_BOOKINGS, Clock.systemUTC(), true),
+                            new BookingOutbox(new File(filesDir, OUTBOX_FILE), AppExecutors.getInstance().io()));
+                    instance = scope;
+                }
+            }
+        }
+        return scope;
+    }
+
+    /**
+     * @return The persistent cache
+     */
+    public BookingDiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * @return The in-memory cache
+     */
+    public BookingMemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    /**
+     * @return The queue of unconfirmed changes
+     */
+    public BookingOutbox getOutbox() {
+        return outbox;
+    }
+
+    SingleFlightCalls<List<Booking>> getInFlightCalls() {
+        return inFlightCalls;
+    }
+
+    DeltaSyncState getSyncState() {
+        return syncState;
+    }
+
+    OccupancyIndex getOccupancy() {
+        return occupancy;
+    }
+
+    Map<Long, BookingRepository.MutationListener> getMutationListeners() {
+        return mutationListeners;
+    }
+
+    /**
+     * Get the flusher sending the outbox, created by the first repository that asks for it
+     * with that repository's API service and executors.
+     *
+     * @param handler Applies the server's answers from now on, in place of the handler
+     *                of a repository that asked before
+     * @return The flusher shared by every repository on this scope
+     */
+    synchronized OutboxFlusher startOutboxFlusher(BookingApiService apiService, AppExecutors executors,
+                                                  OutboxFlusher.Handler handler) {
+        mutationResults = handler;
+        if (outboxFlusher == null) {
+            outboxFlusher = new OutboxFlusher(apiService, outbox, executors,
+                    (batch, results) -> mutationResults.onResults(batch, results),
+                    OutboxFlusher.DEFAULT_BATCH_SIZE, OutboxFlusher.DEFAULT_BATCH_DELAY_MILLIS,
+                    OutboxFlusher.DEFAULT_INITIAL_BACKOFF_MILLIS, OutboxFlusher.DEFAULT_MAX_BACKOFF_MILLIS);
+        }
+        return outboxFlusher;
+    }
+
+    /**
+     * Stop sending the outbox. Changes that were not confirmed stay in it.
+     * Only for a scope no repository will use again.
+     */
+    public synchronized void close() {
+        if (outboxFlusher != null) {
+            outboxFlusher.close();
+        }
+    }
+}
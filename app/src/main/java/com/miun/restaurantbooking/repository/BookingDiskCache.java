@@ -0,0 +1,221 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.miun.restaurantbooking.api.BookingTypeAdapter;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Persistent on-device store for bookings, with one file per date.
+ * Entries older than the time-to-live are treated as missing, and when more
+ * than the maximum number of dates are stored the least recently used dates are evicted.
+ * A file's modification time, taken from the cache's clock, records when it was last
+ * written or read.
+ */
+public class BookingDiskCache {
+
+    /**
+     * Default time-to-live for a cached date: 24 hours.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Default number of dates kept on disk.
+     */
+    public static final int DEFAULT_MAX_DATES = 14;
+
+    private static final String FILE_PREFIX = "bookings-";
+    private static final String FILE_SUFFIX = ".json";
+
+    private final File directory;
+    private final long ttlMillis;
+    private final int maxDates;
+    private final Clock clock;
+    private final Gson gson = BookingTypeAdapter.createGson();
+
+    /**
+     * Constructor using the default time-to-live and size cap.
+     *
+     * @param directory Directory where the cache files are stored
+     */
+    public BookingDiskCache(File directory) {
+        this(directory, DEFAULT_TTL_MILLIS, DEFAULT_MAX_DATES, Clock.systemUTC());
+    }
+
+    /**
+     * Full constructor
+     *
+     * @param directory Directory where the cache files are stored
+     * @param ttlMillis Time in milliseconds a stored date stays valid
+     * @param maxDates  Maximum number of dates kept on disk
+     * @param clock     Clock used to timestamp and expire entries
+     */
+    public BookingDiskCache(File directory, long ttlMillis, int maxDates, Clock clock) {
+        this.directory = directory;
+        this.ttlMillis = ttlMillis;
+        this.maxDates = maxDates;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the cached bookings for a date.
+     * Expired entries are deleted and reported as missing.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return Cached bookings, or null if nothing valid is stored for the date
+     */
+    public synchronized List<Booking> get(String date) {
+        return read(date, false);
+    }
+
+    /**
+     * Get the cached bookings for a date however old they are.
+     * Used while the server cannot be reached, when old bookings are better than none.
+     * Expired entries are kept until {@link #get(String)} or eviction removes them.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return Cached bookings, or null if nothing is stored for the date
+     */
+    public synchronized List<Booking> getStale(String date) {
+        return read(date, true);
+    }
+
+    private List<Booking> read(String date, boolean allowExpired) {
+        File file = fileFor(date);
+        if (!file.exists()) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Entry entry = gson.fromJson(reader, Entry.class);
+            if (entry == null || entry.bookings == null) {
+                file.delete();
+                return null;
+            }
+            if (!allowExpired && isExpired(entry)) {
+                file.delete();
+                return null;
+            }
+            file.setLastModified(clock.millis());
+            return entry.bookings;
+        } catch (IOException | JsonParseException e) {
+            // A corrupt file is as good as a miss
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Store the bookings for a date and evict the least recently used dates if the cache is full.
+     * The date just stored is never evicted, however far in the past it is.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings Bookings to store
+     */
+    public synchronized void put(String date, List<Booking> bookings) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.savedAt = clock.millis();
+        entry.bookings = new ArrayList<>(bookings);
+
+        // Write to a temporary file first so a crash never leaves a half-written entry
+        File file = fileFor(date);
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            gson.toJson(entry, writer);
+        } catch (IOException e) {
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            return;
+        }
+        file.setLastModified(entry.savedAt);
+        evictLeastRecentlyUsed(file);
+    }
+
+    /**
+     * Remove the cached bookings for a date.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     */
+    public synchronized void remove(String date) {
+        fileFor(date).delete();
+    }
+
+    /**
+     * Remove all cached dates.
+     */
+    public synchronized void clear() {
+        for (File file : listCacheFiles()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Get the dates currently stored, oldest first.
+     *
+     * @return List of date strings in format YYYY-MM-DD
+     */
+    public synchronized List<String> getCachedDates() {
+        List<String> dates = new ArrayList<>();
+        for (File file : listCacheFiles()) {
+            String name = file.getName();
+            dates.add(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        }
+        return dates;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return clock.millis() - entry.savedAt > ttlMillis;
+    }
+
+    private void evictLeastRecentlyUsed(File keep) {
+        List<File> files = new ArrayList<>(Arrays.asList(listCacheFiles()));
+        files.remove(keep);
+        // Dates used at the same time go oldest date first, as ISO dates sort chronologically
+        files.sort(Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.size() + 1 - maxDates; i++) {
+            files.get(i).delete();
+        }
+    }
+
+    private File[] listCacheFiles() {
+        File[] files = directory.listFiles((dir, name) ->
+                name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    private File fileFor(String date) {
+        return new File(directory, FILE_PREFIX + date + FILE_SUFFIX);
+    }
+
+    /**
+     * On-disk format of a cached date.
+     */
+    private static class Entry {
+        long savedAt;
+        List<Booking> bookings;
+    }
+}
@@ -0,0 +1,182 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.CompactBookingList;
+import com.miun.restaurantbooking.util.StringPool;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory cache of the bookings per date, in front of the disk cache.
+ * Bounded by the total number of bookings held rather than the number of dates,
+ * since a busy Saturday can hold ten times the bookings of a Monday. When the bound
+ * is exceeded the least recently used dates are evicted.
+ * Hits, misses and evictions are counted so the prefetch window can be tuned.
+ * <p>
+ * In compact mode the bookings are stored as {@link CompactBookingList}s sharing one
+ * {@link StringPool}, which takes a fraction of the memory, so many more dates fit in
+ * the same heap. Reading a booking then creates it anew from the packed columns.
+ */
+public class BookingMemoryCache {
+
+    /**
+     * Default bound: roughly two weeks of busy days.
+     */
+    public static final int DEFAULT_MAX_BOOKINGS = 5000;
+
+    /**
+     * Default bound in compact mode: roughly a season of busy days, in little more memory than
+     * {@link #DEFAULT_MAX_BOOKINGS} full bookings take.
+     */
+    public static final int DEFAULT_MAX_COMPACT_BOOKINGS = 50_000;
+
+    private final int maxBookings;
+    private final Clock clock;
+    /**
+     * Shares names and phone numbers between dates in compact mode, null otherwise.
+     */
+    private final StringPool pool;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int bookingCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor
+     *
+     * @param maxBookings Maximum number of bookings held over all dates
+     * @param clock       Clock used to timestamp entries
+     */
+    public BookingMemoryCache(int maxBookings, Clock clock) {
+        this(maxBookings, clock, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxBookings Maximum number of bookings held over all dates
+     * @param clock       Clock used to timestamp entries
+     * @param compact     Whether to store the bookings in compact form
+     */
+    public BookingMemoryCache(int maxBookings, Clock clock, boolean compact) {
+        this.maxBookings = maxBookings;
+        this.clock = clock;
+        // Room for a distinct name and phone number per booking before the pool starts over
+        this.pool = compact ? new StringPool(2 * maxBookings) : null;
+    }
+
+    /**
+     * Get the bookings for a date and mark the date as recently used.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return The bookings as an unmodifiable list, or null if the date is not cached
+     */
+    public synchronized List<Booking> get(String date) {
+        Entry entry = entries.get(date);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.bookings;
+    }
+
+    /**
+     * Store the bookings for a date, evicting the least recently used dates if needed.
+     * A date with more bookings than the whole bound is not stored.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings Bookings for the date
+     */
+    public synchronized void put(String date, List<Booking> bookings) {
+        remove(date);
+        if (bookings.size() > maxBookings) {
+            return;
+        }
+        List<Booking> stored = pool != null
+                ? CompactBookingList.of(bookings, pool) : Collections.unmodifiableList(new ArrayList<>(bookings));
+        entries.put(date, new Entry(stored, clock.millis()));
+        bookingCount += bookings.size();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bookingCount > maxBookings && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            bookingCount -= evicted.bookings.size();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Check whether a date was stored recently, without counting a hit or miss
+     * or changing its position in the LRU order.
+     *
+     * @param date         Date string in format YYYY-MM-DD
+     * @param maxAgeMillis How old the entry may be
+     * @return true if the date is cached and no older than maxAgeMillis
+     */
+    public synchronized boolean isFresh(String date, long maxAgeMillis) {
+        // Map.get would count as an access in an access-ordered map, so scan the entries instead
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getKey().equals(date)) {
+                return clock.millis() - entry.getValue().storedAtMillis <= maxAgeMillis;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove a date.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     */
+    public synchronized void remove(String date) {
+        Entry removed = entries.remove(date);
+        if (removed != null) {
+            bookingCount -= removed.bookings.size();
+        }
+    }
+
+    /**
+     * @return Cached dates from least to most recently used
+     */
+    public synchronized List<String> getDates() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * @return Number of bookings held over all dates
+     */
+    public synchronized int getBookingCount() {
+        return bookingCount;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Entry {
+        final List<Booking> bookings;
+        final long storedAtMillis;
+
+        Entry(List<Booking> bookings, long storedAtMillis) {
+            this.bookings = bookings;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+}
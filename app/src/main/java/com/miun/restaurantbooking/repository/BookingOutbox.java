@@ -0,0 +1,610 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.miun.restaurantbooking.api.BookingTypeAdapter;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingMutation;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Booking changes made on the device that the server has not confirmed yet, kept in a
+ * file so they survive the app being closed while offline.
+ * <p>
+ * Changes are queued in the order they are made. Until a change has been sent, a newer
+ * change to the same booking is folded into it: editing a booking twice sends one update,
+ * and cancelling a booking that was created offline sends nothing. A change that has been
+ * sent is never modified again, since the server may already have applied it under its
+ * idempotency key. Bookings created offline get a negative temporary ID, which is replaced
+ * by the server's ID in the queued changes once the create is confirmed. The screen may
+ * still show the temporary ID for a moment after that, so recently replaced IDs are
+ * remembered and translated when the booking is changed again.
+ * <p>
+ * The file is read on the I/O executor as soon as the outbox is created. Changes are
+ * recorded in memory straight away and written to the file on the I/O executor.
+ * {@link #applyPending} sorts the bookings it changes, so it belongs on the compute executor.
+ */
+public class BookingOutbox {
+
+    /**
+     * Number of replaced temporary IDs remembered.
+     */
+    private static final int MAX_ASSIGNED_IDS = 100;
+
+    private final File file;
+    private final Executor io;
+    private final Gson gson = BookingTypeAdapter.createGson();
+    private final AtomicBoolean savePending = new AtomicBoolean();
+    private final Object fileLock = new Object();
+    private final List<Pending> entries = new ArrayList<>();
+    private final Map<Long, Long> assignedIds = new LinkedHashMap<Long, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_ASSIGNED_IDS;
+        }
+    };
+    private long nextLocalId = -1;
+    private boolean loaded;
+
+    /**
+     * Constructor
+     *
+     * @param file File the queued changes are stored in, or null to keep them in memory only
+     * @param io   Executor the file is read and written on
+     */
+    public BookingOutbox(File file, Executor io) {
+        this.file = file;
+        this.io = io;
+        if (file != null) {
+            io.execute(() -> {
+                synchronized (this) {
+                    load();
+                }
+            });
+        }
+    }
+
+    /**
+     * Queue the creation of a booking.
+     *
+     * @param booking The new booking; its ID and version are ignored
+     * @return The booking as queued, with a temporary negative ID
+     */
+    public synchronized Booking create(Booking booking) {
+        load();
+        Booking created = booking.copy();
+        created.setBookingId(nextLocalId--);
+        created.setVersion(0);
+        add(new BookingMutation(newKey(), BookingMutation.Type.CREATE, created.getBookingId(), 0, created), null);
+        return created;
+    }
+
+    /**
+     * Queue a change to a booking.
+     *
+     * @param original The booking as it was shown when it was edited
+     * @param changed  The booking after the edit; its ID and version are ignored
+     * @return The booking as queued
+     */
+    public synchronized Booking update(Booking original, Booking changed) {
+        load();
+        long id = resolveId(original.getBookingId());
+        Booking updated = changed.copy();
+        updated.setBookingId(id);
+        updated.setVersion(original.getVersion());
+        Pending last = lastUnsent(id);
+        if (last != null && last.mutation.getType() != BookingMutation.Type.CANCEL) {
+            // Still a create if the booking was never sent; the base stays what the server has
+            last.mutation = new BookingMutation(last.mutation.getIdempotencyKey(), last.mutation.getType(),
+                    id, last.mutation.getBaseVersion(), updated);
+            last.date = dateOf(updated);
+            save();
+        } else {
+            add(new BookingMutation(newKey(), BookingMutation.Type.UPDATE, id, original.getVersion(), updated),
+                    original.copy());
+        }
+        return updated;
+    }
+
+    /**
+     * Queue the cancellation of a booking.
+     *
+     * @param booking The booking as it was shown when it was cancelled
+     * @return The ID the cancellation is queued under
+     */
+    public synchronized long cancel(Booking booking) {
+        load();
+        long id = resolveId(booking.getBookingId());
+        Pending last = lastUnsent(id);
+        if (last != null && last.mutation.getType() == BookingMutation.Type.CREATE) {
+            // The server never heard of it
+            entries.remove(last);
+            save();
+        } else if (last != null && last.mutation.getType() == BookingMutation.Type.UPDATE) {
+            last.mutation = new BookingMutation(last.mutation.getIdempotencyKey(), BookingMutation.Type.CANCEL,
+                    id, last.mutation.getBaseVersion(), null);
+            last.date = null;
+            save();
+        } else {
+            add(new BookingMutation(newKey(), BookingMutation.Type.CANCEL, id, booking.getVersion(), null),
+                    booking.copy());
+        }
+        return id;
+    }
+
+    /**
+     * Apply the queued changes to the bookings of a date, as they will be once the server
+     * has confirmed them. A booking moved to another date by a queued change is removed.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings Bookings of the date as the server has them, sorted by time
+     * @return The bookings with the queued changes applied, or the same list if none apply
+     */
+    public synchronized List<Booking> applyPending(String date, List<Booking> bookings) {
+        // The first bookings shown after a restart already include the changes queued before it
+        load();
+        if (entries.isEmpty()) {
+            return bookings;
+        }
+        Map<Long, Booking> byId = null;
+        for (Pending entry : entries) {
+            Long id = entry.mutation.getBookingId();
+            boolean onDate = date.equals(entry.date);
+            if (byId == null) {
+                if (!onDate && !contains(bookings, id)) {
+                    continue;
+                }
+                byId = new LinkedHashMap<>();
+                for (Booking booking : bookings) {
+                    byId.put(booking.getBookingId(), booking);
+                }
+            }
+            byId.remove(id);
+            if (onDate) {
+                byId.put(id, entry.mutation.getBooking());
+            }
+        }
+        if (byId == null) {
+            return bookings;
+        }
+        List<Booking> applied = new ArrayList<>(byId.values());
+        applied.sort(DeltaSyncState.BY_TIME);
+        return applied;
+    }
+
+    /**
+     * Take the next changes to send and mark them as sent.
+     * The batch ends before a change to a booking whose create is in the same batch,
+     * since that change needs the ID the server assigns.
+     *
+     * @param maxSize Maximum number of changes in the batch
+     * @return The changes, in the order they were made; empty if nothing is waiting
+     */
+    public List<BookingMutation> nextBatch(int maxSize) {
+        List<BookingMutation> batch = new ArrayList<>();
+        synchronized (this) {
+            load();
+            for (Pending entry : entries) {
+                if (batch.size() == maxSize) {
+                    break;
+                }
+                if (entry.inFlight) {
+                    continue;
+                }
+                BookingMutation mutation = entry.mutation;
+                if (!batch.isEmpty() && mutation.getBookingId() < 0
+                        && mutation.getType() != BookingMutation.Type.CREATE) {
+                    break;
+                }
+                entry.inFlight = true;
+                entry.attempted = true;
+                batch.add(mutation);
+            }
+        }
+        if (!batch.isEmpty()) {
+            // Must be on disk before sending, so a restart never folds into a sent change
+            write();
+        }
+        return batch;
+    }
+
+    /**
+     * Mark the changes that were sent but not answered as waiting again.
+     * They keep their idempotency keys, so the server ignores them if it did apply them.
+     */
+    public synchronized void release() {
+        for (Pending entry : entries) {
+            entry.inFlight = false;
+        }
+    }
+
+    /**
+     * Remove an answered change from the queue.
+     *
+     * @param idempotencyKey Key of the change
+     * @return The change, or null if it is no longer queued
+     */
+    public synchronized Pending complete(String idempotencyKey) {
+        for (Iterator<Pending> it = entries.iterator(); it.hasNext(); ) {
+            Pending entry = it.next();
+            if (entry.mutation.getIdempotencyKey().equals(idempotencyKey)) {
+                it.remove();
+                save();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Base the queued changes to a booking on the version the server confirmed.
+     * For a create this replaces the temporary ID with the server's ID.
+     *
+     * @param bookingId ID the confirmed change was sent with
+     * @param confirmed The booking as the server stored it, null after a cancellation
+     */
+    public synchronized void confirm(long bookingId, Booking confirmed) {
+        if (confirmed == null) {
+            return;
+        }
+        boolean changed = false;
+        if (bookingId != confirmed.getBookingId()) {
+            assignedIds.put(bookingId, confirmed.getBookingId());
+            changed = true;
+        }
+        for (Pending entry : entries) {
+            if (entry.mutation.getBookingId() == bookingId) {
+                entry.mutation = rebased(entry.mutation, entry.mutation.getBooking(), confirmed);
+                entry.base = confirmed;
+                changed = true;
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    /**
+     * Drop all queued changes to a booking, e.g. because an earlier change they build on
+     * was rejected.
+     *
+     * @param bookingId ID of the booking
+     */
+    public synchronized void discard(long bookingId) {
+        if (entries.removeIf(entry -> entry.mutation.getBookingId() == bookingId)) {
+            save();
+        }
+    }
+
+    /**
+     * Resolve a change the server reported as conflicting with its current version of the
+     * booking. The device's changes to the booking, including any queued after the
+     * conflicting one, are merged field by field with the changes made on the server:
+     * a field only the device changed keeps the device's value, and a field only the
+     * server changed keeps the server's. If both changed the same field differently, or
+     * the server cancelled a booking the device edited, the server's version wins and the
+     * device's changes are dropped. A cancellation is sent again against the new version.
+     *
+     * @param conflicted The change that conflicted, already removed from the queue
+     * @param current    The booking as the server has it now, null if it was cancelled
+     * @return true if the device's changes were kept, false if they were dropped
+     */
+    public synchronized boolean rebase(Pending conflicted, Booking current) {
+        long id = conflicted.mutation.getBookingId();
+        BookingMutation latest = conflicted.mutation;
+        for (Pending entry : entries) {
+            if (entry.mutation.getBookingId() == id) {
+                latest = entry.mutation;
+            }
+        }
+        entries.removeIf(entry -> entry.mutation.getBookingId() == id);
+        save();
+
+        boolean cancel = latest.getType() == BookingMutation.Type.CANCEL;
+        if (current == null) {
+            return cancel;
+        }
+        if (cancel) {
+            add(new BookingMutation(newKey(), BookingMutation.Type.CANCEL, id, current.getVersion(), null), current);
+            return true;
+        }
+        Booking merged = merge(conflicted.base, latest.getBooking(), current);
+        if (merged == null) {
+            return false;
+        }
+        if (!sameFields(merged, current)) {
+            add(rebased(new BookingMutation(newKey(), BookingMutation.Type.UPDATE, id, 0, merged), merged, current),
+                    current);
+        }
+        return true;
+    }
+
+    /**
+     * @param bookingId ID of a booking
+     * @return true if changes to the booking are queued
+     */
+    public synchronized boolean contains(long bookingId) {
+        for (Pending entry : entries) {
+            if (entry.mutation.getBookingId() == bookingId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of changes waiting to be confirmed
+     */
+    public synchronized int size() {
+        load();
+        return entries.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Merge a booking edited on the device with the server's current version, relative
+     * to the version the edit started from.
+     *
+     * @return The merged booking, or null if both changed the same field differently
+     */
+    static Booking merge(Booking base, Booking local, Booking server) {
+        if (base == null) {
+            return null;
+        }
+        Booking merged = server.copy();
+        if (!Objects.equals(local.getCustomerName(), base.getCustomerName())) {
+            if (!settles(base.getCustomerName(), local.getCustomerName(), server.getCustomerName())) {
+                return null;
+            }
+            merged.setCustomerName(local.getCustomerName());
+        }
+        if (!Objects.equals(local.getPhoneNumber(), base.getPhoneNumber())) {
+            if (!settles(base.getPhoneNumber(), local.getPhoneNumber(), server.getPhoneNumber())) {
+                return null;
+            }
+            merged.setPhoneNumber(local.getPhoneNumber());
+        }
+        if (local.getTableNumber() != base.getTableNumber()) {
+            if (!settles(base.getTableNumber(), local.getTableNumber(), server.getTableNumber())) {
+                return null;
+            }
+            merged.setTableNumber(local.getTableNumber());
+        }
+        if (!Objects.equals(local.getDateTime(), base.getDateTime())) {
+            if (!settles(base.getDateTime(), local.getDateTime(), server.getDateTime())) {
+                return null;
+            }
+            merged.setDateTime(local.getDateTime());
+        }
+        if (local.getNumberOfGuests() != base.getNumberOfGuests()) {
+            if (!settles(base.getNumberOfGuests(), local.getNumberOfGuests(), server.getNumberOfGuests())) {
+                return null;
+            }
+            merged.setNumberOfGuests(local.getNumberOfGuests());
+        }
+        return merged;
+    }
+
+    /**
+     * A field changed on the device can take the device's value if the server left it
+     * as it was, or changed it to the same value.
+     */
+    private static boolean settles(Object base, Object local, Object server) {
+        return Objects.equals(server, base) || Objects.equals(server, local);
+    }
+
+    private static boolean sameFields(Booking a, Booking b) {
+        Booking copy = a.copy();
+        copy.setVersion(b.getVersion());
+        return copy.equals(b);
+    }
+
+    /**
+     * A mutation sent against a confirmed version of the booking.
+     */
+    private static BookingMutation rebased(BookingMutation mutation, Booking booking, Booking confirmed) {
+        Booking changed = null;
+        if (booking != null) {
+            changed = booking.copy();
+            changed.setBookingId(confirmed.getBookingId());
+            changed.setVersion(confirmed.getVersion());
+        }
+        return new BookingMutation(mutation.getIdempotencyKey(), mutation.getType(),
+                confirmed.getBookingId(), confirmed.getVersion(), changed);
+    }
+
+    /**
+     * Translate a temporary ID the server has since replaced.
+     */
+    private long resolveId(long bookingId) {
+        Long assigned = assignedIds.get(bookingId);
+        return assigned == null ? bookingId : assigned;
+    }
+
+    private void add(BookingMutation mutation, Booking base) {
+        Pending entry = new Pending();
+        entry.mutation = mutation;
+        entry.base = base;
+        entry.date = mutation.getBooking() == null ? null : dateOf(mutation.getBooking());
+        entries.add(entry);
+        save();
+    }
+
+    /**
+     * Get the last queued change to a booking, if it has not been sent.
+     */
+    private Pending lastUnsent(long bookingId) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Pending entry = entries.get(i);
+            if (entry.mutation.getBookingId() == bookingId) {
+                return entry.attempted ? null : entry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(List<Booking> bookings, Long id) {
+        for (Booking booking : bookings) {
+            if (id.equals(booking.getBookingId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String dateOf(Booking booking) {
+        return DateFormatter.getDateOnly(booking.getDateTime());
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Write the queue to the file on the I/O executor. A write that is already
+     * pending picks up this change too.
+     */
+    private void save() {
+        if (file != null && savePending.compareAndSet(false, true)) {
+            io.execute(() -> {
+                savePending.set(false);
+                write();
+            });
+        }
+    }
+
+    /**
+     * Write the current queue to the file. Writes are serialized, and each one takes its
+     * snapshot after the previous one finished, so an older queue never overwrites a newer one.
+     * Must not be called while holding the outbox's lock, which is taken inside the file lock.
+     */
+    private void write() {
+        if (file == null) {
+            return;
+        }
+        synchronized (fileLock) {
+            Stored stored = new Stored();
+            synchronized (this) {
+                stored.nextLocalId = nextLocalId;
+                // The entries change under the lock, so they are serialized from copies
+                stored.entries = new ArrayList<>(entries.size());
+                for (Pending entry : entries) {
+                    stored.entries.add(entry.copy());
+                }
+                stored.assignedIds = new LinkedHashMap<>(assignedIds);
+            }
+            File directory = file.getParentFile();
+            if (directory != null && !directory.exists() && !directory.mkdirs()) {
+                return;
+            }
+            // Write to a temporary file first so a crash never leaves a half-written queue
+            File tempFile = new File(file.getPath() + ".tmp");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                gson.toJson(stored, writer);
+            } catch (IOException e) {
+                tempFile.delete();
+                return;
+            }
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Read the queue from the file on first use.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Stored stored = gson.fromJson(reader, Stored.class);
+            if (stored != null && stored.entries != null) {
+                entries.addAll(stored.entries);
+                nextLocalId = Math.min(nextLocalId, stored.nextLocalId);
+            }
+            if (stored != null && stored.assignedIds != null) {
+                assignedIds.putAll(stored.assignedIds);
+            }
+        } catch (IOException | JsonParseException e) {
+            // Changes that cannot be read cannot be sent either
+            file.delete();
+        }
+    }
+
+    /**
+     * A queued change.
+     */
+    static class Pending {
+        BookingMutation mutation;
+
+        /**
+         * The booking as the device last knew the server to have it, for resolving
+         * conflicts. Null for a create.
+         */
+        Booking base;
+
+        /**
+         * Date the booking is on after the change, null for a cancellation.
+         */
+        String date;
+
+        /**
+         * Whether the change has been sent; the server may have applied it.
+         */
+        boolean attempted;
+
+        transient boolean inFlight;
+
+        /**
+         * @return A copy that later changes to this entry, or to the bookings in it, leave alone
+         */
+        Pending copy() {
+            Pending copy = new Pending();
+            Booking booking = mutation.getBooking();
+            copy.mutation = new BookingMutation(mutation.getIdempotencyKey(), mutation.getType(),
+                    mutation.getBookingId(), mutation.getBaseVersion(), booking == null ? null : booking.copy());
+            copy.base = base == null ? null : base.copy();
+            copy.date = date;
+            copy.attempted = attempted;
+            copy.inFlight = inFlight;
+            return copy;
+        }
+    }
+
+    /**
+     * On-disk format of the queue.
+     */
+    private static class Stored {
+        long nextLocalId;
+        List<Pending> entries;
+        Map<Long, Long> assignedIds;
+    }
+}
@@ -0,0 +1,248 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.BookingEventReader;
+import com.miun.restaurantbooking.model.BookingEvent;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Long-lived connection to the booking event stream for one date.
+ * Before every (re)connect the {@link Handler} brings the date up to date, with a delta
+ * sync if it has a cursor and a full fetch otherwise, and the stream is then resumed
+ * from that cursor. If the server keeps no cursor, the stream starts at the time of the
+ * connection instead, and every reconnect fetches the date again.
+ * <p>
+ * A dropped connection is retried with exponential backoff and jitter, so a server
+ * restart is not hit by every client at once. A lost event or a resync request from the
+ * server leads to an immediate catch-up and reconnect. If recoveries follow each other
+ * without an event being applied in between, they are backed off the same way, so a
+ * server that keeps asking for a resync does not get a full fetch in a tight loop.
+ * <p>
+ * The connection blocks while waiting for events, so it runs on its own thread
+ * rather than on the shared I/O executor.
+ */
+public class BookingPushChannel {
+
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final int HTTP_GONE = 410;
+
+    private final BookingApiService apiService;
+    private final String date;
+    private final Handler handler;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Random random = new Random();
+    private final Thread thread;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicInteger recoveryCount = new AtomicInteger();
+
+    private volatile boolean closed;
+    private volatile boolean connected;
+    private volatile Call<ResponseBody> activeCall;
+    private int failures;
+    private int recoveriesInARow;
+
+    /**
+     * Constructor
+     *
+     * @param apiService           API service providing the event stream
+     * @param date                 Date string in format YYYY-MM-DD
+     * @param handler              Keeps the bookings for the date and applies the events
+     * @param initialBackoffMillis Delay before the first retry after a failure
+     * @param maxBackoffMillis     Upper bound of the delay between retries
+     */
+    public BookingPushChannel(BookingApiService apiService, String date, Handler handler,
+                              long initialBackoffMillis, long maxBackoffMillis) {
+        this.apiService = apiService;
+        this.date = date;
+        this.handler = handler;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.thread = new Thread(this::run, "booking-push-" + date);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Connect and keep the connection open until {@link #close()}.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Disconnect and stop reconnecting.
+     */
+    public void close() {
+        closed = true;
+        Call<ResponseBody> call = activeCall;
+        if (call != null) {
+            call.cancel();
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return true while the event stream is open
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * @return Number of times the event stream was opened
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return Number of times a lost event or a server resync forced a catch-up
+     */
+    public int getRecoveryCount() {
+        return recoveryCount.get();
+    }
+
+    private void run() {
+        while (!closed) {
+            boolean resumeNow;
+            try {
+                resumeNow = stream(handler.catchUp());
+            } catch (IOException | RuntimeException e) {
+                // Offline, server down or connection dropped: retry after the backoff
+                resumeNow = false;
+            } finally {
+                connected = false;
+            }
+            if (resumeNow) {
+                recoveryCount.incrementAndGet();
+                recoveriesInARow++;
+                if (recoveriesInARow > 1) {
+                    pause(backoffMillis(recoveriesInARow - 1));
+                }
+            } else {
+                failures++;
+                pause(backoffMillis(failures));
+            }
+        }
+    }
+
+    /**
+     * Open the event stream at a cursor, or at the current time if it is null, and apply
+     * events until it ends.
+     *
+     * @return true if the stream was left to catch up, false if it ended or failed
+     */
+    private boolean stream(Long cursor) throws IOException {
+        // Without a cursor the header is left out and the server sends the changes from now on
+        Call<ResponseBody> call = apiService.streamBookingEvents(date,
+                cursor == null ? null : String.valueOf(cursor));
+        activeCall = call;
+        // close() may have run before the call was published
+        if (closed) {
+            call.cancel();
+        }
+        try {
+            Response<ResponseBody> response = call.execute();
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            if (response.code() == HTTP_GONE) {
+                handler.onResync();
+                return true;
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Failed to subscribe to bookings: " + response.code());
+            }
+            connected = true;
+            connectionCount.incrementAndGet();
+            failures = 0;
+            try (BookingEventReader reader = new BookingEventReader(response.body().charStream())) {
+                BookingEvent event;
+                while ((event = reader.next()) != null) {
+                    if (event.getType() == BookingEvent.Type.RESYNC) {
+                        handler.onResync();
+                        return true;
+                    }
+                    if (!handler.onEvent(event)) {
+                        return true;
+                    }
+                    recoveriesInARow = 0;
+                }
+            }
+            return false;
+        } finally {
+            activeCall = null;
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between half and all of
+     * initial * 2^(failures - 1), capped at the maximum.
+     */
+    private long backoffMillis(int failures) {
+        long delay = initialBackoffMillis << Math.min(failures - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+    }
+
+    private synchronized void pause(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (!closed && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                // Nothing interrupts this thread except shutdown
+                closed = true;
+                return;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Keeps the bookings for the subscribed date. Called on the channel's thread.
+     */
+    public interface Handler {
+        /**
+         * Bring the bookings up to date before the stream is (re)opened.
+         *
+         * @return The cursor to resume the stream from, or null to start it at the current time
+         * @throws IOException if the bookings could not be fetched
+         */
+        Long catchUp() throws IOException;
+
+        /**
+         * Apply a pushed change.
+         *
+         * @param event The change
+         * @return false if the event does not follow the current cursor, so events were lost
+         */
+        boolean onEvent(BookingEvent event);
+
+        /**
+         * Forget the bookings, so the next catch-up is a full fetch.
+         */
+        void onResync();
+    }
+}
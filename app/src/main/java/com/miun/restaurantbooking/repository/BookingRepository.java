@@ -1,12 +1,47 @@
 package com.miun.restaurantbooking.repository;
 
+import android.content.Context;
+
+import com.google.gson.stream.JsonReader;
 import com.miun.restaurantbooking.api.ApiClient;
 import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.BookingJsonReader;
+import com.miun.restaurantbooking.api.CircuitBreaker;
+import com.miun.restaurantbooking.api.CircuitOpenException;
 import com.miun.restaurantbooking.api.DummyBookingProvider;
+import com.miun.restaurantbooking.metrics.Counter;
+import com.miun.restaurantbooking.metrics.Histogram;
+import com.miun.restaurantbooking.metrics.Metrics;
 import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.model.BookingEvent;
+import com.miun.restaurantbooking.model.BookingMutation;
+import com.miun.restaurantbooking.model.BookingPage;
+import com.miun.restaurantbooking.model.MutationResult;
+import com.miun.restaurantbooking.util.AppExecutors;
+import com.miun.restaurantbooking.util.DateFormatter;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -15,6 +50,38 @@ import retrofit2.Response;
  * Repository class that handles data operations for bookings.
  * Acts as a single source of truth for booking data.
  * Can switch between dummy data and real API calls.
+ * Bookings are cached in memory and on disk per date: cached data is delivered
+ * immediately and then revalidated against the server (stale-while-revalidate).
+ * On a cold start, today's bookings are shown from a compact {@link StartupSnapshot} before
+ * the server is asked.
+ * Dates can be prefetched into the cache before they are shown, see {@link PrefetchScheduler}.
+ * Identical requests that are already in flight are shared instead of sent again. The caches
+ * and requests in flight live in a {@link BookingDataScope}, so a screen recreated after a
+ * rotation joins the fetch its predecessor started and finds its bookings in memory.
+ * Once a date has been fully fetched it can be kept up to date with delta syncs,
+ * which only download the bookings that changed since the last sync and merge them into
+ * a {@link BookingTimeline} without sorting the date again.
+ * The date on screen can instead be subscribed to, in which case the server pushes
+ * each change as it happens over a {@link BookingPushChannel}.
+ * Every booking the repository receives is also kept in an {@link OccupancyIndex}
+ * for availability lookups. Cache hit rates and bookings per refresh are recorded
+ * in the app's {@link Metrics}.
+ * <p>
+ * A date range can also be loaded for several venues at once with a {@link BatchBookingLoader}.
+ * <p>
+ * While the server keeps failing, the API's circuit breaker makes requests fail fast instead
+ * of sending them, see {@link com.miun.restaurantbooking.api.ResiliencePolicy}. Cached dates
+ * are then served from disk even if they have expired, since old bookings beat none.
+ * <p>
+ * Bookings can be created, updated and cancelled while offline. Each change is queued in a
+ * durable {@link BookingOutbox} and shown straight away, on top of the bookings the server
+ * has confirmed, while an {@link OutboxFlusher} sends the queue to the server in batches.
+ * Changes that conflict with a newer version on the server are merged with it where they
+ * do not overlap, and otherwise dropped in favour of the server's version.
+ * <p>
+ * Network and disk work runs on the I/O executor, sorting on the compute executor,
+ * and every callback is delivered on the main thread. After {@link #close()} no
+ * further callbacks are delivered.
  */
 public class BookingRepository {
 
@@ -23,13 +90,182 @@ public class BookingRepository {
      */
     private static final boolean USE_DUMMY_DATA = false;
 
+    private static final String STARTUP_SNAPSHOT_FILE = "startup-snapshot.bin";
+
+    private static final int HTTP_GONE = 410;
+
+    /**
+     * Requests a batch load keeps in flight by default, leaving one I/O thread for other work.
+     */
+    public static final int DEFAULT_BATCH_CONCURRENCY = 3;
+
+    private static final String BOOKINGS_FOR_DATE_KEY = "getBookingsForDate:";
+
+    /**
+     * A date fetched this recently is not prefetched again.
+     */
+    private static final long PREFETCH_FRESH_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * Pushed changes are written to disk at most this often, since they can arrive many times a second.
+     */
+    private static final long PUSH_DISK_WRITE_DELAY_MILLIS = 2000;
+
+    private static final BookingCallback IGNORE_RESULT = new BookingCallback() {
+        @Override
+        public void onSuccess(List<Booking> bookings) {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+    };
+
     private final BookingApiService apiService;
+    private final BookingDiskCache diskCache;
+    private final BookingMemoryCache memoryCache;
+    private final AppExecutors executors;
+    /**
+     * Applies the queued changes to bookings on their way to the main thread, in order.
+     */
+    private final Executor deliveries;
+    private final SingleFlightCalls<List<Booking>> inFlightCalls;
+    private final DeltaSyncState syncState;
+    private final OccupancyIndex occupancy;
+    private final Set<Call<?>> activeCalls = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Set<BookingPushChannel> pushChannels = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final BookingOutbox outbox;
+    private final OutboxFlusher outboxFlusher;
+    /**
+     * Callback of the screen that last changed each booking with a queued change, keyed by booking ID.
+     * Shared by the repositories on the scope, as the answer may arrive after a rotation.
+     */
+    private final Map<Long, MutationListener> mutationListeners;
+    /**
+     * Scope created for this repository alone, which is closed with it. Null for a shared scope.
+     */
+    private final BookingDataScope ownScope;
+    private final Counter diskCacheHits;
+    private final Counter diskCacheMisses;
+    private final Histogram bookingsPerRefresh;
+    private volatile CircuitBreaker circuitBreaker;
+    private volatile StartupSnapshot startupSnapshot;
+    /**
+     * Date last loaded with {@link #getTodaysBookings}, whose bookings are kept in the startup snapshot.
+     */
+    private volatile String startupDate;
+    private volatile boolean closed;
 
     /**
-     * Constructor
+     * Constructor. Cheap enough for the main thread during startup: the HTTP client and
+     * Retrofit are built in the background, and today's bookings are first read from the
+     * startup snapshot.
+     *
+     * @param context Context used to locate the on-device booking cache
      */
-    public BookingRepository() {
-        this.apiService = ApiClient.getBookingApiService();
+    public BookingRepository(Context context) {
+        this(createApiService(context), BookingDataScope.getInstance(context), AppExecutors.getInstance());
+        setCircuitBreaker(ApiClient.getResiliencePolicy().getCircuitBreaker());
+        setStartupSnapshot(new StartupSnapshot(new File(context.getFilesDir(), STARTUP_SNAPSHOT_FILE)));
+    }
+
+    /**
+     * Constructor with explicit dependencies.
+     *
+     * @param apiService API service used to fetch bookings
+     * @param diskCache  Persistent cache that bookings are served from first
+     * @param executors  Executors for background work and callback delivery
+     */
+    public BookingRepository(BookingApiService apiService, BookingDiskCache diskCache, AppExecutors executors) {
+        this(apiService, diskCache,
+                new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_BOOKINGS, Clock.systemUTC()), executors);
+    }
+
+    /**
+     * Constructor with explicit dependencies, including the memory cache.
+     *
+     * @param apiService  API service used to fetch bookings
+     * @param diskCache   Persistent cache that bookings are served from
+     * @param memoryCache Cache checked before the disk cache
+     * @param executors   Executors for background work and callback delivery
+     */
+    public BookingRepository(BookingApiService apiService, BookingDiskCache diskCache,
+                             BookingMemoryCache memoryCache, AppExecutors executors) {
+        this(apiService, diskCache, memoryCache, new BookingOutbox(null, executors.io()), executors);
+    }
+
+    /**
+     * Constructor with explicit dependencies, including the outbox of unconfirmed changes.
+     * Changes left in the outbox by a previous run are sent straight away.
+     *
+     * @param apiService  API service used to fetch bookings
+     * @param diskCache   Persistent cache that bookings are served from
+     * @param memoryCache Cache checked before the disk cache
+     * @param outbox      Queue of booking changes not yet confirmed by the server
+     * @param executors   Executors for background work and callback delivery
+     */
+    public BookingRepository(BookingApiService apiService, BookingDiskCache diskCache,
+                             BookingMemoryCache memoryCache, BookingOutbox outbox, AppExecutors executors) {
+        this(apiService, new BookingDataScope(diskCache, memoryCache, outbox), executors, true);
+    }
+
+    /**
+     * Constructor sharing its caches, outbox and requests in flight with the other repositories
+     * on the same scope, e.g. the one of the screen this one replaces after a rotation.
+     * Changes left in the outbox by a previous run are sent straight away.
+     *
+     * @param apiService API service used to fetch bookings
+     * @param scope      Caches, sync state, outbox and requests in flight shared between repositories
+     * @param executors  Executors for background work and callback delivery
+     */
+    public BookingRepository(BookingApiService apiService, BookingDataScope scope, AppExecutors executors) {
+        this(apiService, scope, executors, false);
+    }
+
+    private BookingRepository(BookingApiService apiService, BookingDataScope scope, AppExecutors executors,
+                              boolean ownsScope) {
+        this.apiService = apiService;
+        this.diskCache = scope.getDiskCache();
+        this.memoryCache = scope.getMemoryCache();
+        this.inFlightCalls = scope.getInFlightCalls();
+        this.syncState = scope.getSyncState();
+        this.occupancy = scope.getOccupancy();
+        this.outbox = scope.getOutbox();
+        this.mutationListeners = scope.getMutationListeners();
+        this.executors = executors;
+        this.deliveries = AppExecutors.serial(executors.compute());
+        this.ownScope = ownsScope ? scope : null;
+        this.outboxFlusher = scope.startOutboxFlusher(apiService, executors, new MutationResults());
+
+        Metrics metrics = Metrics.getInstance();
+        diskCacheHits = metrics.counter(Metrics.DISK_CACHE_HITS);
+        diskCacheMisses = metrics.counter(Metrics.DISK_CACHE_MISSES);
+        bookingsPerRefresh = metrics.histogram(Metrics.BOOKINGS_PER_REFRESH, Histogram.Unit.COUNT);
+        metrics.gauge(Metrics.MEMORY_CACHE_HITS, memoryCache::getHitCount);
+        metrics.gauge(Metrics.MEMORY_CACHE_MISSES, memoryCache::getMissCount);
+        if (!USE_DUMMY_DATA) {
+            outboxFlusher.requestFlush();
+        }
+    }
+
+    /**
+     * Set the circuit breaker of the API service, so expired cached dates are served while it is open.
+     *
+     * @param circuitBreaker Breaker of the service passed to the constructor, or null
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Set the snapshot that today's bookings are shown from at startup, before the memory
+     * and disk caches are read and the server is asked. It is kept up to date with the
+     * bookings of the date last loaded with {@link #getTodaysBookings}.
+     *
+     * @param startupSnapshot Snapshot of the day shown at startup, or null
+     */
+    public void setStartupSnapshot(StartupSnapshot startupSnapshot) {
+        this.startupSnapshot = startupSnapshot;
     }
 
     /**
@@ -39,25 +275,24 @@ public class BookingRepository {
      * @param callback Callback to handle the result
      */
     public void getTodaysBookings(BookingCallback callback) {
+        if (closed) {
+            return;
+        }
         if (USE_DUMMY_DATA) {
-            List<Booking> dummyBookings = DummyBookingProvider.getTodaysBookings();
-            callback.onSuccess(dummyBookings);
+            executors.compute().execute(() -> {
+                String today = LocalDate.now().toString();
+                List<Booking> bookings = DummyBookingProvider.getTodaysBookings();
+                occupancy.replaceDate(today, bookings);
+                deliverBookings(today, callback, bookings);
+            });
         } else {
-            // API
-            Call<List<Booking>> call = apiService.getTodaysBookings();
-            call.enqueue(new Callback<List<Booking>>() {
-                @Override
-                public void onResponse(Call<List<Booking>> call, Response<List<Booking>> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        callback.onSuccess(response.body());
-                    } else {
-                        callback.onError("Failed to fetch bookings: " + response.code());
-                    }
-                }
-                @Override
-                public void onFailure(Call<List<Booking>> call, Throwable t) {
-                    callback.onError("Network error: " + t.getMessage());
-                }
+            String today = LocalDate.now().toString();
+            startupDate = today;
+            executors.io().execute(() -> {
+                List<Booking> cached = serveCached(today, callback);
+                // Fetched like any other date, so a subscription to today shares the request
+                revalidate(today, BOOKINGS_FOR_DATE_KEY + today, () -> apiService.getBookingsForDate(today),
+                        "Failed to fetch bookings: ", cached, callback);
             });
         }
     }
@@ -70,35 +305,879 @@ public class BookingRepository {
      * @param callback Callback to handle the result
      */
     public void getBookingsForDate(String date, BookingCallback callback) {
+        if (closed) {
+            return;
+        }
         if (USE_DUMMY_DATA) {
-            List<Booking> dummyBookings = DummyBookingProvider.getBookingsForDate(date);
-            callback.onSuccess(dummyBookings);
+            executors.compute().execute(() -> {
+                List<Booking> bookings = DummyBookingProvider.getBookingsForDate(date);
+                occupancy.replaceDate(date, bookings);
+                deliverBookings(date, callback, bookings);
+            });
         } else {
-            // API
-            Call<List<Booking>> call = apiService.getBookingsForDate(date);
-            call.enqueue(new Callback<List<Booking>>() {
-                @Override
-                public void onResponse(Call<List<Booking>> call, Response<List<Booking>> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        callback.onSuccess(response.body());
-                    } else {
-                        callback.onError("Failed to fetch bookings for date: " + response.code());
+            executors.io().execute(() -> {
+                List<Booking> cached = serveCached(date, callback);
+                revalidateDate(date, cached, callback);
+            });
+        }
+    }
+
+    /**
+     * Bring the bookings for a date up to date with an incremental sync.
+     * Only bookings changed since the last sync are downloaded and merged into the
+     * in-memory copy. Falls back to a full fetch if the date has not been fetched
+     * yet or the server rejects the cursor. The callback only receives a result
+     * if the bookings changed.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param callback Callback to handle the merged result
+     */
+    public void syncBookingsForDate(String date, BookingCallback callback) {
+        Long cursor = syncState.getCursor(date);
+        if (USE_DUMMY_DATA || cursor == null) {
+            getBookingsForDate(date, callback);
+            return;
+        }
+        if (closed) {
+            return;
+        }
+
+        executors.io().execute(() -> {
+            Response<BookingChanges> response;
+            try {
+                response = execute(apiService.getBookingChanges(date, cursor));
+            } catch (IOException | RuntimeException e) {
+                deliverError(callback, "Network error: " + e.getMessage());
+                return;
+            }
+
+            if (response.code() == HTTP_GONE) {
+                // The server no longer has changes that far back, so refetch the whole date
+                List<Booking> current = syncState.getBookings(date);
+                syncState.reset(date);
+                revalidateDate(date, current, callback);
+            } else if (response.isSuccessful() && response.body() != null) {
+                BookingChanges changes = response.body();
+                executors.compute().execute(() -> {
+                    List<Booking> merged = syncState.apply(date, changes);
+                    if (merged == null) {
+                        getBookingsForDate(date, callback);
+                    } else if (!changes.isEmpty()) {
+                        occupancy.apply(changes);
+                        memoryCache.put(date, merged);
+                        executors.io().execute(() -> persist(date, merged));
+                        deliverBookings(date, callback, merged);
                     }
+                });
+            } else {
+                deliverError(callback, "Failed to sync bookings for date: " + response.code());
+            }
+        });
+    }
+
+    /**
+     * Fetch the bookings for a date into the cache without delivering them.
+     * Dates fetched within the last few minutes are skipped.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     */
+    public void prefetchBookingsForDate(String date) {
+        if (closed || USE_DUMMY_DATA || memoryCache.isFresh(date, PREFETCH_FRESH_MILLIS)) {
+            return;
+        }
+        executors.io().execute(() -> {
+            List<Booking> cached = diskCache.get(date);
+            if (cached != null) {
+                memoryCache.put(date, cached);
+                occupancy.replaceDate(date, cached);
+            }
+            revalidateDate(date, cached, IGNORE_RESULT);
+        });
+    }
+
+    /**
+     * Keep the bookings for a date up to date with changes pushed by the server, instead
+     * of fetching them again. The date is fetched first (or delta synced, if it has been
+     * fetched before), sharing the request if the date is already being fetched. Then
+     * every created, updated or cancelled booking is merged in as it arrives and the
+     * callback receives the merged list. When changes arrive faster than the main thread
+     * takes them, only the latest list is delivered.
+     * The subscription reconnects by itself until it or the repository is closed.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param callback Callback receiving the bookings after each change
+     * @return The subscription; close it when the date is no longer shown
+     */
+    public BookingPushChannel subscribeToBookings(String date, BookingCallback callback) {
+        pushChannels.removeIf(BookingPushChannel::isClosed);
+        PushSubscription subscription = new PushSubscription(date, callback);
+        BookingPushChannel channel = new BookingPushChannel(apiService, date, subscription,
+                BookingPushChannel.DEFAULT_INITIAL_BACKOFF_MILLIS, BookingPushChannel.DEFAULT_MAX_BACKOFF_MILLIS);
+        subscription.channel = channel;
+        if (closed || USE_DUMMY_DATA) {
+            channel.close();
+            return channel;
+        }
+        pushChannels.add(channel);
+        channel.start();
+        return channel;
+    }
+
+    /**
+     * Create a booking. The booking is shown at once with a temporary negative ID, which
+     * is replaced by the server's ID once the server has stored it.
+     *
+     * @param booking  The new booking; its ID and version are ignored
+     * @param callback Callback receiving the bookings of the booking's date, with the
+     *                 new booking, and then again when the server has answered
+     */
+    public void createBooking(Booking booking, BookingCallback callback) {
+        if (closed) {
+            return;
+        }
+        Booking created = outbox.create(booking);
+        changeQueued(created.getBookingId(), DateFormatter.getDateOnly(created.getDateTime()), callback);
+    }
+
+    /**
+     * Change a booking. The change is shown at once and sent to the server in the background.
+     * If someone else changed the same booking in the meantime, fields changed by only one
+     * side are merged; if both changed the same field, the server's version is kept and the
+     * callback receives an error.
+     *
+     * @param original The booking as it is shown, including its version
+     * @param changed  The booking after the edit
+     * @param callback Callback receiving the bookings of the original booking's date,
+     *                 with the change, and then again when the server has answered
+     */
+    public void updateBooking(Booking original, Booking changed, BookingCallback callback) {
+        if (closed) {
+            return;
+        }
+        Booking updated = outbox.update(original, changed);
+        changeQueued(updated.getBookingId(), DateFormatter.getDateOnly(original.getDateTime()), callback);
+    }
+
+    /**
+     * Cancel a booking. The booking is removed at once and the cancellation is sent to the
+     * server in the background.
+     *
+     * @param booking  The booking as it is shown, including its version
+     * @param callback Callback receiving the bookings of the booking's date without it,
+     *                 and then again when the server has answered
+     */
+    public void cancelBooking(Booking booking, BookingCallback callback) {
+        if (closed) {
+            return;
+        }
+        long id = outbox.cancel(booking);
+        changeQueued(id, DateFormatter.getDateOnly(booking.getDateTime()), callback);
+    }
+
+    /**
+     * @return Number of booking changes the server has not confirmed yet
+     */
+    public int getPendingChangeCount() {
+        return outbox.size();
+    }
+
+    /**
+     * Get the bookings of a date range at several venues at once, e.g. for a manager's week overview.
+     * Up to {@link #DEFAULT_BATCH_CONCURRENCY} venues and dates are requested at a time, see
+     * {@link #getBookingsForVenues(String, String, List, int, BatchBookingLoader.Listener)}.
+     *
+     * @param fromDate First date of the range, format YYYY-MM-DD
+     * @param toDate   Last date of the range (inclusive), format YYYY-MM-DD
+     * @param venues   Venue IDs; null stands for this app's own venue
+     * @param listener Listener receiving the merged bookings after every request
+     * @return The loader; cancel it when the bookings are no longer shown
+     */
+    public BatchBookingLoader getBookingsForVenues(String fromDate, String toDate, List<String> venues,
+                                                   BatchBookingLoader.Listener listener) {
+        return getBookingsForVenues(fromDate, toDate, venues, DEFAULT_BATCH_CONCURRENCY, listener);
+    }
+
+    /**
+     * Get the bookings of a date range at several venues at once, e.g. for a manager's week overview.
+     * One request is sent per venue and date, at most maxConcurrentRequests at a time, and the
+     * results are merged into one time-sorted list as they arrive. The listener receives the
+     * merged list on the main thread after every request; requests that fail are listed in it
+     * as errors, the others still load. The bookings of this app's own venue are also cached.
+     *
+     * @param fromDate              First date of the range, format YYYY-MM-DD
+     * @param toDate                Last date of the range (inclusive), format YYYY-MM-DD
+     * @param venues                Venue IDs; null stands for this app's own venue
+     * @param maxConcurrentRequests Maximum number of requests in flight at once; the I/O
+     *                              executor's pool size is an upper bound as well
+     * @param listener              Listener receiving the merged bookings after every request
+     * @return The loader; cancel it when the bookings are no longer shown
+     */
+    public BatchBookingLoader getBookingsForVenues(String fromDate, String toDate, List<String> venues,
+                                                   int maxConcurrentRequests, BatchBookingLoader.Listener listener) {
+        List<String> dates = new ArrayList<>();
+        LocalDate last = LocalDate.parse(toDate);
+        for (LocalDate date = LocalDate.parse(fromDate); !date.isAfter(last); date = date.plusDays(1)) {
+            dates.add(date.toString());
+        }
+        BatchBookingLoader loader = new BatchBookingLoader(this::loadForBatch, dates, venues,
+                maxConcurrentRequests, executors.io(), this::deliver, listener);
+        if (closed) {
+            loader.cancel();
+        } else {
+            loader.start();
+        }
+        return loader;
+    }
+
+    /**
+     * Stream the bookings for a date, delivering them in chunks while the response downloads.
+     * Intended for large exports where waiting for the whole list would delay the first rows.
+     *
+     * @param date      Date string in format YYYY-MM-DD
+     * @param chunkSize Maximum number of bookings per chunk
+     * @param callback  Callback receiving the chunks
+     */
+    public void streamBookingsForDate(String date, int chunkSize, BookingChunkCallback callback) {
+        if (closed) {
+            return;
+        }
+        executors.io().execute(() -> {
+            try {
+                Response<ResponseBody> response = execute(apiService.streamBookingsForDate(date));
+                if (!response.isSuccessful() || response.body() == null) {
+                    deliver(() -> callback.onError("Failed to fetch bookings for date: " + response.code()));
+                    return;
                 }
+                try (JsonReader reader = new JsonReader(response.body().charStream())) {
+                    int total = BookingJsonReader.readBookings(reader, chunkSize,
+                            chunk -> deliver(() -> callback.onChunk(chunk)));
+                    deliver(() -> callback.onComplete(total));
+                }
+            } catch (IOException | RuntimeException e) {
+                deliver(() -> callback.onError("Network error: " + e.getMessage()));
+            }
+        });
+    }
 
-                @Override
-                public void onFailure(Call<List<Booking>> call, Throwable t) {
-                    callback.onError("Network error: " + t.getMessage());
+    /**
+     * Get one page of the bookings in a date range.
+     * Used by {@link PagedBookingLoader} for week and month views.
+     *
+     * @param fromDate First date of the range, format YYYY-MM-DD
+     * @param toDate   Last date of the range (inclusive), format YYYY-MM-DD
+     * @param offset   Position of the first booking to return
+     * @param limit    Maximum number of bookings to return
+     * @param callback Callback to handle the page
+     */
+    public void getBookingsPage(String fromDate, String toDate, int offset, int limit, PageCallback callback) {
+        if (closed) {
+            return;
+        }
+        executors.io().execute(() -> {
+            try {
+                Response<BookingPage> response = execute(apiService.getBookingsPage(fromDate, toDate, offset, limit));
+                if (response.isSuccessful() && response.body() != null) {
+                    deliver(() -> callback.onSuccess(response.body()));
+                } else {
+                    deliver(() -> callback.onError("Failed to fetch bookings page: " + response.code()));
                 }
-            });
+            } catch (IOException | RuntimeException e) {
+                deliver(() -> callback.onError("Network error: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Get the bookings of a date that start in a time range, e.g. the guests arriving in the
+     * next half hour, as the server last confirmed them. Reads the copy kept up to date by
+     * delta syncs and pushes, without a request; safe to call from any thread.
+     *
+     * @param date            Date string in format YYYY-MM-DD
+     * @param fromEpochMinute First start time included, as epoch minute
+     * @param toEpochMinute   First start time no longer included, as epoch minute
+     * @return The bookings sorted by time, empty if the date has not been fully fetched
+     */
+    public List<Booking> getBookingsStartingBetween(String date, long fromEpochMinute, long toEpochMinute) {
+        List<Booking> bookings = syncState.getBookingsStartingBetween(date, fromEpochMinute, toEpochMinute);
+        return bookings == null ? Collections.emptyList() : bookings;
+    }
+
+    /**
+     * Get the table occupancy of all bookings loaded so far.
+     * Kept up to date as bookings are fetched and synced.
+     *
+     * @return The occupancy index
+     */
+    public OccupancyIndex getOccupancyIndex() {
+        return occupancy;
+    }
+
+    /**
+     * @return The in-memory cache, e.g. to read its hit and miss counters
+     */
+    public BookingMemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    /**
+     * @return The flusher sending queued changes, e.g. to read its batch counters
+     */
+    public OutboxFlusher getOutboxFlusher() {
+        return outboxFlusher;
+    }
+
+    /**
+     * Stop delivering callbacks and cancel the requests only this repository waits for.
+     * Fetches shared with other repositories on the same scope keep running, so a screen
+     * recreated after a rotation still receives them, and their results are still cached.
+     * Queued changes are still sent, by the flusher of the scope. Call when the screen using
+     * this repository is destroyed.
+     */
+    public void close() {
+        closed = true;
+        mutationListeners.values().removeIf(listener -> listener.repository == this);
+        if (ownScope != null) {
+            ownScope.close();
+        }
+        for (BookingPushChannel channel : pushChannels) {
+            channel.close();
+        }
+        for (Call<?> call : activeCalls) {
+            call.cancel();
         }
     }
 
     /**
-     * Callback interface for handling asynchronous booking requests
+     * @return true once {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Deliver the cached bookings for a date from memory, or else from the startup snapshot
+     * or disk, if there are any. While the circuit breaker is open, an expired copy on disk
+     * is delivered as well. Runs on the I/O executor.
+     *
+     * @return The cached bookings, or null if none were delivered
+     */
+    private List<Booking> serveCached(String date, BookingCallback callback) {
+        List<Booking> cached = memoryCache.get(date);
+        if (cached == null) {
+            cached = readStartupSnapshot(date);
+        }
+        if (cached == null) {
+            cached = isServerDown() ? diskCache.getStale(date) : diskCache.get(date);
+            (cached != null ? diskCacheHits : diskCacheMisses).increment();
+            if (cached != null) {
+                memoryCache.put(date, cached);
+                occupancy.replaceDate(date, cached);
+            }
+        }
+        if (cached != null) {
+            deliverBookings(date, callback, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Read the startup snapshot if it is of the date. Runs on the I/O executor.
+     */
+    private List<Booking> readStartupSnapshot(String date) {
+        StartupSnapshot snapshot = startupSnapshot;
+        if (snapshot == null || !date.equals(startupDate)) {
+            return null;
+        }
+        List<Booking> bookings = snapshot.read(date);
+        if (bookings != null) {
+            memoryCache.put(date, bookings);
+            occupancy.replaceDate(date, bookings);
+        }
+        return bookings;
+    }
+
+    private void revalidateDate(String date, List<Booking> shown, BookingCallback callback) {
+        revalidate(date, BOOKINGS_FOR_DATE_KEY + date, () -> apiService.getBookingsForDate(date),
+                "Failed to fetch bookings for date: ", shown, callback);
+    }
+
+    /**
+     * Fetch the bookings for a date from the server and store them.
+     * The callback only receives the network result if it differs from the bookings
+     * already shown, and only receives an error if nothing was shown.
+     * Runs on the I/O executor.
+     */
+    private void revalidate(String date, String requestKey, Supplier<Call<List<Booking>>> callFactory,
+                            String errorPrefix, List<Booking> shown, BookingCallback callback) {
+        inFlightCalls.execute(requestKey, callFactory, new Callback<List<Booking>>() {
+            @Override
+            public void onResponse(Call<List<Booking>> call, Response<List<Booking>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    List<Booking> bookings = response.body();
+                    // Store even if unchanged, to renew the time-to-live
+                    storeFetched(date, response);
+                    if (!bookings.equals(shown)) {
+                        occupancy.replaceDate(date, bookings);
+                        deliverBookings(date, callback, bookings);
+                    }
+                } else if (shown == null) {
+                    deliverError(callback, errorPrefix + response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<Booking>> call, Throwable t) {
+                if (shown == null) {
+                    deliverError(callback, t instanceof CircuitOpenException
+                            ? t.getMessage() : "Network error: " + t.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Store a full fetch of the bookings for a date in the caches and the sync state.
+     */
+    private void storeFetched(String date, Response<List<Booking>> response) {
+        List<Booking> bookings = response.body();
+        bookingsPerRefresh.record(bookings.size());
+        Long cursor = parseCursor(response.headers().get(BookingApiService.SYNC_CURSOR_HEADER));
+        if (cursor != null) {
+            syncState.replace(date, bookings, cursor);
+        }
+        persist(date, bookings);
+        memoryCache.put(date, bookings);
+    }
+
+    /**
+     * Load the bookings of one venue and date for a {@link BatchBookingLoader}. Runs on the I/O executor.
+     * The app's own venue is stored like a single-date fetch, so its dates open from the cache later.
+     */
+    private List<Booking> loadForBatch(String venue, String date) throws IOException {
+        if (USE_DUMMY_DATA) {
+            return DummyBookingProvider.getBookingsForDate(date);
+        }
+        Response<List<Booking>> response = execute(venue == null
+                ? apiService.getBookingsForDate(date) : apiService.getBookingsForVenue(venue, date));
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("Failed to fetch bookings for date: " + response.code());
+        }
+        if (venue != null) {
+            return response.body();
+        }
+        storeFetched(date, response);
+        occupancy.replaceDate(date, response.body());
+        return outbox.applyPending(date, response.body());
+    }
+
+    private boolean isServerDown() {
+        CircuitBreaker breaker = circuitBreaker;
+        return breaker != null && breaker.getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * Execute a call on the current thread, keeping track of it so it can be cancelled.
+     */
+    private <T> Response<T> execute(Call<T> call) throws IOException {
+        activeCalls.add(call);
+        try {
+            return call.execute();
+        } finally {
+            activeCalls.remove(call);
+        }
+    }
+
+    /**
+     * Execute a call on the current thread, or wait for the identical call already in flight.
+     */
+    private Response<List<Booking>> executeShared(String key, Supplier<Call<List<Booking>>> callFactory)
+            throws IOException {
+        CompletableFuture<Response<List<Booking>>> result = new CompletableFuture<>();
+        inFlightCalls.execute(key, callFactory, new Callback<List<Booking>>() {
+            @Override
+            public void onResponse(Call<List<Booking>> call, Response<List<Booking>> response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(Call<List<Booking>> call, Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted");
+        }
+    }
+
+    /**
+     * Deliver the bookings of a date with the queued changes applied. The changes are applied
+     * on the compute executor, one delivery at a time in the order they were asked for, so no
+     * delivery overtakes a later one. A change queued after the bookings were loaded is still
+     * shown, by the delivery that follows the change.
+     */
+    private void deliverBookings(String date, BookingCallback callback, List<Booking> bookings) {
+        deliveries.execute(() -> {
+            List<Booking> shown = outbox.applyPending(date, bookings);
+            deliver(() -> callback.onSuccess(shown));
+        });
+    }
+
+    /**
+     * Show a queued change and schedule sending it. Runs on the caller's thread.
+     */
+    private void changeQueued(long bookingId, String date, BookingCallback callback) {
+        if (outbox.contains(bookingId)) {
+            mutationListeners.put(bookingId, new MutationListener(this, date, callback));
+        } else {
+            // A booking created and cancelled before it was sent
+            mutationListeners.remove(bookingId);
+        }
+        executors.io().execute(() -> deliverBookings(date, callback, confirmedBookings(date)));
+        if (!USE_DUMMY_DATA) {
+            outboxFlusher.requestFlush();
+        }
+    }
+
+    /**
+     * Get the bookings of a date as the server last confirmed them. Runs on the I/O executor.
+     *
+     * @return The bookings, empty if the date has not been loaded
+     */
+    private List<Booking> confirmedBookings(String date) {
+        List<Booking> bookings = syncState.getBookings(date);
+        if (bookings == null) {
+            bookings = memoryCache.get(date);
+        }
+        if (bookings == null) {
+            bookings = diskCache.get(date);
+        }
+        return bookings == null ? Collections.emptyList() : bookings;
+    }
+
+    /**
+     * Store a booking as the server confirmed it after a change, in every date it was or is on.
+     * Runs on the I/O executor.
+     *
+     * @param bookingId    ID the change was sent with, which is a temporary ID for a create
+     * @param previousDate Date the booking was on before the change, null for a create
+     * @param confirmed    The booking as the server has it now, null if it does not exist
+     */
+    private void storeConfirmed(long bookingId, String previousDate, Booking confirmed) {
+        String date = confirmed == null ? null : DateFormatter.getDateOnly(confirmed.getDateTime());
+        List<Booking> updated = confirmed == null
+                ? Collections.emptyList() : Collections.singletonList(confirmed);
+        List<Long> removed = Collections.singletonList(bookingId);
+        if (previousDate != null && !previousDate.equals(date)) {
+            storeConfirmed(previousDate, new BookingChanges(0, Collections.emptyList(), removed));
+        }
+        if (date != null) {
+            storeConfirmed(date, new BookingChanges(0, updated, removed));
+        }
+        occupancy.apply(new BookingChanges(0, updated, removed));
+    }
+
+    private void storeConfirmed(String date, BookingChanges changes) {
+        List<Booking> merged = syncState.mergeConfirmed(date, changes);
+        if (merged == null) {
+            List<Booking> cached = memoryCache.get(date);
+            if (cached == null) {
+                return;
+            }
+            BookingTimeline timeline = new BookingTimeline();
+            timeline.setAll(cached);
+            for (Long deletedId : changes.getDeletedIds()) {
+                timeline.remove(deletedId);
+            }
+            for (Booking booking : changes.getUpdated()) {
+                timeline.put(booking);
+            }
+            merged = timeline.toList();
+        }
+        memoryCache.put(date, merged);
+        persist(date, merged);
+    }
+
+    /**
+     * Store the confirmed bookings of a date on disk, and in the startup snapshot if it is
+     * the date shown at startup. Runs on the I/O executor.
+     */
+    private void persist(String date, List<Booking> bookings) {
+        diskCache.put(date, bookings);
+        StartupSnapshot snapshot = startupSnapshot;
+        if (snapshot != null && date.equals(startupDate)) {
+            snapshot.write(date, bookings);
+        }
+    }
+
+    private void deliverError(BookingCallback callback, String errorMessage) {
+        deliver(() -> callback.onError(errorMessage));
+    }
+
+    /**
+     * Run a callback on the main thread, unless the repository has been closed by then.
+     */
+    private void deliver(Runnable delivery) {
+        executors.mainThread().execute(() -> {
+            if (!closed) {
+                delivery.run();
+            }
+        });
+    }
+
+    private static BookingApiService createApiService(Context context) {
+        ApiClient.init(context);
+        // Retrofit and Gson are built off the main thread, while cached bookings are shown
+        ApiClient.warmUp(AppExecutors.getInstance().io());
+        return ApiClient.getLazyBookingApiService();
+    }
+
+    private static Long parseCursor(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Applies the changes pushed for one date. Called on the push channel's thread.
+     */
+    private class PushSubscription implements BookingPushChannel.Handler {
+        private final String date;
+        private final BookingCallback callback;
+        private final AtomicBoolean deliveryPending = new AtomicBoolean();
+        private final AtomicBoolean diskWritePending = new AtomicBoolean();
+        private volatile List<Booking> latest;
+        /**
+         * True while the server sends no cursor with a full fetch; the bookings it fetched last.
+         */
+        private volatile boolean cursorless;
+        private volatile List<Booking> fetchedBookings;
+        BookingPushChannel channel;
+
+        PushSubscription(String date, BookingCallback callback) {
+            this.date = date;
+            this.callback = callback;
+        }
+
+        @Override
+        public Long catchUp() throws IOException {
+            if (cursorless) {
+                // Changes made while the stream was down cannot be asked for without a cursor
+                syncState.reset(date);
+            }
+            Long cursor = syncState.getCursor(date);
+            if (cursor != null) {
+                Response<BookingChanges> response = execute(apiService.getBookingChanges(date, cursor));
+                if (response.isSuccessful() && response.body() != null) {
+                    BookingChanges changes = response.body();
+                    List<Booking> merged = syncState.apply(date, changes);
+                    if (merged != null) {
+                        if (!changes.isEmpty()) {
+                            occupancy.apply(changes);
+                            publish(merged);
+                        }
+                        return changes.getCursor();
+                    }
+                } else if (response.code() != HTTP_GONE) {
+                    throw new IOException("Failed to sync bookings for date: " + response.code());
+                }
+                syncState.reset(date);
+            }
+
+            // Joins the fetch of the screen showing the date, e.g. at startup
+            Response<List<Booking>> response = executeShared(BOOKINGS_FOR_DATE_KEY + date,
+                    () -> apiService.getBookingsForDate(date));
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Failed to fetch bookings for date: " + response.code());
+            }
+            occupancy.replaceDate(date, response.body());
+            Long fetched = parseCursor(response.headers().get(BookingApiService.SYNC_CURSOR_HEADER));
+            cursorless = fetched == null;
+            if (cursorless) {
+                // Stream from now on, and fetch the date again on every reconnect
+                fetchedBookings = response.body();
+                publish(fetchedBookings);
+                return null;
+            }
+            syncState.replace(date, response.body(), fetched);
+            publish(syncState.getBookings(date));
+            return fetched;
+        }
+
+        @Override
+        public boolean onEvent(BookingEvent event) {
+            if (cursorless && syncState.getCursor(date) == null) {
+                // The first change after the fetch tells where the stream started
+                syncState.replace(date, fetchedBookings, event.getCursor() - 1);
+            }
+            Long cursor = syncState.getCursor(date);
+            if (cursor != null && event.getCursor() <= cursor) {
+                // Already merged, e.g. by a sync that ran while the stream reconnected
+                return true;
+            }
+            BookingChanges changes = event.toChanges();
+            List<Booking> merged = syncState.applyNext(date, changes);
+            if (merged == null) {
+                return false;
+            }
+            occupancy.apply(changes);
+            publish(merged);
+            return true;
+        }
+
+        @Override
+        public void onResync() {
+            syncState.reset(date);
+        }
+
+        /**
+         * Store the merged bookings and hand the latest ones to the main thread.
+         * A delivery or disk write that is already pending picks up the newer list.
+         */
+        private void publish(List<Booking> bookings) {
+            latest = bookings;
+            memoryCache.put(date, bookings);
+            if (diskWritePending.compareAndSet(false, true)) {
+                executors.scheduler().schedule(() -> executors.io().execute(() -> {
+                    diskWritePending.set(false);
+                    persist(date, latest);
+                }), PUSH_DISK_WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            if (deliveryPending.compareAndSet(false, true)) {
+                deliveries.execute(() -> {
+                    deliveryPending.set(false);
+                    List<Booking> shown = outbox.applyPending(date, latest);
+                    deliver(() -> {
+                        if (!channel.isClosed()) {
+                            callback.onSuccess(shown);
+                        }
+                    });
+                });
+            }
+        }
+    }
+
+    /**
+     * Applies the server's answers to queued changes, and shows the result to the screen
+     * that made each change, through that screen's repository. Called on the I/O executor,
+     * for the repository that joined the scope last.
+     */
+    private class MutationResults implements OutboxFlusher.Handler {
+        @Override
+        public void onResults(List<BookingMutation> batch, List<MutationResult> results) {
+            Map<String, MutationResult> byKey = new HashMap<>();
+            for (MutationResult result : results) {
+                byKey.put(result.getIdempotencyKey(), result);
+            }
+            // One delivery per screen and date, however many of its changes were answered
+            Map<BookingCallback, MutationListener> affected = new LinkedHashMap<>();
+            for (BookingMutation mutation : batch) {
+                MutationResult result = byKey.get(mutation.getIdempotencyKey());
+                BookingOutbox.Pending done = result == null ? null : outbox.complete(mutation.getIdempotencyKey());
+                if (done == null) {
+                    continue;
+                }
+                long id = mutation.getBookingId();
+                Booking current = result.getBooking();
+                String previousDate = done.base == null ? null : DateFormatter.getDateOnly(done.base.getDateTime());
+                String error = null;
+                switch (result.getStatus()) {
+                    case APPLIED:
+                        storeConfirmed(id, previousDate, current);
+                        outbox.confirm(id, current);
+                        break;
+                    case CONFLICT:
+                        storeConfirmed(id, previousDate, current);
+                        if (!outbox.rebase(done, current)) {
+                            error = "Booking was changed by someone else, your change was not saved";
+                        }
+                        break;
+                    default:
+                        if (current != null) {
+                            storeConfirmed(id, previousDate, current);
+                        }
+                        // Later changes to the booking build on the rejected one
+                        outbox.discard(id);
+                        error = result.getMessage() == null
+                                ? "Booking change was rejected" : "Booking change was rejected: " + result.getMessage();
+                        break;
+                }
+
+                MutationListener listener = mutationListeners.get(id);
+                if (listener == null) {
+                    continue;
+                }
+                affected.put(listener.callback, listener);
+                if (error != null) {
+                    listener.repository.deliverError(listener.callback, error);
+                }
+                // A confirmed create's queued changes now use the ID the server assigned
+                long queuedId = result.getStatus() == MutationResult.Status.APPLIED && current != null
+                        ? current.getBookingId() : id;
+                mutationListeners.remove(id);
+                if (outbox.contains(queuedId)) {
+                    mutationListeners.put(queuedId, listener);
+                }
+            }
+            for (MutationListener listener : affected.values()) {
+                listener.repository.deliverBookings(listener.date, listener.callback,
+                        confirmedBookings(listener.date));
+            }
+        }
+    }
+
+    /**
+     * The screen to show the outcome of a queued change to.
+     */
+    static class MutationListener {
+        final BookingRepository repository;
+        final String date;
+        final BookingCallback callback;
+
+        MutationListener(BookingRepository repository, String date, BookingCallback callback) {
+            this.repository = repository;
+            this.date = date;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Callback interface for handling asynchronous booking requests.
+     * Called on the main thread. onSuccess may be called twice for one request:
+     * first with cached bookings, then with fresh bookings if the server returned
+     * different data.
      */
     public interface BookingCallback {
         void onSuccess(List<Booking> bookings);
         void onError(String errorMessage);
     }
+
+    /**
+     * Callback interface for handling a page of bookings
+     */
+    public interface PageCallback {
+        void onSuccess(BookingPage page);
+        void onError(String errorMessage);
+    }
+
+    /**
+     * Callback interface for bookings that are delivered in chunks while they are parsed
+     */
+    public interface BookingChunkCallback {
+        void onChunk(List<Booking> chunk);
+        void onComplete(int totalBookings);
+        void onError(String errorMessage);
+    }
 }
@@ -0,0 +1,129 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs booking searches in the background while the host types.
+ * Queries are debounced, so a burst of keystrokes results in one search for the last one.
+ * The index is rebuilt on the compute executor whenever the bookings change, searches run
+ * there as well, and results are delivered on the main thread. Results for a query that has
+ * since been replaced are dropped.
+ */
+public class BookingSearch {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+    private final AppExecutors executors;
+    private final long debounceMillis;
+    private final Listener listener;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private volatile BookingSearchIndex index = new BookingSearchIndex(Collections.emptyList());
+    private volatile BookingFilter filter = new BookingFilter();
+    private volatile boolean closed;
+    private int indexVersion;
+    private int installedIndexVersion;
+    private ScheduledFuture<?> pendingSearch;
+
+    /**
+     * Constructor
+     *
+     * @param executors      Executors for the index, the searches and delivery
+     * @param debounceMillis How long typing must pause before a query is searched
+     * @param listener       Receives the results on the main thread
+     */
+    public BookingSearch(AppExecutors executors, long debounceMillis, Listener listener) {
+        this.executors = executors;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * Replace the bookings to search. The current query is searched again once the
+     * new index is built.
+     *
+     * @param bookings Loaded bookings
+     */
+    public void setBookings(List<Booking> bookings) {
+        int version;
+        synchronized (this) {
+            version = ++indexVersion;
+        }
+        executors.compute().execute(() -> {
+            BookingSearchIndex built = new BookingSearchIndex(bookings);
+            synchronized (this) {
+                // An index for newer bookings may have been installed while this one was built
+                if (version < installedIndexVersion) {
+                    return;
+                }
+                installedIndexVersion = version;
+                index = built;
+            }
+            search();
+        });
+    }
+
+    /**
+     * Search for a filter after the debounce delay, replacing any query still waiting.
+     *
+     * @param filter What to search for
+     */
+    public synchronized void setFilter(BookingFilter filter) {
+        this.filter = filter;
+        generation.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+        pendingSearch = executors.scheduler().schedule(() -> executors.compute().execute(this::search),
+                debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The filter most recently set
+     */
+    public BookingFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Stop searching and delivering results.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+    }
+
+    /**
+     * Search the current index for the current filter. Runs on the compute executor.
+     */
+    private void search() {
+        if (closed) {
+            return;
+        }
+        int searchGeneration = generation.incrementAndGet();
+        BookingFilter searched = filter;
+        List<Booking> results = index.search(searched);
+        executors.mainThread().execute(() -> {
+            if (!closed && searchGeneration == generation.get()) {
+                listener.onResults(results, searched);
+            }
+        });
+    }
+
+    /**
+     * Receives search results on the main thread.
+     */
+    public interface Listener {
+        void onResults(List<Booking> results, BookingFilter filter);
+    }
+}
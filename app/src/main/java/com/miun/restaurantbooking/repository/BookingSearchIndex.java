@@ -0,0 +1,369 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search index over a list of bookings, built once so that each query only touches
+ * the bookings that can match.
+ * Guest names are normalized (lower case, accents removed) and phone numbers reduced to
+ * their digits, so "070-45" matches "070-456 78 90". Both are indexed twice:
+ * by the first one and two characters of every word for short terms, and by every
+ * three-character sequence (trigram) for substring lookups of longer terms.
+ * Immutable once built and safe to query from any thread.
+ */
+public class BookingSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final List<Booking> bookings;
+    private final String[] names;
+    private final String[] phones;
+    private final Postings namePrefixes = new Postings();
+    private final Postings phonePrefixes = new Postings();
+    private final Postings nameGrams = new Postings();
+    private final Postings phoneGrams = new Postings();
+
+    /**
+     * Build the index.
+     *
+     * @param bookings Bookings to search; results keep this order
+     */
+    public BookingSearchIndex(List<Booking> bookings) {
+        this.bookings = new ArrayList<>(bookings);
+        int count = this.bookings.size();
+        names = new String[count];
+        phones = new String[count];
+
+        // Guests book again and again, so each distinct name is only normalized once
+        Map<String, String> normalizedNames = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Booking booking = this.bookings.get(i);
+            String name = booking.getCustomerName();
+            names[i] = normalizedNames.get(name);
+            if (names[i] == null) {
+                names[i] = normalizeName(name);
+                normalizedNames.put(name, names[i]);
+            }
+            phones[i] = digitsOf(booking.getPhoneNumber());
+            for (int start = 0; start < names[i].length(); ) {
+                addPrefixes(namePrefixes, names[i], start, i);
+                int space = names[i].indexOf(' ', start);
+                if (space < 0) {
+                    break;
+                }
+                start = space + 1;
+            }
+            addPrefixes(phonePrefixes, phones[i], 0, i);
+            addGrams(nameGrams, names[i], i);
+            addGrams(phoneGrams, phones[i], i);
+        }
+        namePrefixes.trim();
+        phonePrefixes.trim();
+        nameGrams.trim();
+        phoneGrams.trim();
+    }
+
+    /**
+     * Find the bookings matching a filter.
+     * Every word of the text must match: words with letters are matched against the
+     * guest name, words of digits against the phone number or the name. A text without
+     * letters is treated as one number, so "070 45" and "070-45" both match "070-456 78 90".
+     *
+     * @param filter What to search for
+     * @return Matching bookings in index order
+     */
+    public List<Booking> search(BookingFilter filter) {
+        BitSet matches = null;
+        for (String term : terms(filter.getText())) {
+            BitSet termMatches = match(term, names, namePrefixes, nameGrams);
+            if (isDigits(term)) {
+                // Digits usually mean a phone number, but names like "Bord 12" can hold them too
+                termMatches.or(match(term, phones, phonePrefixes, phoneGrams));
+            }
+            if (matches == null) {
+                matches = termMatches;
+            } else {
+                matches.and(termMatches);
+            }
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Booking> results = new ArrayList<>(matches == null ? bookings.size() : matches.cardinality());
+        if (matches == null) {
+            for (Booking booking : bookings) {
+                if (filter.matchesTableAndGuests(booking)) {
+                    results.add(booking);
+                }
+            }
+        } else {
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                Booking booking = bookings.get(i);
+                if (filter.matchesTableAndGuests(booking)) {
+                    results.add(booking);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return Number of bookings in the index
+     */
+    public int size() {
+        return bookings.size();
+    }
+
+    /**
+     * Normalize a name for matching: lower case, accents removed, everything
+     * that is not a letter or digit turned into a single space.
+     *
+     * @param name Name as entered
+     * @return Normalized name
+     */
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        // Accents only need stripping outside ASCII, and decomposing is comparatively slow
+        String decomposed = isAscii(name) ? name : Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int end = normalized.length();
+        return space && end > 0 ? normalized.substring(0, end - 1) : normalized.toString();
+    }
+
+    /**
+     * @param phoneNumber Phone number as entered
+     * @return Only the digits of the phone number
+     */
+    static String digitsOf(String phoneNumber) {
+        if (phoneNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        boolean hasLetters = false;
+        for (int i = 0; i < text.length() && !hasLetters; i++) {
+            hasLetters = Character.isLetter(text.charAt(i));
+        }
+        if (!hasLetters) {
+            String digits = digitsOf(text);
+            if (!digits.isEmpty()) {
+                terms.add(digits);
+            }
+            return terms;
+        }
+        for (String word : text.trim().split("\\s+")) {
+            boolean letters = false;
+            for (int i = 0; i < word.length() && !letters; i++) {
+                letters = Character.isLetter(word.charAt(i));
+            }
+            if (letters) {
+                for (String term : normalizeName(word).split(" ")) {
+                    if (!term.isEmpty()) {
+                        terms.add(term);
+                    }
+                }
+            } else if (!digitsOf(word).isEmpty()) {
+                terms.add(digitsOf(word));
+            }
+        }
+        return terms;
+    }
+
+    private BitSet match(String term, String[] values, Postings prefixes, Postings grams) {
+        BitSet matches = new BitSet(bookings.size());
+        if (term.length() < GRAM) {
+            int[] postings = prefixes.get(key(term, 0, term.length()));
+            if (postings != null) {
+                for (int booking : postings) {
+                    matches.set(booking);
+                }
+            }
+            return matches;
+        }
+        // Any booking containing the term contains all its trigrams, so the rarest one bounds the candidates
+        int[] candidates = null;
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            int[] postings = grams.get(key(term, i, GRAM));
+            if (postings == null) {
+                return matches;
+            }
+            if (candidates == null || postings.length < candidates.length) {
+                candidates = postings;
+            }
+        }
+        // A term of exactly one trigram needs no check against the value
+        boolean exact = term.length() == GRAM;
+        for (int candidate : candidates) {
+            if (exact || values[candidate].contains(term)) {
+                matches.set(candidate);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Index the first one and two characters of the word starting at an offset.
+     */
+    private static void addPrefixes(Postings postings, String value, int start, int booking) {
+        for (int length = 1; length < GRAM && start + length <= value.length()
+                && value.charAt(start + length - 1) != ' '; length++) {
+            postings.add(key(value, start, length), booking);
+        }
+    }
+
+    private static void addGrams(Postings postings, String value, int booking) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            postings.add(key(value, i, GRAM), booking);
+        }
+    }
+
+    /**
+     * Pack up to three characters into one key. Characters are shifted in one at a time
+     * and the length is kept in the top bits, so "ab" and "\0ab" differ.
+     */
+    private static long key(String value, int offset, int length) {
+        long key = length;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | value.charAt(offset + i);
+        }
+        return key;
+    }
+
+    /**
+     * Map from a packed key to the ascending indexes of the bookings containing it.
+     * Open addressing on primitive arrays, since a build adds over a million keys
+     * and boxing each one would dominate the build time.
+     */
+    private static class Postings {
+        private long[] keys = new long[1024];
+        private int[][] bookings = new int[1024][];
+        private int[] sizes = new int[1024];
+        private int count;
+
+        void add(long key, int booking) {
+            int slot = slot(key);
+            if (bookings[slot] == null) {
+                if ((count + 1) * 2 > keys.length) {
+                    grow();
+                    slot = slot(key);
+                }
+                keys[slot] = key;
+                bookings[slot] = new int[4];
+                count++;
+            }
+            int size = sizes[slot];
+            int[] list = bookings[slot];
+            // A key can occur twice in one value; keep each booking once
+            if (size > 0 && list[size - 1] == booking) {
+                return;
+            }
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+                bookings[slot] = list;
+            }
+            list[size] = booking;
+            sizes[slot] = size + 1;
+        }
+
+        /**
+         * @return The bookings containing the key, or null if there are none
+         */
+        int[] get(long key) {
+            return bookings[slot(key)];
+        }
+
+        /**
+         * Cut every list to its size once the build is done.
+         */
+        void trim() {
+            for (int slot = 0; slot < bookings.length; slot++) {
+                if (bookings[slot] != null && bookings[slot].length != sizes[slot]) {
+                    bookings[slot] = Arrays.copyOf(bookings[slot], sizes[slot]);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (bookings[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[][] oldBookings = bookings;
+            int[] oldSizes = sizes;
+            keys = new long[oldKeys.length * 2];
+            bookings = new int[oldKeys.length * 2][];
+            sizes = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldBookings[i] != null) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    bookings[slot] = oldBookings[i];
+                    sizes[slot] = oldSizes[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.miun.restaurantbooking.repository;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The bookings of a date kept in time order, as delivered to the UI: by start time, then
+ * table, then booking ID, like {@link DeltaSyncState#BY_TIME}.
+ * <p>
+ * Inserting, updating, moving and removing a booking take O(log n), instead of sorting all
+ * bookings again after every change. So does finding a booking's position, and a range of
+ * start times, such as the guests arriving in the next half hour, is found in
+ * O(log n + k). A booking is looked up by ID in O(1).
+ * <p>
+ * Every change can be reported to a {@link ListUpdateCallback} with the positions it affected,
+ * in the order the changes are made, so a list of the bookings is kept in step without diffing.
+ * <p>
+ * The bookings are held in a treap: a binary search tree that stays balanced by giving every
+ * node a random priority, with the size of each subtree kept for positions.
+ * A booking's time and table are read when it is put; put a changed booking again to move it.
+ * Not thread-safe.
+ */
+public class BookingTimeline {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final ListUpdateCallback callback;
+    private Node root;
+    private int seed = 0x2545F491;
+
+    // Results of split(), to avoid allocating a pair per call
+    private Node splitLeft;
+    private Node splitRight;
+
+    /**
+     * Constructor for a timeline without change notifications
+     */
+    public BookingTimeline() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param callback Told about every change with the positions it affected, or null
+     */
+    public BookingTimeline(ListUpdateCallback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * @return Number of bookings
+     */
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Get a booking by ID in O(1).
+     *
+     * @param bookingId Booking ID
+     * @return The booking, or null if there is none with the ID
+     */
+    public Booking get(long bookingId) {
+        Node node = nodes.get(bookingId);
+        return node == null ? null : node.booking;
+    }
+
+    /**
+     * Get the booking at a position in O(log n).
+     *
+     * @param position Position in time order
+     * @return The booking
+     * @throws IndexOutOfBoundsException if there is no booking at the position
+     */
+    public Booking getAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return node.booking;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Get the position of a booking in O(log n).
+     *
+     * @param bookingId Booking ID
+     * @return Position in time order, or -1 if there is no booking with the ID
+     */
+    public int indexOf(long bookingId) {
+        Node node = nodes.get(bookingId);
+        return node == null ? -1 : positionOf(node);
+    }
+
+    /**
+     * Insert a booking, or replace the booking with the same ID, moving it if its
+     * time or table changed. Notifies an insert, or a move followed by a change, or
+     * a change if the booking is no longer equal to the one it replaces.
+     *
+     * @param booking Booking with an ID
+     */
+    public void put(Booking booking) {
+        Long bookingId = Objects.requireNonNull(booking.getBookingId(), "bookingId");
+        Node old = nodes.get(bookingId);
+        if (old == null) {
+            Node node = new Node(booking, nextPriority());
+            nodes.put(bookingId, node);
+            root = insert(root, node);
+            if (callback != null) {
+                callback.onInserted(positionOf(node), 1);
+            }
+            return;
+        }
+        if (old.start == booking.getStartEpochMinute() && old.table == booking.getTableNumber()) {
+            // Same place in the order; only the booking changes
+            boolean changed = !old.booking.equals(booking);
+            old.booking = booking;
+            if (changed && callback != null) {
+                callback.onChanged(positionOf(old), 1, null);
+            }
+            return;
+        }
+        int from = callback != null ? positionOf(old) : -1;
+        root = remove(root, old);
+        Node node = new Node(booking, nextPriority());
+        nodes.put(bookingId, node);
+        root = insert(root, node);
+        if (callback != null) {
+            int to = positionOf(node);
+            if (from != to) {
+                callback.onMoved(from, to);
+            }
+            callback.onChanged(to, 1, null);
+        }
+    }
+
+    /**
+     * Remove a booking. Notifies a removal.
+     *
+     * @param bookingId Booking ID
+     * @return The removed booking, or null if there was none with the ID
+     */
+    public Booking remove(long bookingId) {
+        Node node = nodes.remove(bookingId);
+        if (node == null) {
+            return null;
+        }
+        int position = callback != null ? positionOf(node) : -1;
+        root = remove(root, node);
+        if (callback != null) {
+            callback.onRemoved(position, 1);
+        }
+        return node.booking;
+    }
+
+    /**
+     * Replace all bookings, e.g. with a full fetch. Notifies the removal of the old bookings and
+     * the insertion of the new ones; diff the two lists instead if most bookings are unchanged.
+     *
+     * @param bookings Bookings with IDs, in any order; a later booking replaces an earlier one with the same ID
+     */
+    public void setAll(Collection<Booking> bookings) {
+        int removed = size();
+        nodes.clear();
+        root = null;
+        for (Booking booking : bookings) {
+            Long bookingId = Objects.requireNonNull(booking.getBookingId(), "bookingId");
+            Node old = nodes.get(bookingId);
+            if (old != null) {
+                root = remove(root, old);
+            }
+            Node node = new Node(booking, nextPriority());
+            nodes.put(bookingId, node);
+            root = insert(root, node);
+        }
+        if (callback != null) {
+            if (removed > 0) {
+                callback.onRemoved(0, removed);
+            }
+            if (!isEmpty()) {
+                callback.onInserted(0, size());
+            }
+        }
+    }
+
+    /**
+     * Get the bookings starting in a time range, in O(log n + k) for k bookings.
+     *
+     * @param fromEpochMinute First start time included, as epoch minute
+     * @param toEpochMinute   First start time no longer included, as epoch minute
+     * @return The bookings in time order
+     */
+    public List<Booking> getStartingBetween(long fromEpochMinute, long toEpochMinute) {
+        List<Booking> bookings = new ArrayList<>();
+        if (fromEpochMinute < toEpochMinute) {
+            collect(root, fromEpochMinute, toEpochMinute, bookings);
+        }
+        return bookings;
+    }
+
+    /**
+     * Get the bookings whose guests arrive within the coming minutes.
+     *
+     * @param nowEpochMinute The current time as epoch minute
+     * @param minutes        Length of the window; a booking starting exactly at its end is included
+     * @return The bookings in time order
+     */
+    public List<Booking> getArrivingWithin(long nowEpochMinute, int minutes) {
+        return getStartingBetween(nowEpochMinute, nowEpochMinute + minutes + 1);
+    }
+
+    /**
+     * @return All bookings in time order, as a new list
+     */
+    public List<Booking> toList() {
+        List<Booking> bookings = new ArrayList<>(size());
+        collectAll(root, bookings);
+        return bookings;
+    }
+
+    /**
+     * Position of a node in time order: the nodes before it on the path from the root.
+     */
+    private int positionOf(Node target) {
+        int position = 0;
+        Node node = root;
+        while (node != target) {
+            if (compare(target, node) < 0) {
+                node = node.left;
+            } else {
+                position += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return position + size(node.left);
+    }
+
+    private Node insert(Node tree, Node node) {
+        if (tree == null) {
+            return node;
+        }
+        if (node.priority > tree.priority) {
+            // The node becomes the root of this subtree
+            split(tree, node);
+            node.left = splitLeft;
+            node.right = splitRight;
+            update(node);
+            return node;
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        update(tree);
+        return tree;
+    }
+
+    /**
+     * Split a subtree into the nodes before a key and the nodes after it,
+     * left in {@link #splitLeft} and {@link #splitRight}.
+     */
+    private void split(Node tree, Node key) {
+        if (tree == null) {
+            splitLeft = null;
+            splitRight = null;
+        } else if (compare(tree, key) < 0) {
+            split(tree.right, key);
+            tree.right = splitLeft;
+            update(tree);
+            splitLeft = tree;
+        } else {
+            split(tree.left, key);
+            tree.left = splitRight;
+            update(tree);
+            splitRight = tree;
+        }
+    }
+
+    private Node remove(Node tree, Node node) {
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = remove(tree.left, node);
+        } else {
+            tree.right = remove(tree.right, node);
+        }
+        update(tree);
+        return tree;
+    }
+
+    /**
+     * Join two subtrees where every node of the first comes before every node of the second.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private static void collect(Node node, long from, long to, List<Booking> bookings) {
+        if (node == null) {
+            return;
+        }
+        if (node.start >= from) {
+            collect(node.left, from, to, bookings);
+            if (node.start < to) {
+                bookings.add(node.booking);
+            }
+        }
+        if (node.start < to) {
+            collect(node.right, from, to, bookings);
+        }
+    }
+
+    private static void collectAll(Node node, List<Booking> bookings) {
+        while (node != null) {
+            collectAll(node.left, bookings);
+            bookings.add(node.booking);
+            node = node.right;
+        }
+    }
+
+    private static int compare(Node a, Node b) {
+        int order = Long.compare(a.start, b.start);
+        if (order == 0) {
+            order = Integer.compare(a.table, b.table);
+        }
+        return order != 0 ? order : Long.compare(a.id, b.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * Xorshift, enough to keep the tree balanced whatever order the bookings arrive in.
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static final class Node {
+        Booking booking;
+        final long start;
+        final int table;
+        final long id;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(Booking booking, int priority) {
+            this.booking = booking;
+            this.start = booking.getStartEpochMinute();
+            this.table = booking.getTableNumber();
+            this.id = booking.getBookingId();
+            this.priority = priority;
+        }
+    }
+}
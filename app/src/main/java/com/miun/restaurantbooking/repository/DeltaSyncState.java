@@ -0,0 +1,159 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the bookings per date together with the server's change cursor.
+ * Changes fetched from the delta sync endpoint are merged into this copy.
+ * Each date is held in a {@link BookingTimeline}, so merging a change costs O(log n)
+ * instead of sorting the whole date again.
+ */
+public class DeltaSyncState {
+
+    /**
+     * Order of the bookings of a date, as delivered to the UI. {@link BookingTimeline} keeps the same order.
+     */
+    static final Comparator<Booking> BY_TIME = Comparator
+            .comparingLong(Booking::getStartEpochMinute)
+            .thenComparingInt(Booking::getTableNumber)
+            .thenComparingLong(Booking::getBookingId);
+
+    private final Map<String, DateState> states = new HashMap<>();
+
+    /**
+     * Get the change cursor for a date.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return The cursor, or null if the date has not been fully fetched yet
+     */
+    public synchronized Long getCursor(String date) {
+        DateState state = states.get(date);
+        return state == null ? null : state.cursor;
+    }
+
+    /**
+     * Replace the bookings for a date with a full fetch result.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings All bookings for the date
+     * @param cursor   Change cursor the server returned with the full fetch
+     */
+    public synchronized void replace(String date, List<Booking> bookings, long cursor) {
+        DateState state = new DateState(cursor);
+        state.bookings.setAll(bookings);
+        states.put(date, state);
+    }
+
+    /**
+     * Merge changes into the bookings for a date and advance its cursor.
+     *
+     * @param date    Date string in format YYYY-MM-DD
+     * @param changes Changes since the current cursor
+     * @return The merged bookings sorted by time, or null if the date has no state
+     */
+    public synchronized List<Booking> apply(String date, BookingChanges changes) {
+        DateState state = states.get(date);
+        if (state == null) {
+            return null;
+        }
+        merge(state, changes);
+        state.cursor = changes.getCursor();
+        return sortedBookings(state);
+    }
+
+    /**
+     * Merge changes the server confirmed outside of a sync, such as the result of a
+     * booking mutation, without moving the cursor. When the same changes arrive with
+     * a later sync or push they are merged again, which changes nothing.
+     *
+     * @param date    Date string in format YYYY-MM-DD
+     * @param changes Changes to merge; the cursor is ignored
+     * @return The merged bookings sorted by time, or null if the date has no state
+     */
+    public synchronized List<Booking> mergeConfirmed(String date, BookingChanges changes) {
+        DateState state = states.get(date);
+        if (state == null) {
+            return null;
+        }
+        merge(state, changes);
+        return sortedBookings(state);
+    }
+
+    /**
+     * Merge a single pushed change, but only if it directly follows the current cursor.
+     * Cursors grow by one per change, so anything else means a change was missed.
+     *
+     * @param date    Date string in format YYYY-MM-DD
+     * @param changes One change, whose cursor should be the current cursor plus one
+     * @return The merged bookings sorted by time, or null if the date has no state
+     * or the change does not follow the cursor
+     */
+    public synchronized List<Booking> applyNext(String date, BookingChanges changes) {
+        DateState state = states.get(date);
+        if (state == null || changes.getCursor() != state.cursor + 1) {
+            return null;
+        }
+        return apply(date, changes);
+    }
+
+    /**
+     * Get the bookings held for a date.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return The bookings sorted by time, or null if the date has no state
+     */
+    public synchronized List<Booking> getBookings(String date) {
+        DateState state = states.get(date);
+        return state == null ? null : sortedBookings(state);
+    }
+
+    /**
+     * Get the bookings held for a date that start in a time range.
+     *
+     * @param date            Date string in format YYYY-MM-DD
+     * @param fromEpochMinute First start time included, as epoch minute
+     * @param toEpochMinute   First start time no longer included, as epoch minute
+     * @return The bookings sorted by time, or null if the date has no state
+     */
+    public synchronized List<Booking> getBookingsStartingBetween(String date, long fromEpochMinute, long toEpochMinute) {
+        DateState state = states.get(date);
+        return state == null ? null : state.bookings.getStartingBetween(fromEpochMinute, toEpochMinute);
+    }
+
+    /**
+     * Forget the bookings and cursor for a date, so the next sync is a full fetch.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     */
+    public synchronized void reset(String date) {
+        states.remove(date);
+    }
+
+    private static void merge(DateState state, BookingChanges changes) {
+        for (Long deletedId : changes.getDeletedIds()) {
+            state.bookings.remove(deletedId);
+        }
+        for (Booking booking : changes.getUpdated()) {
+            state.bookings.put(booking);
+        }
+    }
+
+    private static List<Booking> sortedBookings(DateState state) {
+        return state.bookings.toList();
+    }
+
+    private static class DateState {
+        long cursor;
+        final BookingTimeline bookings = new BookingTimeline();
+
+        DateState(long cursor) {
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of which tables are occupied in which time slots, for instant availability lookups.
+ * Each day is split into 96 slots of 15 minutes and every table has a 96-bit mask per day,
+ * so checking a table is a couple of word operations instead of a scan over all bookings.
+ * A booking occupies its table for a fixed duration from its start time.
+ * The index is updated incrementally as bookings are added, moved or removed.
+ * All methods are thread-safe.
+ */
+public class OccupancyIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int DEFAULT_DURATION_MINUTES = 120;
+
+    /**
+     * Capacity of tables whose size has not been set; every party fits.
+     */
+    public static final int UNKNOWN_CAPACITY = Integer.MAX_VALUE;
+
+    private static final int WORDS_PER_TABLE = 2;
+
+    private final int durationMinutes;
+    private final Map<Long, Day> days = new HashMap<>();
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    // Table numbers are mapped to dense indexes into the per-day masks
+    private int[] indexByTable = new int[0];
+    private int[] tableNumbers = new int[16];
+    private int[] capacities = new int[16];
+    private int tableCount;
+
+    /**
+     * Constructor with the default booking duration of two hours.
+     */
+    public OccupancyIndex() {
+        this(DEFAULT_DURATION_MINUTES);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param durationMinutes How long a booking occupies its table
+     */
+    public OccupancyIndex(int durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("durationMinutes must be positive");
+        }
+        this.durationMinutes = durationMinutes;
+    }
+
+    /**
+     * Set how many guests a table seats. Also makes the table known to free-table queries
+     * before it has any bookings.
+     *
+     * @param tableNumber Table number
+     * @param seats       Number of guests the table seats
+     */
+    public synchronized void setTableCapacity(int tableNumber, int seats) {
+        // Look the index up first: registering a new table may replace the capacities array
+        int index = tableIndex(tableNumber);
+        capacities[index] = seats;
+    }
+
+    /**
+     * Add a booking, or move it if a booking with the same ID is already indexed.
+     *
+     * @param booking Booking to index
+     * @return false if the booking has no ID, table or valid time and was not indexed
+     */
+    public synchronized boolean put(Booking booking) {
+        Long bookingId = booking.getBookingId();
+        long start = booking.getStartEpochMinute();
+        if (bookingId == null || start == DateFormatter.NO_TIME || booking.getTableNumber() < 0) {
+            return false;
+        }
+        remove(bookingId);
+        Placement placement = new Placement(tableIndex(booking.getTableNumber()), start);
+        placements.put(bookingId, placement);
+
+        long slot = firstSlot(start);
+        long end = endSlot(start);
+        boolean first = true;
+        while (slot < end) {
+            long epochDay = Math.floorDiv(slot, SLOTS_PER_DAY);
+            int from = (int) (slot - epochDay * SLOTS_PER_DAY);
+            int to = (int) Math.min(end - epochDay * SLOTS_PER_DAY, SLOTS_PER_DAY);
+            Day day = days.get(epochDay);
+            if (day == null) {
+                day = new Day();
+                days.put(epochDay, day);
+            }
+            day.add(placement.tableIndex, new Entry(bookingId, from, to, first));
+            first = false;
+            slot = (epochDay + 1) * SLOTS_PER_DAY;
+        }
+        return true;
+    }
+
+    /**
+     * Remove a booking.
+     *
+     * @param bookingId ID of the booking
+     * @return true if the booking was indexed
+     */
+    public synchronized boolean remove(long bookingId) {
+        Placement placement = placements.remove(bookingId);
+        if (placement == null) {
+            return false;
+        }
+        long slot = firstSlot(placement.start);
+        long end = endSlot(placement.start);
+        while (slot < end) {
+            long epochDay = Math.floorDiv(slot, SLOTS_PER_DAY);
+            Day day = days.get(epochDay);
+            if (day != null && day.remove(placement.tableIndex, bookingId) && day.size == 0) {
+                days.remove(epochDay);
+            }
+            slot = (epochDay + 1) * SLOTS_PER_DAY;
+        }
+        return true;
+    }
+
+    /**
+     * Replace all bookings starting on a date with a full fetch result.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings All bookings for the date
+     */
+    public synchronized void replaceDate(String date, List<Booking> bookings) {
+        Day day = days.get(LocalDate.parse(date).toEpochDay());
+        if (day != null) {
+            for (long bookingId : day.startingBookingIds()) {
+                remove(bookingId);
+            }
+        }
+        for (Booking booking : bookings) {
+            put(booking);
+        }
+    }
+
+    /**
+     * Apply the changes from a delta sync.
+     *
+     * @param changes Updated and deleted bookings
+     */
+    public synchronized void apply(BookingChanges changes) {
+        for (Long deletedId : changes.getDeletedIds()) {
+            remove(deletedId);
+        }
+        for (Booking booking : changes.getUpdated()) {
+            put(booking);
+        }
+    }
+
+    /**
+     * Check whether a table is free for a whole booking starting at a given time.
+     *
+     * @param tableNumber      Table number
+     * @param startEpochMinute Start time, see {@link DateFormatter#parseEpochMinute(String)}
+     * @return true if no booking on the table overlaps
+     */
+    public synchronized boolean isFree(int tableNumber, long startEpochMinute) {
+        int index = existingIndex(tableNumber);
+        return index < 0 || isFreeAt(index, startEpochMinute);
+    }
+
+    /**
+     * Get the tables that seat a party and are free for a whole booking starting at a given time.
+     *
+     * @param startEpochMinute Start time, see {@link DateFormatter#parseEpochMinute(String)}
+     * @param guests           Number of guests
+     * @return Free table numbers in ascending order
+     */
+    public synchronized int[] getFreeTables(long startEpochMinute, int guests) {
+        boolean[] blocked = new boolean[tableCount];
+        for (int i = 0; i < tableCount; i++) {
+            blocked[i] = capacities[i] < guests;
+        }
+        long slot = firstSlot(startEpochMinute);
+        long end = endSlot(startEpochMinute);
+        while (slot < end) {
+            long epochDay = Math.floorDiv(slot, SLOTS_PER_DAY);
+            Day day = days.get(epochDay);
+            if (day != null) {
+                int from = (int) (slot - epochDay * SLOTS_PER_DAY);
+                int to = (int) Math.min(end - epochDay * SLOTS_PER_DAY, SLOTS_PER_DAY);
+                for (int i = 0; i < tableCount; i++) {
+                    if (!blocked[i] && !day.isClear(i, from, to)) {
+                        blocked[i] = true;
+                    }
+                }
+            }
+            slot = (epochDay + 1) * SLOTS_PER_DAY;
+        }
+
+        int[] free = new int[tableCount];
+        int count = 0;
+        for (int i = 0; i < tableCount; i++) {
+            if (!blocked[i]) {
+                free[count++] = tableNumbers[i];
+            }
+        }
+        int[] result = Arrays.copyOf(free, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Find the first slot from a given time at which a table is free for a whole booking.
+     *
+     * @param tableNumber      Table number
+     * @param fromEpochMinute  Earliest start time; rounded up to the next slot
+     * @param horizonMinutes   How far ahead to look
+     * @return Start of the slot in epoch minutes, or {@link DateFormatter#NO_TIME} if there is none
+     */
+    public synchronized long nextAvailableSlot(int tableNumber, long fromEpochMinute, long horizonMinutes) {
+        int index = existingIndex(tableNumber);
+        long candidate = alignToSlot(fromEpochMinute);
+        long last = fromEpochMinute + horizonMinutes;
+        if (index < 0) {
+            return candidate <= last ? candidate : DateFormatter.NO_TIME;
+        }
+        for (; candidate <= last; candidate += SLOT_MINUTES) {
+            if (isFreeAt(index, candidate)) {
+                return candidate;
+            }
+        }
+        return DateFormatter.NO_TIME;
+    }
+
+    /**
+     * Find the first slot from a given time at which any table seating the party is free.
+     *
+     * @param fromEpochMinute Earliest start time; rounded up to the next slot
+     * @param guests          Number of guests
+     * @param horizonMinutes  How far ahead to look
+     * @return Start of the slot in epoch minutes, or {@link DateFormatter#NO_TIME} if there is none
+     */
+    public synchronized long nextAvailableSlot(long fromEpochMinute, int guests, long horizonMinutes) {
+        long last = fromEpochMinute + horizonMinutes;
+        for (long candidate = alignToSlot(fromEpochMinute); candidate <= last; candidate += SLOT_MINUTES) {
+            for (int i = 0; i < tableCount; i++) {
+                if (capacities[i] >= guests && isFreeAt(i, candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return DateFormatter.NO_TIME;
+    }
+
+    /**
+     * Get the bookings on a table that overlap a booking starting at a given time.
+     *
+     * @param tableNumber      Table number
+     * @param startEpochMinute Start time, see {@link DateFormatter#parseEpochMinute(String)}
+     * @return IDs of the overlapping bookings
+     */
+    public synchronized List<Long> getConflicts(int tableNumber, long startEpochMinute) {
+        List<Long> conflicts = new ArrayList<>();
+        int index = existingIndex(tableNumber);
+        if (index < 0) {
+            return conflicts;
+        }
+        long slot = firstSlot(startEpochMinute);
+        long end = endSlot(startEpochMinute);
+        while (slot < end) {
+            long epochDay = Math.floorDiv(slot, SLOTS_PER_DAY);
+            Day day = days.get(epochDay);
+            if (day != null) {
+                int from = (int) (slot - epochDay * SLOTS_PER_DAY);
+                int to = (int) Math.min(end - epochDay * SLOTS_PER_DAY, SLOTS_PER_DAY);
+                day.collectOverlapping(index, from, to, conflicts);
+            }
+            slot = (epochDay + 1) * SLOTS_PER_DAY;
+        }
+        return conflicts;
+    }
+
+    /**
+     * Get the other bookings that overlap a booking on its table.
+     *
+     * @param booking Booking to check, indexed or not
+     * @return IDs of the overlapping bookings, excluding the booking itself
+     */
+    public synchronized List<Long> getConflicts(Booking booking) {
+        long start = booking.getStartEpochMinute();
+        if (start == DateFormatter.NO_TIME || booking.getTableNumber() < 0) {
+            return new ArrayList<>();
+        }
+        List<Long> conflicts = getConflicts(booking.getTableNumber(), start);
+        conflicts.remove(booking.getBookingId());
+        return conflicts;
+    }
+
+    /**
+     * @return Number of bookings in the index
+     */
+    public synchronized int size() {
+        return placements.size();
+    }
+
+    /**
+     * Remove all bookings. Table capacities are kept.
+     */
+    public synchronized void clear() {
+        days.clear();
+        placements.clear();
+    }
+
+    private boolean isFreeAt(int tableIndex, long startEpochMinute) {
+        long slot = firstSlot(startEpochMinute);
+        long end = endSlot(startEpochMinute);
+        while (slot < end) {
+            long epochDay = Math.floorDiv(slot, SLOTS_PER_DAY);
+            Day day = days.get(epochDay);
+            if (day != null) {
+                int from = (int) (slot - epochDay * SLOTS_PER_DAY);
+                int to = (int) Math.min(end - epochDay * SLOTS_PER_DAY, SLOTS_PER_DAY);
+                if (!day.isClear(tableIndex, from, to)) {
+                    return false;
+                }
+            }
+            slot = (epochDay + 1) * SLOTS_PER_DAY;
+        }
+        return true;
+    }
+
+    private int existingIndex(int tableNumber) {
+        return tableNumber >= 0 && tableNumber < indexByTable.length ? indexByTable[tableNumber] - 1 : -1;
+    }
+
+    private int tableIndex(int tableNumber) {
+        if (tableNumber >= indexByTable.length) {
+            indexByTable = Arrays.copyOf(indexByTable, Math.max(tableNumber + 1, indexByTable.length * 2));
+        }
+        int index = indexByTable[tableNumber] - 1;
+        if (index < 0) {
+            if (tableCount == tableNumbers.length) {
+                tableNumbers = Arrays.copyOf(tableNumbers, tableCount * 2);
+                capacities = Arrays.copyOf(capacities, tableCount * 2);
+            }
+            index = tableCount++;
+            tableNumbers[index] = tableNumber;
+            capacities[index] = UNKNOWN_CAPACITY;
+            indexByTable[tableNumber] = index + 1;
+        }
+        return index;
+    }
+
+    private long firstSlot(long startEpochMinute) {
+        return Math.floorDiv(startEpochMinute, SLOT_MINUTES);
+    }
+
+    private long endSlot(long startEpochMinute) {
+        return Math.floorDiv(startEpochMinute + durationMinutes + SLOT_MINUTES - 1, SLOT_MINUTES);
+    }
+
+    private static long alignToSlot(long epochMinute) {
+        return Math.floorDiv(epochMinute + SLOT_MINUTES - 1, SLOT_MINUTES) * SLOT_MINUTES;
+    }
+
+    /**
+     * Bits [from, to) of a 64-bit word.
+     */
+    private static long mask(int from, int to) {
+        long upper = to == Long.SIZE ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+
+    /**
+     * Where a booking was indexed, so it can be removed after the booking object changed.
+     */
+    private static class Placement {
+        final int tableIndex;
+        final long start;
+
+        Placement(int tableIndex, long start) {
+            this.tableIndex = tableIndex;
+            this.start = start;
+        }
+    }
+
+    /**
+     * The part of a booking that falls on one day.
+     */
+    private static class Entry {
+        final long bookingId;
+        final int from;
+        final int to;
+        final boolean startsThisDay;
+
+        Entry(long bookingId, int from, int to, boolean startsThisDay) {
+            this.bookingId = bookingId;
+            this.from = from;
+            this.to = to;
+            this.startsThisDay = startsThisDay;
+        }
+    }
+
+    /**
+     * Occupancy masks of one day, two words per table, plus the entries they were built from.
+     */
+    private static class Day {
+        long[] bits = new long[0];
+        final List<List<Entry>> entries = new ArrayList<>();
+        int size;
+
+        void add(int tableIndex, Entry entry) {
+            while (entries.size() <= tableIndex) {
+                entries.add(null);
+            }
+            if (bits.length < (tableIndex + 1) * WORDS_PER_TABLE) {
+                bits = Arrays.copyOf(bits, Math.max((tableIndex + 1) * WORDS_PER_TABLE, bits.length * 2));
+            }
+            List<Entry> tableEntries = entries.get(tableIndex);
+            if (tableEntries == null) {
+                tableEntries = new ArrayList<>(4);
+                entries.set(tableIndex, tableEntries);
+            }
+            tableEntries.add(entry);
+            setBits(tableIndex, entry.from, entry.to);
+            size++;
+        }
+
+        boolean remove(int tableIndex, long bookingId) {
+            List<Entry> tableEntries = tableIndex < entries.size() ? entries.get(tableIndex) : null;
+            if (tableEntries == null || !tableEntries.removeIf(entry -> entry.bookingId == bookingId)) {
+                return false;
+            }
+            size--;
+            // Overlapping bookings share bits, so rebuild the table's mask from what is left
+            bits[tableIndex * WORDS_PER_TABLE] = 0;
+            bits[tableIndex * WORDS_PER_TABLE + 1] = 0;
+            for (Entry entry : tableEntries) {
+                setBits(tableIndex, entry.from, entry.to);
+            }
+            return true;
+        }
+
+        boolean isClear(int tableIndex, int from, int to) {
+            int word = tableIndex * WORDS_PER_TABLE;
+            if (word >= bits.length) {
+                return true;
+            }
+            if (from < Long.SIZE && (bits[word] & mask(from, Math.min(to, Long.SIZE))) != 0) {
+                return false;
+            }
+            return to <= Long.SIZE
+                    || (bits[word + 1] & mask(Math.max(from, Long.SIZE) - Long.SIZE, to - Long.SIZE)) == 0;
+        }
+
+        void collectOverlapping(int tableIndex, int from, int to, List<Long> result) {
+            List<Entry> tableEntries = tableIndex < entries.size() ? entries.get(tableIndex) : null;
+            if (tableEntries == null) {
+                return;
+            }
+            for (Entry entry : tableEntries) {
+                if (entry.from < to && from < entry.to && !result.contains(entry.bookingId)) {
+                    result.add(entry.bookingId);
+                }
+            }
+        }
+
+        List<Long> startingBookingIds() {
+            List<Long> ids = new ArrayList<>();
+            for (List<Entry> tableEntries : entries) {
+                if (tableEntries != null) {
+                    for (Entry entry : tableEntries) {
+                        if (entry.startsThisDay) {
+                            ids.add(entry.bookingId);
+                        }
+                    }
+                }
+            }
+            return ids;
+        }
+
+        private void setBits(int tableIndex, int from, int to) {
+            int word = tableIndex * WORDS_PER_TABLE;
+            if (from < Long.SIZE) {
+                bits[word] |= mask(from, Math.min(to, Long.SIZE));
+            }
+            if (to > Long.SIZE) {
+                bits[word + 1] |= mask(Math.max(from, Long.SIZE) - Long.SIZE, to - Long.SIZE);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.model.BookingMutation;
+import com.miun.restaurantbooking.model.MutationResult;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Sends the changes in a {@link BookingOutbox} to the server in batches.
+ * A flush starts shortly after a change is queued, so changes made in quick succession
+ * go out together, and keeps sending batches until the outbox is empty. If the server
+ * cannot be reached or answers with a temporary error, the batch is sent again with the
+ * same idempotency keys after an exponential backoff with jitter. So are the changes of a
+ * batch the server accepted without answering every change in it. A batch the server
+ * refuses outright is reported as rejected, so one bad change cannot block the queue.
+ * <p>
+ * At most one batch is in flight at a time, which keeps the changes to a booking in order.
+ */
+public class OutboxFlusher {
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final long DEFAULT_BATCH_DELAY_MILLIS = 200;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final BookingApiService apiService;
+    private final BookingOutbox outbox;
+    private final AppExecutors executors;
+    private final Handler handler;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Random random = new Random();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicInteger batchCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    private volatile boolean closed;
+    private volatile Call<List<MutationResult>> activeCall;
+    private int failures;
+
+    /**
+     * Constructor
+     *
+     * @param apiService           API service the changes are sent to
+     * @param outbox               Queue of changes to send
+     * @param executors            Executors for sending and for timers
+     * @param handler              Applies the server's answers
+     * @param batchSize            Maximum number of changes per request
+     * @param batchDelayMillis     Delay between the first queued change and sending
+     * @param initialBackoffMillis Delay before the first retry after a failure
+     * @param maxBackoffMillis     Upper bound of the delay between retries
+     */
+    public OutboxFlusher(BookingApiService apiService, BookingOutbox outbox, AppExecutors executors,
+                         Handler handler, int batchSize, long batchDelayMillis,
+                         long initialBackoffMillis, long maxBackoffMillis) {
+        this.apiService = apiService;
+        this.outbox = outbox;
+        this.executors = executors;
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Send the queued changes soon, unless a flush is already scheduled or running.
+     */
+    public void requestFlush() {
+        schedule(batchDelayMillis);
+    }
+
+    /**
+     * Stop sending. Changes that were not confirmed stay in the outbox.
+     */
+    public void close() {
+        closed = true;
+        Call<List<MutationResult>> call = activeCall;
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * @return Number of batches sent, including retries
+     */
+    public int getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return Number of batches that failed and were retried
+     */
+    public int getFailureCount() {
+        return failureCount.get();
+    }
+
+    private void schedule(long delayMillis) {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            executors.scheduler().schedule(() -> executors.io().execute(this::flush),
+                    delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send batches until the outbox is empty or a batch fails. Runs on the I/O executor.
+     */
+    private void flush() {
+        while (!closed) {
+            List<BookingMutation> batch = outbox.nextBatch(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            batchCount.incrementAndGet();
+            if (!send(batch)) {
+                outbox.release();
+                failureCount.incrementAndGet();
+                failures++;
+                long backoff = backoffMillis(failures);
+                scheduled.set(false);
+                schedule(backoff);
+                return;
+            }
+            failures = 0;
+            outbox.release();
+        }
+        scheduled.set(false);
+        // A change queued after the last batch was taken, but before this flush ended
+        if (!closed && !outbox.isEmpty()) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Send one batch and hand the answers to the handler.
+     *
+     * @return false if the batch, or the changes in it the server did not answer, should be sent again later
+     */
+    private boolean send(List<BookingMutation> batch) {
+        Call<List<MutationResult>> call = apiService.applyMutations(batch);
+        activeCall = call;
+        // close() may have run before the call was published
+        if (closed) {
+            call.cancel();
+        }
+        Response<List<MutationResult>> response;
+        try {
+            response = call.execute();
+        } catch (IOException | RuntimeException e) {
+            // Offline, or the response was lost: the server may or may not have applied the batch
+            return false;
+        } finally {
+            activeCall = null;
+        }
+        if (response.errorBody() != null) {
+            response.errorBody().close();
+        }
+        if (response.isSuccessful() && response.body() != null) {
+            handler.onResults(batch, response.body());
+            // Sending unanswered changes again at once would repeat the same request without pause
+            return answersAll(batch, response.body());
+        }
+        int code = response.code();
+        if (code >= 500 || code == HTTP_REQUEST_TIMEOUT || code == HTTP_TOO_MANY_REQUESTS) {
+            return false;
+        }
+        List<MutationResult> rejected = new ArrayList<>();
+        for (BookingMutation mutation : batch) {
+            rejected.add(new MutationResult(mutation.getIdempotencyKey(), MutationResult.Status.REJECTED,
+                    null, "Server refused the changes: " + code));
+        }
+        handler.onResults(batch, rejected);
+        return true;
+    }
+
+    private static boolean answersAll(List<BookingMutation> batch, List<MutationResult> results) {
+        Set<String> answered = new HashSet<>();
+        for (MutationResult result : results) {
+            answered.add(result.getIdempotencyKey());
+        }
+        for (BookingMutation mutation : batch) {
+            if (!answered.contains(mutation.getIdempotencyKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between half and all of
+     * initial * 2^(failures - 1), capped at the maximum.
+     */
+    private long backoffMillis(int failures) {
+        long delay = initialBackoffMillis << Math.min(failures - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+    }
+
+    /**
+     * Applies the server's answers to a batch. Called on the I/O executor.
+     */
+    public interface Handler {
+        /**
+         * @param batch   The changes that were sent
+         * @param results The server's answers, matched to the changes by idempotency key;
+         *                a change without an answer stays queued and is sent again after a backoff
+         */
+        void onResults(List<BookingMutation> batch, List<MutationResult> results);
+    }
+}
@@ -0,0 +1,214 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingPage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads the bookings of a date range page by page and keeps only a window of
+ * pages in memory. Loading past either end of the window drops the page
+ * furthest away, so memory stays bounded however far the user scrolls.
+ */
+public class PagedBookingLoader {
+
+    /**
+     * Loads one page of bookings.
+     */
+    public interface PageSource {
+        void loadPage(int offset, int limit, BookingRepository.PageCallback callback);
+    }
+
+    /**
+     * Receives the bookings in the window after every change.
+     */
+    public interface Listener {
+        void onWindowChanged(List<Booking> bookings, int windowOffset);
+        void onError(String errorMessage);
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final int maxPages;
+    private final Listener listener;
+
+    private final ArrayDeque<List<Booking>> pages = new ArrayDeque<>();
+    private int windowOffset;
+    private int windowSize;
+    private int totalCount = -1;
+    private boolean loading;
+
+    /**
+     * Constructor for a date range served by the repository.
+     *
+     * @param repository Repository to load pages from
+     * @param fromDate   First date of the range, format YYYY-MM-DD
+     * @param toDate     Last date of the range (inclusive), format YYYY-MM-DD
+     * @param pageSize   Number of bookings per page
+     * @param maxPages   Maximum number of pages kept in memory
+     * @param listener   Listener receiving the window
+     */
+    public PagedBookingLoader(BookingRepository repository, String fromDate, String toDate,
+                              int pageSize, int maxPages, Listener listener) {
+        this((offset, limit, callback) -> repository.getBookingsPage(fromDate, toDate, offset, limit, callback),
+                pageSize, maxPages, listener);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param source   Source of the pages
+     * @param pageSize Number of bookings per page
+     * @param maxPages Maximum number of pages kept in memory, at least 2
+     * @param listener Listener receiving the window
+     */
+    public PagedBookingLoader(PageSource source, int pageSize, int maxPages, Listener listener) {
+        if (maxPages < 2) {
+            throw new IllegalArgumentException("maxPages must be at least 2");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.listener = listener;
+    }
+
+    /**
+     * Load the page after the window, dropping the first page if the window is full.
+     * Does nothing while a page is loading or when the end of the range is reached.
+     */
+    public void loadNext() {
+        int offset;
+        synchronized (this) {
+            if (loading || (totalCount >= 0 && windowOffset + windowSize >= totalCount)) {
+                return;
+            }
+            loading = true;
+            offset = windowOffset + windowSize;
+        }
+        source.loadPage(offset, pageSize, new BookingRepository.PageCallback() {
+            @Override
+            public void onSuccess(BookingPage page) {
+                List<Booking> window;
+                int windowStart;
+                synchronized (PagedBookingLoader.this) {
+                    loading = false;
+                    totalCount = page.getTotalCount();
+                    if (page.getBookings().isEmpty()) {
+                        return;
+                    }
+                    pages.addLast(page.getBookings());
+                    windowSize += page.getBookings().size();
+                    if (pages.size() > maxPages) {
+                        int dropped = pages.removeFirst().size();
+                        windowOffset += dropped;
+                        windowSize -= dropped;
+                    }
+                    window = snapshot();
+                    windowStart = windowOffset;
+                }
+                listener.onWindowChanged(window, windowStart);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                synchronized (PagedBookingLoader.this) {
+                    loading = false;
+                }
+                listener.onError(errorMessage);
+            }
+        });
+    }
+
+    /**
+     * Load the page before the window, dropping the last page if the window is full.
+     * Does nothing while a page is loading or when the window starts at the beginning.
+     */
+    public void loadPrevious() {
+        int offset;
+        synchronized (this) {
+            if (loading || windowOffset == 0) {
+                return;
+            }
+            loading = true;
+            offset = Math.max(0, windowOffset - pageSize);
+        }
+        int limit = windowOffset - offset;
+        source.loadPage(offset, limit, new BookingRepository.PageCallback() {
+            @Override
+            public void onSuccess(BookingPage page) {
+                List<Booking> window;
+                int windowStart;
+                synchronized (PagedBookingLoader.this) {
+                    loading = false;
+                    totalCount = page.getTotalCount();
+                    if (page.getBookings().isEmpty()) {
+                        return;
+                    }
+                    pages.addFirst(page.getBookings());
+                    windowOffset -= page.getBookings().size();
+                    windowSize += page.getBookings().size();
+                    if (pages.size() > maxPages) {
+                        windowSize -= pages.removeLast().size();
+                    }
+                    window = snapshot();
+                    windowStart = windowOffset;
+                }
+                listener.onWindowChanged(window, windowStart);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                synchronized (PagedBookingLoader.this) {
+                    loading = false;
+                }
+                listener.onError(errorMessage);
+            }
+        });
+    }
+
+    /**
+     * @return true while a page is being loaded
+     */
+    public synchronized boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * @return true if the window reaches the end of the range
+     */
+    public synchronized boolean isAtEnd() {
+        return totalCount >= 0 && windowOffset + windowSize >= totalCount;
+    }
+
+    /**
+     * @return Position of the first booking in the window within the whole range
+     */
+    public synchronized int getWindowOffset() {
+        return windowOffset;
+    }
+
+    /**
+     * @return Number of bookings currently held in memory
+     */
+    public synchronized int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return Number of bookings in the whole range, or -1 before the first page has loaded
+     */
+    public synchronized int getTotalCount() {
+        return totalCount;
+    }
+
+    private List<Booking> snapshot() {
+        List<Booking> window = new ArrayList<>(windowSize);
+        for (List<Booking> page : pages) {
+            window.addAll(page);
+        }
+        return Collections.unmodifiableList(window);
+    }
+}
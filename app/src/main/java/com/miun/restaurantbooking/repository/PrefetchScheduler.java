@@ -0,0 +1,173 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the cache with the days around the one being shown, so swiping to the next
+ * or previous day does not wait on the network.
+ * Prefetching only runs while the network is unmetered, or once the host has not
+ * interacted with the app for a while, and at most once per interval.
+ * The scheduler polls {@link #runIfDue()} on the app's timer; the actual requests
+ * are made by the {@link Prefetcher} on the I/O executor.
+ */
+public class PrefetchScheduler {
+
+    public static final int DEFAULT_DAYS_AHEAD = 3;
+    public static final int DEFAULT_DAYS_BEHIND = 1;
+    public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_POLL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final Prefetcher prefetcher;
+    private final NetworkState networkState;
+    private final Clock clock;
+    private int daysAhead = DEFAULT_DAYS_AHEAD;
+    private int daysBehind = DEFAULT_DAYS_BEHIND;
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private long idleMillis = DEFAULT_IDLE_MILLIS;
+
+    private LocalDate shownDate;
+    private long lastActivityMillis;
+    private long lastRunMillis = Long.MIN_VALUE;
+    private ScheduledFuture<?> polling;
+
+    /**
+     * Constructor
+     *
+     * @param prefetcher   Fetches a date into the cache
+     * @param networkState Tells whether the network is unmetered
+     * @param clock        Clock used for the interval and idle time
+     */
+    public PrefetchScheduler(Prefetcher prefetcher, NetworkState networkState, Clock clock) {
+        this.prefetcher = prefetcher;
+        this.networkState = networkState;
+        this.clock = clock;
+        this.shownDate = LocalDate.now(clock);
+        this.lastActivityMillis = clock.millis();
+    }
+
+    /**
+     * @param daysAhead  Number of days after the shown date to prefetch
+     * @param daysBehind Number of days before the shown date to prefetch
+     * @return this scheduler
+     */
+    public synchronized PrefetchScheduler setWindow(int daysAhead, int daysBehind) {
+        this.daysAhead = daysAhead;
+        this.daysBehind = daysBehind;
+        return this;
+    }
+
+    /**
+     * @param intervalMillis Minimum time between two prefetch runs
+     * @return this scheduler
+     */
+    public synchronized PrefetchScheduler setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        return this;
+    }
+
+    /**
+     * @param idleMillis Time without interaction after which prefetching may use a metered network
+     * @return this scheduler
+     */
+    public synchronized PrefetchScheduler setIdleMillis(long idleMillis) {
+        this.idleMillis = idleMillis;
+        return this;
+    }
+
+    /**
+     * Record that the host moved to a date. The prefetch window follows the shown date,
+     * and a new window is prefetched on the next run regardless of the interval.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     */
+    public synchronized void onDateShown(String date) {
+        LocalDate shown = LocalDate.parse(date);
+        if (!shown.equals(shownDate)) {
+            shownDate = shown;
+            lastRunMillis = Long.MIN_VALUE;
+        }
+        onUserActivity();
+    }
+
+    /**
+     * Record an interaction, which postpones prefetching on a metered network.
+     */
+    public synchronized void onUserActivity() {
+        lastActivityMillis = clock.millis();
+    }
+
+    /**
+     * Prefetch the window around the shown date if the conditions allow it.
+     *
+     * @return The dates handed to the prefetcher, empty if the run was skipped
+     */
+    public List<String> runIfDue() {
+        List<String> dates = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.millis();
+            boolean due = lastRunMillis == Long.MIN_VALUE || now - lastRunMillis >= intervalMillis;
+            boolean allowed = networkState.isUnmetered() || now - lastActivityMillis >= idleMillis;
+            if (!due || !allowed) {
+                return dates;
+            }
+            lastRunMillis = now;
+            // Nearest days first, so the likeliest swipe is ready soonest
+            for (int offset = 1; offset <= Math.max(daysAhead, daysBehind); offset++) {
+                if (offset <= daysAhead) {
+                    dates.add(shownDate.plusDays(offset).toString());
+                }
+                if (offset <= daysBehind) {
+                    dates.add(shownDate.minusDays(offset).toString());
+                }
+            }
+        }
+        for (String date : dates) {
+            prefetcher.prefetch(date);
+        }
+        return dates;
+    }
+
+    /**
+     * Start polling on the app's timer.
+     *
+     * @param executors  Executors providing the timer
+     * @param pollMillis How often to check whether a run is due
+     */
+    public synchronized void start(AppExecutors executors, long pollMillis) {
+        stop();
+        polling = executors.scheduler().scheduleWithFixedDelay(this::runIfDue,
+                pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop polling. Prefetches already started complete in the background.
+     */
+    public synchronized void stop() {
+        if (polling != null) {
+            polling.cancel(false);
+            polling = null;
+        }
+    }
+
+    /**
+     * Fetches the bookings for a date into the cache, without delivering them anywhere.
+     */
+    public interface Prefetcher {
+        void prefetch(String date);
+    }
+
+    /**
+     * Current state of the network connection.
+     */
+    public interface NetworkState {
+        boolean isUnmetered();
+    }
+}
@@ -0,0 +1,102 @@
+package com.miun.restaurantbooking.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Deduplicates identical Retrofit calls that are in flight at the same time.
+ * The first caller for a key executes the call; callers arriving before it completes
+ * are attached to it and receive the same response instead of a new request.
+ *
+ * @param <T> Response body type
+ */
+public class SingleFlightCalls<T> {
+
+    private final Map<String, Flight<T>> inFlight = new HashMap<>();
+
+    /**
+     * Execute a call, or join the identical call already in flight.
+     * Must be called on a background thread: the caller that starts the call blocks
+     * until it completes and then invokes every attached callback on its own thread.
+     *
+     * @param key         Identifies identical requests, e.g. endpoint and date
+     * @param callFactory Creates the call; only invoked if no call is in flight for the key
+     * @param callback    Callback receiving the shared response
+     */
+    public void execute(String key, Supplier<Call<T>> callFactory, Callback<T> callback) {
+        Flight<T> flight;
+        synchronized (inFlight) {
+            flight = inFlight.get(key);
+            if (flight != null) {
+                flight.callbacks.add(callback);
+                return;
+            }
+            flight = new Flight<>(callFactory.get());
+            flight.callbacks.add(callback);
+            inFlight.put(key, flight);
+        }
+
+        Response<T> response = null;
+        Throwable failure = null;
+        try {
+            response = flight.call.execute();
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+
+        for (Callback<T> waiting : complete(key)) {
+            if (response != null) {
+                waiting.onResponse(flight.call, response);
+            } else {
+                waiting.onFailure(flight.call, failure);
+            }
+        }
+    }
+
+    /**
+     * Check whether a call is in flight for a key.
+     *
+     * @param key Request key
+     * @return true if a call for the key has not completed yet
+     */
+    public boolean isInFlight(String key) {
+        synchronized (inFlight) {
+            return inFlight.containsKey(key);
+        }
+    }
+
+    /**
+     * Cancel every call in flight. Their callbacks receive onFailure.
+     */
+    public void cancelAll() {
+        synchronized (inFlight) {
+            for (Flight<T> flight : inFlight.values()) {
+                flight.call.cancel();
+            }
+        }
+    }
+
+    private List<Callback<T>> complete(String key) {
+        // Removing the key first means callers arriving from now on start a fresh call
+        synchronized (inFlight) {
+            return inFlight.remove(key).callbacks;
+        }
+    }
+
+    private static class Flight<T> {
+        final Call<T> call;
+        final List<Callback<T>> callbacks = new ArrayList<>();
+
+        Flight(Call<T> call) {
+            this.call = call;
+        }
+    }
+}
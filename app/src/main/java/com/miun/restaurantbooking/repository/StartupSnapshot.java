@@ -0,0 +1,97 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.api.BookingBinaryCodec;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The bookings of the day last shown at startup, kept in a single small file so the next
+ * cold start can show them before the network, Retrofit or Gson are touched.
+ * <p>
+ * The file holds the date followed by the bookings in the {@link BookingBinaryCodec} format,
+ * which is read without reflection and is several times smaller than the JSON in the
+ * {@link BookingDiskCache}. Only the bookings of the same date are returned, however old;
+ * they are shown until the server has been asked, so there is no time-to-live.
+ */
+public class StartupSnapshot {
+
+    private static final int VERSION = 1;
+
+    private final File file;
+
+    /**
+     * Constructor
+     *
+     * @param file File the snapshot is kept in
+     */
+    public StartupSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the snapshot of a date.
+     *
+     * @param date Date string in format YYYY-MM-DD
+     * @return The bookings, or null if the snapshot is of another date, missing or unreadable
+     */
+    public synchronized List<Booking> read(String date) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != VERSION || !date.equals(in.readUTF())) {
+                return null;
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return BookingBinaryCodec.decode(bytes);
+        } catch (IOException | RuntimeException e) {
+            // A corrupt snapshot is as good as none
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Replace the snapshot with the bookings of a date.
+     *
+     * @param date     Date string in format YYYY-MM-DD
+     * @param bookings Bookings to keep
+     */
+    public synchronized void write(String date, List<Booking> bookings) {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        byte[] bytes = BookingBinaryCodec.encode(bookings);
+
+        // Write to a temporary file first so a crash never leaves a half-written snapshot
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tempFile))) {
+            out.writeInt(VERSION);
+            out.writeUTF(date);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Remove the snapshot.
+     */
+    public synchronized void clear() {
+        file.delete();
+    }
+}
@@ -5,76 +5,140 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.miun.restaurantbooking.metrics.Histogram;
+import com.miun.restaurantbooking.metrics.Metrics;
 import com.miun.restaurantbooking.model.Booking;
 import com.miun.restaurantbooking.R;
+import com.miun.restaurantbooking.util.AppExecutors;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * RecyclerView Adapter for displaying a list of bookings.
- * TODO: Implement the adapter to bind booking data to ViewHolders
+ * Bookings are shown as {@link BookingRow}s, grouped under a header per time slot,
+ * so binding a row only assigns already formatted values.
+ * New lists are diffed against the current one on a background thread,
+ * so only inserted, removed, moved or changed rows are rebound.
+ * Rows have stable IDs taken from the booking ID, and headers are a view type of their own.
+ * Diff and bind times are recorded in the app's {@link Metrics}.
  */
-public class BookingAdapter extends RecyclerView.Adapter<BookingViewHolder> {
+public class BookingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private List<Booking> bookings;
+    private final AsyncListDiffer<BookingRow> differ;
+    private final Metrics metrics = Metrics.getInstance();
+    private final Histogram diffTime = metrics.timer(Metrics.DIFF);
+    private final Histogram bindTime = metrics.timer(Metrics.BIND);
 
     /**
      * Constructor
      */
     public BookingAdapter() {
-        this.bookings = new ArrayList<>();
+        // Diff on the app's compute pool instead of a separate pool owned by the differ
+        AsyncDifferConfig<BookingRow> config = new AsyncDifferConfig.Builder<>(new BookingRowDiffCallback())
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().compute())
+                .build();
+        this.differ = new AsyncListDiffer<>(new AdapterListUpdateCallback(this), config);
+        // Lets the RecyclerView keep a row's views across a change of the list, and animate moves
+        setHasStableIds(true);
     }
 
     @NonNull
     @Override
-    public BookingViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // TODO: Inflate the item_booking.xml layout
-        // Use LayoutInflater.from(parent.getContext()).inflate(R.layout.item_booking, parent, false)
-        // Return new BookingViewHolder(view)
-        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_booking, parent, false);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == BookingRow.TYPE_SLOT_HEADER) {
+            return new SlotHeaderViewHolder(inflater.inflate(R.layout.item_booking_header, parent, false));
+        }
+        View view = inflater.inflate(R.layout.item_booking, parent, false);
         return new BookingViewHolder(view);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull BookingViewHolder holder, int position) {
-        // TODO: Get the booking at this position
-        // Call holder.bind(booking) to display the data
-        Booking booking = bookings.get(position);
-        holder.bind(booking);
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        long start = metrics.startTimer();
+        BookingRow row = differ.getCurrentList().get(position);
+        if (holder instanceof SlotHeaderViewHolder) {
+            ((SlotHeaderViewHolder) holder).bind(row);
+        } else {
+            ((BookingViewHolder) holder).bind(row);
+        }
+        bindTime.recordSince(start);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return differ.getCurrentList().get(position).getType();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getId();
     }
 
     @Override
     public int getItemCount() {
-        // TODO: Return the size of the bookings list
-        return bookings.size();
+        return differ.getCurrentList().size();
     }
 
     /**
-     * Update the list of bookings and refresh the RecyclerView.
+     * Update the list of bookings.
+     * The bookings are formatted into rows on the calling thread; use
+     * {@link BookingRowPipeline} and {@link #setRows(List)} to format them in the background.
      *
-     * @param newBookings New list of bookings to display
+     * @param newBookings New list of bookings to display, sorted by time
      */
     public void setBookings(List<Booking> newBookings) {
-        // TODO: Update the bookings list
-        // Call notifyDataSetChanged() to refresh the RecyclerView
-        bookings.clear();
+        setRows(newBookings == null ? null : BookingRow.fromBookings(newBookings));
+    }
+
+    /**
+     * Update the rows shown.
+     * The difference to the current rows is computed off the main thread
+     * and dispatched as fine-grained item notifications.
+     *
+     * @param newRows New rows to display, from {@link BookingRowPipeline}
+     */
+    public void setRows(List<BookingRow> newRows) {
+        // AsyncListDiffer ignores a list it has already seen, so always hand it a fresh copy
+        long start = metrics.startTimer();
+        // Committed on the main thread once the diff is done, so this includes waiting for the compute pool
+        differ.submitList(newRows == null ? null : new ArrayList<>(newRows), () -> diffTime.recordSince(start));
+    }
 
-        if (newBookings != null) {
-            bookings.addAll(newBookings);
+    /**
+     * Get the list of bookings currently displayed.
+     *
+     * @return The displayed bookings, without the time slot headers
+     */
+    public List<Booking> getBookings() {
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingRow row : differ.getCurrentList()) {
+            if (row.getType() == BookingRow.TYPE_BOOKING) {
+                bookings.add(row.getBooking());
+            }
         }
-        notifyDataSetChanged();
+        return bookings;
+    }
+
+    /**
+     * Get the rows currently displayed.
+     *
+     * @return Read-only list of the displayed rows, headers included
+     */
+    public List<BookingRow> getRows() {
+        return differ.getCurrentList();
     }
 
     /**
      * Clear all bookings from the adapter.
      */
     public void clearBookings() {
-        // TODO: Clear the bookings list
-        // Call notifyDataSetChanged() to refresh the RecyclerView
-        bookings.clear();
-        notifyDataSetChanged();
+        differ.submitList(null);
     }
 }
@@ -0,0 +1,25 @@
+package com.miun.restaurantbooking.ui;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import java.util.Objects;
+
+/**
+ * Decides how two booking lists differ.
+ * Bookings are matched by their ID and only rebound when a field has changed.
+ */
+public class BookingDiffCallback extends DiffUtil.ItemCallback<Booking> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Booking oldItem, @NonNull Booking newItem) {
+        return Objects.equals(oldItem.getBookingId(), newItem.getBookingId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Booking oldItem, @NonNull Booking newItem) {
+        return oldItem.equals(newItem);
+    }
+}
@@ -0,0 +1,81 @@
+package com.miun.restaurantbooking.ui;
+
+import android.content.Context;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Sets up a RecyclerView for long booking lists that are flung through quickly.
+ * <ul>
+ *     <li>The list's size does not depend on its rows, so a change of the rows does not
+ *     lay out the whole screen again.</li>
+ *     <li>Rows that have just scrolled off are kept bound, so scrolling back a little
+ *     does not bind them again.</li>
+ *     <li>Booking rows and headers are recycled through one pool, with room for a few
+ *     screens of each type, so a fling reuses views instead of inflating new ones.
+ *     The pool can be shared by every booking list of an activity.</li>
+ *     <li>The layout manager prefetches the next rows between frames while scrolling.</li>
+ * </ul>
+ */
+public class BookingListSetup {
+
+    /**
+     * Booking rows kept for reuse; a tall phone shows about eight.
+     */
+    public static final int MAX_RECYCLED_BOOKINGS = 24;
+
+    /**
+     * Headers kept for reuse; a screen seldom shows more than three.
+     */
+    public static final int MAX_RECYCLED_HEADERS = 8;
+
+    /**
+     * Rows kept bound after scrolling off screen, on top of the RecyclerView's default of two.
+     */
+    public static final int ITEM_VIEW_CACHE_SIZE = 6;
+
+    /**
+     * Rows laid out ahead when the list is first shown or nested in another list.
+     */
+    public static final int INITIAL_PREFETCH_ITEMS = 4;
+
+    private BookingListSetup() {
+    }
+
+    /**
+     * Create a pool of recycled rows sized for the booking lists.
+     * The pool holds views of one activity, so it should not outlive it.
+     *
+     * @return A new pool
+     */
+    public static RecyclerView.RecycledViewPool createSharedPool() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(BookingRow.TYPE_BOOKING, MAX_RECYCLED_BOOKINGS);
+        pool.setMaxRecycledViews(BookingRow.TYPE_SLOT_HEADER, MAX_RECYCLED_HEADERS);
+        return pool;
+    }
+
+    /**
+     * Attach an adapter to a RecyclerView and tune it for fast scrolling.
+     *
+     * @param recyclerView RecyclerView that fills a fixed area of the screen
+     * @param adapter      Adapter showing the bookings
+     * @param pool         Pool from {@link #createSharedPool()}
+     */
+    public static void configure(RecyclerView recyclerView, BookingAdapter adapter,
+                                 RecyclerView.RecycledViewPool pool) {
+        Context context = recyclerView.getContext();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context);
+        layoutManager.setItemPrefetchEnabled(true);
+        layoutManager.setInitialPrefetchItemCount(INITIAL_PREFETCH_ITEMS);
+        // Recycled views go back to the shared pool when the list is detached
+        layoutManager.setRecycleChildrenOnDetach(true);
+
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setItemViewCacheSize(ITEM_VIEW_CACHE_SIZE);
+        recyclerView.setRecycledViewPool(pool);
+        recyclerView.setAdapter(adapter);
+    }
+}
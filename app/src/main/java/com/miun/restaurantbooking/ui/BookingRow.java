@@ -0,0 +1,330 @@
+package com.miun.restaurantbooking.ui;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.DateFormatter;
+import com.miun.restaurantbooking.util.PhoneFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One row of the booking list, with every string it shows already formatted,
+ * so binding it only assigns values to views.
+ * A row is either a booking or the header of a time slot, which is shown above the
+ * bookings starting at the same time. The first header of each day also carries the date.
+ * Rows are immutable; {@link BookingRowPipeline} builds them in the background and reuses
+ * the rows of bookings that have not changed.
+ */
+public class BookingRow {
+
+    /**
+     * View type of a booking row.
+     */
+    public static final int TYPE_BOOKING = 0;
+
+    /**
+     * View type of a time slot header.
+     */
+    public static final int TYPE_SLOT_HEADER = 1;
+
+    /**
+     * Headers get IDs far below the negative IDs the outbox hands out to bookings
+     * created offline, so a header never shares its ID with a booking.
+     */
+    private static final long SLOT_HEADER_IDS = Long.MIN_VALUE / 2;
+
+    private static final String[] GUEST_LABELS = new String[21];
+    private static final String[] TABLE_LABELS = new String[100];
+
+    static {
+        for (int guests = 0; guests < GUEST_LABELS.length; guests++) {
+            GUEST_LABELS[guests] = guests + " gäster";
+        }
+        for (int table = 0; table < TABLE_LABELS.length; table++) {
+            TABLE_LABELS[table] = String.valueOf(table);
+        }
+    }
+
+    private final int type;
+    private final long id;
+    private final Booking booking;
+    private final String time;
+    private final String customerName;
+    private final String phoneNumber;
+    private final String guests;
+    private final String table;
+    private final String summary;
+    private final String date;
+    private final boolean urgent;
+
+    private BookingRow(int type, long id, Booking booking, String time, String customerName,
+                       String phoneNumber, String guests, String table, String summary,
+                       String date, boolean urgent) {
+        this.type = type;
+        this.id = id;
+        this.booking = booking;
+        this.time = time;
+        this.customerName = customerName;
+        this.phoneNumber = phoneNumber;
+        this.guests = guests;
+        this.table = table;
+        this.summary = summary;
+        this.date = date;
+        this.urgent = urgent;
+    }
+
+    /**
+     * Build the rows for a list of bookings, formatting every one of them.
+     * A header is put in front of every run of bookings with the same start time,
+     * so a list sorted by time gets one header per time slot.
+     *
+     * @param bookings Bookings to show, usually sorted by time
+     * @return Rows in display order, none of them marked urgent
+     */
+    public static List<BookingRow> fromBookings(List<Booking> bookings) {
+        return fromBookings(bookings, new Formatter() {
+            @Override
+            public BookingRow booking(Booking booking, int position) {
+                return BookingRow.booking(booking, position, false);
+            }
+
+            @Override
+            public BookingRow slotHeader(long startMinute, int bookings, int guests, boolean firstOfDay) {
+                return BookingRow.slotHeader(startMinute, bookings, guests, firstOfDay);
+            }
+        });
+    }
+
+    /**
+     * Build the rows for a list of bookings, getting each row from a formatter.
+     *
+     * @param bookings  Bookings to show, usually sorted by time
+     * @param formatter Creates or reuses the row for each booking and header
+     * @return Rows in display order
+     */
+    static List<BookingRow> fromBookings(List<Booking> bookings, Formatter formatter) {
+        List<BookingRow> rows = new ArrayList<>(bookings.size() + bookings.size() / 4 + 1);
+        long previousDay = Long.MIN_VALUE;
+        int slotStart = 0;
+        while (slotStart < bookings.size()) {
+            long startMinute = bookings.get(slotStart).getStartEpochMinute();
+            int slotEnd = slotStart;
+            int slotGuests = 0;
+            while (slotEnd < bookings.size() && bookings.get(slotEnd).getStartEpochMinute() == startMinute) {
+                slotGuests += bookings.get(slotEnd).getNumberOfGuests();
+                slotEnd++;
+            }
+            long day = startMinute != DateFormatter.NO_TIME ? DateFormatter.epochDay(startMinute) : previousDay;
+            rows.add(formatter.slotHeader(startMinute, slotEnd - slotStart, slotGuests, day != previousDay));
+            previousDay = day;
+            for (int i = slotStart; i < slotEnd; i++) {
+                rows.add(formatter.booking(bookings.get(i), rows.size()));
+            }
+            slotStart = slotEnd;
+        }
+        return rows;
+    }
+
+    /**
+     * Create the row for a booking.
+     *
+     * @param booking  Booking to show
+     * @param position Position of the row, only used as ID for a booking without one
+     * @param urgent   Whether the guests are about to arrive
+     * @return The booking row
+     */
+    static BookingRow booking(Booking booking, int position, boolean urgent) {
+        long startMinute = booking.getStartEpochMinute();
+        String time = startMinute != DateFormatter.NO_TIME
+                ? DateFormatter.formatTime(startMinute)
+                : DateFormatter.formatTime(booking.getDateTime());
+        // A booking without an ID falls back to its position, the lowest IDs of all
+        long id = booking.getBookingId() != null ? booking.getBookingId() : Long.MIN_VALUE + position;
+        return new BookingRow(TYPE_BOOKING, id, booking, time, booking.getCustomerName(),
+                PhoneFormatter.format(booking.getPhoneNumber()), guestLabel(booking.getNumberOfGuests()),
+                tableLabel(booking.getTableNumber()), null, null, urgent);
+    }
+
+    /**
+     * Create the header of a time slot.
+     *
+     * @param startMinute Start of the slot as epoch minute, or {@link DateFormatter#NO_TIME}
+     * @param bookings    Number of bookings in the slot
+     * @param guests      Number of guests in the slot
+     * @param firstOfDay  Whether this is the first slot of its day, which shows the date
+     * @return The header row
+     */
+    static BookingRow slotHeader(long startMinute, int bookings, int guests, boolean firstOfDay) {
+        boolean timed = startMinute != DateFormatter.NO_TIME;
+        String time = timed ? DateFormatter.formatTime(startMinute) : "Utan tid";
+        String summary = bookings + (bookings == 1 ? " bokning · " : " bokningar · ") + guestLabel(guests);
+        String date = timed && firstOfDay ? DateFormatter.formatDate(startMinute) : null;
+        long id = timed ? SLOT_HEADER_IDS + startMinute : SLOT_HEADER_IDS - 1;
+        return new BookingRow(TYPE_SLOT_HEADER, id, null, time, null, null, null, null, summary, date, false);
+    }
+
+    /**
+     * Get this row with a different urgency, sharing all formatted values.
+     *
+     * @param urgent Whether the guests are about to arrive
+     * @return This row if the urgency is the same, otherwise a copy
+     */
+    BookingRow withUrgent(boolean urgent) {
+        if (urgent == this.urgent) {
+            return this;
+        }
+        return new BookingRow(type, id, booking, time, customerName, phoneNumber, guests, table, summary,
+                date, urgent);
+    }
+
+    private static String guestLabel(int guests) {
+        return guests >= 0 && guests < GUEST_LABELS.length ? GUEST_LABELS[guests] : guests + " gäster";
+    }
+
+    private static String tableLabel(int table) {
+        return table >= 0 && table < TABLE_LABELS.length ? TABLE_LABELS[table] : String.valueOf(table);
+    }
+
+    /**
+     * Get the view type of this row
+     *
+     * @return {@link #TYPE_BOOKING} or {@link #TYPE_SLOT_HEADER}
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the stable ID of this row.
+     * A booking row has the ID of its booking, a header an ID derived from its start time.
+     *
+     * @return row ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the booking shown in this row
+     *
+     * @return the booking, or null for a header
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Get the start time of the booking or slot
+     *
+     * @return formatted time (e.g., "18:30")
+     */
+    public String getTime() {
+        return time;
+    }
+
+    /**
+     * Get the customer name
+     *
+     * @return customer name, or null for a header
+     */
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    /**
+     * Get the phone number, grouped for reading
+     *
+     * @return phone number, or null for a header
+     */
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * Get the number of guests as shown
+     *
+     * @return guest label (e.g., "4 gäster"), or null for a header
+     */
+    public String getGuests() {
+        return guests;
+    }
+
+    /**
+     * Get the table number as shown
+     *
+     * @return table label, or null for a header
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Get the summary of a time slot
+     *
+     * @return summary (e.g., "3 bokningar · 10 gäster"), or null for a booking
+     */
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Get the date shown above the first time slot of a day
+     *
+     * @return formatted date (e.g., "Nov 29, 2025"), or null if no date is shown
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * Check whether the guests of this booking are about to arrive
+     *
+     * @return true if the booking starts within the next few minutes
+     */
+    public boolean isUrgent() {
+        return urgent;
+    }
+
+    /**
+     * Creates the rows for {@link #fromBookings(List, Formatter)}.
+     */
+    interface Formatter {
+        BookingRow booking(Booking booking, int position);
+
+        BookingRow slotHeader(long startMinute, int bookings, int guests, boolean firstOfDay);
+    }
+
+    /**
+     * Two rows are equal when they have the same ID and show the same values.
+     * The booking itself is not compared, so a change that is not shown does not rebind the row.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BookingRow row = (BookingRow) o;
+        return type == row.type
+                && id == row.id
+                && Objects.equals(time, row.time)
+                && Objects.equals(customerName, row.customerName)
+                && Objects.equals(phoneNumber, row.phoneNumber)
+                && Objects.equals(guests, row.guests)
+                && Objects.equals(table, row.table)
+                && Objects.equals(summary, row.summary)
+                && Objects.equals(date, row.date)
+                && urgent == row.urgent;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, time, customerName, phoneNumber, guests, table, summary, date, urgent);
+    }
+
+    @Override
+    public String toString() {
+        return type == TYPE_SLOT_HEADER
+                ? "BookingRow{header " + time + ", " + summary + "}"
+                : "BookingRow{" + id + ", " + time + ", " + customerName + ", table " + table + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.miun.restaurantbooking.ui;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * Decides how two lists of booking rows differ.
+ * Rows are matched by their stable ID and only rebound when a shown value has changed.
+ */
+public class BookingRowDiffCallback extends DiffUtil.ItemCallback<BookingRow> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull BookingRow oldItem, @NonNull BookingRow newItem) {
+        return oldItem.getId() == newItem.getId() && oldItem.getType() == newItem.getType();
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull BookingRow oldItem, @NonNull BookingRow newItem) {
+        return oldItem.equals(newItem);
+    }
+}
@@ -0,0 +1,218 @@
+package com.miun.restaurantbooking.ui;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.AppExecutors;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns the bookings the repository delivers into {@link BookingRow}s for the adapter.
+ * Rows are built on the compute executor and delivered on the main thread; rows for
+ * bookings that have since been replaced are dropped.
+ * <p>
+ * Formatted rows are kept per booking ID and version, so a refresh only formats the
+ * bookings that changed. A booking edited on the device keeps its version until the
+ * server confirms it, so a kept row is only reused if its booking is also equal to the new one.
+ * Bookings must not be changed after they have been submitted.
+ * <p>
+ * Whether a booking is urgent depends on the time, so it is decided again on every run
+ * without formatting the row again. {@link #refresh()} runs again on the last bookings as
+ * time passes.
+ */
+public class BookingRowPipeline {
+
+    /**
+     * Bookings starting within this many minutes are marked urgent.
+     */
+    public static final int DEFAULT_URGENT_MINUTES = 30;
+
+    /**
+     * Formatted rows kept across refreshes, enough for several days of a busy restaurant.
+     */
+    public static final int DEFAULT_MAX_KEPT_ROWS = 20_000;
+
+    private final AppExecutors executors;
+    private final Clock clock;
+    private final int urgentMinutes;
+    private final int maxKeptRows;
+    private final Listener listener;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Guarded by this
+    private final Map<Long, BookingRow> bookingRows;
+    private final Map<Long, HeaderRow> headerRows = new HashMap<>();
+    private int formattedRows;
+
+    private volatile List<Booking> bookings = Collections.emptyList();
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param executors     Executors for building the rows and for delivery
+     * @param clock         Clock deciding which bookings are urgent, in the bookings' time zone
+     * @param urgentMinutes Bookings starting within this many minutes are marked urgent
+     * @param maxKeptRows   Most booking rows kept for reuse
+     * @param listener      Receives the rows on the main thread
+     */
+    public BookingRowPipeline(AppExecutors executors, Clock clock, int urgentMinutes, int maxKeptRows,
+                              Listener listener) {
+        this.executors = executors;
+        this.clock = clock;
+        this.urgentMinutes = urgentMinutes;
+        this.maxKeptRows = maxKeptRows;
+        this.listener = listener;
+        // Least recently shown rows are dropped first
+        this.bookingRows = new LinkedHashMap<Long, BookingRow>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BookingRow> eldest) {
+                return size() > maxKeptRows;
+            }
+        };
+    }
+
+    /**
+     * Constructor with the default urgency window and number of kept rows
+     *
+     * @param executors Executors for building the rows and for delivery
+     * @param clock     Clock deciding which bookings are urgent, in the bookings' time zone
+     * @param listener  Receives the rows on the main thread
+     */
+    public BookingRowPipeline(AppExecutors executors, Clock clock, Listener listener) {
+        this(executors, clock, DEFAULT_URGENT_MINUTES, DEFAULT_MAX_KEPT_ROWS, listener);
+    }
+
+    /**
+     * Build the rows for new bookings in the background.
+     *
+     * @param bookings Bookings to show, sorted by time
+     */
+    public void submit(List<Booking> bookings) {
+        this.bookings = bookings;
+        int submitted = generation.incrementAndGet();
+        executors.compute().execute(() -> build(bookings, submitted));
+    }
+
+    /**
+     * Build the rows for the last bookings again, so urgency follows the clock.
+     */
+    public void refresh() {
+        submit(bookings);
+    }
+
+    /**
+     * Stop building and delivering rows.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Get the number of rows formatted so far, bookings and headers.
+     * Rows reused from an earlier run, or only marked urgent, are not counted.
+     *
+     * @return Number of formatted rows
+     */
+    public synchronized int getFormattedRows() {
+        return formattedRows;
+    }
+
+    /**
+     * Build the rows for a submission, unless a newer one has been made. Runs on the compute executor.
+     */
+    private void build(List<Booking> submittedBookings, int submitted) {
+        if (closed || submitted != generation.get()) {
+            return;
+        }
+        long now = DateFormatter.epochMinute(LocalDateTime.now(clock));
+        List<BookingRow> rows;
+        synchronized (this) {
+            rows = BookingRow.fromBookings(submittedBookings, new BookingRow.Formatter() {
+                @Override
+                public BookingRow booking(Booking booking, int position) {
+                    return bookingRow(booking, position, now);
+                }
+
+                @Override
+                public BookingRow slotHeader(long startMinute, int bookings, int guests, boolean firstOfDay) {
+                    return headerRow(startMinute, bookings, guests, firstOfDay);
+                }
+            });
+        }
+        executors.mainThread().execute(() -> {
+            if (!closed && submitted == generation.get()) {
+                listener.onRows(rows);
+            }
+        });
+    }
+
+    private BookingRow bookingRow(Booking booking, int position, long now) {
+        long start = booking.getStartEpochMinute();
+        boolean urgent = start != DateFormatter.NO_TIME && start >= now && start - now <= urgentMinutes;
+        Long id = booking.getBookingId();
+        if (id == null) {
+            formattedRows++;
+            return BookingRow.booking(booking, position, urgent);
+        }
+        BookingRow kept = bookingRows.get(id);
+        if (kept != null && (kept.getBooking() == booking || (kept.getBooking().getVersion() == booking.getVersion()
+                && kept.getBooking().equals(booking)))) {
+            BookingRow row = kept.withUrgent(urgent);
+            if (row != kept) {
+                bookingRows.put(id, row);
+            }
+            return row;
+        }
+        formattedRows++;
+        BookingRow row = BookingRow.booking(booking, position, urgent);
+        bookingRows.put(id, row);
+        return row;
+    }
+
+    private BookingRow headerRow(long startMinute, int bookings, int guests, boolean firstOfDay) {
+        HeaderRow kept = headerRows.get(startMinute);
+        if (kept != null && kept.bookings == bookings && kept.guests == guests && kept.firstOfDay == firstOfDay) {
+            return kept.row;
+        }
+        formattedRows++;
+        BookingRow row = BookingRow.slotHeader(startMinute, bookings, guests, firstOfDay);
+        // A day has one header per time slot, so this only fills up over many days
+        if (headerRows.size() >= maxKeptRows) {
+            headerRows.clear();
+        }
+        headerRows.put(startMinute, new HeaderRow(bookings, guests, firstOfDay, row));
+        return row;
+    }
+
+    /**
+     * A formatted header and the slot it was formatted for.
+     */
+    private static class HeaderRow {
+        final int bookings;
+        final int guests;
+        final boolean firstOfDay;
+        final BookingRow row;
+
+        HeaderRow(int bookings, int guests, boolean firstOfDay, BookingRow row) {
+            this.bookings = bookings;
+            this.guests = guests;
+            this.firstOfDay = firstOfDay;
+            this.row = row;
+        }
+    }
+
+    /**
+     * Receives the rows on the main thread.
+     */
+    public interface Listener {
+        void onRows(List<BookingRow> rows);
+    }
+}
@@ -7,25 +7,28 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.miun.restaurantbooking.R;
-import com.miun.restaurantbooking.model.Booking;
-import com.miun.restaurantbooking.util.DateFormatter;
 
 /**
  * ViewHolder for displaying a single booking item.
- * TODO: Implement binding logic to display booking data in the views
+ * The views are looked up once when the holder is created; binding only assigns
+ * the values a {@link BookingRow} has already formatted.
  */
 public class BookingViewHolder extends RecyclerView.ViewHolder {
 
-    private TextView textCustomerName;
-    private TextView textPhoneNumber;
-    private TextView textBookingTime;
-    private TextView textNumberOfGuests;
-    private TextView textTableNumber;
+    private static final int COLOR_BOOKED = 0xFF4CAF50;
+    private static final int COLOR_ARRIVING = 0xFFFF9800;
+
+    private final View statusStrip;
+    private final TextView textCustomerName;
+    private final TextView textPhoneNumber;
+    private final TextView textBookingTime;
+    private final TextView textNumberOfGuests;
+    private final TextView textTableNumber;
 
 
     public BookingViewHolder(@NonNull View itemView) {
         super(itemView);
-        // TODO: Initialize all TextViews using itemView.findViewById()
+        statusStrip = itemView.findViewById(R.id.statusStrip);
         textCustomerName = itemView.findViewById(R.id.textCustomerName);
         textPhoneNumber = itemView.findViewById(R.id.textPhoneNumber);
         textBookingTime = itemView.findViewById(R.id.textBookingTime);
@@ -36,18 +39,15 @@ public class BookingViewHolder extends RecyclerView.ViewHolder {
     /**
      * Bind booking data to the views.
      *
-     * @param booking The booking to display
+     * @param row The booking row to display
      */
-    public void bind(Booking booking) {
-        textCustomerName.setText(booking.getCustomerName());
-        textPhoneNumber.setText(booking.getPhoneNumber());
-        String formattedTime = DateFormatter.formatTime(booking.getDateTime());
-        textBookingTime.setText(formattedTime);
-        textNumberOfGuests.setText(booking.getNumberOfGuests() + " gäster");
-        textTableNumber.setText(String.valueOf(booking.getTableNumber()));
-
-        // TODO: Set the data from the booking object to each TextView
-        // Use DateFormatter to format the time nicely
-        // For number of guests: textNumberOfGuests.setText(booking.getNumberOfGuests() + " guests");
+    public void bind(BookingRow row) {
+        textCustomerName.setText(row.getCustomerName());
+        textPhoneNumber.setText(row.getPhoneNumber());
+        textBookingTime.setText(row.getTime());
+        textNumberOfGuests.setText(row.getGuests());
+        textTableNumber.setText(row.getTable());
+        // The strip turns orange for guests about to arrive
+        statusStrip.setBackgroundColor(row.isUrgent() ? COLOR_ARRIVING : COLOR_BOOKED);
     }
 }
@@ -0,0 +1,54 @@
+package com.miun.restaurantbooking.ui;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.miun.restaurantbooking.repository.PagedBookingLoader;
+
+/**
+ * Asks a {@link PagedBookingLoader} for more bookings when the user scrolls
+ * close to either end of the loaded window.
+ */
+public class LoadMoreScrollListener extends RecyclerView.OnScrollListener {
+
+    private final PagedBookingLoader loader;
+    private final int threshold;
+
+    /**
+     * Constructor
+     *
+     * @param loader    Loader holding the window of bookings shown in the list
+     * @param threshold How many rows from the end of the window loading starts
+     */
+    public LoadMoreScrollListener(PagedBookingLoader loader, int threshold) {
+        this.loader = loader;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        onScrolled(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition(),
+                layoutManager.getItemCount(), dy);
+    }
+
+    /**
+     * Load the next or previous page if a scroll brought the visible rows close to that end of the window.
+     *
+     * @param firstVisible Position of the first visible row
+     * @param lastVisible  Position of the last visible row
+     * @param itemCount    Number of rows in the window
+     * @param dy           Vertical scroll distance, positive when scrolling towards the end
+     */
+    void onScrolled(int firstVisible, int lastVisible, int itemCount, int dy) {
+        if (dy > 0 && lastVisible >= itemCount - threshold) {
+            loader.loadNext();
+        } else if (dy < 0 && firstVisible <= threshold) {
+            loader.loadPrevious();
+        }
+    }
+}
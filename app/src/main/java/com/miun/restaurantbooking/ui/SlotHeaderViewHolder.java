@@ -0,0 +1,43 @@
+package com.miun.restaurantbooking.ui;
+
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.miun.restaurantbooking.R;
+
+/**
+ * ViewHolder for the header above the bookings of one time slot.
+ * The first header of a day also shows the date.
+ */
+public class SlotHeaderViewHolder extends RecyclerView.ViewHolder {
+
+    private final TextView textSlotDate;
+    private final TextView textSlotTime;
+    private final TextView textSlotSummary;
+
+    public SlotHeaderViewHolder(@NonNull View itemView) {
+        super(itemView);
+        textSlotDate = itemView.findViewById(R.id.textSlotDate);
+        textSlotTime = itemView.findViewById(R.id.textSlotTime);
+        textSlotSummary = itemView.findViewById(R.id.textSlotSummary);
+    }
+
+    /**
+     * Bind a time slot header to the views.
+     *
+     * @param row The header row to display
+     */
+    public void bind(BookingRow row) {
+        if (row.getDate() != null) {
+            textSlotDate.setText(row.getDate());
+            textSlotDate.setVisibility(View.VISIBLE);
+        } else {
+            textSlotDate.setVisibility(View.GONE);
+        }
+        textSlotTime.setText(row.getTime());
+        textSlotSummary.setText(row.getSummary());
+    }
+}
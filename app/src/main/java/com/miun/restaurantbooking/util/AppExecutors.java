@@ -0,0 +1,193 @@
+package com.miun.restaurantbooking.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors the app runs its work on.
+ * <ul>
+ *     <li>io: bounded pool for network requests and disk access</li>
+ *     <li>compute: bounded pool for parsing, sorting and diffing</li>
+ *     <li>mainThread: delivers results to the UI</li>
+ *     <li>scheduler: timers for debouncing and delayed work, which it hands on to the other executors</li>
+ * </ul>
+ */
+public class AppExecutors {
+
+    private static final int IO_THREADS = 4;
+    private static final int COMPUTE_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    private final Executor io;
+    private final Executor compute;
+    private final Executor mainThread;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor
+     *
+     * @param io         Executor for network and disk work
+     * @param compute    Executor for CPU-bound work
+     * @param mainThread Executor running tasks on the main thread
+     * @param scheduler  Executor for delayed tasks
+     */
+    public AppExecutors(Executor io, Executor compute, Executor mainThread, ScheduledExecutorService scheduler) {
+        this.io = io;
+        this.compute = compute;
+        this.mainThread = mainThread;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Get the executors shared by the whole app.
+     *
+     * @return AppExecutors instance
+     */
+    public static AppExecutors getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return Executor for network and disk work
+     */
+    public Executor io() {
+        return io;
+    }
+
+    /**
+     * @return Executor for parsing, sorting and diffing
+     */
+    public Executor compute() {
+        return compute;
+    }
+
+    /**
+     * @return Executor running tasks on the main thread
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * @return Executor for delayed tasks; tasks should only hand work on to another executor
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Create a single-thread executor for delayed tasks.
+     * Cancelled tasks are removed from the queue straight away.
+     *
+     * @param name Name of the thread
+     * @return A new scheduled executor
+     */
+    public static ScheduledExecutorService newScheduler(String name) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(name));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Create a fixed-size pool whose threads stop when idle.
+     *
+     * @param name    Prefix for the thread names
+     * @param threads Number of threads
+     * @return A new executor
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(String name, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create an executor that runs its tasks one at a time, in the order they were submitted,
+     * on the threads of another executor.
+     *
+     * @param executor Executor the tasks run on, e.g. {@link #compute()}
+     * @return A new serial executor
+     */
+    public static Executor serial(Executor executor) {
+        return new SerialExecutor(executor);
+    }
+
+    /**
+     * Lazily created on first use; class initialization makes this thread-safe.
+     */
+    private static class Holder {
+        static final AppExecutors INSTANCE = new AppExecutors(
+                newBoundedExecutor("booking-io", IO_THREADS),
+                newBoundedExecutor("booking-compute", COMPUTE_THREADS),
+                new MainThreadExecutor(),
+                newScheduler("booking-timer"));
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    }
+
+    private static class SerialExecutor implements Executor {
+        private final Executor executor;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(() -> {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                executor.execute(active);
+            }
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
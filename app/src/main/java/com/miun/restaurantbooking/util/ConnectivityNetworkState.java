@@ -0,0 +1,31 @@
+package com.miun.restaurantbooking.util;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+
+import com.miun.restaurantbooking.repository.PrefetchScheduler;
+
+/**
+ * Network state read from the system's connectivity service.
+ */
+public class ConnectivityNetworkState implements PrefetchScheduler.NetworkState {
+
+    private final ConnectivityManager connectivityManager;
+
+    /**
+     * Constructor
+     *
+     * @param context Context used to look up the connectivity service
+     */
+    public ConnectivityNetworkState(Context context) {
+        this.connectivityManager = (ConnectivityManager) context.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    @Override
+    public boolean isUnmetered() {
+        return connectivityManager != null
+                && connectivityManager.getActiveNetwork() != null
+                && !connectivityManager.isActiveNetworkMetered();
+    }
+}
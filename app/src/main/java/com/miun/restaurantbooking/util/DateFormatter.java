@@ -1,14 +1,39 @@
 package com.miun.restaurantbooking.util;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
  * Utility class for formatting dates and times for display.
+ * Besides the string based methods there is a fast path working on epoch minutes
+ * (minutes since 1970-01-01T00:00 local time), which formats without parsing
+ * and without allocating on the UI thread.
  */
 public class DateFormatter {
 
+    /**
+     * Returned by {@link #parseEpochMinute(String)} when the string is not a valid ISO 8601 datetime.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final String[] TIME_LABELS = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            TIME_LABELS[minute] = String.format("%02d:%02d", minute / 60, minute % 60);
+        }
+    }
+
+    /**
+     * Date label of the most recently formatted day. Bookings are shown one day
+     * at a time, so this almost always hits.
+     */
+    private static volatile DayLabel lastDayLabel;
+
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -24,6 +49,10 @@ public class DateFormatter {
         if (isoDateTime == null || isoDateTime.isEmpty()) {
             return "";
         }
+        long epochMinute = parseEpochMinute(isoDateTime);
+        if (epochMinute != NO_TIME) {
+            return formatTime(epochMinute);
+        }
         try {
             LocalDateTime dateTime = LocalDateTime.parse(isoDateTime, ISO_FORMATTER);
             return dateTime.format(TIME_FORMATTER);
@@ -68,6 +97,95 @@ public class DateFormatter {
         }
     }
 
+    /**
+     * Format the time of day of an epoch minute as HH:mm without allocating.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00
+     * @return Formatted time string (e.g., "18:30"), or "" for {@link #NO_TIME}
+     */
+    public static String formatTime(long epochMinute) {
+        if (epochMinute == NO_TIME) {
+            return "";
+        }
+        return TIME_LABELS[(int) Math.floorMod(epochMinute, (long) MINUTES_PER_DAY)];
+    }
+
+    /**
+     * Format the date of an epoch minute for display.
+     * Only formats when the day differs from the previous call.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00
+     * @return Formatted date string (e.g., "Nov 27, 2025"), or "" for {@link #NO_TIME}
+     */
+    public static String formatDate(long epochMinute) {
+        if (epochMinute == NO_TIME) {
+            return "";
+        }
+        long epochDay = Math.floorDiv(epochMinute, (long) MINUTES_PER_DAY);
+        DayLabel label = lastDayLabel;
+        if (label == null || label.epochDay != epochDay) {
+            label = new DayLabel(epochDay, LocalDate.ofEpochDay(epochDay).format(DISPLAY_DATE_FORMATTER));
+            lastDayLabel = label;
+        }
+        return label.label;
+    }
+
+    /**
+     * Get the minute of the day of an epoch minute.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00
+     * @return Minute of the day, 0 to 1439
+     */
+    public static int minuteOfDay(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, (long) MINUTES_PER_DAY);
+    }
+
+    /**
+     * Get the day of an epoch minute.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00
+     * @return Days since 1970-01-01
+     */
+    public static long epochDay(long epochMinute) {
+        return Math.floorDiv(epochMinute, (long) MINUTES_PER_DAY);
+    }
+
+    /**
+     * Get the epoch minute of a local date and time, seconds dropped.
+     *
+     * @param dateTime Local date and time
+     * @return Minutes since 1970-01-01T00:00
+     */
+    public static long epochMinute(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY
+                + dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    /**
+     * Parse an ISO 8601 datetime string (yyyy-MM-ddTHH:mm with optional seconds and
+     * fraction) into minutes since 1970-01-01T00:00, without allocating.
+     *
+     * @param isoDateTime ISO 8601 datetime string (e.g., "2025-11-27T18:30:00")
+     * @return Epoch minute, or {@link #NO_TIME} if the string is not a valid datetime
+     */
+    public static long parseEpochMinute(String isoDateTime) {
+        if (isoDateTime == null || isoDateTime.length() < 16
+                || isoDateTime.charAt(4) != '-' || isoDateTime.charAt(7) != '-'
+                || isoDateTime.charAt(10) != 'T' || isoDateTime.charAt(13) != ':') {
+            return NO_TIME;
+        }
+        int year = digits(isoDateTime, 0, 4);
+        int month = digits(isoDateTime, 5, 2);
+        int day = digits(isoDateTime, 8, 2);
+        int hour = digits(isoDateTime, 11, 2);
+        int minute = digits(isoDateTime, 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || !isValidSeconds(isoDateTime)) {
+            return NO_TIME;
+        }
+        return epochDay(year, month, day) * MINUTES_PER_DAY + hour * 60 + minute;
+    }
+
     /**
      * Format a LocalDateTime to ISO 8601 string.
      *
@@ -80,4 +198,96 @@ public class DateFormatter {
         }
         return dateTime.format(ISO_FORMATTER);
     }
+
+    /**
+     * Format an epoch minute as an ISO 8601 string with zero seconds, the form the server sends.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00
+     * @return ISO 8601 formatted string (e.g., "2025-11-27T18:30:00")
+     */
+    public static String toIsoString(long epochMinute) {
+        return LocalDate.ofEpochDay(epochDay(epochMinute)) + "T" + formatTime(epochMinute) + ":00";
+    }
+
+    /**
+     * Check whether a datetime string is exactly what {@link #toIsoString(long)} produces
+     * from its epoch minute, so storing only the minute loses nothing.
+     *
+     * @param isoDateTime ISO 8601 datetime string
+     * @return true if the string is of the form yyyy-MM-ddTHH:mm:00
+     */
+    public static boolean isIsoMinute(String isoDateTime) {
+        return isoDateTime != null && isoDateTime.length() == 19 && isoDateTime.endsWith(":00")
+                && parseEpochMinute(isoDateTime) != NO_TIME;
+    }
+
+    /**
+     * Check the optional ":ss" and ".fraction" suffix after yyyy-MM-ddTHH:mm.
+     */
+    private static boolean isValidSeconds(String s) {
+        int length = s.length();
+        if (length == 16) {
+            return true;
+        }
+        if (length < 19 || s.charAt(16) != ':') {
+            return false;
+        }
+        int seconds = digits(s, 17, 2);
+        if (seconds < 0 || seconds > 59) {
+            return false;
+        }
+        if (length == 19) {
+            return true;
+        }
+        if (s.charAt(19) != '.' || length == 20 || length > 29) {
+            return false;
+        }
+        return digits(s, 20, length - 20) >= 0;
+    }
+
+    /**
+     * Read a run of decimal digits.
+     *
+     * @return The value, or -1 if any character is not a digit
+     */
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2 && (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static final class DayLabel {
+        final long epochDay;
+        final String label;
+
+        DayLabel(long epochDay, String label) {
+            this.epochDay = epochDay;
+            this.label = label;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package com.miun.restaurantbooking.util;
+
+/**
+ * Utility class for formatting phone numbers for display.
+ * Swedish mobile numbers are grouped the way they are usually written (070-123 45 67);
+ * anything else is shown as it was entered.
+ */
+public class PhoneFormatter {
+
+    /**
+     * Format a phone number for display.
+     *
+     * @param phoneNumber Phone number as entered, with or without spaces and dashes
+     * @return Grouped number (e.g., "070-123 45 67" or "+46 70-123 45 67"),
+     * the number unchanged if it is not a Swedish mobile number, or null for null
+     */
+    public static String format(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        char[] digits = new char[phoneNumber.length()];
+        int count = 0;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits[count++] = c;
+            } else if (c != ' ' && c != '-' && !(c == '+' && i == 0)) {
+                return phoneNumber;
+            }
+        }
+        boolean international = phoneNumber.startsWith("+");
+        if (!international && count == 10 && digits[0] == '0' && digits[1] == '7') {
+            // 07X-XXX XX XX
+            return group("", digits, 0, 3);
+        }
+        if (international && count == 11 && digits[0] == '4' && digits[1] == '6' && digits[2] == '7') {
+            // +46 7X-XXX XX XX
+            return group("+46 ", digits, 2, 2);
+        }
+        return phoneNumber;
+    }
+
+    /**
+     * Write the area code, a dash and the last seven digits as XXX XX XX after a prefix.
+     */
+    private static String group(String prefix, char[] digits, int areaStart, int areaLength) {
+        int rest = areaStart + areaLength;
+        return new StringBuilder(prefix.length() + areaLength + 10)
+                .append(prefix)
+                .append(digits, areaStart, areaLength).append('-')
+                .append(digits, rest, 3).append(' ')
+                .append(digits, rest + 3, 2).append(' ')
+                .append(digits, rest + 5, 2)
+                .toString();
+    }
+}
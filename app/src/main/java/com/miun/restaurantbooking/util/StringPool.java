@@ -0,0 +1,55 @@
+package com.miun.restaurantbooking.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out one shared instance per distinct string, so values that repeat across many
+ * objects, such as the names and phone numbers of regular guests, are held in memory once.
+ * Unlike {@link String#intern()} the pool is bounded: when it is full it starts over, so
+ * values that are no longer used do not stay reachable for the lifetime of the app.
+ * Thread-safe.
+ */
+public class StringPool {
+
+    private final int maxSize;
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param maxSize Maximum number of distinct strings held before the pool starts over
+     */
+    public StringPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the shared instance of a string.
+     *
+     * @param value String to look up, may be null
+     * @return The instance equal to value that was pooled first, or null for null
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= maxSize) {
+            // Strings handed out earlier stay valid, they are just no longer shared with new ones
+            strings.clear();
+        }
+        strings.put(value, value);
+        return value;
+    }
+
+    /**
+     * @return Number of distinct strings in the pool
+     */
+    public synchronized int size() {
+        return strings.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.miun.restaurantbooking.api;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.*;
+
+public class ApiClientTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    public void concurrentFirstUse_buildsOneClient() throws Exception {
+        Set<Retrofit> clients = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int i = 0; i < THREADS; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    clients.add(ApiClient.getClient());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, clients.size());
+        assertSame(ApiClient.getHttpClient(), clients.iterator().next().callFactory());
+    }
+
+    @Test
+    public void lazyService_isCreatedOnFirstCallOnly() throws Exception {
+        try (StubBookingServer server = new StubBookingServer()) {
+            server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json("[]"));
+            AtomicInteger created = new AtomicInteger();
+            BookingApiService service = LazyService.create(BookingApiService.class, () -> {
+                created.incrementAndGet();
+                return server.createService();
+            });
+
+            // Handing the service around does not create it
+            assertNotEquals(service, LazyService.create(BookingApiService.class, server::createService));
+            assertNotNull(service.toString());
+            assertEquals(0, created.get());
+
+            assertTrue(service.getTodaysBookings().execute().body().isEmpty());
+            assertTrue(service.getTodaysBookings().execute().isSuccessful());
+            assertEquals(1, created.get());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips, content negotiation and a size comparison with JSON. Decode speed is measured
+ * by BookingCodecBenchmark.
+ */
+public class BookingBinaryCodecTest {
+
+    private final Gson gson = new Gson();
+    private StubBookingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubBookingServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void roundTrip_preservesEveryField() throws IOException {
+        List<Booking> bookings = Arrays.asList(
+                new Booking(7L, "Åsa Öberg", "070-123 45 67", 3, "2025-11-29T18:30:00", 4),
+                new Booking(3L, "Åsa Öberg", "070-123 45 67", 12, "2025-11-29T11:15:00", 2),
+                new Booking(1_000_000_000_000L, "李雷", null, 0, "2025-11-29T18:30:45", 1),
+                new Booking(null, null, "", -1, "2025-11-29T18:30", 0),
+                new Booking(8L, "", "073", 400, "not a time", Integer.MAX_VALUE),
+                new Booking(9L, "Walk-in", "076", 1, null, Integer.MIN_VALUE),
+                new Booking(10L, "Walk-in", "076", 1, "1969-12-31T23:45:00", 2));
+        bookings.get(1).setVersion(42);
+
+        List<Booking> decoded = BookingBinaryCodec.decode(BookingBinaryCodec.encode(bookings));
+
+        assertEquals(bookings, decoded);
+        for (int i = 0; i < bookings.size(); i++) {
+            assertTrue(Objects.equals(bookings.get(i).getDateTime(), decoded.get(i).getDateTime()));
+            assertEquals(bookings.get(i).getStartEpochMinute(), decoded.get(i).getStartEpochMinute());
+        }
+    }
+
+    @Test
+    public void malformedInput_throws() {
+        byte[] encoded = BookingBinaryCodec.encode(TestBookings.forDate("2025-11-29", 10, 1));
+        assertThrows(IOException.class, () -> BookingBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertThrows(IOException.class, () -> BookingBinaryCodec.decode("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void optIn_negotiatesBinaryAndFallsBackToJson() throws IOException {
+        List<Booking> bookings = TestBookings.withRegulars("2025-11-29", 1, 300, 2000, 1);
+        server.setHandler("/api/getTodaysBookings", request -> {
+            String accept = request.header("Accept");
+            if (accept != null && accept.contains(BookingBinaryCodec.MEDIA_TYPE)) {
+                return StubBookingServer.Response.bytes(200, BookingBinaryCodec.encode(bookings),
+                        BookingBinaryCodec.MEDIA_TYPE);
+            }
+            return StubBookingServer.Response.json(gson.toJson(bookings));
+        });
+        server.setHandler("/api/getBookingChanges", request -> {
+            // Only booking lists ask for the binary format
+            assertNull(request.header("Accept"));
+            return StubBookingServer.Response.json("{\"cursor\":1}");
+        });
+
+        BookingApiService binary = server.createService(new HttpClientConfig(null).setBinaryBookingLists(true).build());
+        assertEquals(bookings, binary.getBookingsForDate("2025-11-29").execute().body());
+        long binaryBytes = server.getBodyBytesSent();
+        assertEquals(1, binary.getBookingChanges("2025-11-29", 0).execute().body().getCursor());
+
+        BookingApiService json = server.createService();
+        assertEquals(bookings, json.getBookingsForDate("2025-11-29").execute().body());
+        long jsonBytes = server.getBodyBytesSent() - binaryBytes - "{\"cursor\":1}".length();
+        assertTrue(binaryBytes * 3 < jsonBytes);
+    }
+
+    @Test
+    public void day_isUnderAQuarterOfTheJson() throws IOException {
+        assertUnderAQuarterOfJson(TestBookings.withRegulars("2025-11-01", 1, 300, 2000, 42));
+    }
+
+    @Test
+    public void month_isUnderAQuarterOfTheJson() throws IOException {
+        assertUnderAQuarterOfJson(TestBookings.withRegulars("2025-11-01", 30, 300, 2000, 42));
+    }
+
+    private void assertUnderAQuarterOfJson(List<Booking> bookings) throws IOException {
+        byte[] json = gson.toJson(bookings).getBytes(StandardCharsets.UTF_8);
+        byte[] binary = BookingBinaryCodec.encode(bookings);
+
+        assertEquals(bookings, BookingBinaryCodec.decode(binary));
+        assertTrue(binary.length * 4 < json.length);
+    }
+}
@@ -0,0 +1,59 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The token reader against Gson's reflective adapter. Parse time and allocation of the two
+ * are measured by BookingParsingBenchmark.
+ */
+public class BookingJsonReaderTest {
+
+    private static final Type BOOKING_LIST = new TypeToken<List<Booking>>() {
+    }.getType();
+    private static final int CHUNK_SIZE = 500;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void streamingReader_matchesReflectiveGson() throws IOException {
+        String json = gson.toJson(TestBookings.forDate("2025-11-27", 1000, 1))
+                .replace("{\"id\":5,", "{\"extra\":{\"nested\":[1,2]},\"id\":5,");
+        List<Booking> reflective = gson.fromJson(json, BOOKING_LIST);
+        List<Booking> streamed = BookingJsonReader.readBookings(new JsonReader(new StringReader(json)));
+        assertEquals(reflective, streamed);
+    }
+
+    @Test
+    public void chunkedReader_deliversEveryBookingInOrder() throws IOException {
+        List<Booking> bookings = TestBookings.forDate("2025-11-27", 10_000, 1);
+        String json = gson.toJson(bookings);
+
+        List<Booking> delivered = new ArrayList<>();
+        List<Integer> chunkSizes = new ArrayList<>();
+        int count = BookingJsonReader.readBookings(new JsonReader(new StringReader(json)), CHUNK_SIZE, chunk -> {
+            chunkSizes.add(chunk.size());
+            delivered.addAll(chunk);
+        });
+
+        assertEquals(bookings.size(), count);
+        assertEquals(bookings, delivered);
+        assertEquals(bookings.size() / CHUNK_SIZE, chunkSizes.size());
+        for (int size : chunkSizes) {
+            assertEquals(CHUNK_SIZE, size);
+        }
+    }
+}
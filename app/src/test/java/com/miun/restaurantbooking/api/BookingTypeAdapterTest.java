@@ -0,0 +1,51 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingPage;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link BookingTypeAdapter} reads and writes the same JSON as Gson's reflective adapter.
+ */
+public class BookingTypeAdapterTest {
+
+    private static final Type BOOKING_LIST = new TypeToken<List<Booking>>() {
+    }.getType();
+
+    private final Gson reflective = new Gson();
+    private final Gson adapted = BookingTypeAdapter.createGson();
+
+    @Test
+    public void bookings_areWrittenLikeReflectiveGson() {
+        List<Booking> bookings = TestBookings.forDate("2025-11-29", 50, 1);
+        Booking sparse = new Booking(null, null, null, 3, null, 2);
+        sparse.setVersion(7);
+        bookings.add(sparse);
+        bookings.add(null);
+
+        String json = adapted.toJson(bookings, BOOKING_LIST);
+
+        assertEquals(reflective.toJson(bookings, BOOKING_LIST), json);
+        assertEquals(bookings, adapted.fromJson(json, BOOKING_LIST));
+    }
+
+    @Test
+    public void nestedBookings_useTheAdapter() {
+        String json = "{\"bookings\":[{\"id\":4,\"name\":\"Åsa\",\"tableNum\":2,\"unknown\":[1,{}],"
+                + "\"dateTime\":\"2025-11-29T18:00:00\",\"numberOfPeople\":3,\"phoneNumber\":null}]}";
+
+        BookingPage page = adapted.fromJson(json, BookingPage.class);
+
+        assertEquals(Arrays.asList(new Booking(4L, "Åsa", null, 2, "2025-11-29T18:00:00", 3)), page.getBookings());
+    }
+}
@@ -0,0 +1,102 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the shared HTTP client against a local stub that supports ETags.
+ */
+public class HttpCachingTest {
+
+    private static final String DATE = "2025-11-27";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final AtomicReference<String> lastAcceptEncoding = new AtomicReference<>();
+    private StubBookingServer server;
+    private OkHttpClient httpClient;
+    private BookingApiService service;
+    private volatile String json;
+
+    @Before
+    public void setUp() throws Exception {
+        json = gson.toJson(TestBookings.forDate(DATE, 300, 1));
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request -> {
+            lastAcceptEncoding.set(request.header("Accept-Encoding"));
+            String etag = "\"" + Integer.toHexString(json.hashCode()) + "\"";
+            if (etag.equals(request.header("If-None-Match"))) {
+                return StubBookingServer.Response.status(304).header("ETag", etag);
+            }
+            return StubBookingServer.Response.json(json).header("ETag", etag);
+        });
+        httpClient = new HttpClientConfig(folder.newFolder("http")).build();
+        service = server.createService(httpClient);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        httpClient.cache().close();
+    }
+
+    @Test
+    public void unchangedRefresh_isRevalidatedWithoutABody() throws Exception {
+        Response<List<Booking>> first = service.getBookingsForDate(DATE).execute();
+        long bytesAfterFirst = server.getBodyBytesSent();
+        assertTrue(bytesAfterFirst > 0);
+
+        Response<List<Booking>> second = service.getBookingsForDate(DATE).execute();
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(bytesAfterFirst, server.getBodyBytesSent());
+        assertEquals(304, second.raw().networkResponse().code());
+        assertNotNull(second.raw().cacheResponse());
+        assertEquals(first.body(), second.body());
+    }
+
+    @Test
+    public void changedRefresh_downloadsTheNewBody() throws Exception {
+        service.getBookingsForDate(DATE).execute();
+        long bytesAfterFirst = server.getBodyBytesSent();
+
+        List<Booking> changed = TestBookings.forDate(DATE, 301, 1);
+        json = gson.toJson(changed);
+        Response<List<Booking>> second = service.getBookingsForDate(DATE).execute();
+
+        assertEquals(200, second.raw().networkResponse().code());
+        assertTrue(server.getBodyBytesSent() > bytesAfterFirst);
+        assertEquals(changed, second.body());
+    }
+
+    @Test
+    public void requests_acceptGzip() throws Exception {
+        service.getBookingsForDate(DATE).execute();
+        assertEquals("gzip", lastAcceptEncoding.get());
+    }
+
+    @Test
+    public void connections_areReused() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            service.getBookingsForDate("2025-12-0" + (i + 1)).execute();
+        }
+        assertEquals(1, httpClient.connectionPool().connectionCount());
+    }
+}
@@ -0,0 +1,185 @@
+package com.miun.restaurantbooking.api;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.metrics.Metrics;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+import com.miun.restaurantbooking.repository.MutableClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Retries, hedged requests, deadlines and the circuit breaker of {@link ResiliencePolicy},
+ * against a local stub that injects latency spikes and bursts of server errors.
+ */
+public class ResilientCallTest {
+
+    private static final String DATE = "2025-11-29";
+    private static final String BOOKINGS_PATH = "/api/getTodaysBookings";
+    private static final long SPIKE_MILLIS = 3000;
+
+    private final Metrics metrics = new Metrics();
+    private final MutableClock clock = new MutableClock(0);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final String json = new Gson().toJson(TestBookings.forDate(DATE, 20, 1));
+    private StubBookingServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        metrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void latencySpike_isCutShortByAHedgedRequest() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> requests.incrementAndGet() == 1
+                ? StubBookingServer.Response.json(json).delay(SPIKE_MILLIS)
+                : StubBookingServer.Response.json(json));
+        BookingApiService service = server.createService(policy().setHedging(200, 1));
+
+        Response<List<Booking>> response = service.getBookingsForDate(DATE).execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(20, response.body().size());
+        // The answer came from the hedge, not from the request stuck in the spike
+        assertEquals(2, server.getRequestCount(BOOKINGS_PATH));
+        assertEquals(1, metrics.counter(Metrics.HTTP_HEDGES).get());
+        assertEquals(1, metrics.counter(Metrics.HTTP_HEDGE_WINS).get());
+    }
+
+    @Test
+    public void fastResponse_isNotHedged() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.json(json));
+        BookingApiService service = server.createService(policy().setHedging(1000, 1));
+
+        assertTrue(service.getBookingsForDate(DATE).execute().isSuccessful());
+
+        assertEquals(1, server.getRequestCount(BOOKINGS_PATH));
+        assertEquals(0, metrics.counter(Metrics.HTTP_HEDGES).get());
+    }
+
+    @Test
+    public void serverErrorBurst_isRetriedWithBackoff() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> requests.incrementAndGet() <= 2
+                ? StubBookingServer.Response.status(503)
+                : StubBookingServer.Response.json(json));
+        BookingApiService service = server.createService(policy().setMaxAttempts(3));
+
+        Response<List<Booking>> response = service.getBookingsForDate(DATE).execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(3, server.getRequestCount(BOOKINGS_PATH));
+        assertEquals(2, metrics.counter(Metrics.HTTP_RETRIES).get());
+    }
+
+    @Test
+    public void lastingServerErrors_returnTheLastResponse() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.status(500));
+        BookingApiService service = server.createService(policy().setMaxAttempts(3));
+
+        Response<List<Booking>> response = service.getBookingsForDate(DATE).execute();
+
+        assertEquals(500, response.code());
+        assertEquals(3, server.getRequestCount(BOOKINGS_PATH));
+    }
+
+    @Test
+    public void clientError_isNotRetried() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.status(404));
+        BookingApiService service = server.createService(policy().setMaxAttempts(3));
+
+        assertEquals(404, service.getBookingsForDate(DATE).execute().code());
+        assertEquals(1, server.getRequestCount(BOOKINGS_PATH));
+    }
+
+    @Test
+    public void mutations_areNotRetried() throws Exception {
+        server.setHandler("/api/bookingMutations", request -> StubBookingServer.Response.status(503));
+        BookingApiService service = server.createService(policy().setMaxAttempts(3).setHedging(10, 1));
+
+        assertEquals(503, service.applyMutations(Collections.emptyList()).execute().code());
+        assertEquals(1, server.getRequestCount("/api/bookingMutations"));
+    }
+
+    @Test
+    public void slowServer_missesTheDeadline() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.json(json).delay(SPIKE_MILLIS));
+        BookingApiService service = server.createService(policy().setDeadlineMillis(300));
+
+        assertThrows(DeadlineExceededException.class, () -> service.getBookingsForDate(DATE).execute());
+        assertEquals(1, metrics.counter(Metrics.HTTP_DEADLINES_EXCEEDED).get());
+    }
+
+    @Test
+    public void deadlineAnnotation_overridesThePolicy() throws Exception {
+        server.setHandler("/api/getBookingChanges", request -> StubBookingServer.Response.json("{}").delay(400));
+        BookingApiService service = server.createService(policy().setDeadlineMillis(100));
+
+        assertTrue(service.getBookingChanges(DATE, 1).execute().isSuccessful());
+    }
+
+    @Test
+    public void openCircuit_failsFastUntilAProbeSucceeds() throws Exception {
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.status(503));
+        ResiliencePolicy policy = policy().setMaxAttempts(1).setCircuitBreaker(3, 30_000);
+        BookingApiService service = server.createService(policy);
+        CircuitBreaker breaker = policy.getCircuitBreaker();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, service.getBookingsForDate(DATE).execute().code());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(), metrics.snapshot().getGauge(Metrics.CIRCUIT_STATE).longValue());
+
+        // Nothing is sent while the breaker is open, not even changes
+        try {
+            service.getBookingsForDate(DATE).execute();
+            fail("Request sent to a failing server");
+        } catch (CircuitOpenException e) {
+            assertEquals(30_000, e.getRetryAfterMillis());
+        }
+        try {
+            service.applyMutations(Collections.emptyList()).execute();
+            fail("Request sent to a failing server");
+        } catch (CircuitOpenException expected) {
+        }
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, metrics.counter(Metrics.CIRCUIT_REJECTIONS).get());
+
+        // A failed probe keeps the breaker open
+        clock.advance(30_000);
+        assertEquals(503, service.getBookingsForDate(DATE).execute().code());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // A successful one closes it
+        server.setHandler(BOOKINGS_PATH, request -> StubBookingServer.Response.json(json));
+        clock.advance(30_000);
+        assertTrue(service.getBookingsForDate(DATE).execute().isSuccessful());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(5, server.getRequestCount());
+    }
+
+    private ResiliencePolicy policy() {
+        return new ResiliencePolicy()
+                .setBackoff(20, 100)
+                .setHedging(0, 0)
+                .setDeadlineMillis(5000)
+                .setClock(clock)
+                .setMetrics(metrics);
+    }
+}
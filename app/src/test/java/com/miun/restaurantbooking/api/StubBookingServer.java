@@ -0,0 +1,321 @@
+package com.miun.restaurantbooking.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Local stand-in for the booking backend, used by JVM tests.
+ * Each path is served by a {@link Handler}; requests and response bytes are counted.
+ */
+public class StubBookingServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger totalRequests = new AtomicInteger();
+    private final AtomicLong bodyBytesSent = new AtomicLong();
+    private volatile long delayMillis;
+
+    public StubBookingServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Serve a path with the given handler.
+     *
+     * @param path    Request path, e.g. "/api/getTodaysBookings"
+     * @param handler Handler producing the response
+     */
+    public void setHandler(String path, Handler handler) {
+        handlers.put(path, handler);
+    }
+
+    /**
+     * Serve the booking list endpoint from a synthetic generator, streaming the JSON as it is
+     * generated. The "venue" query parameter is the venue index; without it venue 0 is served.
+     *
+     * @param generator Generator producing the bookings
+     */
+    public void serve(SyntheticBookingGenerator generator) {
+        setHandler("/api/getTodaysBookings", request -> {
+            String date = request.query.get("date");
+            String venue = request.query.get("venue");
+            int index = venue == null ? 0 : Integer.parseInt(venue);
+            if (date == null || index >= generator.getVenueCount()) {
+                return Response.status(404);
+            }
+            return Response.streamed("application/json; charset=UTF-8", out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                generator.writeJson(index, date, date, writer);
+                writer.flush();
+            });
+        });
+    }
+
+    /**
+     * Delay every response, simulating a slow network.
+     *
+     * @param delayMillis Delay in milliseconds
+     */
+    public void setDelay(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * @return Base URL of the server, ending with a slash
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * @return Retrofit service talking to this server, configured like ApiClient without a response cache
+     */
+    public BookingApiService createService() {
+        return createService(new HttpClientConfig(null).build());
+    }
+
+    /**
+     * @param httpClient HTTP client to send requests with
+     * @return Retrofit service talking to this server with the app's converters
+     */
+    public BookingApiService createService(OkHttpClient httpClient) {
+        return ApiClient.createRetrofit(url(), httpClient).create(BookingApiService.class);
+    }
+
+    /**
+     * @param policy Retries, deadlines, hedging and circuit breaker applied to the calls
+     * @return Retrofit service talking to this server, configured like ApiClient without a response cache
+     */
+    public BookingApiService createService(ResiliencePolicy policy) {
+        return ApiClient.createRetrofit(url(), new HttpClientConfig(null).build(), policy)
+                .create(BookingApiService.class);
+    }
+
+    public int getRequestCount() {
+        return totalRequests.get();
+    }
+
+    public int getRequestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public long getBodyBytesSent() {
+        return bodyBytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            totalRequests.incrementAndGet();
+            requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+            Request request = new Request(exchange);
+            Handler handler = handlers.get(path);
+            Response response = handler == null ? Response.status(404) : handler.handle(request);
+
+            long delay = delayMillis + response.delayMillis;
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            exchange.getResponseHeaders().putAll(toHeaderLists(response.headers));
+            if (response.writer != null) {
+                exchange.sendResponseHeaders(response.code, 0);
+                try (OutputStream out = new CountingOutputStream(exchange.getResponseBody())) {
+                    response.writer.write(out);
+                }
+            } else if (response.body == null || response.body.length == 0) {
+                exchange.sendResponseHeaders(response.code, -1);
+            } else {
+                exchange.sendResponseHeaders(response.code, response.body.length);
+                try (OutputStream out = new CountingOutputStream(exchange.getResponseBody())) {
+                    out.write(response.body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, java.util.List<String>> toHeaderLists(Map<String, String> headers) {
+        Map<String, java.util.List<String>> lists = new HashMap<>();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            lists.put(header.getKey(), java.util.Collections.singletonList(header.getValue()));
+        }
+        return lists;
+    }
+
+    private class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            // Counted before writing, so the count is complete once the client has the bytes
+            bodyBytesSent.incrementAndGet();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            bodyBytesSent.addAndGet(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Produces the response for a request.
+     */
+    public interface Handler {
+        Response handle(Request request) throws IOException;
+    }
+
+    /**
+     * Writes a response body incrementally, for streamed responses.
+     */
+    public interface BodyWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A received request.
+     */
+    public static class Request {
+        public final String method;
+        public final String path;
+        public final Map<String, String> query = new HashMap<>();
+        public final Map<String, String> headers = new HashMap<>();
+        public final String body;
+
+        Request(HttpExchange exchange) throws IOException {
+            method = exchange.getRequestMethod();
+            path = exchange.getRequestURI().getPath();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String pair : rawQuery.split("&")) {
+                    int separator = pair.indexOf('=');
+                    String key = separator < 0 ? pair : pair.substring(0, separator);
+                    String value = separator < 0 ? "" : pair.substring(separator + 1);
+                    query.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+                }
+            }
+            for (Map.Entry<String, java.util.List<String>> header : exchange.getRequestHeaders().entrySet()) {
+                headers.put(header.getKey().toLowerCase(), header.getValue().get(0));
+            }
+            body = readAll(exchange.getRequestBody());
+        }
+
+        public String header(String name) {
+            return headers.get(name.toLowerCase());
+        }
+
+        private static String readAll(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A response to send back.
+     */
+    public static class Response {
+        final int code;
+        final byte[] body;
+        final BodyWriter writer;
+        final Map<String, String> headers = new HashMap<>();
+        long delayMillis;
+
+        private Response(int code, byte[] body, BodyWriter writer) {
+            this.code = code;
+            this.body = body;
+            this.writer = writer;
+        }
+
+        public static Response json(String json) {
+            return json(200, json);
+        }
+
+        public static Response json(int code, String json) {
+            Response response = new Response(code, json.getBytes(StandardCharsets.UTF_8), null);
+            response.headers.put("Content-Type", "application/json; charset=UTF-8");
+            return response;
+        }
+
+        public static Response bytes(int code, byte[] body, String contentType) {
+            Response response = new Response(code, body, null);
+            response.headers.put("Content-Type", contentType);
+            return response;
+        }
+
+        public static Response streamed(String contentType, BodyWriter writer) {
+            Response response = new Response(200, null, writer);
+            response.headers.put("Content-Type", contentType);
+            return response;
+        }
+
+        public static Response status(int code) {
+            return new Response(code, null, null);
+        }
+
+        public Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public Response delay(long millis) {
+            delayMillis = millis;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.miun.restaurantbooking.api;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Determinism, uniqueness at a million bookings, the configured distributions and serving
+ * the generated bookings from a local stub.
+ */
+public class SyntheticBookingGeneratorTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2025, 1, 1);
+
+    @Test
+    public void sameSeed_givesSameBookingsOnAnyThreadInAnyOrder() {
+        SyntheticBookingGenerator.Config config = new SyntheticBookingGenerator.Config().setSeed(7).setVenues(4, 30);
+        SyntheticBookingGenerator first = config.build();
+        SyntheticBookingGenerator second = config.build();
+
+        List<List<Booking>> sequential = new ArrayList<>();
+        for (int day = 0; day < 60; day++) {
+            for (int venue = 0; venue < 4; venue++) {
+                sequential.add(first.getBookings(venue, FIRST_DATE.plusDays(day).toString()));
+            }
+        }
+        ConcurrentHashMap<Integer, List<Booking>> parallel = new ConcurrentHashMap<>();
+        IntStream.range(0, 240).parallel().map(i -> 239 - i).forEach(i ->
+                parallel.put(i, second.getBookings(i % 4, FIRST_DATE.plusDays(i / 4).toString())));
+
+        for (int i = 0; i < 240; i++) {
+            assertEquals(sequential.get(i), parallel.get(i));
+        }
+        assertNotEquals(first.getBookings(0, "2025-01-01"), config.setSeed(8).build().getBookings(0, "2025-01-01"));
+    }
+
+    @Test
+    public void millionBookings_haveUniqueIdsAndTables() {
+        SyntheticBookingGenerator generator = new SyntheticBookingGenerator.Config().setVenues(10, 40).build();
+        int days = 365;
+        long[] ids = new long[days * 10 * 500];
+        int count = 0;
+        int cancelled = 0;
+
+        for (int day = 0; day < days; day++) {
+            String date = FIRST_DATE.plusDays(day).toString();
+            for (int venue = 0; venue < 10; venue++) {
+                BookingChanges generated = generator.generateDay(venue, date);
+                Set<String> tableTimes = new HashSet<>();
+                Booking previous = null;
+                for (Booking booking : generated.getUpdated()) {
+                    assertTrue(tableTimes.add(booking.getTableNumber() + "@" + booking.getDateTime()));
+                    assertTrue(booking.getDateTime().startsWith(date));
+                    if (previous != null) {
+                        assertTrue(previous.getStartEpochMinute() < booking.getStartEpochMinute()
+                                || previous.getTableNumber() < booking.getTableNumber());
+                    }
+                    previous = booking;
+                    ids[count++] = booking.getBookingId();
+                }
+                for (long id : generated.getDeletedIds()) {
+                    ids[count++] = id;
+                    cancelled++;
+                }
+            }
+        }
+
+        assertTrue(count > 1_000_000);
+        assertTrue(cancelled > 0);
+        long[] sorted = Arrays.copyOf(ids, count);
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            assertNotEquals(sorted[i - 1], sorted[i]);
+        }
+    }
+
+    @Test
+    public void bookings_followTheConfiguredDistributions() {
+        double[] partySizes = {0, 0, 50, 0, 30, 0, 20};
+        SyntheticBookingGenerator generator = new SyntheticBookingGenerator.Config()
+                .setVenues(1, 200)
+                .setBookingsPerDay(200, new double[]{0.5, 1, 1, 1, 1, 1.5, 1}, 0.1)
+                .setSlots(17 * 60, 30, new double[]{1, 2, 4, 2, 1})
+                .setPartySizeWeights(partySizes)
+                .setCancellationRate(0.1)
+                .build();
+
+        int[] guests = new int[partySizes.length];
+        int[] slots = new int[5];
+        int[] perWeekday = new int[7];
+        int booked = 0;
+        int cancelled = 0;
+        for (int day = 0; day < 364; day++) {
+            LocalDate date = FIRST_DATE.plusDays(day);
+            BookingChanges generated = generator.generateDay(0, date.toString());
+            for (Booking booking : generated.getUpdated()) {
+                guests[booking.getNumberOfGuests()]++;
+                slots[(booking.getMinuteOfDay() - 17 * 60) / 30]++;
+            }
+            booked += generated.getUpdated().size();
+            cancelled += generated.getDeletedIds().size();
+            perWeekday[date.getDayOfWeek().getValue() - 1] += generated.getUpdated().size();
+        }
+
+        assertEquals(0.5, (double) guests[2] / booked, 0.01);
+        assertEquals(0.3, (double) guests[4] / booked, 0.01);
+        assertEquals(0.2, (double) guests[6] / booked, 0.01);
+        assertEquals(0.4, (double) slots[2] / booked, 0.01);
+        assertEquals(0.1, (double) slots[0] / booked, 0.01);
+        assertEquals(0.1, (double) cancelled / (booked + cancelled), 0.01);
+        // 52 Saturdays at 1.5 times the bookings of a Tuesday, 3 times those of a Monday
+        assertEquals(1.5, (double) perWeekday[5] / perWeekday[1], 0.05);
+        assertEquals(3.0, (double) perWeekday[5] / perWeekday[0], 0.1);
+    }
+
+    @Test
+    public void fullDay_usesEveryTableOnceInEverySlot() {
+        SyntheticBookingGenerator generator = new SyntheticBookingGenerator.Config()
+                .setVenues(1, 5)
+                .setBookingsPerDay(100, new double[]{1, 1, 1, 1, 1, 1, 1}, 0)
+                .setSlots(17 * 60, 60, new double[]{1, 0, 0, 5})
+                .setCancellationRate(0)
+                .build();
+
+        List<Booking> bookings = generator.getBookings(0, "2025-11-29");
+
+        // A slot nobody picks still takes the bookings the full slots pass on
+        assertEquals(20, bookings.size());
+        Set<String> tableTimes = new HashSet<>();
+        for (Booking booking : bookings) {
+            tableTimes.add(booking.getTableNumber() + "@" + booking.getDateTime());
+        }
+        assertEquals(20, tableTimes.size());
+    }
+
+    @Test
+    public void fakeBackend_servesGeneratedBookings() throws IOException {
+        SyntheticBookingGenerator generator = new SyntheticBookingGenerator.Config().setVenues(3, 40).build();
+        try (StubBookingServer server = new StubBookingServer()) {
+            server.serve(generator);
+            BookingApiService service = server.createService();
+
+            assertEquals(generator.getBookings(0, "2025-11-29"),
+                    service.getBookingsForDate("2025-11-29").execute().body());
+            assertEquals(generator.getBookings(2, "2025-11-30"),
+                    service.getBookingsForVenue("2", "2025-11-30").execute().body());
+            assertEquals(404, service.getBookingsForVenue("3", "2025-11-30").execute().code());
+        }
+    }
+
+    @Test
+    public void dummyProvider_isRepeatableAndCollisionFree() {
+        for (int day = 0; day < 100; day++) {
+            String date = FIRST_DATE.plusDays(day).toString();
+            List<Booking> bookings = DummyBookingProvider.getBookingsForDate(date);
+            assertEquals(bookings, DummyBookingProvider.getBookingsForDate(date));
+            assertTrue(bookings.size() >= 5 && bookings.size() <= 12);
+            Set<String> tableTimes = new HashSet<>();
+            for (Booking booking : bookings) {
+                assertTrue(tableTimes.add(booking.getTableNumber() + "@" + booking.getDateTime()));
+            }
+            List<Booking> sorted = new ArrayList<>(bookings);
+            sorted.sort((a, b) -> Long.compare(a.getStartEpochMinute(), b.getStartEpochMinute()));
+            assertEquals(sorted, bookings);
+        }
+    }
+}
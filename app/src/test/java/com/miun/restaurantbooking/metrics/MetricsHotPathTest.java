@@ -0,0 +1,103 @@
+package com.miun.restaurantbooking.metrics;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * The recording pattern used in the hot paths: a counter increment plus a timed histogram
+ * record per stage.
+ */
+public class MetricsHotPathTest {
+
+    private static final int OPERATIONS = 200_000;
+
+    @Test
+    public void disabled_skipsTheClockAndRecordsNothing() {
+        Metrics metrics = new Metrics();
+        // Disabled metrics stay in release builds, so the stage must not even read the clock
+        assertEquals(Metrics.NOT_TIMING, metrics.startTimer());
+        run(metrics, OPERATIONS);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.getCounter("stages"));
+        assertEquals(0, snapshot.getHistogram("stage").getCount());
+    }
+
+    @Test
+    public void enabled_recordsEveryStage() {
+        Metrics metrics = new Metrics();
+        metrics.setEnabled(true);
+        run(metrics, OPERATIONS);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(OPERATIONS, snapshot.getCounter("stages"));
+        assertEquals(OPERATIONS, snapshot.getHistogram("stage").getCount());
+    }
+
+    @Test
+    public void contended_losesNoUpdates() throws InterruptedException {
+        Metrics metrics = new Metrics();
+        metrics.setEnabled(true);
+        // Four threads recording into the same metrics, as the I/O pool does
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                run(metrics, OPERATIONS);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals((long) threads * OPERATIONS, snapshot.getCounter("stages"));
+        assertEquals((long) threads * OPERATIONS, snapshot.getHistogram("stage").getCount());
+    }
+
+    @Test
+    public void recording_allocatesNothing() {
+        Metrics disabled = new Metrics();
+        Metrics enabled = new Metrics();
+        enabled.setEnabled(true);
+
+        // A few bytes of slack for the measurement itself; boxing or a per-record object
+        // would cost at least 16 bytes per stage
+        assertTrue(allocatedDuring(disabled) < OPERATIONS / 100);
+        assertTrue(allocatedDuring(enabled) < OPERATIONS / 100);
+    }
+
+    private static long allocatedDuring(Metrics metrics) {
+        run(metrics, OPERATIONS); // warm up
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        run(metrics, OPERATIONS);
+        return threads.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private static void run(Metrics metrics, int operations) {
+        Counter counter = metrics.counter("stages");
+        Histogram histogram = metrics.timer("stage");
+        for (int i = 0; i < operations; i++) {
+            long start = metrics.startTimer();
+            counter.increment();
+            histogram.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.miun.restaurantbooking.metrics;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.HttpClientConfig;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recording, percentiles, snapshots and export of the metrics registry.
+ */
+public class MetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    public void disabled_recordsNothing() {
+        Counter counter = metrics.counter("c");
+        Histogram histogram = metrics.timer("t");
+
+        long start = metrics.startTimer();
+        counter.increment();
+        histogram.recordSince(start);
+        histogram.record(5);
+
+        assertEquals(Metrics.NOT_TIMING, start);
+        assertEquals(0, metrics.snapshot().getCounter("c"));
+        assertEquals(0, metrics.snapshot().getHistogram("t").getCount());
+    }
+
+    @Test
+    public void bucketBounds_coverEveryValueOnce() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int index = Histogram.bucketIndex(value);
+            assertTrue(Histogram.bucketLowerBound(index) <= value);
+            if (index + 1 < Histogram.BUCKETS) {
+                assertTrue(value < Histogram.bucketLowerBound(index + 1));
+            }
+        }
+        for (int index = 1; index < Histogram.BUCKETS; index++) {
+            assertEquals(index, Histogram.bucketIndex(Histogram.bucketLowerBound(index)));
+        }
+    }
+
+    @Test
+    public void percentiles_withinBucketPrecision() {
+        metrics.setEnabled(true);
+        Histogram histogram = metrics.timer("latency");
+        Random random = new Random(1);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal-ish latencies around a few milliseconds
+            values[i] = (long) (Math.exp(random.nextGaussian()) * 3_000_000);
+            histogram.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = snapshot.getPercentile(percentile);
+            assertEquals("p" + percentile, exact, estimate, exact * 0.125);
+        }
+    }
+
+    @Test
+    public void snapshot_formatsEveryMetric() {
+        metrics.setEnabled(true);
+        metrics.counter(Metrics.DISK_CACHE_HITS).add(3);
+        metrics.gauge(Metrics.MEMORY_CACHE_HITS, () -> 42);
+        metrics.timer(Metrics.PARSE).record(2_000_000);
+        metrics.histogram(Metrics.HTTP_PAYLOAD_BYTES, Histogram.Unit.BYTES).record(1024);
+
+        String text = metrics.snapshot().format();
+
+        assertTrue(text, text.contains("cache.disk.hits 3\n"));
+        assertTrue(text, text.contains("cache.memory.hits 42\n"));
+        assertTrue(text, text.contains("parse count=1 mean=2.00ms"));
+        assertTrue(text, text.contains("http.payload_bytes count=1 mean=1024B"));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getCounter(Metrics.DISK_CACHE_HITS));
+    }
+
+    @Test
+    public void fileExport_appendsAndRotates() throws Exception {
+        metrics.setEnabled(true);
+        metrics.counter("refreshes").increment();
+        File file = new File(folder.getRoot(), "metrics.txt");
+        MetricsExporter exporter = MetricsExporter.toFile(file, 100);
+
+        exporter.export(metrics.snapshot());
+        exporter.export(metrics.snapshot());
+        String twice = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertEquals(2, twice.split("refreshes 1\n", -1).length - 1);
+
+        for (int i = 0; i < 10; i++) {
+            exporter.export(metrics.snapshot());
+        }
+        assertTrue(new File(folder.getRoot(), "metrics.txt.old").exists());
+        assertTrue(file.length() < 200);
+    }
+
+    @Test
+    public void httpCalls_recordRequestFirstByteAndPayload() throws Exception {
+        metrics.setEnabled(true);
+        String json = new Gson().toJson(TestBookings.forDate("2025-11-29", 300, 1));
+        try (StubBookingServer server = new StubBookingServer()) {
+            server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json(json).delay(20));
+            BookingApiService service = server.createService(new HttpClientConfig(null).setMetrics(metrics).build());
+            service.getBookingsForDate("2025-11-29").execute();
+            service.getBookingsForDate("2025-11-29").execute();
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        Histogram.Snapshot request = snapshot.getHistogram(Metrics.HTTP_REQUEST);
+        Histogram.Snapshot firstByte = snapshot.getHistogram(Metrics.HTTP_FIRST_BYTE);
+        assertEquals(2, request.getCount());
+        assertEquals(2, firstByte.getCount());
+        assertTrue(firstByte.getPercentile(50) >= 15_000_000);
+        assertTrue(request.getMax() >= firstByte.getMax());
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length,
+                snapshot.getHistogram(Metrics.HTTP_PAYLOAD_BYTES).getMax(), json.length() * 0.125);
+        assertEquals(0, snapshot.getCounter(Metrics.HTTP_FAILURES));
+    }
+}
@@ -0,0 +1,102 @@
+package com.miun.restaurantbooking.model;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.miun.restaurantbooking.util.StringPool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips and string sharing of the compact booking list.
+ */
+public class CompactBookingListTest {
+
+    private static final int HISTORY_BOOKINGS = 100_000;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void roundTrip_preservesEveryBooking() {
+        List<Booking> bookings = Arrays.asList(
+                new Booking(7L, "Åsa Öberg", "070-123 45 67", 3, "2025-11-29T18:30:00", 4),
+                new Booking(3L, "Åsa Öberg", "070-123 45 67", -12, "1969-12-31T23:45:00", 2),
+                new Booking(null, "Walk-in", null, 1, "2025-11-29T18:30:00", 2),
+                new Booking(8L, null, "", 400, "2025-11-29T18:30", 0),
+                new Booking(9L, "", "073", Integer.MAX_VALUE, "2025-11-29T18:30:45", 1),
+                new Booking(10L, "Walk-in", "076", 1, null, Integer.MIN_VALUE),
+                new Booking(11L, "Walk-in", "076", Short.MIN_VALUE, "2025-11-29T19:00:00", Short.MAX_VALUE));
+        bookings.get(0).setVersion(42);
+        bookings.get(2).setVersion(Long.MAX_VALUE);
+
+        CompactBookingList compact = CompactBookingList.of(bookings, new StringPool(100));
+
+        assertEquals(bookings, compact);
+        for (int i = 0; i < bookings.size(); i++) {
+            assertEquals(bookings.get(i).getStartEpochMinute(), compact.get(i).getStartEpochMinute());
+        }
+        // Reading a booking hands out a copy
+        compact.get(0).setTableNumber(99);
+        assertEquals(3, compact.get(0).getTableNumber());
+        assertThrows(UnsupportedOperationException.class, () -> compact.add(bookings.get(0)));
+    }
+
+    @Test
+    public void repeatedNamesAndPhones_areShared() {
+        StringPool pool = new StringPool(100);
+        List<Booking> first = parse(gson.toJson(TestBookings.withRegulars("2025-11-01", 1, 50, 5, 1)));
+        List<Booking> second = parse(gson.toJson(TestBookings.withRegulars("2025-11-02", 1, 50, 5, 1)));
+
+        CompactBookingList a = CompactBookingList.of(first, pool);
+        CompactBookingList b = CompactBookingList.of(second, pool);
+
+        assertNotSame(first.get(0).getCustomerName(), second.get(0).getCustomerName());
+        assertSame(a.get(0).getCustomerName(), b.get(0).getCustomerName());
+        assertSame(a.get(0).getPhoneNumber(), b.get(0).getPhoneNumber());
+        assertTrue(pool.size() <= 10);
+    }
+
+    @Test
+    public void fullPool_startsOver() {
+        StringPool pool = new StringPool(2);
+        String anna = pool.intern(new String("Anna"));
+        pool.intern("Erik");
+        pool.intern("Maria");
+
+        assertEquals(1, pool.size());
+        assertNotSame(anna, pool.intern(new String("Anna")));
+    }
+
+    @Test
+    public void hundredThousandBookings_holdEachGuestsStringsOnce() {
+        // Parsed from JSON, like bookings from the server, so every booking has its own strings
+        List<Booking> full = parse(gson.toJson(TestBookings.withRegulars("2024-12-01", 334, 300, 2000, 7)
+                .subList(0, HISTORY_BOOKINGS)));
+        StringPool pool = new StringPool(2 * HISTORY_BOOKINGS);
+
+        CompactBookingList compact = CompactBookingList.of(full, pool);
+
+        assertEquals(HISTORY_BOOKINGS, compact.size());
+        assertEquals(full, compact);
+        // At most one name and one phone number per regular guest; the heap saved by this
+        // and the column arrays is measured by BookingFootprintBenchmark
+        assertTrue(pool.size() <= 2 * 2000);
+        Set<String> names = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Booking booking : compact) {
+            names.add(booking.getCustomerName());
+        }
+        assertTrue(names.size() <= 2000);
+    }
+
+    private List<Booking> parse(String json) {
+        return gson.fromJson(json, new TypeToken<ArrayList<Booking>>() { }.getType());
+    }
+}
@@ -0,0 +1,75 @@
+package com.miun.restaurantbooking.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds predictable booking lists for tests.
+ */
+public final class TestBookings {
+
+    private TestBookings() {
+    }
+
+    /**
+     * Create bookings for one date, spread over the evening in 15-minute slots.
+     *
+     * @param date    Date string in format YYYY-MM-DD
+     * @param count   Number of bookings
+     * @param firstId ID of the first booking, the rest are numbered consecutively
+     * @return List of bookings sorted by time
+     */
+    public static List<Booking> forDate(String date, int count, long firstId) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int minuteOfDay = 11 * 60 + (i * 15 / Math.max(1, count / 48 + 1)) % (12 * 60);
+            String dateTime = String.format("%sT%02d:%02d:00", date, minuteOfDay / 60, minuteOfDay % 60 / 15 * 15);
+            bookings.add(new Booking(firstId + i, "Gäst " + (firstId + i), "070-" + (1000000 + firstId + i),
+                    1 + i % 40, dateTime, 2 + i % 6));
+        }
+        return bookings;
+    }
+
+    /**
+     * Create bookings for consecutive days, made by a pool of regular guests who each keep
+     * their name and phone number, like the traffic of a real restaurant.
+     *
+     * @param firstDate First date, format YYYY-MM-DD
+     * @param days      Number of days
+     * @param perDay    Bookings per day
+     * @param guests    Number of distinct guests
+     * @param seed      Seed for the random choices
+     * @return Bookings sorted by day and time
+     */
+    public static List<Booking> withRegulars(String firstDate, int days, int perDay, int guests, long seed) {
+        String[] firstNames = {"Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Emma", "Mikael", "Sofia",
+                "Anders", "Lisa", "Peter", "Sara", "Magnus", "Helena", "Oskar", "Elin", "Åsa", "Björn"};
+        String[] lastNames = {"Andersson", "Eriksson", "Johansson", "Larsson", "Nilsson", "Karlsson",
+                "Svensson", "Gustafsson", "Pettersson", "Jonsson", "Persson", "Olsson", "Lindberg", "Öberg"};
+        Random random = new Random(seed);
+        String[] names = new String[guests];
+        String[] phones = new String[guests];
+        for (int i = 0; i < guests; i++) {
+            names[i] = firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+            phones[i] = String.format("07%d-%03d %02d %02d", random.nextInt(10), random.nextInt(1000),
+                    random.nextInt(100), random.nextInt(100));
+        }
+
+        List<Booking> bookings = new ArrayList<>(days * perDay);
+        LocalDate date = LocalDate.parse(firstDate);
+        long id = 1;
+        for (int day = 0; day < days; day++, date = date.plusDays(1)) {
+            for (int i = 0; i < perDay; i++) {
+                // Spread over the 11:30 to 21:15 sittings in time order
+                int minuteOfDay = 11 * 60 + 30 + i * 40 / perDay * 15;
+                int guest = random.nextInt(guests);
+                bookings.add(new Booking(id++, names[guest], phones[guest], 1 + random.nextInt(40),
+                        String.format("%sT%02d:%02d:00", date, minuteOfDay / 60, minuteOfDay % 60),
+                        1 + random.nextInt(8)));
+            }
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,181 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loads a week at three venues from a local stub that answers every request after a fixed
+ * latency, and checks that the concurrency limit is kept while partial results arrive
+ * merged and in order.
+ */
+public class BatchBookingLoaderTest {
+
+    private static final long LATENCY_MILLIS = 60;
+    private static final int BOOKINGS_PER_REQUEST = 8;
+    private static final List<String> VENUES = Arrays.asList(null, "harbour", "old-town");
+    private static final String FROM_DATE = "2025-11-24";
+    private static final String TO_DATE = "2025-11-30";
+    private static final int REQUESTS = 7 * 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final BlockingQueue<BookingBatch> batches = new LinkedBlockingQueue<>();
+    private StubBookingServer server;
+    private BookingRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request -> {
+            String venue = request.query.get("venue");
+            if ("closed".equals(venue)) {
+                return StubBookingServer.Response.status(500);
+            }
+            int running = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(running, Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return StubBookingServer.Response.json(gson.toJson(bookings(venue, request.query.get("date"))));
+        });
+        repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+        server.close();
+    }
+
+    @Test
+    public void concurrencyLimit_isReachedAndNeverExceeded() throws InterruptedException {
+        for (int limit : new int[]{1, 2, 4}) {
+            maxInFlight.set(0);
+            BookingBatch result = load(limit);
+            assertEquals(REQUESTS * BOOKINGS_PER_REQUEST, result.getBookings().size());
+            assertEquals(limit, maxInFlight.get());
+        }
+        assertEquals(3 * REQUESTS, server.getRequestCount("/api/getTodaysBookings"));
+    }
+
+    @Test
+    public void partialResults_areMergedInOrder() throws InterruptedException {
+        repository.getBookingsForVenues(FROM_DATE, TO_DATE, VENUES, 3, batch -> {
+            assertTrue(TestExecutors.isMainThread());
+            batches.add(batch);
+        });
+
+        List<Booking> previous = new ArrayList<>();
+        for (int loaded = 1; loaded <= REQUESTS; loaded++) {
+            BookingBatch batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            assertEquals(loaded, batch.getLoadedRequests());
+            assertEquals(REQUESTS, batch.getTotalRequests());
+            assertEquals(loaded == REQUESTS, batch.isComplete());
+            assertEquals(loaded * BOOKINGS_PER_REQUEST, batch.getBookings().size());
+            assertTrue(batch.getBookings().containsAll(previous));
+            assertSorted(batch);
+            previous = batch.getBookings();
+        }
+        assertTrue(batches.isEmpty());
+        assertEquals(REQUESTS, server.getRequestCount("/api/getTodaysBookings"));
+
+        // The app's own venue is cached like a single-date fetch
+        assertEquals(bookings(null, FROM_DATE), repository.getMemoryCache().get(FROM_DATE));
+        assertNull(repository.getMemoryCache().get("2025-11-23"));
+    }
+
+    @Test
+    public void failedVenue_isReportedAndTheRestStillLoads() throws InterruptedException {
+        repository.getBookingsForVenues(FROM_DATE, TO_DATE, Arrays.asList("harbour", "closed"), 2, batches::add);
+
+        BookingBatch batch = awaitComplete();
+        assertEquals(7 * BOOKINGS_PER_REQUEST, batch.getBookings().size());
+        assertEquals(7, batch.getErrors().size());
+        assertTrue(batch.getErrors().get(0).startsWith("closed 2025-11-"));
+        for (int i = 0; i < batch.getBookings().size(); i++) {
+            assertEquals("harbour", batch.getVenue(i));
+        }
+    }
+
+    @Test
+    public void cancel_stopsSendingRequests() throws InterruptedException {
+        BatchBookingLoader loader = repository.getBookingsForVenues(FROM_DATE, TO_DATE, VENUES, 1, batches::add);
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+        loader.cancel();
+
+        Thread.sleep(LATENCY_MILLIS * 3);
+        assertTrue(server.getRequestCount("/api/getTodaysBookings") <= 2);
+        assertTrue(batches.isEmpty());
+    }
+
+    private BookingBatch load(int limit) throws InterruptedException {
+        batches.clear();
+        repository.getBookingsForVenues(FROM_DATE, TO_DATE, VENUES, limit, batches::add);
+        return awaitComplete();
+    }
+
+    private BookingBatch awaitComplete() throws InterruptedException {
+        while (true) {
+            BookingBatch batch = batches.poll(10, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            if (batch.isComplete()) {
+                return batch;
+            }
+        }
+    }
+
+    private static void assertSorted(BookingBatch batch) {
+        List<Booking> bookings = batch.getBookings();
+        for (int i = 1; i < bookings.size(); i++) {
+            assertTrue(DeltaSyncState.BY_TIME.compare(bookings.get(i - 1), bookings.get(i)) <= 0);
+        }
+        for (int i = 0; i < bookings.size(); i++) {
+            String venue = batch.getVenue(i);
+            assertEquals(venue == null ? "Home" : venue, bookings.get(i).getCustomerName());
+        }
+    }
+
+    /**
+     * Bookings spread over the evening, with IDs unique across venues and dates.
+     */
+    private static List<Booking> bookings(String venue, String date) {
+        int venueIndex = VENUES.indexOf(venue);
+        int day = Integer.parseInt(date.substring(8));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_PER_REQUEST; i++) {
+            long id = (day * 10L + venueIndex) * 100 + i;
+            int minute = 17 * 60 + i * 30 + venueIndex * 10;
+            String time = String.format("%sT%02d:%02d:00", date, minute / 60, minute % 60);
+            bookings.add(new Booking(id, venue == null ? "Home" : venue, "070", i + 1, time, 2));
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,90 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BookingDiskCacheTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storedBookings_surviveANewCacheInstance() throws Exception {
+        MutableClock clock = new MutableClock(0);
+        List<Booking> bookings = TestBookings.forDate("2025-11-27", 20, 1);
+
+        new BookingDiskCache(folder.getRoot(), HOUR, 5, clock).put("2025-11-27", bookings);
+
+        assertEquals(bookings, new BookingDiskCache(folder.getRoot(), HOUR, 5, clock).get("2025-11-27"));
+    }
+
+    @Test
+    public void expiredEntry_isReportedAsMissing() {
+        MutableClock clock = new MutableClock(0);
+        BookingDiskCache cache = new BookingDiskCache(folder.getRoot(), HOUR, 5, clock);
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 3, 1));
+
+        clock.advance(HOUR - 1);
+        assertNotNull(cache.get("2025-11-27"));
+
+        clock.advance(2);
+        assertNull(cache.get("2025-11-27"));
+        assertTrue(cache.getCachedDates().isEmpty());
+    }
+
+    @Test
+    public void sizeCap_evictsOldestDates() {
+        BookingDiskCache cache = new BookingDiskCache(folder.getRoot(), HOUR, 3, new MutableClock(0));
+        for (String date : Arrays.asList("2025-11-29", "2025-11-25", "2025-11-27", "2025-11-26", "2025-11-28")) {
+            cache.put(date, TestBookings.forDate(date, 2, 1));
+        }
+
+        assertEquals(Arrays.asList("2025-11-27", "2025-11-28", "2025-11-29"), cache.getCachedDates());
+        assertNull(cache.get("2025-11-25"));
+    }
+
+    @Test
+    public void sizeCap_keepsAPastDateJustStored() {
+        MutableClock clock = new MutableClock(0);
+        BookingDiskCache cache = new BookingDiskCache(folder.getRoot(), HOUR, 3, clock);
+        for (String date : Arrays.asList("2025-11-27", "2025-11-28", "2025-11-29")) {
+            clock.advance(1000);
+            cache.put(date, TestBookings.forDate(date, 2, 1));
+        }
+
+        clock.advance(1000);
+        List<Booking> pastDay = TestBookings.forDate("2025-10-01", 2, 1);
+        cache.put("2025-10-01", pastDay);
+
+        assertEquals(Arrays.asList("2025-10-01", "2025-11-28", "2025-11-29"), cache.getCachedDates());
+        assertEquals(pastDay, cache.get("2025-10-01"));
+    }
+
+    @Test
+    public void sizeCap_evictsTheLeastRecentlyReadDate() {
+        MutableClock clock = new MutableClock(0);
+        BookingDiskCache cache = new BookingDiskCache(folder.getRoot(), HOUR, 3, clock);
+        for (String date : Arrays.asList("2025-11-27", "2025-11-28", "2025-11-29")) {
+            clock.advance(1000);
+            cache.put(date, TestBookings.forDate(date, 2, 1));
+        }
+
+        clock.advance(1000);
+        assertNotNull(cache.get("2025-11-27"));
+        clock.advance(1000);
+        cache.put("2025-11-30", TestBookings.forDate("2025-11-30", 2, 1));
+
+        assertEquals(Arrays.asList("2025-11-27", "2025-11-29", "2025-11-30"), cache.getCachedDates());
+    }
+}
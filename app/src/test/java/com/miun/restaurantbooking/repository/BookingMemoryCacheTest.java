@@ -0,0 +1,77 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BookingMemoryCacheTest {
+
+    private final MutableClock clock = new MutableClock(1_000_000L);
+    private final BookingMemoryCache cache = new BookingMemoryCache(250, clock);
+
+    @Test
+    public void leastRecentlyUsedDates_areEvictedByBookingCount() {
+        cache.put("2025-11-26", TestBookings.forDate("2025-11-26", 100, 1));
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 100, 101));
+        // Reading the 26th makes the 27th the least recently used
+        assertNotNull(cache.get("2025-11-26"));
+        cache.put("2025-11-28", TestBookings.forDate("2025-11-28", 100, 201));
+
+        assertEquals(Arrays.asList("2025-11-26", "2025-11-28"), cache.getDates());
+        assertEquals(200, cache.getBookingCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("2025-11-27"));
+    }
+
+    @Test
+    public void compactMode_returnsEqualBookings() {
+        BookingMemoryCache compact = new BookingMemoryCache(250, clock, true);
+        compact.put("2025-11-27", TestBookings.withRegulars("2025-11-27", 1, 100, 20, 1));
+        compact.put("2025-11-28", TestBookings.withRegulars("2025-11-28", 1, 200, 20, 1));
+
+        assertEquals(TestBookings.withRegulars("2025-11-28", 1, 200, 20, 1), compact.get("2025-11-28"));
+        assertEquals(Collections.singletonList("2025-11-28"), compact.getDates());
+        assertEquals(200, compact.getBookingCount());
+    }
+
+    @Test
+    public void hitsAndMisses_areCounted() {
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 10, 1));
+        cache.get("2025-11-27");
+        cache.get("2025-11-27");
+        cache.get("2025-11-28");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void replacingADate_updatesTheBookingCount() {
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 100, 1));
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 40, 1));
+        assertEquals(40, cache.getBookingCount());
+
+        // A date larger than the whole cache is not kept
+        cache.put("2025-11-28", TestBookings.forDate("2025-11-28", 300, 1));
+        assertEquals(Collections.singletonList("2025-11-27"), cache.getDates());
+    }
+
+    @Test
+    public void freshness_followsTheClockWithoutTouchingCounters() {
+        cache.put("2025-11-26", TestBookings.forDate("2025-11-26", 10, 1));
+        cache.put("2025-11-27", TestBookings.forDate("2025-11-27", 10, 11));
+        clock.advance(60_000);
+
+        assertTrue(cache.isFresh("2025-11-26", 60_000));
+        assertFalse(cache.isFresh("2025-11-26", 59_999));
+        assertFalse(cache.isFresh("2025-11-28", 60_000));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+        // isFresh does not count as a use, so the 26th is still the least recently used
+        assertEquals(Arrays.asList("2025-11-26", "2025-11-27"), cache.getDates());
+    }
+}
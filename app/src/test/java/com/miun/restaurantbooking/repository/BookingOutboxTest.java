@@ -0,0 +1,520 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingMutation;
+import com.miun.restaurantbooking.model.MutationResult;
+import com.miun.restaurantbooking.model.TestBookings;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Offline booking changes against a local stub backend that loses requests and responses.
+ */
+public class BookingOutboxTest {
+
+    private static final String DATE = "2025-11-29";
+    private static final String MUTATIONS_PATH = "/api/bookingMutations";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final FlakyBackend backend = new FlakyBackend();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<List<Booking>> uiModel = new AtomicReference<>();
+    private final AppExecutors executors = TestExecutors.create();
+    private StubBookingServer server;
+    private BookingRepository repository;
+    private File outboxFile;
+
+    @Before
+    public void setUp() throws Exception {
+        for (Booking booking : TestBookings.forDate(DATE, 30, 1)) {
+            booking.setVersion(1);
+            backend.bookings.put(booking.getBookingId(), booking);
+        }
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request ->
+                StubBookingServer.Response.json(gson.toJson(backend.bookings())));
+        server.setHandler(MUTATIONS_PATH, backend::handle);
+        outboxFile = new File(folder.getRoot(), "outbox.json");
+        repository = createRepository();
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+        server.close();
+    }
+
+    @Test
+    public void flakyServer_convergesWithoutDuplicates() throws Exception {
+        loadDate();
+        backend.dropRate = 0.3;
+
+        // The host's intent, by guest name: what the server should end up with
+        Map<String, Booking> intended = new TreeMap<>();
+        for (Booking booking : backend.bookings()) {
+            intended.put(booking.getCustomerName(), booking);
+        }
+        Random random = new Random(42);
+        int operations = 150;
+        for (int i = 0; i < operations; i++) {
+            List<String> names = new ArrayList<>(intended.keySet());
+            int action = random.nextInt(10);
+            if (action < 3 || names.isEmpty()) {
+                String name = "Walk-in " + i;
+                Booking walkIn = new Booking(null, name, "070-" + (2000000 + i), 1 + random.nextInt(40),
+                        String.format("%sT%02d:%02d:00", DATE, 11 + random.nextInt(11), random.nextInt(4) * 15),
+                        1 + random.nextInt(8));
+                intended.put(name, walkIn);
+                onMain(() -> repository.createBooking(walkIn, recordingCallback()));
+                awaitUi(bookings -> find(bookings, name) != null);
+            } else if (action < 7) {
+                String name = names.get(random.nextInt(names.size()));
+                Booking original = awaitShown(name, intended.get(name));
+                Booking changed = original.copy();
+                changed.setTableNumber(1 + random.nextInt(40));
+                changed.setNumberOfGuests(1 + random.nextInt(8));
+                intended.put(name, changed);
+                onMain(() -> repository.updateBooking(original, changed, recordingCallback()));
+                awaitShown(name, changed);
+            } else {
+                String name = names.get(random.nextInt(names.size()));
+                Booking original = awaitShown(name, intended.get(name));
+                intended.remove(name);
+                onMain(() -> repository.cancelBooking(original, recordingCallback()));
+                awaitUi(bookings -> find(bookings, name) == null);
+            }
+            Thread.sleep(10);
+        }
+
+        waitFor(() -> repository.getPendingChangeCount() == 0, 60000);
+        List<Booking> stored = backend.bookings();
+        awaitUi(stored::equals);
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(intended.size(), stored.size());
+        for (Booking booking : stored) {
+            assertTrue(booking.toString(), sameFields(intended.get(booking.getCustomerName()), booking));
+        }
+        // Lost responses were answered from the idempotency record instead of being applied twice
+        assertEquals(1, backend.maxApplications());
+        assertTrue(backend.replayed.get() > 0);
+        assertTrue(backend.dropped.get() > 0);
+    }
+
+    @Test
+    public void unsentChanges_areFolded() throws Exception {
+        loadDate();
+        CountDownLatch queued = new CountDownLatch(1);
+        onMain(() -> {
+            Booking original = find(uiModel.get(), "Gäst 3");
+            Booking first = original.copy();
+            first.setTableNumber(31);
+            repository.updateBooking(original, first, recordingCallback());
+            Booking second = first.copy();
+            second.setNumberOfGuests(7);
+            repository.updateBooking(first, second, recordingCallback());
+
+            Booking walkIn = new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2);
+            repository.createBooking(walkIn, recordingCallback());
+            repository.cancelBooking(find(uiModel.get(), "Gäst 4"), recordingCallback());
+            queued.countDown();
+        });
+        queued.await();
+        awaitUi(bookings -> find(bookings, "Walk-in") != null);
+        onMain(() -> repository.cancelBooking(find(uiModel.get(), "Walk-in"), recordingCallback()));
+
+        waitFor(() -> repository.getPendingChangeCount() == 0, 10000);
+        awaitUi(backend.bookings()::equals);
+        // Two updates folded into one, and the walk-in never reached the server
+        assertEquals(2, backend.applied.size());
+        Booking updated = find(backend.bookings(), "Gäst 3");
+        assertEquals(31, updated.getTableNumber());
+        assertEquals(7, updated.getNumberOfGuests());
+        assertEquals(2, updated.getVersion());
+        assertNull(find(backend.bookings(), "Gäst 4"));
+    }
+
+    @Test
+    public void conflicts_mergeOrKeepServerVersion() throws Exception {
+        loadDate();
+
+        // Someone else changes the guests; the host moves the booking: both are kept
+        Booking shown = find(uiModel.get(), "Gäst 5");
+        backend.edit(shown.getBookingId(), booking -> booking.setNumberOfGuests(12));
+        Booking moved = shown.copy();
+        moved.setTableNumber(33);
+        onMain(() -> repository.updateBooking(shown, moved, recordingCallback()));
+        waitFor(() -> {
+            Booking stored = find(backend.bookings(), "Gäst 5");
+            return stored.getTableNumber() == 33 && stored.getNumberOfGuests() == 12;
+        }, 10000);
+        assertTrue(errors.isEmpty());
+
+        // Both change the table: the server's version wins
+        Booking other = find(uiModel.get(), "Gäst 6");
+        backend.edit(other.getBookingId(), booking -> booking.setTableNumber(7));
+        Booking changed = other.copy();
+        changed.setTableNumber(9);
+        onMain(() -> repository.updateBooking(other, changed, recordingCallback()));
+
+        waitFor(() -> !errors.isEmpty(), 10000);
+        waitFor(() -> repository.getPendingChangeCount() == 0, 10000);
+        awaitUi(backend.bookings()::equals);
+        assertEquals(7, find(uiModel.get(), "Gäst 6").getTableNumber());
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void queuedChanges_surviveRestart() throws Exception {
+        loadDate();
+        backend.down = true;
+        onMain(() -> {
+            repository.createBooking(new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2),
+                    recordingCallback());
+            repository.cancelBooking(find(uiModel.get(), "Gäst 8"), recordingCallback());
+        });
+        waitFor(() -> repository.getOutboxFlusher().getFailureCount() > 0, 10000);
+        repository.close();
+        assertTrue(outboxFile.exists());
+
+        backend.down = false;
+        repository = createRepository();
+        assertEquals(2, repository.getPendingChangeCount());
+
+        waitFor(() -> repository.getPendingChangeCount() == 0, 10000);
+        assertNotNull(find(backend.bookings(), "Walk-in"));
+        assertNull(find(backend.bookings(), "Gäst 8"));
+        assertEquals(2, backend.applied.size());
+    }
+
+    @Test
+    public void rotation_keepsOneFlusherOnTheSharedOutbox() throws Exception {
+        BookingDataScope scope = new BookingDataScope(new BookingDiskCache(folder.newFolder()),
+                new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_BOOKINGS, java.time.Clock.systemUTC()),
+                new BookingOutbox(new File(folder.getRoot(), "shared-outbox.json"), executors.io()));
+        repository.close();
+        BookingRepository before = new BookingRepository(server.createService(), scope, executors);
+        repository = before;
+        loadDate();
+
+        // The first change is in flight when the screen is recreated
+        server.setDelay(300);
+        List<String> destroyedScreen = Collections.synchronizedList(new ArrayList<>());
+        Booking original = find(uiModel.get(), "Gäst 3");
+        Booking first = original.copy();
+        first.setTableNumber(31);
+        onMain(() -> before.updateBooking(original, first, new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                destroyedScreen.add("Bookings after " + (before.isClosed() ? "close" : "change"));
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                destroyedScreen.add(errorMessage);
+            }
+        }));
+        waitFor(() -> server.getRequestCount(MUTATIONS_PATH) > 0, 10000);
+        onMain(before::close);
+        BookingRepository after = new BookingRepository(server.createService(), scope, executors);
+        repository = after;
+        Booking second = first.copy();
+        second.setTableNumber(32);
+        second.setNumberOfGuests(7);
+        onMain(() -> after.updateBooking(first, second, recordingCallback()));
+
+        waitFor(() -> after.getPendingChangeCount() == 0, 10000);
+        awaitUi(backend.bookings()::equals);
+        scope.close();
+
+        assertSame(before.getOutboxFlusher(), after.getOutboxFlusher());
+        // Both changes applied once, the second on top of the first
+        assertEquals(2, backend.applied.size());
+        assertEquals(1, backend.maxApplications());
+        Booking stored = find(backend.bookings(), "Gäst 3");
+        assertEquals(32, stored.getTableNumber());
+        assertEquals(7, stored.getNumberOfGuests());
+        assertEquals(3, stored.getVersion());
+        assertEquals(Collections.singletonList("Bookings after change"), destroyedScreen);
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void queuedChanges_areShownFirstAfterRestart() {
+        File file = new File(folder.getRoot(), "restart-outbox.json");
+        BookingOutbox before = new BookingOutbox(file, Runnable::run);
+        before.create(new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2));
+
+        // The first delivery after a restart comes before anything else reads the outbox
+        List<Booking> shown = new BookingOutbox(file, Runnable::run).applyPending(DATE, backend.bookings());
+
+        assertEquals(backend.bookings().size() + 1, shown.size());
+        assertNotNull(find(shown, "Walk-in"));
+    }
+
+    @Test
+    public void existingQueue_isReadOnTheIoExecutor() {
+        File file = new File(folder.getRoot(), "eager-outbox.json");
+        new BookingOutbox(file, Runnable::run).create(new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2));
+        List<Runnable> io = new ArrayList<>();
+
+        BookingOutbox outbox = new BookingOutbox(file, io::add);
+
+        assertEquals(1, io.size());
+        io.get(0).run();
+        assertEquals(1, outbox.size());
+        // Nothing changed, so nothing was written back
+        assertEquals(1, io.size());
+    }
+
+    @Test
+    public void queuedChanges_areAppliedOffTheMainThread() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        BookingOutbox outbox = new BookingOutbox(null, executors.io()) {
+            @Override
+            public synchronized List<Booking> applyPending(String date, List<Booking> bookings) {
+                threads.add(Thread.currentThread().getName());
+                return super.applyPending(date, bookings);
+            }
+        };
+        repository.close();
+        repository = new BookingRepository(server.createService(), new BookingDiskCache(folder.newFolder()),
+                new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_BOOKINGS, java.time.Clock.systemUTC()),
+                outbox, executors);
+        loadDate();
+        onMain(() -> repository.createBooking(new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2),
+                recordingCallback()));
+        waitFor(() -> repository.getPendingChangeCount() == 0, 10000);
+        awaitUi(backend.bookings()::equals);
+
+        assertFalse(threads.isEmpty());
+        assertFalse(threads.toString(), threads.contains(TestExecutors.MAIN_THREAD_NAME));
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void unansweredChanges_areSentAgainAfterABackoff() throws Exception {
+        server.setHandler(MUTATIONS_PATH, request -> StubBookingServer.Response.json("[]"));
+        BookingOutbox outbox = new BookingOutbox(null, Runnable::run);
+        outbox.create(new Booking(null, "Walk-in", "070", 5, DATE + "T19:00:00", 2));
+        OutboxFlusher flusher = new OutboxFlusher(server.createService(), outbox, executors,
+                (batch, results) -> {
+                }, 10, 0, 200, 1000);
+
+        flusher.requestFlush();
+        waitFor(() -> flusher.getFailureCount() >= 2, 10000);
+        flusher.close();
+
+        // One request per backoff instead of a request loop
+        assertTrue(server.getRequestCount(MUTATIONS_PATH) <= flusher.getFailureCount() + 1);
+        assertEquals(1, outbox.size());
+    }
+
+    private BookingRepository createRepository() {
+        return new BookingRepository(server.createService(), new BookingDiskCache(folder.getRoot()),
+                new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_BOOKINGS, java.time.Clock.systemUTC()),
+                new BookingOutbox(outboxFile, executors.io()), executors);
+    }
+
+    private void loadDate() throws InterruptedException {
+        onMain(() -> repository.getBookingsForDate(DATE, recordingCallback()));
+        awaitUi(backend.bookings()::equals);
+    }
+
+    /**
+     * A callback standing in for the adapter: it checks that every list arrives on the
+     * main thread, sorted and without duplicates, and keeps the latest one.
+     */
+    private BookingRepository.BookingCallback recordingCallback() {
+        return new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                Map<Long, Booking> ids = new HashMap<>();
+                for (int i = 0; i < bookings.size(); i++) {
+                    Booking booking = bookings.get(i);
+                    if (ids.put(booking.getBookingId(), booking) != null) {
+                        failures.add("Duplicate booking " + booking.getBookingId());
+                    }
+                    if (i > 0 && booking.getStartEpochMinute() < bookings.get(i - 1).getStartEpochMinute()) {
+                        failures.add("Bookings out of order at " + i);
+                    }
+                }
+                if (!TestExecutors.isMainThread()) {
+                    failures.add("Delivered on " + Thread.currentThread().getName());
+                }
+                uiModel.set(bookings);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                errors.add(errorMessage);
+            }
+        };
+    }
+
+    private void onMain(Runnable action) {
+        executors.mainThread().execute(action);
+    }
+
+    /**
+     * Wait until the shown bookings have the host's last change to a guest's booking,
+     * and return the booking as shown.
+     */
+    private Booking awaitShown(String name, Booking intended) throws InterruptedException {
+        awaitUi(bookings -> sameFields(intended, find(bookings, name)));
+        return find(uiModel.get(), name);
+    }
+
+    private void awaitUi(Predicate<List<Booking>> condition) throws InterruptedException {
+        waitFor(() -> uiModel.get() != null && condition.test(uiModel.get()), 10000);
+    }
+
+    private static void waitFor(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static Booking find(List<Booking> bookings, String name) {
+        for (Booking booking : bookings) {
+            if (name.equals(booking.getCustomerName())) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compare everything the host can change, ignoring ID and version.
+     */
+    private static boolean sameFields(Booking expected, Booking actual) {
+        return expected != null && actual != null
+                && expected.getTableNumber() == actual.getTableNumber()
+                && expected.getNumberOfGuests() == actual.getNumberOfGuests()
+                && expected.getDateTime().equals(actual.getDateTime())
+                && expected.getPhoneNumber().equals(actual.getPhoneNumber());
+    }
+
+    /**
+     * Server-side booking store with versions and an idempotency record. A share of the
+     * mutation requests is lost, half of them before and half after they were applied.
+     */
+    private class FlakyBackend {
+        final Map<Long, Booking> bookings = new HashMap<>();
+        final Map<String, MutationResult> results = new HashMap<>();
+        final Map<String, Integer> applied = Collections.synchronizedMap(new HashMap<>());
+        final AtomicInteger dropped = new AtomicInteger();
+        final AtomicInteger replayed = new AtomicInteger();
+        final Random random = new Random(7);
+        volatile double dropRate;
+        volatile boolean down;
+        long nextId = 1000;
+
+        StubBookingServer.Response handle(StubBookingServer.Request request) throws IOException {
+            if (down) {
+                return StubBookingServer.Response.status(503);
+            }
+            double roll;
+            synchronized (random) {
+                roll = random.nextDouble();
+            }
+            if (roll < dropRate / 2) {
+                dropped.incrementAndGet();
+                throw new IOException("Request lost");
+            }
+            List<MutationResult> answers = new ArrayList<>();
+            for (BookingMutation mutation : gson.fromJson(request.body, BookingMutation[].class)) {
+                answers.add(apply(mutation));
+            }
+            if (roll < dropRate) {
+                dropped.incrementAndGet();
+                throw new IOException("Response lost");
+            }
+            return StubBookingServer.Response.json(gson.toJson(answers));
+        }
+
+        synchronized MutationResult apply(BookingMutation mutation) {
+            String key = mutation.getIdempotencyKey();
+            MutationResult earlier = results.get(key);
+            if (earlier != null) {
+                replayed.incrementAndGet();
+                return earlier;
+            }
+            Booking current = bookings.get(mutation.getBookingId());
+            MutationResult result;
+            if (mutation.getType() == BookingMutation.Type.CREATE) {
+                Booking created = mutation.getBooking().copy();
+                created.setBookingId(nextId++);
+                created.setVersion(1);
+                bookings.put(created.getBookingId(), created);
+                result = new MutationResult(key, MutationResult.Status.APPLIED, created, null);
+            } else if (current == null || current.getVersion() != mutation.getBaseVersion()) {
+                result = new MutationResult(key, MutationResult.Status.CONFLICT, current, null);
+            } else if (mutation.getType() == BookingMutation.Type.UPDATE) {
+                Booking updated = mutation.getBooking().copy();
+                updated.setVersion(current.getVersion() + 1);
+                bookings.put(updated.getBookingId(), updated);
+                result = new MutationResult(key, MutationResult.Status.APPLIED, updated, null);
+            } else {
+                bookings.remove(current.getBookingId());
+                result = new MutationResult(key, MutationResult.Status.APPLIED, null, null);
+            }
+            if (result.getStatus() == MutationResult.Status.APPLIED) {
+                applied.merge(key, 1, Integer::sum);
+            }
+            results.put(key, result);
+            return result;
+        }
+
+        synchronized void edit(long id, java.util.function.Consumer<Booking> change) {
+            Booking edited = bookings.get(id).copy();
+            change.accept(edited);
+            edited.setVersion(edited.getVersion() + 1);
+            bookings.put(id, edited);
+        }
+
+        synchronized List<Booking> bookings() {
+            List<Booking> sorted = new ArrayList<>(bookings.values());
+            sorted.sort(DeltaSyncState.BY_TIME);
+            return sorted;
+        }
+
+        int maxApplications() {
+            synchronized (applied) {
+                return applied.isEmpty() ? 0 : Collections.max(applied.values());
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingEvent;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pushed booking changes against a local stub backend that replays an event stream.
+ */
+public class BookingPushTest {
+
+    private static final String DATE = "2025-11-29";
+    private static final String EVENTS_PATH = "/api/bookingEvents";
+    private static final int EVENTS_PER_SECOND = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final StubBackend backend = new StubBackend();
+    private final List<String> failures = new ArrayList<>();
+    private final AtomicReference<List<Booking>> uiModel = new AtomicReference<>();
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private StubBookingServer server;
+    private BookingRepository repository;
+    private ScheduledExecutorService generator;
+
+    /**
+     * Events a connection sends before the server drops it, forcing a reconnect.
+     */
+    private volatile int eventsPerConnection = Integer.MAX_VALUE;
+
+    /**
+     * Connection on which the server loses one event, forcing a gap recovery.
+     */
+    private volatile int connectionWithLostEvent = -1;
+
+    /**
+     * Whether a full fetch tells the cursor it was taken at.
+     */
+    private volatile boolean sendCursor = true;
+
+    @Before
+    public void setUp() throws Exception {
+        for (Booking booking : TestBookings.forDate(DATE, 300, 1)) {
+            backend.upsert(booking);
+        }
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request -> backend.fullFetch());
+        server.setHandler("/api/getBookingChanges", request ->
+                backend.changesSince(Long.parseLong(request.query.get("since"))));
+        server.setHandler(EVENTS_PATH, request -> {
+            String lastEventId = request.header("Last-Event-ID");
+            // Without a cursor the stream starts at the current version
+            long cursor = lastEventId == null ? backend.version() : Long.parseLong(lastEventId);
+            int connection = server.getRequestCount(EVENTS_PATH);
+            return StubBookingServer.Response.streamed("text/event-stream",
+                    out -> backend.replay(out, cursor, eventsPerConnection, connection == connectionWithLostEvent));
+        });
+        repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+        generator = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        generator.shutdownNow();
+        repository.close();
+        server.close();
+    }
+
+    @Test
+    public void pushedChanges_keepUiModelConsistent() throws Exception {
+        eventsPerConnection = 150;
+        connectionWithLostEvent = 2;
+        BookingPushChannel channel = repository.subscribeToBookings(DATE, recordingCallback());
+        awaitModel(backend.bookings());
+
+        int events = 600;
+        AtomicInteger generated = new AtomicInteger();
+        Random random = new Random(42);
+        generator.scheduleAtFixedRate(() -> {
+            if (generated.incrementAndGet() <= events) {
+                backend.randomChange(random);
+            }
+        }, 0, 1000 / EVENTS_PER_SECOND, TimeUnit.MILLISECONDS);
+
+        while (generated.get() < events) {
+            Thread.sleep(50);
+        }
+        awaitModel(backend.bookings());
+
+        synchronized (failures) {
+            assertTrue(failures.toString(), failures.isEmpty());
+        }
+        // One full fetch; dropped connections and the lost event were recovered with delta syncs
+        assertEquals(1, server.getRequestCount("/api/getTodaysBookings"));
+        assertTrue(server.getRequestCount("/api/getBookingChanges") >= 3);
+        assertTrue(channel.getConnectionCount() >= 4);
+        assertTrue(channel.getRecoveryCount() >= 1);
+        assertEquals(backend.bookings().size(), repository.getOccupancyIndex().size());
+        assertEquals(backend.bookings(), repository.getMemoryCache().get(DATE));
+        // Deliveries are coalesced when events arrive faster than the main thread takes them
+        assertTrue(deliveries.get() <= events + 1);
+    }
+
+    @Test
+    public void serverResync_refetchesDate() throws Exception {
+        repository.subscribeToBookings(DATE, recordingCallback());
+        awaitModel(backend.bookings());
+
+        backend.delete(5L);
+        backend.requestResync();
+
+        awaitModel(backend.bookings());
+        assertEquals(2, server.getRequestCount("/api/getTodaysBookings"));
+    }
+
+    @Test
+    public void subscription_joinsTheFetchOfTheShownDate() throws Exception {
+        server.setHandler("/api/getTodaysBookings", request -> backend.fullFetch().delay(500));
+        repository.getBookingsForDate(DATE, recordingCallback());
+        repository.subscribeToBookings(DATE, recordingCallback());
+        awaitModel(backend.bookings());
+
+        backend.delete(5L);
+        awaitModel(backend.bookings());
+        assertEquals(1, server.getRequestCount("/api/getTodaysBookings"));
+    }
+
+    @Test
+    public void serverWithoutCursor_refetchesOnReconnect() throws Exception {
+        sendCursor = false;
+        eventsPerConnection = 1;
+        BookingPushChannel channel = repository.subscribeToBookings(DATE, recordingCallback());
+        awaitModel(backend.bookings());
+        waitFor(channel::isConnected);
+
+        backend.delete(5L);
+        awaitModel(backend.bookings());
+        waitFor(() -> channel.getConnectionCount() >= 2 && channel.isConnected());
+        backend.randomChange(new Random(7));
+        awaitModel(backend.bookings());
+
+        synchronized (failures) {
+            assertTrue(failures.toString(), failures.isEmpty());
+        }
+        assertTrue(server.getRequestCount("/api/getTodaysBookings") >= 2);
+    }
+
+    @Test
+    public void repeatedResyncs_areBackedOff() throws Exception {
+        server.setHandler(EVENTS_PATH, request -> StubBookingServer.Response.status(410));
+        AtomicInteger catchUps = new AtomicInteger();
+        BookingPushChannel channel = new BookingPushChannel(server.createService(), DATE,
+                new BookingPushChannel.Handler() {
+                    @Override
+                    public Long catchUp() {
+                        catchUps.incrementAndGet();
+                        return 0L;
+                    }
+
+                    @Override
+                    public boolean onEvent(BookingEvent event) {
+                        return true;
+                    }
+
+                    @Override
+                    public void onResync() {
+                    }
+                }, 100, 1000);
+        channel.start();
+        try {
+            Thread.sleep(1000);
+        } finally {
+            channel.close();
+        }
+
+        // Immediate the first time, then 50-100, 100-200, 200-400 and 400-800 ms apart
+        assertTrue(channel.getRecoveryCount() >= 3);
+        assertTrue(String.valueOf(catchUps.get()), catchUps.get() <= 6);
+    }
+
+    @Test
+    public void close_stopsDeliveriesAndReconnects() throws Exception {
+        BookingPushChannel channel = repository.subscribeToBookings(DATE, recordingCallback());
+        awaitModel(backend.bookings());
+        waitFor(channel::isConnected);
+
+        repository.close();
+        waitFor(() -> !channel.isConnected());
+        int delivered = deliveries.get();
+        int requests = server.getRequestCount(EVENTS_PATH);
+
+        backend.randomChange(new Random(1));
+        Thread.sleep(3 * BookingPushChannel.DEFAULT_INITIAL_BACKOFF_MILLIS);
+        assertEquals(delivered, deliveries.get());
+        assertEquals(requests, server.getRequestCount(EVENTS_PATH));
+    }
+
+    /**
+     * A callback standing in for the adapter: it checks that every list it receives is on
+     * the main thread, sorted and free of duplicates, and keeps the latest one.
+     */
+    private BookingRepository.BookingCallback recordingCallback() {
+        return new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                deliveries.incrementAndGet();
+                Set<Long> ids = new HashSet<>();
+                for (int i = 0; i < bookings.size(); i++) {
+                    Booking booking = bookings.get(i);
+                    if (!ids.add(booking.getBookingId())) {
+                        fail("Duplicate booking " + booking.getBookingId());
+                    }
+                    if (i > 0 && booking.getStartEpochMinute() < bookings.get(i - 1).getStartEpochMinute()) {
+                        fail("Bookings out of order at " + i);
+                    }
+                }
+                if (!TestExecutors.isMainThread()) {
+                    fail("Delivered on " + Thread.currentThread().getName());
+                }
+                uiModel.set(bookings);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                fail(errorMessage);
+            }
+
+            private void fail(String failure) {
+                synchronized (failures) {
+                    failures.add(failure);
+                }
+            }
+        };
+    }
+
+    private void awaitModel(List<Booking> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15000;
+        while (!expected.equals(uiModel.get()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, uiModel.get());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Server-side booking store that records every change as an event, numbered by version.
+     */
+    private class StubBackend {
+        private final Map<Long, Booking> bookings = new HashMap<>();
+        private final Map<Long, Long> changedAt = new HashMap<>();
+        private final Map<Long, Long> deletedAt = new HashMap<>();
+        private final List<String> events = new ArrayList<>();
+        private long version;
+        private long nextId = 10000;
+        private boolean resyncRequested;
+
+        synchronized void upsert(Booking booking) {
+            String type = bookings.containsKey(booking.getBookingId()) ? "updated" : "created";
+            bookings.put(booking.getBookingId(), booking);
+            changedAt.put(booking.getBookingId(), ++version);
+            deletedAt.remove(booking.getBookingId());
+            record(type, gson.toJson(booking));
+        }
+
+        synchronized void delete(long id) {
+            bookings.remove(id);
+            changedAt.remove(id);
+            deletedAt.put(id, ++version);
+            record("cancelled", "{\"id\":" + id + "}");
+        }
+
+        synchronized void randomChange(Random random) {
+            List<Long> ids = new ArrayList<>(bookings.keySet());
+            int action = random.nextInt(3);
+            if (action == 0 || ids.isEmpty()) {
+                long id = nextId++;
+                String dateTime = String.format("%sT%02d:%02d:00", DATE, 11 + random.nextInt(11), random.nextInt(4) * 15);
+                upsert(new Booking(id, "Walk-in " + id, "070-" + (2000000 + id), 1 + random.nextInt(40),
+                        dateTime, 1 + random.nextInt(8)));
+            } else if (action == 1) {
+                Booking moved = bookings.get(ids.get(random.nextInt(ids.size())));
+                upsert(new Booking(moved.getBookingId(), moved.getCustomerName(), moved.getPhoneNumber(),
+                        1 + random.nextInt(40), moved.getDateTime(), moved.getNumberOfGuests()));
+            } else {
+                delete(ids.get(random.nextInt(ids.size())));
+            }
+        }
+
+        synchronized void requestResync() {
+            resyncRequested = true;
+            notifyAll();
+        }
+
+        synchronized List<Booking> bookings() {
+            TreeMap<String, Booking> sorted = new TreeMap<>();
+            for (Booking booking : bookings.values()) {
+                sorted.put(booking.getDateTime()
+                        + String.format("%04d%08d", booking.getTableNumber(), booking.getBookingId()), booking);
+            }
+            return new ArrayList<>(sorted.values());
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized StubBookingServer.Response fullFetch() {
+            resyncRequested = false;
+            StubBookingServer.Response response = StubBookingServer.Response.json(gson.toJson(bookings()));
+            return sendCursor
+                    ? response.header(BookingApiService.SYNC_CURSOR_HEADER, String.valueOf(version))
+                    : response;
+        }
+
+        synchronized StubBookingServer.Response changesSince(long cursor) {
+            List<Booking> updated = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : changedAt.entrySet()) {
+                if (entry.getValue() > cursor) {
+                    updated.add(bookings.get(entry.getKey()));
+                }
+            }
+            List<Long> deleted = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : deletedAt.entrySet()) {
+                if (entry.getValue() > cursor) {
+                    deleted.add(entry.getKey());
+                }
+            }
+            return StubBookingServer.Response.json(gson.toJson(new BookingChanges(version, updated, deleted)));
+        }
+
+        /**
+         * Write the events after a cursor as they are recorded, until the connection's
+         * share of events is sent or the test ends.
+         */
+        void replay(OutputStream out, long cursor, int maxEvents, boolean loseOne) throws java.io.IOException {
+            long next = cursor + 1;
+            boolean lost = !loseOne;
+            for (int sent = 0; sent < maxEvents; sent++) {
+                String event;
+                synchronized (this) {
+                    try {
+                        while (next > events.size() && !resyncRequested) {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (resyncRequested) {
+                        event = "event: resync\ndata: {}\n\n";
+                    } else {
+                        event = events.get((int) (next++ - 1));
+                    }
+                }
+                if (!lost) {
+                    lost = true;
+                    continue;
+                }
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (event.startsWith("event: resync")) {
+                    return;
+                }
+            }
+        }
+
+        private void record(String type, String json) {
+            events.add("id: " + version + "\nevent: " + type + "\ndata: " + json + "\n\n");
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.CircuitBreaker;
+import com.miun.restaurantbooking.api.ResiliencePolicy;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.metrics.Metrics;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * First data with and without the disk cache, against a slow local server.
+ */
+public class BookingRepositoryCacheTest {
+
+    private static final String DATE = "2025-11-27";
+    private static final long SERVER_DELAY_MILLIS = 800;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubBookingServer server;
+    private volatile String responseJson;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setDelay(SERVER_DELAY_MILLIS);
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json(responseJson));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void warmCache_servesFirstDataBeforeTheNetwork() throws Exception {
+        List<Booking> bookings = TestBookings.forDate(DATE, 300, 1);
+        responseJson = new Gson().toJson(bookings);
+
+        // Cold start: the first data is the server's answer
+        RecordingCallback cold = fetch(newRepository());
+        assertTrue(cold.awaitResults(1));
+        assertEquals(1, server.getRequestCount());
+
+        // Warm start: cached data is delivered while the server is held back
+        CountDownLatch answer = new CountDownLatch(1);
+        server.setHandler("/api/getTodaysBookings", request -> {
+            try {
+                answer.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return StubBookingServer.Response.json(responseJson);
+        });
+        RecordingCallback warm = fetch(newRepository());
+        assertTrue(warm.awaitResults(1));
+        assertEquals(bookings, warm.results.get(0));
+
+        // Revalidation finds no change
+        answer.countDown();
+        Thread.sleep(SERVER_DELAY_MILLIS * 2);
+        assertEquals(1, warm.results.size());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void changedServerData_isPushedAfterCachedData() throws Exception {
+        responseJson = new Gson().toJson(TestBookings.forDate(DATE, 10, 1));
+        assertTrue(fetch(newRepository()).awaitResults(1));
+
+        List<Booking> changed = TestBookings.forDate(DATE, 11, 1);
+        responseJson = new Gson().toJson(changed);
+
+        RecordingCallback callback = fetch(newRepository());
+        assertTrue(callback.awaitResults(2));
+        assertEquals(10, callback.results.get(0).size());
+        assertEquals(changed, callback.results.get(1));
+    }
+
+    @Test
+    public void serverError_withCachedData_keepsCachedData() throws Exception {
+        responseJson = new Gson().toJson(TestBookings.forDate(DATE, 10, 1));
+        assertTrue(fetch(newRepository()).awaitResults(1));
+
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.status(500));
+        RecordingCallback callback = fetch(newRepository());
+        assertTrue(callback.awaitResults(1));
+
+        Thread.sleep(SERVER_DELAY_MILLIS * 2);
+        assertEquals(1, callback.results.size());
+        assertTrue(callback.errors.isEmpty());
+    }
+
+    @Test
+    public void openCircuit_servesExpiredCacheWithoutRequests() throws Exception {
+        server.setDelay(0);
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.status(503));
+        MutableClock clock = new MutableClock(0);
+        BookingDiskCache diskCache = new BookingDiskCache(folder.getRoot(), 1000, 5, clock);
+        List<Booking> bookings = TestBookings.forDate(DATE, 10, 1);
+        diskCache.put(DATE, bookings);
+        clock.advance(2000);
+
+        ResiliencePolicy policy = new ResiliencePolicy().setMaxAttempts(1).setCircuitBreaker(1, 60_000)
+                .setClock(clock).setMetrics(new Metrics());
+        BookingApiService service = server.createService(policy);
+        assertEquals(503, service.getBookingsForDate(DATE).execute().code());
+        assertEquals(CircuitBreaker.State.OPEN, policy.getCircuitBreaker().getState());
+
+        BookingRepository repository = new BookingRepository(service, diskCache, TestExecutors.create());
+        repository.setCircuitBreaker(policy.getCircuitBreaker());
+        RecordingCallback callback = fetch(repository);
+        assertTrue(callback.awaitResults(1));
+        assertEquals(bookings, callback.results.get(0));
+
+        Thread.sleep(200);
+        assertEquals(1, server.getRequestCount());
+        assertTrue(callback.errors.isEmpty());
+    }
+
+    private BookingRepository newRepository() {
+        return new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+    }
+
+    private RecordingCallback fetch(BookingRepository repository) {
+        RecordingCallback callback = new RecordingCallback();
+        repository.getBookingsForDate(DATE, callback);
+        return callback;
+    }
+
+    static class RecordingCallback implements BookingRepository.BookingCallback {
+        final List<List<Booking>> results = new CopyOnWriteArrayList<>();
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        private final CountDownLatch resultLatch = new CountDownLatch(2);
+
+        @Override
+        public void onSuccess(List<Booking> bookings) {
+            results.add(bookings);
+            resultLatch.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            errors.add(errorMessage);
+        }
+
+        boolean awaitResults(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (results.size() < count && System.nanoTime() < deadline) {
+                resultLatch.await(10, TimeUnit.MILLISECONDS);
+            }
+            return results.size() >= count;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The search index against a linear scan. Build and query times are measured by
+ * BookingSearchIndexBenchmark.
+ */
+public class BookingSearchIndexTest {
+
+    private static final int BOOKINGS = 50_000;
+    private static final String[] FIRST_NAMES = {"Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Emma",
+            "Mikael", "Sofia", "Anders", "Åsa", "Björn", "Märta", "Örjan", "Zoë"};
+    private static final String[] LAST_NAMES = {"Andersson", "Eriksson", "Johansson", "Larsson", "Nilsson",
+            "Karlsson", "Svensson", "Gustafsson", "Pettersson", "Öberg", "Lindström", "Ahlqvist"};
+
+    private static List<Booking> bookings;
+    private static BookingSearchIndex index;
+
+    @BeforeClass
+    public static void buildIndex() {
+        Random random = new Random(3);
+        bookings = new ArrayList<>(BOOKINGS);
+        for (long id = 1; id <= BOOKINGS; id++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String phone = String.format("07%d-%03d %02d %02d", random.nextInt(10), random.nextInt(1000),
+                    random.nextInt(100), random.nextInt(100));
+            bookings.add(new Booking(id, name, phone, 1 + random.nextInt(40), "2025-11-27T19:00:00",
+                    1 + random.nextInt(8)));
+        }
+        index = new BookingSearchIndex(bookings);
+    }
+
+    @Test
+    public void smallIndex_matchesNamesAndPhoneNumbers() {
+        BookingSearchIndex small = new BookingSearchIndex(Arrays.asList(
+                new Booking(1L, "Anna Andersson", "070-456 78 90", 4, "2025-11-27T18:00:00", 2),
+                new Booking(2L, "Åsa O'Brien", "+46 73-987 65 43", 7, "2025-11-27T19:00:00", 5),
+                new Booking(3L, "Erik Öberg", "076-234 56 78", 4, "2025-11-27T20:00:00", 6)));
+
+        assertEquals(ids(1), ids(small.search(text("ann"))));
+        assertEquals(ids(1), ids(small.search(text("anders"))));
+        assertEquals(ids(2), ids(small.search(text("asa"))));
+        assertEquals(ids(2), ids(small.search(text("o'brien"))));
+        assertEquals(ids(3), ids(small.search(text("OBERG"))));
+        assertEquals(ids(1), ids(small.search(text("070-45"))));
+        assertEquals(ids(1), ids(small.search(text("567 89"))));
+        assertEquals(ids(2), ids(small.search(text("9876"))));
+        assertEquals(ids(1, 3), ids(small.search(text("0"))));
+        assertEquals(ids(3), ids(small.search(text("erik 076"))));
+        assertEquals(ids(), ids(small.search(text("anna 076"))));
+        assertEquals(ids(1, 3), ids(small.search(new BookingFilter().setTableNumber(4))));
+        assertEquals(ids(2, 3), ids(small.search(new BookingFilter().setGuests(4, 8))));
+        assertEquals(ids(1, 2, 3), ids(small.search(new BookingFilter())));
+    }
+
+    @Test
+    public void queries_matchALinearScan() {
+        String[] queries = {"a", "an", "ann", "sson", "asa", "lind", "ma ka", "070", "07", "45", "070-45",
+                "12 34", "zoe", "björn ahl", "oberg 072", "anders", "lindström", "76-12", "maria k", "öberg 07"};
+        for (String query : queries) {
+            assertEquals(query, ids(linearScan(text(query))), ids(index.search(text(query))));
+            BookingFilter filter = text(query).setGuests(2, 6);
+            assertEquals(query, ids(linearScan(filter)), ids(index.search(filter)));
+        }
+    }
+
+    /**
+     * Reference implementation: normalize every booking for every query.
+     */
+    private static List<Booking> linearScan(BookingFilter filter) {
+        String text = filter.getText();
+        boolean hasLetters = text.chars().anyMatch(Character::isLetter);
+        List<Booking> results = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (!filter.matchesTableAndGuests(booking)) {
+                continue;
+            }
+            String name = BookingSearchIndex.normalizeName(booking.getCustomerName());
+            String phone = BookingSearchIndex.digitsOf(booking.getPhoneNumber());
+            boolean matches;
+            if (!hasLetters) {
+                String digits = BookingSearchIndex.digitsOf(text);
+                matches = matches(name, digits) || matches(phone, digits);
+            } else {
+                matches = true;
+                for (String word : text.trim().split("\\s+")) {
+                    if (word.chars().anyMatch(Character::isLetter)) {
+                        matches &= matches(name, BookingSearchIndex.normalizeName(word));
+                    } else {
+                        String digits = BookingSearchIndex.digitsOf(word);
+                        matches &= matches(name, digits) || matches(phone, digits);
+                    }
+                }
+            }
+            if (matches) {
+                results.add(booking);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Short terms match the start of a word, longer ones anywhere.
+     */
+    private static boolean matches(String value, String term) {
+        if (term.length() >= 3) {
+            return value.contains(term);
+        }
+        for (String word : value.split(" ")) {
+            if (word.startsWith(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BookingFilter text(String text) {
+        return new BookingFilter().setText(text);
+    }
+
+    private static List<Long> ids(List<Booking> bookings) {
+        List<Long> ids = new ArrayList<>();
+        for (Booking booking : bookings) {
+            ids.add(booking.getBookingId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<Long> ids(long... ids) {
+        List<Long> list = new ArrayList<>();
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,93 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Debouncing and delivery of searches while the host types.
+ */
+public class BookingSearchTest {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final List<BookingFilter> delivered = new CopyOnWriteArrayList<>();
+    private final List<List<Booking>> results = new CopyOnWriteArrayList<>();
+    private final List<String> offMainThread = new CopyOnWriteArrayList<>();
+    private BookingSearch search;
+
+    @Before
+    public void setUp() throws Exception {
+        search = new BookingSearch(TestExecutors.create(), DEBOUNCE_MILLIS, (bookings, filter) -> {
+            if (!TestExecutors.isMainThread()) {
+                offMainThread.add(Thread.currentThread().getName());
+            }
+            delivered.add(filter);
+            results.add(bookings);
+        });
+        search.setBookings(TestBookings.forDate("2025-11-27", 500, 1));
+        awaitDeliveries(1);
+        delivered.clear();
+        results.clear();
+    }
+
+    @After
+    public void tearDown() {
+        search.close();
+    }
+
+    @Test
+    public void burstOfKeystrokes_searchesOnlyTheLastQuery() throws Exception {
+        String typed = "Gäst 12";
+        for (int i = 1; i <= typed.length(); i++) {
+            search.setFilter(new BookingFilter().setText(typed.substring(0, i)));
+            Thread.sleep(DEBOUNCE_MILLIS / 5);
+        }
+        awaitDeliveries(1);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+
+        assertEquals(1, delivered.size());
+        assertEquals(typed, delivered.get(0).getText());
+        // "Gäst 12", "Gäst 120".."Gäst 129", "Gäst 12x" for ids 120-129 and 12
+        assertEquals(11, results.get(0).size());
+        assertTrue(offMainThread.isEmpty());
+    }
+
+    @Test
+    public void newBookings_areSearchedWithTheCurrentQuery() throws Exception {
+        search.setFilter(new BookingFilter().setText("gast 7"));
+        awaitDeliveries(1);
+        int before = results.get(0).size();
+
+        search.setBookings(TestBookings.forDate("2025-11-27", 1000, 1));
+        awaitDeliveries(2);
+        assertEquals("gast 7", delivered.get(1).getText());
+        assertTrue(results.get(1).size() > before);
+    }
+
+    @Test
+    public void close_stopsDelivery() throws Exception {
+        search.setFilter(new BookingFilter().setText("gast"));
+        search.close();
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertTrue(delivered.isEmpty());
+    }
+
+    private void awaitDeliveries(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delivered.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue("Expected " + count + " deliveries, got " + delivered.size(), delivered.size() >= count);
+    }
+}
@@ -0,0 +1,204 @@
+package com.miun.restaurantbooking.repository;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Order, lookups, time ranges and change notifications of {@link BookingTimeline},
+ * checked against a list sorted after every change.
+ */
+public class BookingTimelineTest {
+
+    private static final String DATE = "2025-11-29";
+
+    @Test
+    public void bookings_areKeptInTimeOrder() {
+        List<Booking> bookings = Arrays.asList(
+                booking(1, "19:00", 4),
+                booking(2, "18:00", 7),
+                booking(3, "18:00", 2),
+                booking(4, "not a time", 1),
+                booking(5, "18:00", 2));
+        BookingTimeline timeline = new BookingTimeline();
+        for (Booking booking : bookings) {
+            timeline.put(booking);
+        }
+
+        assertEquals(Arrays.asList(4L, 3L, 5L, 2L, 1L), ids(timeline.toList()));
+        assertEquals(sorted(bookings), timeline.toList());
+        assertEquals(5, timeline.size());
+        assertSame(bookings.get(1), timeline.get(2));
+        assertEquals(3, timeline.indexOf(2));
+        assertSame(bookings.get(1), timeline.getAt(3));
+        assertNull(timeline.get(99));
+        assertEquals(-1, timeline.indexOf(99));
+    }
+
+    @Test
+    public void arrivingWithin_returnsTheNextBookingsOnly() {
+        BookingTimeline timeline = new BookingTimeline();
+        timeline.setAll(Arrays.asList(
+                booking(1, "17:30", 2),
+                booking(2, "17:45", 2),
+                booking(3, "18:00", 2),
+                booking(4, "18:15", 2),
+                booking(5, "18:16", 2),
+                booking(6, "not a time", 2)));
+        long now = DateFormatter.parseEpochMinute(DATE + "T17:45:00");
+
+        assertEquals(Arrays.asList(2L, 3L, 4L), ids(timeline.getArrivingWithin(now, 30)));
+        assertEquals(Arrays.asList(2L, 3L), ids(timeline.getStartingBetween(now, now + 30)));
+        assertTrue(timeline.getStartingBetween(now, now).isEmpty());
+    }
+
+    @Test
+    public void changes_areNotifiedAtTheirPositions() {
+        List<String> events = new ArrayList<>();
+        BookingTimeline timeline = new BookingTimeline(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                events.add("insert " + position + "+" + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                events.add("remove " + position + "+" + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                events.add("move " + fromPosition + ">" + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                events.add("change " + position + "+" + count);
+            }
+        });
+        timeline.setAll(Arrays.asList(booking(1, "18:00", 1), booking(2, "19:00", 1), booking(3, "20:00", 1)));
+        timeline.put(booking(4, "18:30", 1));
+
+        // The same booking again is no change
+        timeline.put(booking(4, "18:30", 1));
+        Booking renamed = booking(4, "18:30", 1);
+        renamed.setCustomerName("Åsa Öberg");
+        timeline.put(renamed);
+        timeline.put(booking(1, "21:00", 1));
+        timeline.remove(2);
+        assertNull(timeline.remove(2));
+
+        assertEquals(Arrays.asList("insert 0+3", "insert 1+1", "change 1+1", "move 0>3", "change 3+1",
+                "remove 1+1"), events);
+        assertEquals(Arrays.asList(4L, 3L, 1L), ids(timeline.toList()));
+    }
+
+    @Test
+    public void randomChanges_matchASortedListAndItsNotifications() {
+        Random random = new Random(24);
+        List<Booking> mirror = new ArrayList<>();
+        BookingTimeline[] holder = new BookingTimeline[1];
+        // Applies the notifications like an adapter would, reading new items from the timeline
+        BookingTimeline timeline = new BookingTimeline(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                for (int i = 0; i < count; i++) {
+                    mirror.add(position + i, holder[0].getAt(position + i));
+                }
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                mirror.subList(position, position + count).clear();
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                mirror.add(toPosition, mirror.remove(fromPosition));
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                for (int i = 0; i < count; i++) {
+                    mirror.set(position + i, holder[0].getAt(position + i));
+                }
+            }
+        });
+        holder[0] = timeline;
+        Map<Long, Booking> expected = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextInt(4) == 0) {
+                assertSame(expected.remove(id), timeline.remove(id));
+            } else {
+                // Few times and tables, so many bookings share both
+                String time = String.format("%02d:%02d", 17 + random.nextInt(4), random.nextInt(4) * 15);
+                Booking booking = new Booking(id, "Gäst " + random.nextInt(3), null,
+                        1 + random.nextInt(5), DATE + "T" + time + ":00", 2);
+                expected.put(id, booking);
+                timeline.put(booking);
+            }
+            if (step % 50 == 0) {
+                List<Booking> sorted = sorted(new ArrayList<>(expected.values()));
+                assertEquals(sorted, timeline.toList());
+                assertEquals(sorted, mirror);
+                for (int i = 0; i < sorted.size(); i += 7) {
+                    assertEquals(i, timeline.indexOf(sorted.get(i).getBookingId()));
+                }
+            }
+        }
+        assertEquals(mirror, timeline.toList());
+    }
+
+    @Test
+    public void largeTimeline_staysBalanced() {
+        // Bookings arriving in time order would make an unbalanced search tree a list
+        int count = 200_000;
+        BookingTimeline timeline = new BookingTimeline();
+        long first = DateFormatter.parseEpochMinute(DATE + "T00:00:00");
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking((long) i, "Gäst", null, i % 40,
+                    DateFormatter.toIsoString(first + i / 40), 2);
+            bookings.add(booking);
+            timeline.put(booking);
+        }
+
+        assertEquals(count, timeline.size());
+        assertEquals(bookings, timeline.toList());
+        assertEquals(count / 2, timeline.indexOf(count / 2));
+        assertEquals(40, timeline.getArrivingWithin(first + 100, 0).size());
+    }
+
+    private static Booking booking(long id, String time, int table) {
+        String dateTime = time.contains(":") ? DATE + "T" + time + ":00" : time;
+        return new Booking(id, "Gäst " + id, "0701234567", table, dateTime, 2);
+    }
+
+    private static List<Booking> sorted(List<Booking> bookings) {
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort(DeltaSyncState.BY_TIME);
+        return sorted;
+    }
+
+    private static List<Long> ids(List<Booking> bookings) {
+        List<Long> ids = new ArrayList<>();
+        for (Booking booking : bookings) {
+            ids.add(booking.getBookingId());
+        }
+        return ids;
+    }
+}
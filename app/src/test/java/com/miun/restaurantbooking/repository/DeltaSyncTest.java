@@ -0,0 +1,171 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.BookingApiService;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Delta sync against a local stub backend that tracks a version per change.
+ */
+public class DeltaSyncTest {
+
+    private static final String DATE = "2025-11-29";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final StubBackend backend = new StubBackend();
+    private StubBookingServer server;
+    private BookingRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        for (Booking booking : TestBookings.forDate(DATE, 300, 1)) {
+            backend.upsert(booking);
+        }
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request -> backend.fullFetch());
+        server.setHandler("/api/getBookingChanges", request ->
+                backend.changesSince(Long.parseLong(request.query.get("since"))));
+        repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void sync_downloadsOnlyChangedBookings() throws Exception {
+        assertEquals(backend.bookings(), sync());
+        long fullBytes = server.getBodyBytesSent();
+
+        Booking moved = backend.get(10L);
+        backend.upsert(new Booking(10L, moved.getCustomerName(), moved.getPhoneNumber(), 33,
+                moved.getDateTime(), moved.getNumberOfGuests()));
+        backend.delete(20L);
+        backend.upsert(new Booking(1000L, "Walk-in", "070-000 00 00", 7, DATE + "T19:00:00", 2));
+
+        assertEquals(backend.bookings(), sync());
+        long deltaBytes = server.getBodyBytesSent() - fullBytes;
+
+        assertEquals(1, server.getRequestCount("/api/getTodaysBookings"));
+        assertEquals(1, server.getRequestCount("/api/getBookingChanges"));
+        assertTrue(deltaBytes * 50 < fullBytes);
+    }
+
+    @Test
+    public void rejectedCursor_fallsBackToFullFetch() throws Exception {
+        sync();
+        backend.delete(5L);
+        backend.expireHistory();
+
+        assertEquals(backend.bookings(), sync());
+        assertEquals(2, server.getRequestCount("/api/getTodaysBookings"));
+        assertEquals(1, server.getRequestCount("/api/getBookingChanges"));
+    }
+
+    private List<Booking> sync() throws InterruptedException {
+        AtomicReference<List<Booking>> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        repository.syncBookingsForDate(DATE, new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                result.set(bookings);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    /**
+     * Server-side booking store that records the version at which each booking last changed.
+     */
+    private class StubBackend {
+        private final Map<Long, Booking> bookings = new HashMap<>();
+        private final Map<Long, Long> changedAt = new HashMap<>();
+        private final Map<Long, Long> deletedAt = new HashMap<>();
+        private long version;
+        private long oldestCursor;
+
+        synchronized void upsert(Booking booking) {
+            bookings.put(booking.getBookingId(), booking);
+            changedAt.put(booking.getBookingId(), ++version);
+            deletedAt.remove(booking.getBookingId());
+        }
+
+        synchronized void delete(long id) {
+            bookings.remove(id);
+            changedAt.remove(id);
+            deletedAt.put(id, ++version);
+        }
+
+        synchronized Booking get(long id) {
+            return bookings.get(id);
+        }
+
+        synchronized void expireHistory() {
+            oldestCursor = version;
+        }
+
+        synchronized List<Booking> bookings() {
+            TreeMap<String, Booking> sorted = new TreeMap<>();
+            for (Booking booking : bookings.values()) {
+                sorted.put(booking.getDateTime() + String.format("%04d", booking.getTableNumber()), booking);
+            }
+            return new ArrayList<>(sorted.values());
+        }
+
+        synchronized StubBookingServer.Response fullFetch() {
+            return StubBookingServer.Response.json(gson.toJson(bookings()))
+                    .header(BookingApiService.SYNC_CURSOR_HEADER, String.valueOf(version));
+        }
+
+        synchronized StubBookingServer.Response changesSince(long cursor) {
+            if (cursor < oldestCursor) {
+                return StubBookingServer.Response.status(410);
+            }
+            List<Booking> updated = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : changedAt.entrySet()) {
+                if (entry.getValue() > cursor) {
+                    updated.add(bookings.get(entry.getKey()));
+                }
+            }
+            List<Long> deleted = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : deletedAt.entrySet()) {
+                if (entry.getValue() > cursor) {
+                    deleted.add(entry.getKey());
+                }
+            }
+            return StubBookingServer.Response.json(gson.toJson(new BookingChanges(version, updated, deleted)));
+        }
+    }
+}
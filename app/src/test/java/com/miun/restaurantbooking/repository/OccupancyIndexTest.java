@@ -0,0 +1,182 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingChanges;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OccupancyIndexTest {
+
+    private static final String DATE = "2025-11-27";
+    private static final int DURATION = OccupancyIndex.DEFAULT_DURATION_MINUTES;
+
+    private OccupancyIndex index;
+
+    @Before
+    public void setUp() {
+        index = new OccupancyIndex();
+        for (int table = 1; table <= 6; table++) {
+            index.setTableCapacity(table, table <= 3 ? 2 : 6);
+        }
+    }
+
+    @Test
+    public void bookedTable_isBusyForTheWholeDuration() {
+        index.put(booking(1, 2, "19:00"));
+
+        assertTrue(index.isFree(2, at("16:45")));
+        assertFalse(index.isFree(2, at("17:15")));
+        assertFalse(index.isFree(2, at("20:45")));
+        assertTrue(index.isFree(2, at("21:00")));
+        assertTrue(index.isFree(3, at("19:00")));
+    }
+
+    @Test
+    public void freeTables_respectCapacityAndBookings() {
+        index.put(booking(1, 4, "19:00"));
+        index.put(booking(2, 1, "18:00"));
+
+        assertArrayEquals(new int[]{5, 6}, index.getFreeTables(at("19:30"), 4));
+        assertArrayEquals(new int[]{2, 3, 5, 6}, index.getFreeTables(at("19:30"), 2));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, index.getFreeTables(at("12:00"), 1));
+    }
+
+    @Test
+    public void movedAndRemovedBookings_updateTheIndex() {
+        index.put(booking(1, 2, "19:00"));
+        index.put(booking(1, 2, "12:00"));
+
+        assertEquals(1, index.size());
+        assertTrue(index.isFree(2, at("19:00")));
+        assertFalse(index.isFree(2, at("12:00")));
+
+        assertTrue(index.remove(1));
+        assertTrue(index.isFree(2, at("12:00")));
+        assertFalse(index.remove(1));
+    }
+
+    @Test
+    public void overlappingBookings_areReportedAsConflicts() {
+        index.put(booking(1, 2, "19:00"));
+        index.put(booking(2, 2, "20:00"));
+        index.put(booking(3, 2, "22:00"));
+
+        assertEquals(Arrays.asList(1L, 2L), sorted(index.getConflicts(2, at("19:30"))));
+        assertEquals(Collections.singletonList(1L), index.getConflicts(booking(2, 2, "20:00")));
+
+        // Removing one of two overlapping bookings keeps the other's slots occupied
+        index.remove(2);
+        assertFalse(index.isFree(2, at("20:30")));
+        assertFalse(index.isFree(2, at("21:00")));
+    }
+
+    @Test
+    public void lateBooking_spillsIntoTheNextDay() {
+        index.put(booking(1, 2, "23:30"));
+
+        assertFalse(index.isFree(2, DateFormatter.parseEpochMinute("2025-11-28T00:30:00")));
+        assertTrue(index.isFree(2, DateFormatter.parseEpochMinute("2025-11-28T01:30:00")));
+
+        index.replaceDate(DATE, Collections.emptyList());
+        assertEquals(0, index.size());
+        assertTrue(index.isFree(2, DateFormatter.parseEpochMinute("2025-11-28T00:30:00")));
+    }
+
+    @Test
+    public void nextAvailableSlot_skipsOccupiedSlots() {
+        index.put(booking(1, 2, "18:00"));
+        index.put(booking(2, 2, "20:00"));
+
+        assertEquals(at("22:00"), index.nextAvailableSlot(2, at("17:00"), 12 * 60));
+        assertEquals(at("17:00"), index.nextAvailableSlot(3, at("16:50"), 60));
+        assertEquals(DateFormatter.NO_TIME, index.nextAvailableSlot(2, at("17:00"), 60));
+
+        for (int table = 4; table <= 6; table++) {
+            index.put(booking(10 + table, table, "18:00"));
+        }
+        assertEquals(at("20:00"), index.nextAvailableSlot(at("18:00"), 5, 6 * 60));
+    }
+
+    @Test
+    public void deltaChanges_areAppliedIncrementally() {
+        index.replaceDate(DATE, Arrays.asList(booking(1, 1, "18:00"), booking(2, 2, "18:00")));
+        index.apply(new BookingChanges(2, Collections.singletonList(booking(3, 3, "18:00")),
+                Collections.singletonList(1L)));
+
+        assertArrayEquals(new int[]{1, 4, 5, 6}, index.getFreeTables(at("18:00"), 2));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void manyTables_keepTheirCapacities() {
+        OccupancyIndex large = new OccupancyIndex();
+        for (int table = 1; table <= 200; table++) {
+            large.setTableCapacity(table, table % 2 == 0 ? 4 : 2);
+        }
+        large.put(booking(1, 200, "19:00"));
+
+        int[] free = large.getFreeTables(at("19:00"), 4);
+        assertEquals(99, free.length);
+        assertEquals(198, free[free.length - 1]);
+    }
+
+    @Test
+    public void randomBookings_matchALinearScan() {
+        Random random = new Random(7);
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            Booking booking = booking(id, 1 + random.nextInt(6),
+                    String.format("%02d:%02d", 10 + random.nextInt(14), random.nextInt(4) * 15));
+            bookings.add(booking);
+            index.put(booking);
+        }
+        // Move and remove some bookings so the incremental paths are covered too
+        for (int i = 0; i < 100; i++) {
+            Booking booking = bookings.get(random.nextInt(bookings.size()));
+            if (random.nextBoolean()) {
+                bookings.remove(booking);
+                index.remove(booking.getBookingId());
+            } else {
+                booking.setTableNumber(1 + random.nextInt(6));
+                index.put(booking);
+            }
+        }
+
+        for (int minute = 8 * 60; minute < 24 * 60; minute += 15) {
+            long start = at(String.format("%02d:%02d", minute / 60, minute % 60));
+            for (int table = 1; table <= 6; table++) {
+                boolean free = true;
+                for (Booking booking : bookings) {
+                    long other = booking.getStartEpochMinute();
+                    if (booking.getTableNumber() == table && other < start + DURATION && start < other + DURATION) {
+                        free = false;
+                    }
+                }
+                assertEquals("table " + table + " at " + minute, free, index.isFree(table, start));
+            }
+        }
+    }
+
+    private static Booking booking(long id, int table, String time) {
+        return new Booking(id, "Gäst " + id, "070-" + id, table, DATE + "T" + time + ":00", 2);
+    }
+
+    private static long at(String time) {
+        return DateFormatter.parseEpochMinute(DATE + "T" + time + ":00");
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        Collections.sort(ids);
+        return ids;
+    }
+}
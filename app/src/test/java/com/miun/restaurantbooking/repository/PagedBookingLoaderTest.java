@@ -0,0 +1,141 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingPage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pages through 50,000 bookings served by a local stub and checks that the
+ * loader never holds more than its window in memory.
+ */
+public class PagedBookingLoaderTest {
+
+    private static final int TOTAL_BOOKINGS = 50_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PAGES = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final Semaphore windowChanges = new Semaphore(0);
+    private StubBookingServer server;
+    private PagedBookingLoader loader;
+    private volatile List<Booking> window = new ArrayList<>();
+    private volatile int windowOffset;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setHandler("/api/getBookings", request -> {
+            int offset = Integer.parseInt(request.query.get("offset"));
+            int limit = Integer.parseInt(request.query.get("limit"));
+            List<Booking> bookings = new ArrayList<>();
+            for (int i = offset; i < Math.min(TOTAL_BOOKINGS, offset + limit); i++) {
+                bookings.add(booking(i));
+            }
+            return StubBookingServer.Response.json(gson.toJson(new BookingPage(bookings, offset, TOTAL_BOOKINGS)));
+        });
+        BookingRepository repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+        loader = new PagedBookingLoader(repository, "2025-01-01", "2025-12-31", PAGE_SIZE, MAX_PAGES,
+                new PagedBookingLoader.Listener() {
+                    @Override
+                    public void onWindowChanged(List<Booking> bookings, int offset) {
+                        window = bookings;
+                        windowOffset = offset;
+                        windowChanges.release();
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        fail(errorMessage);
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void scrollingThroughAllBookings_keepsWindowBounded() throws Exception {
+        int maxWindow = 0;
+        long nextExpectedId = 0;
+
+        loadNext();
+        WeakReference<Booking> firstBooking = new WeakReference<>(window.get(0));
+
+        while (!loader.isAtEnd()) {
+            loadNext();
+            maxWindow = Math.max(maxWindow, window.size());
+            assertEquals(windowOffset, window.get(0).getBookingId().longValue());
+            // The window is always a contiguous run of the range
+            for (int i = 1; i < window.size(); i++) {
+                assertEquals(window.get(i - 1).getBookingId() + 1, window.get(i).getBookingId().longValue());
+            }
+            nextExpectedId = window.get(window.size() - 1).getBookingId() + 1;
+        }
+
+        assertEquals(TOTAL_BOOKINGS, nextExpectedId);
+        assertEquals(PAGE_SIZE * MAX_PAGES, maxWindow);
+        assertEquals(TOTAL_BOOKINGS / PAGE_SIZE, server.getRequestCount());
+
+        // Pages scrolled past are no longer reachable and can be collected
+        window = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (firstBooking.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(firstBooking.get());
+    }
+
+    @Test
+    public void scrollingBack_reloadsEarlierPagesAndDropsLaterOnes() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            loadNext();
+        }
+        assertEquals(2 * PAGE_SIZE, loader.getWindowOffset());
+
+        loadPrevious();
+        assertEquals(PAGE_SIZE, windowOffset);
+        assertEquals(PAGE_SIZE * MAX_PAGES, window.size());
+        assertEquals(PAGE_SIZE, window.get(0).getBookingId().longValue());
+        assertEquals(5 * PAGE_SIZE - 1, window.get(window.size() - 1).getBookingId().longValue());
+    }
+
+    private void loadNext() throws InterruptedException {
+        loader.loadNext();
+        assertTrue(windowChanges.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    private void loadPrevious() throws InterruptedException {
+        loader.loadPrevious();
+        assertTrue(windowChanges.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    private static Booking booking(int index) {
+        int day = index / 150;
+        String dateTime = String.format("2025-%02d-%02dT%02d:%02d:00", 1 + day / 28 % 12, 1 + day % 28,
+                11 + index % 150 / 15, index % 4 * 15);
+        return new Booking((long) index, "Gäst " + index, "070-" + (1000000 + index), 1 + index % 200,
+                dateTime, 2 + index % 6);
+    }
+}
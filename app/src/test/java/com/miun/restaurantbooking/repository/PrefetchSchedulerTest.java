@@ -0,0 +1,171 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefetching the days around the shown one against a local stub server, driven by a fake clock.
+ */
+public class PrefetchSchedulerTest {
+
+    private static final String TODAY = "2025-11-27";
+    private static final long IDLE_MILLIS = 30_000;
+    private static final long INTERVAL_MILLIS = 60_000;
+    private static final int BOOKINGS_PER_DAY = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final MutableClock clock = new MutableClock(Instant.parse(TODAY + "T10:00:00Z").toEpochMilli());
+    private final AtomicBoolean unmetered = new AtomicBoolean(false);
+    private StubBookingServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json(
+                gson.toJson(TestBookings.forDate(request.query.get("date"), BOOKINGS_PER_DAY, 1))));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void prefetch_waitsForIdleOrUnmeteredNetworkAndTheInterval() throws Exception {
+        BookingRepository repository = newRepository(BookingMemoryCache.DEFAULT_MAX_BOOKINGS);
+        PrefetchScheduler scheduler = newScheduler(repository);
+
+        // Metered network and the host just interacted: nothing happens
+        assertTrue(scheduler.runIfDue().isEmpty());
+        clock.advance(IDLE_MILLIS - 1);
+        assertTrue(scheduler.runIfDue().isEmpty());
+
+        // Idle long enough: the nearest days are fetched first
+        clock.advance(1);
+        assertEquals(Arrays.asList("2025-11-28", "2025-11-26", "2025-11-29", "2025-11-30"), scheduler.runIfDue());
+        awaitRequests(4);
+        awaitCachedDates(repository, 4);
+
+        // Not again before the interval has passed
+        clock.advance(INTERVAL_MILLIS - 1);
+        assertTrue(scheduler.runIfDue().isEmpty());
+
+        // Due again, but the dates are still fresh in memory so no requests are made
+        clock.advance(1);
+        assertEquals(4, scheduler.runIfDue().size());
+        Thread.sleep(200);
+        assertEquals(4, server.getRequestCount());
+
+        // Swiping to tomorrow is answered from memory before the network
+        long hitsBefore = repository.getMemoryCache().getHitCount();
+        AtomicReference<List<Booking>> first = new AtomicReference<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        repository.getBookingsForDate("2025-11-28", new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                if (first.compareAndSet(null, bookings)) {
+                    delivered.countDown();
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+            }
+        });
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(BOOKINGS_PER_DAY, first.get().size());
+        assertEquals(hitsBefore + 1, repository.getMemoryCache().getHitCount());
+    }
+
+    @Test
+    public void unmeteredNetwork_prefetchesWhileTheHostIsActive() throws Exception {
+        BookingRepository repository = newRepository(BookingMemoryCache.DEFAULT_MAX_BOOKINGS);
+        PrefetchScheduler scheduler = newScheduler(repository).setWindow(1, 0);
+        unmetered.set(true);
+
+        assertEquals(Collections.singletonList("2025-11-28"), scheduler.runIfDue());
+        awaitRequests(1);
+    }
+
+    @Test
+    public void showingAnotherDate_movesTheWindowImmediately() throws Exception {
+        BookingRepository repository = newRepository(BookingMemoryCache.DEFAULT_MAX_BOOKINGS);
+        PrefetchScheduler scheduler = newScheduler(repository).setWindow(1, 1);
+        unmetered.set(true);
+
+        assertEquals(Arrays.asList("2025-11-28", "2025-11-26"), scheduler.runIfDue());
+        scheduler.onDateShown("2025-12-01");
+        assertEquals(Arrays.asList("2025-12-02", "2025-11-30"), scheduler.runIfDue());
+        awaitRequests(4);
+    }
+
+    @Test
+    public void prefetchedDates_areEvictedByBookingCount() throws Exception {
+        BookingRepository repository = newRepository(BOOKINGS_PER_DAY * 2 + BOOKINGS_PER_DAY / 2);
+        PrefetchScheduler scheduler = newScheduler(repository);
+        unmetered.set(true);
+
+        scheduler.runIfDue();
+        awaitRequests(4);
+        BookingMemoryCache cache = repository.getMemoryCache();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getEvictionCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(2, cache.getDates().size());
+        assertEquals(BOOKINGS_PER_DAY * 2, cache.getBookingCount());
+    }
+
+    private BookingRepository newRepository(int maxBookings) {
+        return new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot(), BookingDiskCache.DEFAULT_TTL_MILLIS,
+                        BookingDiskCache.DEFAULT_MAX_DATES, clock),
+                new BookingMemoryCache(maxBookings, clock), TestExecutors.create());
+    }
+
+    private PrefetchScheduler newScheduler(BookingRepository repository) {
+        return new PrefetchScheduler(repository::prefetchBookingsForDate, unmetered::get, clock)
+                .setIdleMillis(IDLE_MILLIS)
+                .setIntervalMillis(INTERVAL_MILLIS);
+    }
+
+    private static void awaitCachedDates(BookingRepository repository, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getMemoryCache().getDates().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, repository.getMemoryCache().getDates().size());
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequestCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, server.getRequestCount());
+    }
+}
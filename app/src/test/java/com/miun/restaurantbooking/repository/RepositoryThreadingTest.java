@@ -0,0 +1,139 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Hammers the repository from many threads and checks where and whether callbacks are delivered.
+ */
+public class RepositoryThreadingTest {
+
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 20;
+    private static final int DATES = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubBookingServer server;
+    private final Gson gson = new Gson();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setHandler("/api/getTodaysBookings", request ->
+                StubBookingServer.Response.json(gson.toJson(TestBookings.forDate(request.query.get("date"), 20, 1))));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void concurrentCalls_deliverEveryCallbackOnTheMainThread() throws Exception {
+        BookingRepository repository = newRepository();
+        List<String> offMainThread = new CopyOnWriteArrayList<>();
+        List<String> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(THREADS * CALLS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    String date = String.format("2025-11-%02d", 1 + (thread + i) % DATES);
+                    repository.getBookingsForDate(date, new BookingRepository.BookingCallback() {
+                        private final AtomicInteger calls = new AtomicInteger();
+
+                        @Override
+                        public void onSuccess(List<Booking> bookings) {
+                            record();
+                        }
+
+                        @Override
+                        public void onError(String errorMessage) {
+                            errors.add(errorMessage);
+                            record();
+                        }
+
+                        private void record() {
+                            if (!TestExecutors.isMainThread()) {
+                                offMainThread.add(Thread.currentThread().getName());
+                            }
+                            // A cached and a fresh result may both arrive; count the request once
+                            if (calls.getAndIncrement() == 0) {
+                                answered.countDown();
+                            }
+                        }
+                    });
+                }
+            }).start();
+        }
+        start.countDown();
+
+        assertTrue(answered.await(30, TimeUnit.SECONDS));
+        assertTrue("Delivered off the main thread: " + offMainThread, offMainThread.isEmpty());
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertTrue(server.getRequestCount() <= THREADS * CALLS_PER_THREAD);
+    }
+
+    @Test
+    public void close_dropsCallbacksForRequestsInFlight() throws Exception {
+        server.setDelay(300);
+        BookingRepository repository = newRepository();
+        AtomicInteger delivered = new AtomicInteger();
+        BookingRepository.BookingCallback callback = new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                delivered.incrementAndGet();
+            }
+        };
+
+        for (int i = 0; i < DATES; i++) {
+            repository.getBookingsForDate(String.format("2025-11-%02d", i + 1), callback);
+        }
+        // Let the requests reach the server before closing
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (server.getRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        repository.close();
+        repository.getBookingsForDate("2025-11-01", callback);
+
+        Thread.sleep(1_000);
+        assertTrue(repository.isClosed());
+        assertEquals(0, delivered.get());
+    }
+
+    private BookingRepository newRepository() {
+        return new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+    }
+}
@@ -0,0 +1,160 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    private static final String DATE = "2025-11-27";
+    private static final int CALLERS = 25;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubBookingServer server;
+    private BookingRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setDelay(300);
+        String json = new Gson().toJson(TestBookings.forDate(DATE, 50, 1));
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json(json));
+        repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void concurrentCallers_shareOneRequest() throws Exception {
+        List<List<Booking>> results = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CALLERS);
+
+        for (int i = 0; i < CALLERS; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                repository.getBookingsForDate(DATE, new BookingRepository.BookingCallback() {
+                    @Override
+                    public void onSuccess(List<Booking> bookings) {
+                        results.add(bookings);
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        done.countDown();
+                    }
+                });
+            }).start();
+        }
+        start.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CALLERS, results.size());
+        for (List<Booking> result : results) {
+            assertSame(results.get(0), result);
+        }
+    }
+
+    @Test
+    public void completedRequest_isNotReused() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch done = new CountDownLatch(1);
+            repository.getBookingsForDate(DATE, new BookingRepository.BookingCallback() {
+                @Override
+                public void onSuccess(List<Booking> bookings) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+        // The second call is answered from the disk cache, but still revalidates with its own request
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (server.getRequestCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void recreatedScreen_joinsTheRequestOfTheClosedOne() throws Exception {
+        server.setDelay(1000);
+        BookingDataScope scope = new BookingDataScope(new BookingDiskCache(folder.newFolder()),
+                new BookingMemoryCache(BookingMemoryCache.DEFAULT_MAX_BOOKINGS, Clock.systemUTC()),
+                new BookingOutbox(null, Runnable::run));
+        AppExecutors executors = TestExecutors.create();
+        BookingRepository rotated = new BookingRepository(server.createService(), scope, executors);
+        List<List<Booking>> closedResults = new CopyOnWriteArrayList<>();
+        rotated.getBookingsForDate(DATE, new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                closedResults.add(bookings);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+            }
+        });
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (server.getRequestCount() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // The activity is destroyed and recreated while the server is still answering
+        rotated.close();
+        BookingRepository recreated = new BookingRepository(server.createService(), scope, executors);
+        CountDownLatch done = new CountDownLatch(1);
+        List<List<Booking>> results = new CopyOnWriteArrayList<>();
+        recreated.getBookingsForDate(DATE, new BookingRepository.BookingCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                results.add(bookings);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, results.size());
+        assertEquals(50, results.get(0).size());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(closedResults.isEmpty());
+        assertNotNull(scope.getMemoryCache().get(DATE));
+    }
+}
@@ -0,0 +1,115 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * First data on a cold start with the startup snapshot, against a slow local server, and
+ * the snapshot only being used for its own date.
+ */
+public class StartupSnapshotTest {
+
+    private static final long SERVER_DELAY_MILLIS = 800;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final String today = LocalDate.now().toString();
+    private StubBookingServer server;
+    private File snapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+        server.setDelay(SERVER_DELAY_MILLIS);
+        snapshotFile = new File(folder.getRoot(), "startup-snapshot.bin");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void coldStart_showsSnapshotBeforeTheNetwork() throws Exception {
+        List<Booking> bookings = TestBookings.forDate(today, 300, 1);
+        String json = new Gson().toJson(bookings);
+        server.setHandler("/api/getTodaysBookings", request -> StubBookingServer.Response.json(json));
+
+        // First start: nothing on disk, the bookings arrive with the server's answer
+        BookingRepositoryCacheTest.RecordingCallback first = fetchToday(newRepository("first"));
+        assertTrue(first.awaitResults(1));
+        assertEquals(bookings, new StartupSnapshot(snapshotFile).read(today));
+
+        // Next cold start, with empty caches: the snapshot is shown while the server is held back
+        CountDownLatch answer = new CountDownLatch(1);
+        server.setHandler("/api/getTodaysBookings", request -> {
+            try {
+                answer.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return StubBookingServer.Response.json(json);
+        });
+        int requestsBefore = server.getRequestCount();
+        BookingRepositoryCacheTest.RecordingCallback cold = fetchToday(newRepository("cold"));
+        assertTrue(cold.awaitResults(1));
+        assertEquals(bookings, cold.results.get(0));
+
+        // Revalidation finds no change, so nothing is delivered twice
+        answer.countDown();
+        Thread.sleep(SERVER_DELAY_MILLIS * 2);
+        assertEquals(1, cold.results.size());
+        assertEquals(requestsBefore + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void snapshot_ofAnotherDate_isNotShown() {
+        StartupSnapshot snapshot = new StartupSnapshot(snapshotFile);
+        List<Booking> bookings = TestBookings.forDate("2025-11-28", 20, 1);
+        snapshot.write("2025-11-28", bookings);
+
+        assertNull(snapshot.read("2025-11-29"));
+        assertEquals(bookings, snapshot.read("2025-11-28"));
+    }
+
+    @Test
+    public void corruptSnapshot_isDeleted() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(snapshotFile)) {
+            out.write(new byte[]{0, 0, 0, 1, 0, 10, '2', '0'});
+        }
+
+        assertNull(new StartupSnapshot(snapshotFile).read(today));
+        assertFalse(snapshotFile.exists());
+    }
+
+    private BookingRepository newRepository(String cacheDirectory) {
+        BookingRepository repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(new File(folder.getRoot(), cacheDirectory)), TestExecutors.create());
+        repository.setStartupSnapshot(new StartupSnapshot(snapshotFile));
+        return repository;
+    }
+
+    private static BookingRepositoryCacheTest.RecordingCallback fetchToday(BookingRepository repository) {
+        BookingRepositoryCacheTest.RecordingCallback callback = new BookingRepositoryCacheTest.RecordingCallback();
+        repository.getTodaysBookings(callback);
+        return callback;
+    }
+}
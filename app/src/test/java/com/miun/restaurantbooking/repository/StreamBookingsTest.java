@@ -0,0 +1,90 @@
+package com.miun.restaurantbooking.repository;
+
+import com.google.gson.Gson;
+import com.miun.restaurantbooking.api.StubBookingServer;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StreamBookingsTest {
+
+    private static final String DATE = "2025-11-27";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubBookingServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubBookingServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void chunksArriveBeforeTheResponseCompletes() throws Exception {
+        List<Booking> bookings = TestBookings.forDate(DATE, 2000, 1);
+        byte[] json = new Gson().toJson(bookings).getBytes(StandardCharsets.UTF_8);
+        CountDownLatch firstChunk = new CountDownLatch(1);
+
+        // Send the first half, then hold the rest back until the first chunk has been delivered
+        server.setHandler("/api/getTodaysBookings", request ->
+                StubBookingServer.Response.streamed("application/json", out -> {
+                    out.write(json, 0, json.length / 2);
+                    out.flush();
+                    try {
+                        firstChunk.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    out.write(json, json.length / 2, json.length - json.length / 2);
+                }));
+
+        List<Booking> received = new ArrayList<>();
+        AtomicInteger total = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        BookingRepository repository = new BookingRepository(server.createService(),
+                new BookingDiskCache(folder.getRoot()), TestExecutors.create());
+        repository.streamBookingsForDate(DATE, 100, new BookingRepository.BookingChunkCallback() {
+            @Override
+            public void onChunk(List<Booking> chunk) {
+                assertTrue(chunk.size() <= 100);
+                received.addAll(chunk);
+                firstChunk.countDown();
+            }
+
+            @Override
+            public void onComplete(int totalBookings) {
+                total.set(totalBookings);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2000, total.get());
+        assertEquals(bookings, received);
+    }
+}
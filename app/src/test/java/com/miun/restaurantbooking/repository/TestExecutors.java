@@ -0,0 +1,34 @@
+package com.miun.restaurantbooking.repository;
+
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * App executors for JVM tests: real background pools and a single thread standing in for the main thread.
+ */
+public final class TestExecutors {
+
+    public static final String MAIN_THREAD_NAME = "test-main";
+
+    private TestExecutors() {
+    }
+
+    public static AppExecutors create() {
+        ExecutorService main = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, MAIN_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new AppExecutors(
+                AppExecutors.newBoundedExecutor("test-io", 4),
+                AppExecutors.newBoundedExecutor("test-compute", 2),
+                main,
+                AppExecutors.newScheduler("test-timer"));
+    }
+
+    public static boolean isMainThread() {
+        return MAIN_THREAD_NAME.equals(Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,150 @@
+package com.miun.restaurantbooking.ui;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Diff-based update path in {@link BookingAdapter}.
+ * Compares the rows that have to be rebound against a full notifyDataSetChanged() for a
+ * 2,000-booking list where 1% of rows change. The time taken is measured by BookingDiffBenchmark.
+ */
+public class BookingDiffBenchmarkTest {
+
+    private static final int LIST_SIZE = 2000;
+
+    @Test
+    public void onePercentChange_rebindsOnlyChangedRows() {
+        List<Booking> oldList = createBookings(LIST_SIZE);
+        List<Booking> newList = changeOnePercent(oldList);
+
+        CountingUpdateCallback counter = new CountingUpdateCallback();
+        DiffUtil.calculateDiff(new ListCallback(oldList, newList)).dispatchUpdatesTo(counter);
+
+        // 10 edited, 5 removed and 5 inserted rows
+        assertEquals(10, counter.changed);
+        assertEquals(5, counter.removed);
+        assertEquals(5, counter.inserted);
+
+        int diffBinds = counter.changed + counter.inserted;
+        int fullBinds = newList.size();
+        assertTrue(diffBinds * 50 <= fullBinds);
+    }
+
+    @Test
+    public void unchangedList_dispatchesNothing() {
+        List<Booking> oldList = createBookings(LIST_SIZE);
+        List<Booking> newList = new ArrayList<>();
+        for (Booking booking : oldList) {
+            newList.add(copy(booking));
+        }
+
+        CountingUpdateCallback counter = new CountingUpdateCallback();
+        DiffUtil.calculateDiff(new ListCallback(oldList, newList)).dispatchUpdatesTo(counter);
+
+        assertEquals(0, counter.inserted + counter.removed + counter.moved + counter.changed);
+    }
+
+    private static List<Booking> createBookings(int count) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int minutes = 11 * 60 + (i % 48) * 15;
+            String dateTime = String.format("2025-11-27T%02d:%02d:00", minutes / 60 % 24, minutes % 60);
+            bookings.add(new Booking((long) i, "Gäst " + i, "070-" + (1000000 + i),
+                    1 + i % 40, dateTime, 2 + i % 6));
+        }
+        return bookings;
+    }
+
+    private static List<Booking> changeOnePercent(List<Booking> oldList) {
+        List<Booking> newList = new ArrayList<>();
+        for (int i = 0; i < oldList.size(); i++) {
+            Booking booking = copy(oldList.get(i));
+            if (i % 400 == 0) {
+                continue; // cancelled
+            }
+            if (i % 200 == 100) {
+                booking.setNumberOfGuests(booking.getNumberOfGuests() + 1);
+            }
+            newList.add(booking);
+            if (i % 400 == 1) {
+                newList.add(new Booking(100000L + i, "Drop-in " + i, "073-000 00 00", 50, booking.getDateTime(), 2));
+            }
+        }
+        return newList;
+    }
+
+    private static Booking copy(Booking booking) {
+        return new Booking(booking.getBookingId(), booking.getCustomerName(), booking.getPhoneNumber(),
+                booking.getTableNumber(), booking.getDateTime(), booking.getNumberOfGuests());
+    }
+
+    /**
+     * Adapts {@link BookingDiffCallback} to two concrete lists, the same way AsyncListDiffer does.
+     */
+    private static class ListCallback extends DiffUtil.Callback {
+        private final BookingDiffCallback itemCallback = new BookingDiffCallback();
+        private final List<Booking> oldList;
+        private final List<Booking> newList;
+
+        ListCallback(List<Booking> oldList, List<Booking> newList) {
+            this.oldList = oldList;
+            this.newList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+    }
+
+    private static class CountingUpdateCallback implements ListUpdateCallback {
+        int inserted;
+        int removed;
+        int moved;
+        int changed;
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removed += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            moved++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changed += count;
+        }
+    }
+}
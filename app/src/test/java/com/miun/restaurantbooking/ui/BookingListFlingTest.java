@@ -0,0 +1,175 @@
+package com.miun.restaurantbooking.ui;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.miun.restaurantbooking.R;
+import com.miun.restaurantbooking.api.SyntheticBookingGenerator;
+import com.miun.restaurantbooking.model.Booking;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Inflations and binds of the booking list set up by {@link BookingListSetup} while it is
+ * flung through 5,000 bookings, and when the same bookings are set again.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, qualifiers = "w411dp-h891dp-xxhdpi")
+public class BookingListFlingTest {
+
+    private static final int BOOKINGS = 5000;
+    /**
+     * Pixels scrolled per frame: about 8,000 dp a second at 60 frames a second, a hard fling.
+     */
+    private static final int FLING_STEP_PX = 400;
+
+    private final List<Booking> bookings = new SyntheticBookingGenerator.Config()
+            .setVenues(1, 200)
+            .setBookingsPerDay(BOOKINGS, new double[]{1, 1, 1, 1, 1, 1, 1}, 0)
+            .setCancellationRate(0)
+            .build()
+            .getBookings(0, "2025-11-29");
+
+    private RecyclerView recyclerView;
+    private CountingAdapter adapter;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        recyclerView = new RecyclerView(new ContextThemeWrapper(activity, R.style.Theme_RestaurantBooking));
+        adapter = new CountingAdapter();
+        BookingListSetup.configure(recyclerView, adapter, BookingListSetup.createSharedPool());
+        activity.setContentView(recyclerView);
+
+        // The first list is committed right away, without diffing
+        adapter.setBookings(bookings);
+        frame();
+    }
+
+    @Test
+    public void fling_inflatesOneScreenAndBindsEachRowOnce() {
+        int rows = adapter.getItemCount();
+        int visible = recyclerView.getChildCount();
+        assertEquals(BOOKINGS, bookings.size());
+        assertTrue(rows > BOOKINGS);
+        assertTrue(recyclerView.findViewHolderForAdapterPosition(0) instanceof SlotHeaderViewHolder);
+        assertTrue(recyclerView.findViewHolderForAdapterPosition(1) instanceof BookingViewHolder);
+
+        // Once the pool has filled up, the rest of the list reuses the same views
+        fling(1, rows / 4);
+        int warmInflations = adapter.inflations();
+        fling(1, Integer.MAX_VALUE);
+        assertEquals(warmInflations, adapter.inflations());
+        assertEquals(rows - 1, adapter.lastBoundPosition);
+        int bindsDown = adapter.binds;
+
+        // Flinging back only binds, the views are all there
+        fling(-1, Integer.MAX_VALUE);
+        assertEquals(warmInflations, adapter.inflations());
+        assertTrue(warmInflations <= 2 * visible + BookingListSetup.ITEM_VIEW_CACHE_SIZE);
+        assertTrue(bindsDown >= rows);
+        assertTrue(bindsDown <= rows + visible + BookingListSetup.ITEM_VIEW_CACHE_SIZE);
+    }
+
+    @Test
+    public void sameBookingsAgain_rebindNothing() throws InterruptedException {
+        long firstId = bookings.get(0).getBookingId();
+        RecyclerView.ViewHolder first = recyclerView.findViewHolderForItemId(firstId);
+        int binds = adapter.binds;
+        int inflations = adapter.inflations();
+
+        List<Booking> copies = new ArrayList<>();
+        for (Booking booking : bookings) {
+            copies.add(booking.copy());
+        }
+        setAndWait(copies);
+
+        assertTrue(adapter.hasStableIds());
+        assertEquals(binds, adapter.binds);
+        assertEquals(inflations, adapter.inflations());
+        assertSame(first, recyclerView.findViewHolderForItemId(firstId));
+        assertSame(first, recyclerView.findViewHolderForAdapterPosition(1));
+    }
+
+    @Test
+    public void oneChangedBooking_rebindsOneRow() throws InterruptedException {
+        List<Booking> changed = new ArrayList<>(bookings);
+        Booking renamed = bookings.get(0).copy();
+        renamed.setCustomerName("Åsa Öberg");
+        changed.set(0, renamed);
+        int binds = adapter.binds;
+
+        setAndWait(changed);
+
+        assertEquals(binds + 1, adapter.binds);
+        assertEquals("Åsa Öberg", adapter.getRows().get(1).getCustomerName());
+    }
+
+    /**
+     * Scroll by a fling step a frame until the end of the list or the given number of frames.
+     */
+    private void fling(int direction, int maxFrames) {
+        for (int frames = 0; frames < maxFrames && recyclerView.canScrollVertically(direction); frames++) {
+            recyclerView.scrollBy(0, direction * FLING_STEP_PX);
+            frame();
+        }
+    }
+
+    private void setAndWait(List<Booking> newBookings) throws InterruptedException {
+        List<BookingRow> before = adapter.getRows();
+        adapter.setBookings(newBookings);
+        // The diff runs on the compute pool and is committed through the main looper
+        long deadline = System.currentTimeMillis() + 5000;
+        while (adapter.getRows() == before) {
+            assertTrue("Diff not committed", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        frame();
+    }
+
+    private static void frame() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(17));
+    }
+
+    private static class CountingAdapter extends BookingAdapter {
+        final int[] inflations = new int[2];
+        int binds;
+        int lastBoundPosition = -1;
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            inflations[viewType]++;
+            return super.onCreateViewHolder(parent, viewType);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            binds++;
+            lastBoundPosition = Math.max(lastBoundPosition, position);
+            super.onBindViewHolder(holder, position);
+        }
+
+        int inflations() {
+            return inflations[BookingRow.TYPE_BOOKING] + inflations[BookingRow.TYPE_SLOT_HEADER];
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.miun.restaurantbooking.ui;
+
+import com.miun.restaurantbooking.api.SyntheticBookingGenerator;
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.repository.MutableClock;
+import com.miun.restaurantbooking.repository.TestExecutors;
+import com.miun.restaurantbooking.util.AppExecutors;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Memoized row building: an unchanged refresh formats nothing, a changed booking formats
+ * only its own row, urgency follows the clock without formatting, and superseded
+ * submissions are dropped.
+ */
+public class BookingRowPipelineTest {
+
+    private static final String DATE = "2025-11-29";
+
+    private final BlockingQueue<List<BookingRow>> delivered = new LinkedBlockingQueue<>();
+    private final MutableClock clock = new MutableClock(
+            LocalDateTime.of(2025, 11, 29, 17, 45).toEpochSecond(ZoneOffset.UTC) * 1000);
+
+    @Test
+    public void unchangedRefresh_formatsNothing() throws InterruptedException {
+        List<Booking> bookings = new SyntheticBookingGenerator.Config().setVenues(1, 100)
+                .build().getBookings(0, DATE);
+        BookingRowPipeline pipeline = new BookingRowPipeline(TestExecutors.create(), clock, rows -> {
+            assertTrue(TestExecutors.isMainThread());
+            delivered.add(rows);
+        });
+
+        pipeline.submit(bookings);
+        List<BookingRow> first = next();
+        int formatted = pipeline.getFormattedRows();
+        assertEquals(first.size(), formatted);
+        assertEquals(BookingRow.fromBookings(bookings).size(), first.size());
+
+        // The same bookings as parsed again from the server
+        pipeline.submit(copies(bookings));
+        List<BookingRow> second = next();
+        int reformattedOnCopies = pipeline.getFormattedRows() - formatted;
+        pipeline.refresh();
+        List<BookingRow> third = next();
+        int reformattedOnRefresh = pipeline.getFormattedRows() - formatted - reformattedOnCopies;
+
+        assertEquals(0, reformattedOnCopies);
+        assertEquals(0, reformattedOnRefresh);
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+            assertSame(first.get(i), third.get(i));
+        }
+    }
+
+    @Test
+    public void changedBookings_formatOnlyTheirRows() throws InterruptedException {
+        List<Booking> bookings = Arrays.asList(
+                booking(1, "18:00", 4),
+                booking(2, "18:00", 2),
+                booking(3, "19:00", 2));
+        BookingRowPipeline pipeline = new BookingRowPipeline(TestExecutors.create(), clock, delivered::add);
+        pipeline.submit(bookings);
+        List<BookingRow> first = next();
+        int formatted = pipeline.getFormattedRows();
+
+        // Edited on the device, so the version is still the confirmed one
+        List<Booking> renamed = copies(bookings);
+        renamed.get(0).setCustomerName("Åsa Öberg");
+        pipeline.submit(renamed);
+        List<BookingRow> second = next();
+        assertEquals(formatted + 1, pipeline.getFormattedRows());
+        assertEquals("Åsa Öberg", second.get(1).getCustomerName());
+        assertSame(first.get(0), second.get(0));
+        assertSame(first.get(2), second.get(2));
+
+        // A new version with more guests changes its slot's header as well
+        List<Booking> moreGuests = copies(renamed);
+        moreGuests.get(2).setNumberOfGuests(6);
+        moreGuests.get(2).setVersion(2);
+        pipeline.submit(moreGuests);
+        List<BookingRow> third = next();
+        assertEquals(formatted + 3, pipeline.getFormattedRows());
+        assertEquals("1 bokning · 6 gäster", third.get(3).getSummary());
+        assertEquals("6 gäster", third.get(4).getGuests());
+        assertSame(second.get(1), third.get(1));
+    }
+
+    @Test
+    public void urgency_followsTheClockWithoutFormatting() throws InterruptedException {
+        List<Booking> bookings = Arrays.asList(
+                booking(1, "17:30", 2),
+                booking(2, "18:00", 2),
+                booking(3, "18:30", 2));
+        BookingRowPipeline pipeline = new BookingRowPipeline(TestExecutors.create(), clock, delivered::add);
+
+        pipeline.submit(bookings);
+        List<BookingRow> at1745 = next();
+        int formatted = pipeline.getFormattedRows();
+        assertEquals(Arrays.asList(false, true, false), urgency(at1745));
+        assertEquals("Nov 29, 2025", at1745.get(0).getDate());
+        assertNull(at1745.get(2).getDate());
+
+        clock.advance(TimeUnit.MINUTES.toMillis(20));
+        pipeline.refresh();
+        List<BookingRow> at1805 = next();
+        assertEquals(Arrays.asList(false, false, true), urgency(at1805));
+        assertEquals(formatted, pipeline.getFormattedRows());
+        assertEquals(at1745.get(5).getPhoneNumber(), at1805.get(5).getPhoneNumber());
+        assertSame(at1745.get(0), at1805.get(0));
+    }
+
+    @Test
+    public void supersededSubmission_isDropped() {
+        List<Runnable> compute = new ArrayList<>();
+        List<Runnable> main = new ArrayList<>();
+        AppExecutors executors = new AppExecutors(Runnable::run, compute::add, main::add,
+                AppExecutors.newScheduler("test-timer"));
+        BookingRowPipeline pipeline = new BookingRowPipeline(executors, clock, delivered::add);
+
+        pipeline.submit(Arrays.asList(booking(1, "18:00", 2)));
+        pipeline.submit(Arrays.asList(booking(2, "19:00", 4)));
+        compute.forEach(Runnable::run);
+        main.forEach(Runnable::run);
+
+        // Only the newest bookings were formatted and delivered
+        assertEquals(2, pipeline.getFormattedRows());
+        assertEquals(1, delivered.size());
+        assertEquals(2L, delivered.peek().get(1).getId());
+
+        pipeline.close();
+        pipeline.refresh();
+        compute.forEach(Runnable::run);
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    public void phoneNumbers_areGrouped() throws InterruptedException {
+        List<Booking> bookings = Arrays.asList(
+                new Booking(1L, "Anna", "0701234567", 1, DATE + "T18:00:00", 2),
+                new Booking(2L, "Erik", "+46 70 123 45 67", 2, DATE + "T18:00:00", 2),
+                new Booking(3L, "Maria", "070-123 45 67", 3, DATE + "T18:00:00", 2),
+                new Booking(4L, "Lars", "08-123 456 78", 4, DATE + "T18:00:00", 2),
+                new Booking(5L, "Karin", "ring receptionen", 5, DATE + "T18:00:00", 2),
+                new Booking(6L, "Nils", null, 6, DATE + "T18:00:00", 2));
+        BookingRowPipeline pipeline = new BookingRowPipeline(TestExecutors.create(), clock, delivered::add);
+
+        pipeline.submit(bookings);
+        List<BookingRow> rows = next();
+
+        assertEquals("070-123 45 67", rows.get(1).getPhoneNumber());
+        assertEquals("+46 70-123 45 67", rows.get(2).getPhoneNumber());
+        assertEquals("070-123 45 67", rows.get(3).getPhoneNumber());
+        assertEquals("08-123 456 78", rows.get(4).getPhoneNumber());
+        assertEquals("ring receptionen", rows.get(5).getPhoneNumber());
+        assertNull(rows.get(6).getPhoneNumber());
+    }
+
+    private List<BookingRow> next() throws InterruptedException {
+        List<BookingRow> rows = delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull("No rows delivered", rows);
+        return rows;
+    }
+
+    private static Booking booking(long id, String time, int guests) {
+        Booking booking = new Booking(id, "Gäst " + id, "07012345" + (10 + id), (int) id, DATE + "T" + time + ":00", guests);
+        booking.setVersion(1);
+        return booking;
+    }
+
+    private static List<Booking> copies(List<Booking> bookings) {
+        List<Booking> copies = new ArrayList<>();
+        for (Booking booking : bookings) {
+            copies.add(booking.copy());
+        }
+        return copies;
+    }
+
+    private static List<Boolean> urgency(List<BookingRow> rows) {
+        List<Boolean> urgent = new ArrayList<>();
+        for (BookingRow row : rows) {
+            if (row.getType() == BookingRow.TYPE_BOOKING) {
+                urgent.add(row.isUrgent());
+            }
+        }
+        return urgent;
+    }
+}
@@ -0,0 +1,87 @@
+package com.miun.restaurantbooking.ui;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Time slot headers, stable row IDs and the preformatted values of booking rows.
+ */
+public class BookingRowTest {
+
+    @Test
+    public void sortedBookings_getOneHeaderPerTimeSlot() {
+        List<Booking> bookings = Arrays.asList(
+                new Booking(1L, "Anna Andersson", "070-123 45 67", 3, "2025-11-29T18:00:00", 4),
+                new Booking(2L, "Erik Eriksson", "070-234 56 78", 5, "2025-11-29T18:00:00", 1),
+                new Booking(3L, "Maria Nilsson", "070-345 67 89", 3, "2025-11-29T19:30:00", 2));
+
+        List<BookingRow> rows = BookingRow.fromBookings(bookings);
+
+        assertEquals(5, rows.size());
+        assertEquals(BookingRow.TYPE_SLOT_HEADER, rows.get(0).getType());
+        assertEquals("18:00", rows.get(0).getTime());
+        assertEquals("2 bokningar · 5 gäster", rows.get(0).getSummary());
+        assertEquals(BookingRow.TYPE_SLOT_HEADER, rows.get(3).getType());
+        assertEquals("1 bokning · 2 gäster", rows.get(3).getSummary());
+
+        BookingRow anna = rows.get(1);
+        assertEquals(BookingRow.TYPE_BOOKING, anna.getType());
+        assertEquals(1L, anna.getId());
+        assertSame(bookings.get(0), anna.getBooking());
+        assertEquals("18:00", anna.getTime());
+        assertEquals("Anna Andersson", anna.getCustomerName());
+        assertEquals("070-123 45 67", anna.getPhoneNumber());
+        assertEquals("4 gäster", anna.getGuests());
+        assertEquals("3", anna.getTable());
+        // Labels are shared between rows instead of built for each one
+        assertSame(anna.getTable(), rows.get(4).getTable());
+    }
+
+    @Test
+    public void rowIds_areStableAndNeverCollide() {
+        List<Booking> bookings = Arrays.asList(
+                new Booking(-1L, "Walk-in", null, 1, "2025-11-29T18:00:00", 2),
+                new Booking(null, "Walk-in", null, 2, "2025-11-29T18:00:00", 2),
+                new Booking(null, "Walk-in", null, 3, "not a time", 2),
+                new Booking(7L, "Anna Andersson", "070", 4, "not a time", 2),
+                new Booking(Long.MAX_VALUE, "Erik", "073", 400, "2025-11-29T18:15:00", 25));
+
+        List<BookingRow> rows = BookingRow.fromBookings(bookings);
+
+        Set<Long> ids = new HashSet<>();
+        for (BookingRow row : rows) {
+            assertTrue(row.toString(), ids.add(row.getId()));
+        }
+        assertEquals(rows.get(0).getId(), BookingRow.fromBookings(bookings.subList(0, 1)).get(0).getId());
+        assertEquals("Utan tid", rows.get(3).getTime());
+        assertEquals("not a time", rows.get(4).getTime());
+        assertEquals("400", rows.get(7).getTable());
+        assertEquals("25 gäster", rows.get(7).getGuests());
+    }
+
+    @Test
+    public void rowsShowingTheSameValues_areEqual() {
+        Booking booking = new Booking(1L, "Anna Andersson", "070-123 45 67", 3, "2025-11-29T18:00:00", 4);
+        Booking newerVersion = booking.copy();
+        newerVersion.setVersion(2);
+        Booking moved = booking.copy();
+        moved.setTableNumber(4);
+
+        BookingRowDiffCallback callback = new BookingRowDiffCallback();
+        BookingRow row = BookingRow.booking(booking, 0, false);
+
+        assertTrue(callback.areContentsTheSame(row, BookingRow.booking(newerVersion, 0, false)));
+        assertTrue(callback.areItemsTheSame(row, BookingRow.booking(moved, 0, false)));
+        assertFalse(callback.areContentsTheSame(row, BookingRow.booking(moved, 0, false)));
+        assertFalse(callback.areContentsTheSame(row, row.withUrgent(true)));
+        assertFalse(callback.areItemsTheSame(row, BookingRow.slotHeader(booking.getStartEpochMinute(), 1, 4, true)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.miun.restaurantbooking.ui;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingPage;
+import com.miun.restaurantbooking.model.TestBookings;
+import com.miun.restaurantbooking.repository.PagedBookingLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scrolling a list of paged bookings, with pages answered as soon as they are asked for.
+ */
+public class LoadMoreScrollListenerTest {
+
+    private static final int TOTAL_BOOKINGS = 1000;
+    private static final int PAGE_SIZE = 100;
+    private static final int THRESHOLD = 10;
+
+    private final List<Booking> bookings = TestBookings.forDate("2025-11-29", TOTAL_BOOKINGS, 1);
+    private final List<Integer> requestedOffsets = new ArrayList<>();
+    private PagedBookingLoader loader;
+    private LoadMoreScrollListener listener;
+    private int windowOffset;
+    private int windowSize;
+
+    @Before
+    public void setUp() {
+        loader = new PagedBookingLoader((offset, limit, callback) -> {
+            requestedOffsets.add(offset);
+            int end = Math.min(TOTAL_BOOKINGS, offset + limit);
+            callback.onSuccess(new BookingPage(new ArrayList<>(bookings.subList(offset, end)), offset, TOTAL_BOOKINGS));
+        }, PAGE_SIZE, 3, new PagedBookingLoader.Listener() {
+            @Override
+            public void onWindowChanged(List<Booking> window, int offset) {
+                windowOffset = offset;
+                windowSize = window.size();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                fail(errorMessage);
+            }
+        });
+        listener = new LoadMoreScrollListener(loader, THRESHOLD);
+        loader.loadNext();
+        requestedOffsets.clear();
+    }
+
+    @Test
+    public void scrollingNearTheEnd_loadsTheNextPage() {
+        listener.onScrolled(0, PAGE_SIZE - THRESHOLD - 1, windowSize, 20);
+        assertTrue(requestedOffsets.isEmpty());
+
+        listener.onScrolled(1, PAGE_SIZE - THRESHOLD, windowSize, 20);
+        assertEquals(Collections.singletonList(PAGE_SIZE), requestedOffsets);
+        assertEquals(2 * PAGE_SIZE, windowSize);
+    }
+
+    @Test
+    public void scrollingBackNearTheStart_loadsThePreviousPage() {
+        for (int page = 0; page < 3; page++) {
+            listener.onScrolled(windowSize - 20, windowSize - 1, windowSize, 20);
+        }
+        // The window holds three pages, so the first one was dropped
+        assertEquals(PAGE_SIZE, windowOffset);
+
+        requestedOffsets.clear();
+        listener.onScrolled(THRESHOLD, THRESHOLD + 20, windowSize, -20);
+        assertEquals(Collections.singletonList(0), requestedOffsets);
+        assertEquals(0, windowOffset);
+    }
+
+    @Test
+    public void scrollingAwayFromTheEnds_loadsNothing() {
+        listener.onScrolled(30, 50, windowSize, -20);
+        listener.onScrolled(40, 60, windowSize, 20);
+        listener.onScrolled(windowSize - 20, windowSize - 1, windowSize, 0);
+        assertTrue(requestedOffsets.isEmpty());
+    }
+}
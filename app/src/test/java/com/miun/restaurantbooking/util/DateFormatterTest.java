@@ -0,0 +1,94 @@
+package com.miun.restaurantbooking.util;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.TestBookings;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DateFormatterTest {
+
+    private static final int BINDS = 200_000;
+
+    @Test
+    public void parseEpochMinute_matchesJavaTime() {
+        LocalDateTime dateTime = LocalDateTime.of(1999, 12, 31, 23, 59);
+        for (int i = 0; i < 20_000; i++) {
+            dateTime = dateTime.plusMinutes(7919);
+            String iso = dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            long expected = dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+            assertEquals(iso, expected, DateFormatter.parseEpochMinute(iso));
+        }
+        assertEquals(LocalDateTime.of(2024, 2, 29, 18, 30).toEpochSecond(ZoneOffset.UTC) / 60,
+                DateFormatter.parseEpochMinute("2024-02-29T18:30:15.125"));
+    }
+
+    @Test
+    public void parseEpochMinute_rejectsInvalidStrings() {
+        String[] invalid = {null, "", "2025-11-27", "2025-11-27 18:30:00", "2025-13-01T18:30:00",
+                "2025-02-29T18:30:00", "2025-11-27T24:00:00", "2025-11-27T18:60:00", "2025-11-27T18:30:0",
+                "2025-11-27T18:30:00Z", "2025-11-27T18:30:00.", "20x5-11-27T18:30:00"};
+        for (String iso : invalid) {
+            assertEquals(iso, DateFormatter.NO_TIME, DateFormatter.parseEpochMinute(iso));
+        }
+    }
+
+    @Test
+    public void fastPath_formatsLikeTheStringMethods() {
+        String iso = "2025-11-27T18:05:00";
+        long epochMinute = DateFormatter.parseEpochMinute(iso);
+        assertEquals("18:05", DateFormatter.formatTime(epochMinute));
+        assertEquals(DateFormatter.formatTime(iso), DateFormatter.formatTime(epochMinute));
+        assertEquals(DateFormatter.formatDate(iso), DateFormatter.formatDate(epochMinute));
+        assertEquals(18 * 60 + 5, DateFormatter.minuteOfDay(epochMinute));
+        assertEquals("not a date", DateFormatter.formatTime("not a date"));
+    }
+
+    @Test
+    public void bindPath_allocations() {
+        List<Booking> bookings = TestBookings.forDate("2025-11-27", 500, 1);
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+        // Before: every bind parsed the ISO string and formatted the result
+        long before = allocatedDuring(() -> {
+            int length = 0;
+            for (int i = 0; i < BINDS; i++) {
+                Booking booking = bookings.get(i % bookings.size());
+                length += LocalDateTime.parse(booking.getDateTime()).format(timeFormatter).length();
+            }
+            return length;
+        });
+
+        // After: bind reads the pre-parsed minute and looks up a shared label
+        long after = allocatedDuring(() -> {
+            int length = 0;
+            for (int i = 0; i < BINDS; i++) {
+                Booking booking = bookings.get(i % bookings.size());
+                length += DateFormatter.formatTime(booking.getStartEpochMinute()).length();
+            }
+            return length;
+        });
+
+        assertTrue(after * 100 < before);
+    }
+
+    private static long allocatedDuring(Work work) {
+        work.run(); // warm up
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        assertTrue(work.run() > 0);
+        return threads.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private interface Work {
+        int run();
+    }
+}
@@ -0,0 +1,75 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// :app is an Android module and cannot be depended on from a plain JVM module,
+// so its Android-free sources are compiled into this module directly.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/miun/restaurantbooking/metrics/**",
+                "com/miun/restaurantbooking/model/**",
+                "com/miun/restaurantbooking/util/DateFormatter.java",
+                "com/miun/restaurantbooking/util/StringPool.java",
+                "com/miun/restaurantbooking/api/BookingJsonReader.java",
+                "com/miun/restaurantbooking/api/BookingBinaryCodec.java",
+                "com/miun/restaurantbooking/api/DummyBookingProvider.java",
+                "com/miun/restaurantbooking/api/SyntheticBookingGenerator.java",
+                "com/miun/restaurantbooking/api/BookingTypeAdapter.java",
+                "com/miun/restaurantbooking/repository/BookingDiskCache.java",
+                "com/miun/restaurantbooking/repository/BookingSearchIndex.java",
+                "com/miun/restaurantbooking/repository/OccupancyIndex.java",
+                "com/miun/restaurantbooking/repository/StartupSnapshot.java",
+                "com/miun/restaurantbooking/repository/BookingTimeline.java",
+                "com/miun/restaurantbooking/ui/BookingDiffCallback.java"
+            )
+        }
+    }
+}
+
+// DiffUtil ships inside the RecyclerView AAR; unpack its classes for the JVM
+val androidLibraries: Configuration by configurations.creating {
+    isTransitive = false
+}
+
+val extractAndroidClasses by tasks.registering(Sync::class) {
+    from({ androidLibraries.map { zipTree(it) } })
+    include("classes.jar")
+    rename { "recyclerview.jar" }
+    into(layout.buildDirectory.dir("android-classes"))
+}
+
+dependencies {
+    androidLibraries(libs.recyclerview) {
+        artifact {
+            type = "aar"
+        }
+    }
+    implementation(files(layout.buildDirectory.file("android-classes/recyclerview.jar")).builtBy(extractAndroidClasses))
+    implementation(libs.androidx.annotation)
+    implementation(libs.gson)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Machine-readable results, to compare between commits
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(project.property("jmhIncludes").toString().split(","))
+    }
+    if (project.hasProperty("jmhProfilers")) {
+        profilers.set(project.property("jmhProfilers").toString().split(","))
+    }
+}
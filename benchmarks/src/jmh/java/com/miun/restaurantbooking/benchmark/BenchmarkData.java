@@ -0,0 +1,91 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.api.SyntheticBookingGenerator;
+import com.miun.restaurantbooking.model.Booking;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realistic booking volumes for the benchmarks, generated from a fixed seed.
+ */
+final class BenchmarkData {
+
+    /**
+     * Bookings on a busy day at one restaurant.
+     */
+    static final int BOOKINGS_PER_DAY = 300;
+
+    static final int ONE_DAY = BOOKINGS_PER_DAY;
+    static final int ONE_MONTH = BOOKINGS_PER_DAY * 30;
+    static final int ONE_YEAR_FIVE_VENUES = BOOKINGS_PER_DAY * 365 * 5;
+
+    /**
+     * Floor plan of a large venue for the occupancy benchmarks.
+     */
+    static final int TABLES = 200;
+    static final int DAYS = 365;
+
+    static final LocalDate FIRST_DATE = LocalDate.of(2025, 1, 1);
+
+    private static final double[] EVERY_DAY_ALIKE = {1, 1, 1, 1, 1, 1, 1};
+
+    /**
+     * Five venues with exactly BOOKINGS_PER_DAY bookings every day.
+     */
+    static final SyntheticBookingGenerator VENUES = new SyntheticBookingGenerator.Config()
+            .setSeed(42)
+            .setVenues(5, 40)
+            .setBookingsPerDay(BOOKINGS_PER_DAY, EVERY_DAY_ALIKE, 0)
+            .setCancellationRate(0)
+            .build();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Create bookings spread over consecutive days from 2025-01-01, BOOKINGS_PER_DAY per day,
+     * a year of the first venue before the next venue.
+     *
+     * @param count Total number of bookings
+     * @return Bookings sorted by venue, then day, then time
+     */
+    static List<Booking> bookings(int count) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int venue = 0; venue < VENUES.getVenueCount(); venue++) {
+            for (int day = 0; day < DAYS; day++) {
+                for (Booking booking : VENUES.getBookings(venue, FIRST_DATE.plusDays(day).toString())) {
+                    if (bookings.size() == count) {
+                        return bookings;
+                    }
+                    bookings.add(booking);
+                }
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Create non-overlapping two-hour bookings from 2025-01-01: four three-hour sittings a
+     * day from 11:00, three out of four tables booked per sitting.
+     *
+     * @param tables Number of tables, numbered from 1
+     * @param days   Number of consecutive days
+     * @return Bookings sorted by day, then time, then table
+     */
+    static List<Booking> tableBookings(int tables, int days) {
+        SyntheticBookingGenerator sittings = new SyntheticBookingGenerator.Config()
+                .setSeed(42)
+                .setVenues(1, tables)
+                .setBookingsPerDay(tables * 3, EVERY_DAY_ALIKE, 0)
+                .setSlots(11 * 60, 180, new double[]{1, 1, 1, 1})
+                .setCancellationRate(0)
+                .build();
+        List<Booking> bookings = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            bookings.addAll(sittings.getBookings(0, FIRST_DATE.plusDays(day).toString()));
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,60 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.miun.restaurantbooking.api.BookingBinaryCodec;
+import com.miun.restaurantbooking.api.BookingJsonReader;
+import com.miun.restaurantbooking.model.Booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a booking list response as JSON and in the binary format, for a day and a month.
+ * The encoded sizes are asserted by BookingBinaryCodecTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingCodecBenchmark {
+
+    @Param({"300", "9000"})
+    public int bookingCount;
+
+    private String json;
+    private byte[] binary;
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(bookingCount);
+        json = new Gson().toJson(bookings);
+        binary = BookingBinaryCodec.encode(bookings);
+    }
+
+    @Benchmark
+    public List<Booking> decodeJson() throws IOException {
+        return BookingJsonReader.readBookings(new JsonReader(new StringReader(json)));
+    }
+
+    @Benchmark
+    public List<Booking> decodeBinary() throws IOException {
+        return BookingBinaryCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BookingBinaryCodec.encode(bookings);
+    }
+}
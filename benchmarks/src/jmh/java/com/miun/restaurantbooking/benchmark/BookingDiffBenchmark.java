@@ -0,0 +1,115 @@
+package com.miun.restaurantbooking.benchmark;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.ui.BookingDiffCallback;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The adapter update: diffing a refreshed list where 1% of the bookings changed,
+ * and dispatching the result as the adapter would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingDiffBenchmark {
+
+    @Param({"300", "2000", "9000"})
+    public int bookingCount;
+
+    private List<Booking> oldList;
+    private List<Booking> newList;
+    private DiffUtil.DiffResult diffResult;
+
+    @Setup
+    public void setUp() {
+        oldList = BenchmarkData.bookings(bookingCount);
+        newList = new ArrayList<>();
+        for (int i = 0; i < oldList.size(); i++) {
+            Booking booking = oldList.get(i);
+            Booking copy = new Booking(booking.getBookingId(), booking.getCustomerName(), booking.getPhoneNumber(),
+                    booking.getTableNumber(), booking.getDateTime(), booking.getNumberOfGuests());
+            if (i % 100 == 0) {
+                copy.setNumberOfGuests(copy.getNumberOfGuests() + 1);
+            }
+            newList.add(copy);
+        }
+        diffResult = calculateDiff();
+    }
+
+    @Benchmark
+    public DiffUtil.DiffResult calculateDiff() {
+        return DiffUtil.calculateDiff(new ListCallback(oldList, newList));
+    }
+
+    @Benchmark
+    public void dispatchUpdates(Blackhole blackhole) {
+        diffResult.dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                blackhole.consume(count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                blackhole.consume(count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                blackhole.consume(toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                blackhole.consume(count);
+            }
+        });
+    }
+
+    private static class ListCallback extends DiffUtil.Callback {
+        private final BookingDiffCallback itemCallback = new BookingDiffCallback();
+        private final List<Booking> oldList;
+        private final List<Booking> newList;
+
+        ListCallback(List<Booking> oldList, List<Booking> newList) {
+            this.oldList = oldList;
+            this.newList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+    }
+}
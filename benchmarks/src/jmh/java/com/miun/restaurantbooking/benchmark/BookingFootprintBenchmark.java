@@ -0,0 +1,64 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.CompactBookingList;
+import com.miun.restaurantbooking.util.StringPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held by a booking history as plain booking objects and as a {@link CompactBookingList}.
+ * Both benchmarks build the structure they return and allocate little else, so the
+ * footprint is the gc.alloc.rate.norm figure of the gc profiler:
+ * <pre>./gradlew :benchmarks:jmh -PjmhIncludes=BookingFootprintBenchmark -PjmhProfilers=gc</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookingFootprintBenchmark {
+
+    @Param({"9000", "100000"})
+    public int bookingCount;
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(bookingCount);
+    }
+
+    /**
+     * One object per booking with its own strings, as parsed from the server's JSON.
+     */
+    @Benchmark
+    public List<Booking> plain() {
+        List<Booking> plain = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            Booking copy = new Booking(booking.getBookingId(), new String(booking.getCustomerName()),
+                    new String(booking.getPhoneNumber()), booking.getTableNumber(),
+                    new String(booking.getDateTime()), booking.getNumberOfGuests());
+            copy.setVersion(booking.getVersion());
+            plain.add(copy);
+        }
+        return plain;
+    }
+
+    /**
+     * Column arrays, with each guest's name and phone number held once in the pool.
+     */
+    @Benchmark
+    public List<Booking> compact() {
+        return CompactBookingList.of(bookings, new StringPool(2 * bookingCount));
+    }
+}
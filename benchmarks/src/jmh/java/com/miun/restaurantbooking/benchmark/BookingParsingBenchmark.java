@@ -0,0 +1,61 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.miun.restaurantbooking.api.BookingJsonReader;
+import com.miun.restaurantbooking.model.Booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a booking list response, from one restaurant-day up to a year of five venues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookingParsingBenchmark {
+
+    private static final Type BOOKING_LIST = new TypeToken<List<Booking>>() {
+    }.getType();
+
+    @Param({"300", "9000", "547500"})
+    public int bookingCount;
+
+    private final Gson gson = new Gson();
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = gson.toJson(BenchmarkData.bookings(bookingCount));
+    }
+
+    @Benchmark
+    public List<Booking> gsonReflective() {
+        return gson.fromJson(json, BOOKING_LIST);
+    }
+
+    @Benchmark
+    public List<Booking> tokenReader() throws IOException {
+        return BookingJsonReader.readBookings(new JsonReader(new StringReader(json)));
+    }
+
+    @Benchmark
+    public int tokenReaderChunked() throws IOException {
+        return BookingJsonReader.readBookings(new JsonReader(new StringReader(json)), 500, chunk -> {
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.model.BookingFilter;
+import com.miun.restaurantbooking.repository.BookingSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the search index over the loaded bookings, and answering the queries typed
+ * into the search field with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingSearchIndexBenchmark {
+
+    private static final String[] QUERIES = {"ann", "anders", "lindström", "070-45", "76-12", "maria k",
+            "öberg 07", "sson"};
+
+    @Param({"9000", "50000"})
+    public int bookingCount;
+
+    private List<Booking> bookings;
+    private BookingSearchIndex index;
+    private final BookingFilter[] filters = new BookingFilter[QUERIES.length];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(bookingCount);
+        index = new BookingSearchIndex(bookings);
+        for (int i = 0; i < QUERIES.length; i++) {
+            filters[i] = new BookingFilter().setText(QUERIES[i]);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BookingSearchIndex build() {
+        return new BookingSearchIndex(bookings);
+    }
+
+    @Benchmark
+    public List<Booking> search() {
+        BookingFilter filter = filters[next];
+        next = (next + 1) % filters.length;
+        return index.search(filter);
+    }
+}
@@ -0,0 +1,132 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.repository.BookingTimeline;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pushed change, a booking moved to another time, merged into the bookings held for a
+ * date: by the booking timeline, and by putting it in a map and sorting all bookings again
+ * as the delta sync state did before. Also finds the bookings arriving in the next half hour.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingTimelineBenchmark {
+
+    private static final int CHANGES = 1024;
+
+    private static final Comparator<Booking> BY_TIME = Comparator
+            .comparingLong(Booking::getStartEpochMinute)
+            .thenComparingInt(Booking::getTableNumber)
+            .thenComparingLong(Booking::getBookingId);
+
+    /**
+     * A busy day at one restaurant, and a month held at once.
+     */
+    @Param({"300", "9000"})
+    public int size;
+
+    private final Booking[] originals = new Booking[CHANGES];
+    private final Booking[] moved = new Booking[CHANGES];
+    private final boolean[] isMoved = new boolean[CHANGES];
+    private final long[] arrivalTimes = new long[CHANGES];
+    private BookingTimeline timeline;
+    private Map<Long, Booking> byId;
+    private List<Booking> sorted;
+    private int changes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Booking> bookings = BenchmarkData.bookings(size);
+        timeline = new BookingTimeline();
+        timeline.setAll(bookings);
+        byId = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            byId.put(booking.getBookingId(), booking);
+        }
+        sorted = new ArrayList<>(bookings);
+        sorted.sort(BY_TIME);
+
+        // A prime step visits every booking once before repeating one
+        changes = Math.min(CHANGES, size);
+        for (int i = 0; i < changes; i++) {
+            Booking original = bookings.get((int) ((long) i * 7919 % size));
+            originals[i] = original;
+            // Moved an hour and a half later, past the bookings in between
+            moved[i] = original.copy();
+            moved[i].setDateTime(DateFormatter.toIsoString(original.getStartEpochMinute() + 90));
+            arrivalTimes[i] = original.getStartEpochMinute();
+        }
+    }
+
+    @Benchmark
+    public int timelinePut() {
+        timeline.put(nextChange());
+        return timeline.size();
+    }
+
+    @Benchmark
+    public List<Booking> timelinePutAndList() {
+        timeline.put(nextChange());
+        return timeline.toList();
+    }
+
+    @Benchmark
+    public List<Booking> mapPutAndSort() {
+        Booking booking = nextChange();
+        byId.put(booking.getBookingId(), booking);
+        List<Booking> bookings = new ArrayList<>(byId.values());
+        bookings.sort(BY_TIME);
+        return bookings;
+    }
+
+    @Benchmark
+    public List<Booking> arrivingWithin30Minutes() {
+        return timeline.getArrivingWithin(arrivalTimes[nextIndex()], 30);
+    }
+
+    @Benchmark
+    public List<Booking> arrivingWithin30MinutesScan() {
+        long now = arrivalTimes[nextIndex()];
+        List<Booking> arriving = new ArrayList<>();
+        for (Booking booking : sorted) {
+            long start = booking.getStartEpochMinute();
+            if (start >= now && start <= now + 30) {
+                arriving.add(booking);
+            }
+        }
+        return arriving;
+    }
+
+    /**
+     * Alternately move a booking and move it back, so the bookings stay the same over the run.
+     */
+    private Booking nextChange() {
+        int index = nextIndex();
+        isMoved[index] = !isMoved[index];
+        return isMoved[index] ? moved[index] : originals[index];
+    }
+
+    private int nextIndex() {
+        next = next + 1 < changes ? next + 1 : 0;
+        return next;
+    }
+}
@@ -0,0 +1,67 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting done for every bound row: one restaurant-day of bookings per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateFormatterBenchmark {
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(BenchmarkData.ONE_DAY);
+    }
+
+    @Benchmark
+    public void formatTimeFromString(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(DateFormatter.formatTime(booking.getDateTime()));
+        }
+    }
+
+    @Benchmark
+    public void formatTimeFromEpochMinute(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(DateFormatter.formatTime(booking.getStartEpochMinute()));
+        }
+    }
+
+    @Benchmark
+    public void formatDateFromString(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(DateFormatter.formatDate(booking.getDateTime()));
+        }
+    }
+
+    @Benchmark
+    public void formatDateFromEpochMinute(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(DateFormatter.formatDate(booking.getStartEpochMinute()));
+        }
+    }
+
+    @Benchmark
+    public void parseEpochMinute(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(DateFormatter.parseEpochMinute(booking.getDateTime()));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.api.DummyBookingProvider;
+import com.miun.restaurantbooking.model.Booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of a day of dummy bookings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DummyBookingProviderBenchmark {
+
+    @Benchmark
+    public List<Booking> getBookingsForDate() {
+        return DummyBookingProvider.getBookingsForDate("2025-11-27");
+    }
+}
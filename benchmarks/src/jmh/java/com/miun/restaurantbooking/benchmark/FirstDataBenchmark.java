@@ -0,0 +1,65 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.repository.BookingDiskCache;
+import com.miun.restaurantbooking.repository.StartupSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a day of bookings from the on-device caches, the first data a screen shows
+ * before the server has answered: the JSON disk cache, and the binary startup snapshot
+ * read on a cold start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstDataBenchmark {
+
+    private static final String DATE = BenchmarkData.FIRST_DATE.toString();
+
+    private File directory;
+    private BookingDiskCache diskCache;
+    private StartupSnapshot snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("first-data").toFile();
+        List<Booking> bookings = BenchmarkData.bookings(BenchmarkData.ONE_DAY);
+        diskCache = new BookingDiskCache(new File(directory, "bookings"));
+        diskCache.put(DATE, bookings);
+        snapshot = new StartupSnapshot(new File(directory, "startup-snapshot.bin"));
+        snapshot.write(DATE, bookings);
+    }
+
+    @TearDown
+    public void tearDown() {
+        diskCache.clear();
+        snapshot.clear();
+        new File(directory, "bookings").delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public List<Booking> readDiskCache() {
+        return diskCache.get(DATE);
+    }
+
+    @Benchmark
+    public List<Booking> readStartupSnapshot() {
+        return snapshot.read(DATE);
+    }
+}
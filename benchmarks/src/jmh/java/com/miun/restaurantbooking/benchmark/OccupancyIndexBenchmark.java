@@ -0,0 +1,125 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+import com.miun.restaurantbooking.repository.OccupancyIndex;
+import com.miun.restaurantbooking.util.DateFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability lookups for 200 tables with 96 daily slots over a year, answered by the
+ * occupancy index and, for comparison, by scanning the flat booking list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OccupancyIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    private List<Booking> bookings;
+    private OccupancyIndex index;
+    private final long[] queryTimes = new long[QUERIES];
+    private final int[] queryGuests = new int[QUERIES];
+    private final int[] queryTables = new int[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.tableBookings(BenchmarkData.TABLES, BenchmarkData.DAYS);
+        index = buildIndex();
+
+        Random random = new Random(7);
+        long firstDay = DateFormatter.parseEpochMinute("2025-01-01T00:00:00");
+        for (int i = 0; i < QUERIES; i++) {
+            int slot = 44 + random.nextInt(44);
+            queryTimes[i] = firstDay + random.nextInt(BenchmarkData.DAYS) * 1440L + slot * 15L;
+            queryGuests[i] = 1 + random.nextInt(8);
+            queryTables[i] = 1 + random.nextInt(BenchmarkData.TABLES);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public OccupancyIndex buildYear() {
+        return buildIndex();
+    }
+
+    @Benchmark
+    public int[] freeTables() {
+        int query = nextQuery();
+        return index.getFreeTables(queryTimes[query], queryGuests[query]);
+    }
+
+    @Benchmark
+    public int[] freeTablesLinearScan() {
+        int query = nextQuery();
+        long start = queryTimes[query];
+        long duration = OccupancyIndex.DEFAULT_DURATION_MINUTES;
+        boolean[] blocked = new boolean[BenchmarkData.TABLES + 1];
+        for (Booking booking : bookings) {
+            long other = booking.getStartEpochMinute();
+            if (other < start + duration && start < other + duration) {
+                blocked[booking.getTableNumber()] = true;
+            }
+        }
+        int[] free = new int[BenchmarkData.TABLES];
+        int count = 0;
+        for (int table = 1; table <= BenchmarkData.TABLES; table++) {
+            if (!blocked[table] && capacity(table) >= queryGuests[query]) {
+                free[count++] = table;
+            }
+        }
+        return Arrays.copyOf(free, count);
+    }
+
+    @Benchmark
+    public long nextAvailableSlot() {
+        int query = nextQuery();
+        return index.nextAvailableSlot(queryTables[query], queryTimes[query], 12 * 60);
+    }
+
+    @Benchmark
+    public List<Long> conflicts() {
+        int query = nextQuery();
+        return index.getConflicts(queryTables[query], queryTimes[query]);
+    }
+
+    @Benchmark
+    public boolean moveBooking() {
+        Booking booking = bookings.get(nextQuery() * 97 % bookings.size());
+        booking.setTableNumber(booking.getTableNumber() % BenchmarkData.TABLES + 1);
+        return index.put(booking);
+    }
+
+    private OccupancyIndex buildIndex() {
+        OccupancyIndex built = new OccupancyIndex();
+        for (int table = 1; table <= BenchmarkData.TABLES; table++) {
+            built.setTableCapacity(table, capacity(table));
+        }
+        for (Booking booking : bookings) {
+            built.put(booking);
+        }
+        return built;
+    }
+
+    private static int capacity(int table) {
+        return 2 + table % 4 * 2;
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+}
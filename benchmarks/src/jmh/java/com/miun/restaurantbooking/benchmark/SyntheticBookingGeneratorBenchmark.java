@@ -0,0 +1,33 @@
+package com.miun.restaurantbooking.benchmark;
+
+import com.miun.restaurantbooking.model.Booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation of a busy day at one venue, and of a year at five venues streamed without keeping the bookings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyntheticBookingGeneratorBenchmark {
+
+    @Benchmark
+    public List<Booking> generateDay() {
+        return BenchmarkData.VENUES.getBookings(0, "2025-11-27");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long streamYearFiveVenues() {
+        AtomicLong guests = new AtomicLong();
+        BenchmarkData.VENUES.forEach("2025-01-01", "2025-12-31", booking -> guests.addAndGet(booking.getNumberOfGuests()));
+        return guests.get();
+    }
+}